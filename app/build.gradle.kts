@@ -10,6 +10,8 @@
 plugins {
     // Apply the application plugin to add support for building a CLI application in Java.
     application
+    // JMH micro-benchmarks (src/jmh/java), run with `./gradlew jmh`.
+    id("me.champeau.jmh") version "0.6.8"
 }
 
 repositories {
@@ -37,6 +39,9 @@ testing {
 application {
     // Define the main class for the application.
     mainClass.set("fr.snapgames.demo.gdemoapp.App")
+    // the Vector API is needed by the vector physic kernel (app.physic.kernel=vector),
+    // and the virtual threads of the SessionScheduler are a preview API in Java 19.
+    applicationDefaultJvmArgs = listOf("--add-modules", "jdk.incubator.vector", "--enable-preview")
 
 }
 java {
@@ -45,4 +50,30 @@ java {
     }
 }
 
+tasks.withType<JavaCompile> {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+tasks.withType<Test> {
+    jvmArgs("--add-modules", "jdk.incubator.vector", "--enable-preview")
+}
+
+jmh {
+    jvmArgs.addAll("--add-modules", "jdk.incubator.vector", "--enable-preview")
+}
+
+// Pre-decode all the resource images into the memory-mapped asset pack loaded at startup
+// (app.assets.pack), run with `./gradlew assetPack`.
+val assetPack by tasks.registering(JavaExec::class) {
+    group = "build"
+    description = "Build the asset pack of pre-decoded images."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("fr.snapgames.demo.core.io.AssetPackBuilder")
+    jvmArgs("-Djava.awt.headless=true")
+    val pack = layout.buildDirectory.file("assets/game101.pack")
+    args(pack.get().asFile.path, file("src/main/resources").path)
+    inputs.dir("src/main/resources/images")
+    outputs.file(pack)
+}
+
 version = "0.1.3"
@@ -0,0 +1,74 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Rng;
+import fr.snapgames.demo.core.math.Vector2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the {@link ScalarBodyKernel} and the <code>VectorBodyKernel</code> on the same bodies.
+ * <p>
+ * Run with <code>./gradlew jmh</code>.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyKernelBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int bodyCount;
+
+    private final World world = new World();
+    private final BodyBuffer bodies = new BodyBuffer();
+    private BodyKernel scalar;
+    private BodyKernel vector;
+
+    @Setup
+    public void setup() {
+        world.playArea.setRect(0, 0, 2000, 2000);
+        Rng rng = new Rng(42L);
+        List<Entity<?>> entities = new ArrayList<>();
+        for (int i = 0; i < bodyCount; i++) {
+            GameObject go = new GameObject("body_" + i);
+            go.setPosition(rng.nextDouble(0, 1990), rng.nextDouble(0, 1990)).setSize(8, 8).setMass(rng.nextDouble(1, 10));
+            go.addForce(new Vector2D(rng.nextDouble(-100, 100), rng.nextDouble(-100, 100)));
+            entities.add(go);
+        }
+        bodies.load(entities, world);
+        scalar = BodyKernel.create("scalar");
+        vector = BodyKernel.create("vector");
+    }
+
+    @Benchmark
+    public double scalarKernel() {
+        scalar.integrate(bodies, world, 16.0 * PhysicEngine.TIME_FACTOR);
+        return bodies.getMoveX(0);
+    }
+
+    @Benchmark
+    public double vectorKernel() {
+        vector.integrate(bodies, world, 16.0 * PhysicEngine.TIME_FACTOR);
+        return bodies.getMoveX(0);
+    }
+}
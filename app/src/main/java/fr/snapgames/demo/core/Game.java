@@ -4,7 +4,9 @@ import fr.snapgames.demo.core.configuration.Configuration;
 import fr.snapgames.demo.core.entity.EntityManager;
 import fr.snapgames.demo.core.gfx.Renderer;
 import fr.snapgames.demo.core.gfx.Window;
+import fr.snapgames.demo.core.io.AssetPack;
 import fr.snapgames.demo.core.io.InputHandler;
+import fr.snapgames.demo.core.math.Rng;
 import fr.snapgames.demo.core.physic.PhysicEngine;
 import fr.snapgames.demo.core.scene.SceneManager;
 
@@ -87,8 +89,8 @@ public interface Game {
 
         while (!isExitRequested()) {
             currentTime = System.nanoTime() / 1000000.0;
+            elapsed = syncFrame(currentTime - previousTime);
             input(this);
-            elapsed = currentTime - previousTime;
             if (!isPaused()) {
                 update(this, renderingAttributes, elapsed);
                 gameTime += elapsed;
@@ -114,6 +116,18 @@ public interface Game {
         }
     }
 
+    /**
+     * Synchronize the new frame with the input devices, before {@link Game#input(Game)} is called.
+     * The default implementation keeps the measured elapsed time, while an implementation replaying a recorded
+     * session may return the recorded one.
+     *
+     * @param elapsed the measured elapsed time since previous frame.
+     * @return the elapsed time to be used for this frame.
+     */
+    default double syncFrame(double elapsed) {
+        return elapsed;
+    }
+
     /**
      * Load resources for the scene before {@link Game#create()}
      */
@@ -124,6 +138,9 @@ public interface Game {
 
     /**
      * a waiting operation to match the getTargetFPS() value.
+     * <p>
+     * On a virtual thread (see {@link fr.snapgames.demo.core.session.SessionScheduler}), the sleep parks the thread
+     * and releases its carrier thread.
      *
      * @param elapsed the elapsed time since previous call.
      */
@@ -134,6 +151,7 @@ public interface Game {
             Thread.sleep(wait);
         } catch (InterruptedException ie) {
             System.err.println("error while trying to wait for sometime");
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -191,6 +209,19 @@ public interface Game {
 
     void resetScene();
 
+    /**
+     * Save a checkpoint of the current {@link PhysicEngine} world and of all the entities, as a binary snapshot
+     * (see {@link fr.snapgames.demo.core.io.SnapshotWriter}).
+     */
+    void saveCheckpoint();
+
+    /**
+     * Restore the world and the entities from the last saved checkpoint, without recreating the Scene.
+     *
+     * @return true if a checkpoint has been restored.
+     */
+    boolean restoreCheckpoint();
+
     /**
      * Return status ofr exit request:
      * <ul>
@@ -279,6 +310,21 @@ public interface Game {
      */
     InputHandler getInputHandler();
 
+    /**
+     * Retrieve the {@link AssetPack} providing the pre-decoded images for the {@link Game}.
+     *
+     * @return an {@link AssetPack} instance, or null if no asset pack is available.
+     */
+    AssetPack getAssetPack();
+
+    /**
+     * Retrieve the root {@link Rng} random generator for the {@link Game}, seeded with the session seed.
+     * Subsystems must request their own instance through {@link Rng#forSubsystem(String)}.
+     *
+     * @return the root {@link Rng} instance.
+     */
+    Rng getRng();
+
     /**
      * Retrieve the {@link SceneManager} instance for the {@link Game}.
      *
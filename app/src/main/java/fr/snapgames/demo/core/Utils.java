@@ -69,4 +69,60 @@ public class Utils {
                 Double.parseDouble(interpretedValue[1]));
         return convertedValue;
     }
+
+    /**
+     * Append the value with a fixed number of decimals to the {@link StringBuilder}, like a "%.nf" format would do,
+     * but without any intermediate String allocation.
+     *
+     * @param sb       the {@link StringBuilder} to append the value to.
+     * @param value    the value to be appended.
+     * @param decimals the number of decimals (from 0 to 9).
+     * @return the updated {@link StringBuilder}.
+     * @since 0.1.4
+     */
+    public static StringBuilder appendFixed(StringBuilder sb, double value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) * scale >= Long.MAX_VALUE) {
+            return sb.append(value);
+        }
+        long r = Math.round(Math.abs(value) * scale);
+        if (value < 0 && r != 0) {
+            sb.append('-');
+        }
+        sb.append(r / scale);
+        if (decimals > 0) {
+            sb.append('.');
+            appendPadded(sb, r % scale, decimals);
+        }
+        return sb;
+    }
+
+    /**
+     * Append the value padded with leading zeros to the {@link StringBuilder}, like a "%0nd" format would do,
+     * but without any intermediate String allocation.
+     *
+     * @param sb    the {@link StringBuilder} to append the value to.
+     * @param value the value to be appended.
+     * @param width the minimum number of digits.
+     * @return the updated {@link StringBuilder}.
+     * @since 0.1.4
+     */
+    public static StringBuilder appendPadded(StringBuilder sb, long value, int width) {
+        if (value < 0) {
+            sb.append('-');
+            value = -value;
+            width--;
+        }
+        long limit = 1;
+        for (int i = 1; i < width; i++) {
+            limit *= 10;
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+        return sb.append(value);
+    }
 }
@@ -1,8 +1,9 @@
 package fr.snapgames.demo.core.entity;
 
+import fr.snapgames.demo.core.Utils;
+
 import java.awt.geom.Rectangle2D;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Optional;
 
 /**
  * Camera object to make the rendering viewport follow a defined {@link GameObject} `target`
@@ -25,6 +26,15 @@ public class Camera extends GameObject {
         return this;
     }
 
+    /**
+     * Retrieve the viewport of this {@link Camera}.
+     *
+     * @return the viewport {@link Rectangle2D}.
+     */
+    public Rectangle2D getViewport() {
+        return viewport;
+    }
+
     public Camera setTween(double t) {
         this.tween = t;
         return this;
@@ -47,14 +57,12 @@ public class Camera extends GameObject {
     }
 
     @Override
-    public List<String> getDebugInfo() {
-        List<String> info = new ArrayList<>();
-        info.add(String.format("(1)id:%04d", this.id));
-        info.add(String.format("(1)name:%s", this.name));
-        info.add(String.format("(1)pos:%s", position));
-        info.add(String.format("(2)tgt:%s", this.target.name));
-        info.add(String.format("(2)twn:%f", this.tween));
-        return info;
+    protected void createDebugInfo(DebugInfo info) {
+        info.add(1, "id", sb -> Utils.appendPadded(sb, id, 4))
+                .add(1, "name", sb -> sb.append(name))
+                .add(1, "pos", sb -> position.appendTo(sb))
+                .add(2, "tgt", () -> Optional.ofNullable(target).isPresent(), sb -> sb.append(target.name))
+                .add(2, "twn", sb -> Utils.appendFixed(sb, tween, 6));
     }
 }
 
@@ -0,0 +1,148 @@
+package fr.snapgames.demo.core.entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link DebugInfo} is the structured list of debug information of an {@link Entity}.
+ * <p>
+ * Each entry is defined once with a debug level, a key and a {@link ValueProducer} appending the current
+ * value to a {@link StringBuilder}. So the {@link fr.snapgames.demo.core.gfx.Renderer} can filter the entries on
+ * their level and read their values at each frame without any String formatting nor parsing.
+ * <p>
+ * eg. usage :
+ *
+ * <pre>
+ *     info.add(1, "name", sb -> sb.append(name))
+ *         .add(2, "pos", sb -> position.appendTo(sb))
+ *         .add(2, "mat", () -> Optional.ofNullable(material).isPresent(), sb -> material.appendTo(sb));
+ * </pre>
+ * An entry with the level 0 is always displayed.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class DebugInfo {
+
+    /**
+     * The producer of a debug information value.
+     */
+    @FunctionalInterface
+    public interface ValueProducer {
+        /**
+         * Append the current value to the {@link StringBuilder}.
+         *
+         * @param sb the {@link StringBuilder} to append the value to.
+         */
+        void append(StringBuilder sb);
+    }
+
+    private int[] levels = new int[8];
+    private String[] keys = new String[8];
+    private ValueProducer[] producers = new ValueProducer[8];
+    private BooleanSupplier[] conditions = new BooleanSupplier[8];
+    private int count;
+
+    /**
+     * Add a new debug information entry.
+     *
+     * @param level    the minimum debug level to display this entry.
+     * @param key      the key displayed before the value.
+     * @param producer the {@link ValueProducer} for the value.
+     * @return the updated {@link DebugInfo} (Fluent API).
+     */
+    public DebugInfo add(int level, String key, ValueProducer producer) {
+        return add(level, key, null, producer);
+    }
+
+    /**
+     * Add a new debug information entry, displayed only if its condition is true.
+     *
+     * @param level     the minimum debug level to display this entry.
+     * @param key       the key displayed before the value.
+     * @param condition the condition to display this entry (null means always).
+     * @param producer  the {@link ValueProducer} for the value.
+     * @return the updated {@link DebugInfo} (Fluent API).
+     */
+    public DebugInfo add(int level, String key, BooleanSupplier condition, ValueProducer producer) {
+        if (count == levels.length) {
+            levels = Arrays.copyOf(levels, count * 2);
+            keys = Arrays.copyOf(keys, count * 2);
+            producers = Arrays.copyOf(producers, count * 2);
+            conditions = Arrays.copyOf(conditions, count * 2);
+        }
+        levels[count] = level;
+        keys[count] = key;
+        producers[count] = producer;
+        conditions[count] = condition;
+        count++;
+        return this;
+    }
+
+    /**
+     * Return the number of entries.
+     *
+     * @return the number of debug information entries.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Return the debug level of the i-th entry.
+     *
+     * @param i the entry index.
+     * @return the minimum debug level to display this entry.
+     */
+    public int getLevel(int i) {
+        return levels[i];
+    }
+
+    /**
+     * Return the key of the i-th entry.
+     *
+     * @param i the entry index.
+     * @return the entry key.
+     */
+    public String getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Append the "key:value" text of the i-th entry to the {@link StringBuilder}.
+     *
+     * @param i  the entry index.
+     * @param sb the {@link StringBuilder} to append the entry to.
+     * @return false if the entry has no value to display, else true.
+     */
+    public boolean appendEntry(int i, StringBuilder sb) {
+        if (conditions[i] != null && !conditions[i].getAsBoolean()) {
+            return false;
+        }
+        sb.append(keys[i]).append(':');
+        producers[i].append(sb);
+        return true;
+    }
+
+    /**
+     * Build the list of the entries as "(level)key:value" strings (or "key:value" for level 0 entries).
+     *
+     * @return a list of String.
+     */
+    public List<String> toList() {
+        List<String> infos = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            if (levels[i] > 0) {
+                sb.append('(').append(levels[i]).append(')');
+            }
+            if (appendEntry(i, sb)) {
+                infos.add(sb.toString());
+            }
+        }
+        return infos;
+    }
+}
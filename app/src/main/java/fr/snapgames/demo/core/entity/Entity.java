@@ -1,6 +1,7 @@
 package fr.snapgames.demo.core.entity;
 
 import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.Integrator;
 import fr.snapgames.demo.core.physic.Material;
 import fr.snapgames.demo.core.physic.PhysicType;
 import org.checkerframework.checker.units.qual.Acceleration;
@@ -10,6 +11,7 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * An Entity is a minimum game object to be managed by the Game on its moves and its display.
@@ -21,9 +23,23 @@ import java.util.List;
  */
 public class Entity<T> {
 
-    private static int index = 1;
-    public int id = index++;
-    public String name = "entity_" + String.format("entity_%03d", id);
+    /**
+     * Identifier, unique in the {@link EntityManager} the entity is registered to (0 until registered,
+     * see {@link EntityManager#register(Entity)}). No static counter is shared between the managers, so that
+     * many independent worlds can live in the same JVM.
+     */
+    public int id;
+    /**
+     * Name of the {@link Entity}, unique in its {@link EntityManager}. An unnamed {@link Entity} is named
+     * <code>entity_000</code> until its registration, which renames it after its id (e.g. <code>entity_001</code>),
+     * so the default names are the same from one run to the next.
+     */
+    public String name = defaultName();
+    /**
+     * An optional tag shared by a family of entities (e.g. "enemy", "coin"), to subscribe to their contact events
+     * (see {@link fr.snapgames.demo.core.physic.ContactDispatcher}).
+     */
+    public String tag;
 
     // debug level
     public int debug;
@@ -50,6 +66,15 @@ public class Entity<T> {
      */
     public Vector2D acceleration = new Vector2D();
     ;
+    /**
+     * Previous position, set by the Verlet integrators (null until the first step, or after a
+     * {@link Entity#setPosition(double, double)}, which restarts the integration).
+     */
+    public Vector2D oldPosition;
+    /**
+     * The {@link Integrator} moving this {@link Entity} (null to use the {@link fr.snapgames.demo.core.physic.World} one).
+     */
+    public Integrator integrator;
 
     /**
      * Mass for that entity.
@@ -75,6 +100,11 @@ public class Entity<T> {
      * </ul>
      */
     public int contact;
+    /**
+     * Define if this {@link Entity} is a trigger volume: it never stops the other entities, but notifies them
+     * entering, staying in and exiting its area (see {@link fr.snapgames.demo.core.physic.ContactDispatcher}).
+     */
+    private boolean trigger = false;
 
     /**
      * The bounding box for that entity.
@@ -105,6 +135,27 @@ public class Entity<T> {
      */
     private boolean stickToCamera = false;
     private boolean active = true;
+    /**
+     * Define if the object never changes its look, and can be rendered once into a cached image.
+     */
+    private boolean staticLayer = false;
+    /**
+     * The structured debug information, created on first use.
+     */
+    private DebugInfo debugInfo;
+
+    /**
+     * The {@link SpatialIndex} node currently holding this {@link Entity} (null if not indexed).
+     */
+    SpatialIndex.Node spatialNode;
+    /**
+     * The slot of this {@link Entity} in its {@link SpatialIndex} node.
+     */
+    int spatialSlot = -1;
+    /**
+     * The {@link EntityManager} holding this {@link Entity} (null if not added), to be notified of its moves.
+     */
+    EntityManager manager;
 
     public Entity() {
         this.mass = 1.0;
@@ -137,6 +188,8 @@ public class Entity<T> {
      */
     public Entity<T> setPosition(double x, double y) {
         this.position = new Vector2D(x, y);
+        this.oldPosition = null;
+        moved();
         return this;
     }
 
@@ -174,9 +227,19 @@ public class Entity<T> {
 
     public Entity<T> setSize(double w, double h) {
         this.size = new Vector2D(w, h);
+        moved();
         return this;
     }
 
+    /**
+     * Relocate this {@link Entity} in the {@link SpatialIndex} of its {@link EntityManager} after a move or a resize.
+     */
+    private void moved() {
+        if (Optional.ofNullable(manager).isPresent()) {
+            manager.update(this);
+        }
+    }
+
     /**
      * Set the {@link Entity} draw border color
      *
@@ -243,6 +306,17 @@ public class Entity<T> {
         return this;
     }
 
+    /**
+     * Define the {@link Integrator} moving this {@link Entity} in a fluent API.
+     *
+     * @param integrator the {@link Integrator} to be used (null to use the World one).
+     * @return the updated {@link Entity}.
+     */
+    public Entity<T> setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+        return this;
+    }
+
     /**
      * Set the active flag for this {@link Entity}
      *
@@ -274,21 +348,41 @@ public class Entity<T> {
         return name;
     }
 
+    /**
+     * Retrieve the structured debug information of this {@link Entity}, created at first call
+     * by {@link Entity#createDebugInfo(DebugInfo)}.
+     *
+     * @return the {@link DebugInfo} instance for this {@link Entity}.
+     */
+    public DebugInfo getDebugEntries() {
+        if (!Optional.ofNullable(debugInfo).isPresent()) {
+            debugInfo = new DebugInfo();
+            createDebugInfo(debugInfo);
+        }
+        return debugInfo;
+    }
+
+    /**
+     * Define the debug information entries for this {@link Entity}. Values are read by the producers at display time.
+     *
+     * @param info the {@link DebugInfo} to be populated.
+     */
+    protected void createDebugInfo(DebugInfo info) {
+        info.add(0, "name", sb -> sb.append(name))
+                .add(0, "pos", sb -> position.appendTo(sb))
+                .add(0, "size", sb -> size.appendTo(sb))
+                .add(0, "spd", sb -> velocity.appendTo(sb))
+                .add(0, "acc", sb -> acceleration.appendTo(sb))
+                .add(0, "mat", () -> Optional.ofNullable(material).isPresent(), sb -> material.appendTo(sb));
+    }
+
     /**
      * Prepare debug information for the new debug display.
      *
      * @return a list of String containing debug {@link Entity}'s attributes information
      */
     public List<String> getDebugInfo() {
-        List<String> infos = new ArrayList<>();
-        infos.add(String.format("name:%s", name));
-        infos.add(String.format("pos:%s", position));
-        infos.add(String.format("size:%s", size));
-        infos.add(String.format("spd:%s", velocity));
-        infos.add(String.format("acc:%s", acceleration));
-        infos.add(String.format("mat:%s", material));
-
-        return infos;
+        return getDebugEntries().toList();
     }
 
     /**
@@ -340,6 +434,16 @@ public class Entity<T> {
         return this;
     }
 
+    /**
+     * The default name of an unnamed {@link Entity}, based on its current id (<code>entity_000</code> until its
+     * registration into an {@link EntityManager}).
+     *
+     * @return the default name for this instance.
+     */
+    String defaultName() {
+        return String.format("entity_%03d", id);
+    }
+
     /**
      * Return true if this {@link Entity} instance must be stick to the {@link Camera} viewport.
      *
@@ -349,6 +453,80 @@ public class Entity<T> {
         return !stickToCamera;
     }
 
+    /**
+     * Define if this {@link Entity} must stick to the {@link Camera} viewport.
+     *
+     * @param stickToCamera true to stick this {@link Entity} to the {@link Camera} viewport.
+     * @return the updated {@link Entity}.
+     */
+    public Entity<T> setStickToCamera(boolean stickToCamera) {
+        this.stickToCamera = stickToCamera;
+        return this;
+    }
+
+    /**
+     * Define the tag of this {@link Entity}.
+     *
+     * @param tag the tag shared by a family of entities.
+     * @return the updated {@link Entity}.
+     */
+    public Entity<T> setTag(String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    /**
+     * Define if this {@link Entity} is a trigger volume.
+     *
+     * @param trigger true to make this {@link Entity} a trigger volume.
+     * @return the updated {@link Entity}.
+     */
+    public Entity<T> setTrigger(boolean trigger) {
+        this.trigger = trigger;
+        return this;
+    }
+
+    /**
+     * Return true if this {@link Entity} is a trigger volume.
+     *
+     * @return true for a trigger volume.
+     */
+    public boolean isTrigger() {
+        return trigger;
+    }
+
+    /**
+     * Set the static layer flag for this {@link Entity}: a static layer {@link Entity} is rendered once into
+     * a cached image by the {@link fr.snapgames.demo.core.gfx.Renderer}, and this image is then drawn at each frame.
+     * The cached image is rendered again only when the {@link Entity#createRenderingKey(RenderingKey)} changes.
+     *
+     * @param staticLayer true if this {@link Entity} must be cached as a static layer.
+     * @return the updated {@link Entity}.
+     */
+    public Entity<T> setStaticLayer(boolean staticLayer) {
+        this.staticLayer = staticLayer;
+        return this;
+    }
+
+    /**
+     * Return true if this {@link Entity} is rendered through the static layer cache.
+     *
+     * @return true if this is a static layer {@link Entity}.
+     */
+    public boolean isStaticLayer() {
+        return staticLayer;
+    }
+
+    /**
+     * Populate the key with all the attributes having an impact on the look of this {@link Entity}
+     * (but not its position). Any change of this key invalidates the static layer cached image.
+     *
+     * @param key the {@link RenderingKey} to be populated.
+     */
+    public void createRenderingKey(RenderingKey key) {
+        key.add(getClass()).add(size.x).add(size.y).add(fillColor).add(borderColor);
+    }
+
     public boolean isActive() {
         return active;
     }
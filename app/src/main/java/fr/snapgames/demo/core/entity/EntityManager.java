@@ -1,8 +1,16 @@
 package fr.snapgames.demo.core.entity;
 
+import fr.snapgames.demo.core.particle.ParticleEmitter;
+import fr.snapgames.demo.core.physic.PhysicType;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@link EntityManager} will hold all the {@link Entity} in a central map.
@@ -15,6 +23,22 @@ public class EntityManager {
      * internal map of handled {@link Entity}.
      */
     Map<String, Entity<?>> entities = new ConcurrentHashMap<>();
+    /**
+     * The spatial index of all the handled {@link Entity}.
+     */
+    private final SpatialIndex spatialIndex = new SpatialIndex();
+    /**
+     * The next {@link Entity#id} to be given, own to this manager.
+     */
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    /**
+     * The version of the {@link PhysicType#STATIC} entities, changed each time one of them is added, removed or moved.
+     */
+    private final AtomicInteger staticVersion = new AtomicInteger();
+    /**
+     * The handled {@link ParticleEmitter}, tracked when added to be updated without scanning all the entities.
+     */
+    private final List<ParticleEmitter> emitters = new ArrayList<>();
 
     /**
      * Create the Entity Manager.
@@ -33,16 +57,135 @@ public class EntityManager {
     }
 
     /**
-     * Add an {@link Entity} to the Manager's internal Map.
+     * Give an {@link Entity#id} to the {@link Entity} if it does not have one yet, and replace its temporary
+     * default name by a name based on this id. An {@link Entity} already having an id (e.g. restored from a snapshot)
+     * keeps it, and the next given ids follow it.
+     *
+     * @param e   the entity to be registered.
+     * @param <E> the type of the entity.
+     * @return the registered entity.
+     */
+    public <E extends Entity<?>> E register(E e) {
+        if (e.id == 0) {
+            boolean unnamed = e.name.equals(e.defaultName());
+            e.id = nextId.getAndIncrement();
+            if (unnamed) {
+                e.name = e.defaultName();
+            }
+        } else {
+            nextId.accumulateAndGet(e.id + 1, Math::max);
+        }
+        return e;
+    }
+
+    /**
+     * Add an {@link Entity} to the Manager's internal Map (the entity is registered first,
+     * see {@link EntityManager#register(Entity)}).
      *
      * @param e the entity to be added.
      */
     public void add(Entity<?> e) {
-        entities.put(e.getName(), e);
+        register(e);
+        Entity<?> previous = entities.put(e.getName(), e);
+        if (Optional.ofNullable(previous).isPresent() && previous != e) {
+            spatialIndex.remove(previous);
+            previous.manager = null;
+            staticChanged(previous);
+            emitters.remove(previous);
+        }
+        e.manager = this;
+        spatialIndex.insert(e);
+        if (e instanceof ParticleEmitter && previous != e) {
+            emitters.add((ParticleEmitter) e);
+        }
+        staticChanged(e);
+    }
+
+    /**
+     * Remove an {@link Entity} from the Manager's internal Map and from the {@link SpatialIndex}.
+     *
+     * @param e the entity to be removed.
+     */
+    public void remove(Entity<?> e) {
+        if (entities.remove(e.getName(), e)) {
+            staticChanged(e);
+            e.manager = null;
+            emitters.remove(e);
+        }
+        spatialIndex.remove(e);
+    }
+
+    /**
+     * Relocate a moved or resized {@link Entity} into the {@link SpatialIndex}.
+     * <p>
+     * {@link Entity#setPosition(double, double)} and {@link Entity#setSize(double, double)} already call it: it must
+     * only be called after a direct change of the {@link Entity#position} or {@link Entity#size} values.
+     *
+     * @param e the entity that has been moved.
+     */
+    public void update(Entity<?> e) {
+        spatialIndex.update(e);
+        staticChanged(e);
+    }
+
+    private void staticChanged(Entity<?> e) {
+        if (PhysicType.STATIC.equals(e.physicType)) {
+            staticVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Notify that the {@link PhysicType#STATIC} entities changed in another way than being added, removed or moved
+     * (e.g. an {@link Entity} changed its {@link PhysicType}).
+     */
+    public void invalidateStatic() {
+        staticVersion.incrementAndGet();
+    }
+
+    /**
+     * Retrieve the version of the {@link PhysicType#STATIC} entities, changed each time one of them is added,
+     * removed or moved (see {@link fr.snapgames.demo.core.physic.StaticColliderGrid}).
+     *
+     * @return the current static entities version.
+     */
+    public int getStaticVersion() {
+        return staticVersion.get();
+    }
+
+    /**
+     * Define the area covered by the {@link SpatialIndex}, usually the play area of the
+     * {@link fr.snapgames.demo.core.physic.World}.
+     *
+     * @param bounds the area to be indexed.
+     */
+    public void setIndexBounds(Rectangle2D bounds) {
+        spatialIndex.setBounds(bounds);
+    }
+
+    /**
+     * Return the {@link SpatialIndex} of the handled {@link Entity}, to be used for area queries
+     * (rendering culling, collision broad phase, picking).
+     *
+     * @return the {@link SpatialIndex} instance.
+     */
+    public SpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Return the handled {@link ParticleEmitter}, in their adding order.
+     *
+     * @return the list of the {@link ParticleEmitter} (not to be modified).
+     */
+    public List<ParticleEmitter> getEmitters() {
+        return emitters;
     }
 
     /**
      * Return the full Map of entities.
+     * <p>
+     * <em>NOTE</em> Entities must be removed through {@link EntityManager#remove(Entity)} to keep
+     * the {@link SpatialIndex} up to date.
      *
      * @return the map of all handled entities.
      */
@@ -63,6 +206,10 @@ public class EntityManager {
      * Reset entities list for the active scenes.
      */
     public void reset() {
+        entities.values().forEach(e -> e.manager = null);
         entities.clear();
+        emitters.clear();
+        spatialIndex.clear();
+        staticVersion.incrementAndGet();
     }
 }
@@ -1,10 +1,10 @@
 package fr.snapgames.demo.core.entity;
 
+import fr.snapgames.demo.core.Utils;
+
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,6 +27,11 @@ public class GameObject extends Entity<GameObject> {
      * the possible image instance if type is set to BufferedImage.
      */
     public BufferedImage image;
+    /**
+     * The key identifying the image (null if unknown), to retrieve it when the {@link GameObject} is restored
+     * from a snapshot (see {@link fr.snapgames.demo.core.io.SnapshotReader}).
+     */
+    public String imageKey;
 
     /**
      * Create a brand new {@link GameObject} instance with only default values.
@@ -79,27 +84,29 @@ public class GameObject extends Entity<GameObject> {
         }
     }
 
+    @Override
+    public void createRenderingKey(RenderingKey key) {
+        super.createRenderingKey(key);
+        key.add(type).add(direction < 0).addIdentity(image);
+    }
+
     /**
      * Prepare debug info to be displayed on debug mode.
      *
-     * @return a list of string for debug info.
+     * @param info the {@link DebugInfo} to be populated.
      */
-    public List<String> getDebugInfo() {
-        List<String> infos = new ArrayList<>();
-        infos.add(String.format("(1)id:%04d", this.id));
-        infos.add(String.format("(1)name:%s", this.name));
-        infos.add(String.format("(1)type:%s", type.toString()));
-        infos.add(String.format("(2)pos:%s", position));
-        infos.add(String.format("(2)size:%s", size));
-        infos.add(String.format("(2)d:%s", direction < 0 ? "L" : "R"));
-        infos.add(String.format("(3)spd:%s", velocity));
-        infos.add(String.format("(3)acc:%s", acceleration));
-        infos.add(String.format("(4)l:%d p:%d", getLayer(), getPriority()));
-        if (Optional.ofNullable(material).isPresent()) {
-            infos.add(String.format("(4)mat:%s", material));
-        }
-
-        return infos;
+    @Override
+    protected void createDebugInfo(DebugInfo info) {
+        info.add(1, "id", sb -> Utils.appendPadded(sb, id, 4))
+                .add(1, "name", sb -> sb.append(name))
+                .add(1, "type", sb -> sb.append(type))
+                .add(2, "pos", sb -> position.appendTo(sb))
+                .add(2, "size", sb -> size.appendTo(sb))
+                .add(2, "d", sb -> sb.append(direction < 0 ? "L" : "R"))
+                .add(3, "spd", sb -> velocity.appendTo(sb))
+                .add(3, "acc", sb -> acceleration.appendTo(sb))
+                .add(4, "l", sb -> sb.append(getLayer()).append(" p:").append(getPriority()))
+                .add(4, "mat", () -> Optional.ofNullable(material).isPresent(), sb -> material.appendTo(sb));
     }
 
     /**
@@ -116,6 +123,18 @@ public class GameObject extends Entity<GameObject> {
         return this;
     }
 
+    /**
+     * Set the image for this GameObject, with the key identifying it.
+     *
+     * @param key   the key identifying the image.
+     * @param image the new image to set as GameObject image.
+     * @return the updated GameObject thanks to fluent API.
+     */
+    public GameObject setImage(String key, BufferedImage image) {
+        this.imageKey = key;
+        return setImage(image);
+    }
+
     /**
      * Set the {@link Entity} direction (-1 (left)  to 1 (right))
      *
@@ -1,6 +1,7 @@
 package fr.snapgames.demo.core.entity;
 
 import java.awt.*;
+import java.util.Optional;
 
 /**
  * The GridObject is only exits to help debug and develop.
@@ -15,8 +16,14 @@ public class GridObject extends GameObject {
     private float[] dash = {0.2f, 0.6f, 0.0f};
     private BasicStroke stroke;
 
+    /**
+     * Create a new {@link GridObject}. As a grid never changes, it is rendered through the static layer cache.
+     *
+     * @param name the name for this new {@link GridObject}.
+     */
     public GridObject(String name) {
         super(name);
+        setStaticLayer(true);
     }
 
     public double getStepX() {
@@ -49,4 +56,15 @@ public class GridObject extends GameObject {
     public Stroke getStroke() {
         return stroke;
     }
+
+    @Override
+    public void createRenderingKey(RenderingKey key) {
+        super.createRenderingKey(key);
+        key.add(stepX).add(stepY).add(Optional.ofNullable(stroke).isPresent());
+        if (Optional.ofNullable(dash).isPresent()) {
+            for (float d : dash) {
+                key.add(d);
+            }
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package fr.snapgames.demo.core.entity;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link RenderingKey} is the list of all the attributes having an impact on the look of an {@link Entity}
+ * (but not its position), populated by {@link Entity#createRenderingKey(RenderingKey)}.
+ * <p>
+ * The primitive values are stored as <code>long</code> bits and the objects as references, without any boxing,
+ * and the hash is computed while adding them. Two keys match only if their hash and all their stored values are
+ * the same, so a hash collision never reuses a stale cached rendering.
+ * <p>
+ * eg. usage :
+ *
+ * <pre>
+ *     key.add(size.x).add(size.y).add(fillColor).addIdentity(image);
+ * </pre>
+ * A key is reused from frame to frame: it only grows when an {@link Entity} stores more values than ever.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderingKey {
+
+    private long[] values = new long[16];
+    private Object[] objects = new Object[8];
+    private boolean[] identities = new boolean[8];
+    private int valueCount;
+    private int objectCount;
+    private int hash = 1;
+
+    /**
+     * Remove all the stored values.
+     *
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey clear() {
+        Arrays.fill(objects, 0, objectCount, null);
+        valueCount = 0;
+        objectCount = 0;
+        hash = 1;
+        return this;
+    }
+
+    /**
+     * Add a primitive value.
+     *
+     * @param value the value to be stored.
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey add(long value) {
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, valueCount * 2);
+        }
+        values[valueCount++] = value;
+        hash = 31 * hash + Long.hashCode(value);
+        return this;
+    }
+
+    /**
+     * Add a double value, compared on its bits.
+     *
+     * @param value the value to be stored.
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey add(double value) {
+        return add(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Add a boolean value.
+     *
+     * @param value the value to be stored.
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey add(boolean value) {
+        return add(value ? 1L : 0L);
+    }
+
+    /**
+     * Add an immutable object (a {@link java.awt.Color}, an enum value, a class...), compared with its
+     * {@link Object#equals(Object)} method.
+     *
+     * @param value the object to be stored (may be null).
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey add(Object value) {
+        return addObject(value, false);
+    }
+
+    /**
+     * Add a mutable object (an image...), compared on its identity.
+     *
+     * @param value the object to be stored (may be null).
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey addIdentity(Object value) {
+        return addObject(value, true);
+    }
+
+    private RenderingKey addObject(Object value, boolean identity) {
+        if (objectCount == objects.length) {
+            objects = Arrays.copyOf(objects, objectCount * 2);
+            identities = Arrays.copyOf(identities, objectCount * 2);
+        }
+        objects[objectCount] = value;
+        identities[objectCount++] = identity;
+        hash = 31 * hash + (identity ? System.identityHashCode(value) : Objects.hashCode(value));
+        return this;
+    }
+
+    /**
+     * Return true if the other key stores the same values.
+     *
+     * @param other the {@link RenderingKey} to compare with.
+     * @return true if all the stored values are the same.
+     */
+    public boolean matches(RenderingKey other) {
+        if (hash != other.hash || valueCount != other.valueCount || objectCount != other.objectCount) {
+            return false;
+        }
+        for (int i = 0; i < valueCount; i++) {
+            if (values[i] != other.values[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < objectCount; i++) {
+            if (identities[i] != other.identities[i]) {
+                return false;
+            }
+            if (identities[i] ? objects[i] != other.objects[i] : !Objects.equals(objects[i], other.objects[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy all the values of the other key into this one.
+     *
+     * @param other the {@link RenderingKey} to be copied.
+     * @return the updated {@link RenderingKey} (Fluent API).
+     */
+    public RenderingKey copyFrom(RenderingKey other) {
+        clear();
+        if (values.length < other.valueCount) {
+            values = new long[other.values.length];
+        }
+        if (objects.length < other.objectCount) {
+            objects = new Object[other.objects.length];
+            identities = new boolean[other.objects.length];
+        }
+        System.arraycopy(other.values, 0, values, 0, other.valueCount);
+        System.arraycopy(other.objects, 0, objects, 0, other.objectCount);
+        System.arraycopy(other.identities, 0, identities, 0, other.objectCount);
+        valueCount = other.valueCount;
+        objectCount = other.objectCount;
+        hash = other.hash;
+        return this;
+    }
+}
@@ -0,0 +1,421 @@
+package fr.snapgames.demo.core.entity;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * The {@link SpatialIndex} is a loose quadtree over the {@link Entity} bounds (their position and size),
+ * shared by all the services needing "what is near this area" queries: the
+ * {@link fr.snapgames.demo.core.gfx.Renderer} for culling, the {@link fr.snapgames.demo.core.physic.PhysicEngine}
+ * for collisions, and the mouse picking of the {@link fr.snapgames.demo.core.io.InputHandler}.
+ * <p>
+ * Each node has loose bounds twice the size of its tight bounds, so an {@link Entity} is always stored in only one
+ * node: the deepest node whose tight bounds contain the {@link Entity} center and whose children would be too small
+ * to hold it. {@link Entity} outside the index bounds are kept in the root node.
+ * <p>
+ * The index is maintained incrementally: {@link SpatialIndex#update(Entity)} must be called each time
+ * an {@link Entity} moves or is resized, and only relocates the {@link Entity} if it changes of node.
+ * <p>
+ * Queries are allocation-free: results are sent to a {@link Visitor}.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SpatialIndex {
+
+    /**
+     * The visitor receiving the {@link Entity} matching a query.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Visit one {@link Entity} matching the query.
+         *
+         * @param e the matching {@link Entity}.
+         * @return true to continue the query, false to stop it.
+         */
+        boolean visit(Entity<?> e);
+    }
+
+    /**
+     * The visitor receiving the {@link Entity} crossed by a segment query.
+     */
+    @FunctionalInterface
+    public interface SegmentVisitor {
+        /**
+         * Visit one {@link Entity} crossed by the segment.
+         *
+         * @param e the crossed {@link Entity}.
+         * @return the fraction of the segment still to be walked (eg. the fraction of the nearest hit), the
+         * nodes beyond it are skipped; a negative value stops the query.
+         */
+        double visit(Entity<?> e);
+    }
+
+    /**
+     * A quadtree node.
+     */
+    static class Node {
+        final double x, y, w, h;
+        final int depth;
+        Node[] children;
+        Entity<?>[] items = new Entity<?>[4];
+        int count;
+
+        Node(double x, double y, double w, double h, int depth) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+            this.depth = depth;
+        }
+
+        boolean looseIntersects(double qx, double qy, double qw, double qh) {
+            double hw = w * 0.5;
+            double hh = h * 0.5;
+            return qx <= x + w + hw && qx + qw >= x - hw
+                    && qy <= y + h + hh && qy + qh >= y - hh;
+        }
+
+        Node child(int i) {
+            if (children == null) {
+                children = new Node[4];
+            }
+            if (children[i] == null) {
+                double cw = w * 0.5;
+                double ch = h * 0.5;
+                children[i] = new Node(x + (i & 1) * cw, y + (i >> 1) * ch, cw, ch, depth + 1);
+            }
+            return children[i];
+        }
+
+        void add(Entity<?> e) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+            }
+            e.spatialNode = this;
+            e.spatialSlot = count;
+            items[count++] = e;
+        }
+
+        void remove(Entity<?> e) {
+            int slot = e.spatialSlot;
+            Entity<?> last = items[--count];
+            items[slot] = last;
+            last.spatialSlot = slot;
+            items[count] = null;
+            e.spatialNode = null;
+            e.spatialSlot = -1;
+        }
+
+        void clear() {
+            for (int i = 0; i < count; i++) {
+                items[i].spatialNode = null;
+                items[i].spatialSlot = -1;
+                items[i] = null;
+            }
+            count = 0;
+            if (children != null) {
+                for (Node c : children) {
+                    if (c != null) {
+                        c.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    private final int maxDepth;
+    private Node root;
+    private int size;
+
+    /**
+     * Create a new {@link SpatialIndex} covering a default 1024x1024 area.
+     */
+    public SpatialIndex() {
+        this(new Rectangle2D.Double(0, 0, 1024, 1024), 8);
+    }
+
+    /**
+     * Create a new {@link SpatialIndex} covering the bounds area.
+     *
+     * @param bounds   the area covered by the index.
+     * @param maxDepth the maximum depth of the quadtree.
+     */
+    public SpatialIndex(Rectangle2D bounds, int maxDepth) {
+        this.maxDepth = maxDepth;
+        this.root = new Node(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), 0);
+    }
+
+    /**
+     * Change the area covered by the index and relocate all its {@link Entity}.
+     *
+     * @param bounds the new area covered by the index.
+     */
+    public void setBounds(Rectangle2D bounds) {
+        Entity<?>[] all = new Entity<?>[size];
+        int[] n = new int[]{0};
+        visitAll(root, e -> {
+            all[n[0]++] = e;
+            return true;
+        });
+        clear();
+        root = new Node(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight(), 0);
+        for (Entity<?> e : all) {
+            insert(e);
+        }
+    }
+
+    /**
+     * Add an {@link Entity} to the index.
+     *
+     * @param e the {@link Entity} to be indexed.
+     */
+    public void insert(Entity<?> e) {
+        if (e.spatialNode != null) {
+            update(e);
+            return;
+        }
+        locate(e).add(e);
+        size++;
+    }
+
+    /**
+     * Remove an {@link Entity} from the index.
+     *
+     * @param e the {@link Entity} to be removed.
+     */
+    public void remove(Entity<?> e) {
+        if (e.spatialNode != null) {
+            e.spatialNode.remove(e);
+            size--;
+        }
+    }
+
+    /**
+     * Relocate an {@link Entity} after a move or a resize.
+     *
+     * @param e the moved {@link Entity}.
+     */
+    public void update(Entity<?> e) {
+        Node current = e.spatialNode;
+        if (current == null) {
+            return;
+        }
+        Node target = locate(e);
+        if (target != current) {
+            current.remove(e);
+            target.add(e);
+        }
+    }
+
+    /**
+     * Remove all the {@link Entity} from the index.
+     */
+    public void clear() {
+        root.clear();
+        size = 0;
+    }
+
+    /**
+     * Return the number of indexed {@link Entity}.
+     *
+     * @return the index size.
+     */
+    public int size() {
+        return size;
+    }
+
+    private Node locate(Entity<?> e) {
+        double cx = e.position.x + e.size.x * 0.5;
+        double cy = e.position.y + e.size.y * 0.5;
+        Node n = root;
+        if (cx < n.x || cx >= n.x + n.w || cy < n.y || cy >= n.y + n.h) {
+            return root;
+        }
+        while (n.depth < maxDepth && e.size.x <= n.w * 0.5 && e.size.y <= n.h * 0.5) {
+            int i = (cx >= n.x + n.w * 0.5 ? 1 : 0) + (cy >= n.y + n.h * 0.5 ? 2 : 0);
+            n = n.child(i);
+        }
+        return n;
+    }
+
+    /**
+     * Visit all the {@link Entity} whose bounds intersect the (x,y,w,h) rectangle.
+     *
+     * @param x       the rectangle horizontal position.
+     * @param y       the rectangle vertical position.
+     * @param w       the rectangle width.
+     * @param h       the rectangle height.
+     * @param visitor the {@link Visitor} receiving the matching {@link Entity}.
+     * @return false if the visitor stopped the query, else true.
+     */
+    public boolean queryRect(double x, double y, double w, double h, Visitor visitor) {
+        return queryRect(root, x, y, w, h, visitor);
+    }
+
+    private boolean queryRect(Node n, double x, double y, double w, double h, Visitor visitor) {
+        for (int i = 0; i < n.count; i++) {
+            Entity<?> e = n.items[i];
+            if (e.position.x <= x + w && e.position.x + e.size.x >= x
+                    && e.position.y <= y + h && e.position.y + e.size.y >= y
+                    && !visitor.visit(e)) {
+                return false;
+            }
+        }
+        if (n.children != null) {
+            for (Node c : n.children) {
+                if (c != null && c.looseIntersects(x, y, w, h) && !queryRect(c, x, y, w, h, visitor)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit all the {@link Entity} whose bounds contain the (x,y) point.
+     *
+     * @param x       the point horizontal position.
+     * @param y       the point vertical position.
+     * @param visitor the {@link Visitor} receiving the matching {@link Entity}.
+     * @return false if the visitor stopped the query, else true.
+     */
+    public boolean queryPoint(double x, double y, Visitor visitor) {
+        return queryRect(root, x, y, 0, 0, visitor);
+    }
+
+    /**
+     * Visit all the {@link Entity} whose bounds intersect the circle of center (x,y) and radius r.
+     *
+     * @param x       the circle center horizontal position.
+     * @param y       the circle center vertical position.
+     * @param r       the circle radius.
+     * @param visitor the {@link Visitor} receiving the matching {@link Entity}.
+     * @return false if the visitor stopped the query, else true.
+     */
+    public boolean queryRadius(double x, double y, double r, Visitor visitor) {
+        return queryRadius(root, x, y, r, visitor);
+    }
+
+    private boolean queryRadius(Node n, double x, double y, double r, Visitor visitor) {
+        double r2 = r * r;
+        for (int i = 0; i < n.count; i++) {
+            Entity<?> e = n.items[i];
+            double dx = x - Math.max(e.position.x, Math.min(x, e.position.x + e.size.x));
+            double dy = y - Math.max(e.position.y, Math.min(y, e.position.y + e.size.y));
+            if (dx * dx + dy * dy <= r2 && !visitor.visit(e)) {
+                return false;
+            }
+        }
+        if (n.children != null) {
+            for (Node c : n.children) {
+                if (c != null && c.looseIntersects(x - r, y - r, 2 * r, 2 * r) && !queryRadius(c, x, y, r, visitor)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visit the {@link Entity} whose bounds are crossed by a (w,h) box moving from (x,y) to (x+dx,y+dy), walking
+     * the nodes along the segment, nearest first. The nodes entered beyond the fraction returned by the
+     * {@link SegmentVisitor} are skipped, so a query stopping at the nearest hit only visits the nodes crossed before
+     * it, and not the whole bounding box of the segment.
+     * <p>
+     * A zero-sized box gives a ray query.
+     *
+     * @param x       the horizontal start of the box.
+     * @param y       the vertical start of the box.
+     * @param w       the width of the box.
+     * @param h       the height of the box.
+     * @param dx      the horizontal move of the box.
+     * @param dy      the vertical move of the box.
+     * @param visitor the {@link SegmentVisitor} receiving the crossed {@link Entity}.
+     * @return the fraction of the segment walked when the query ended.
+     */
+    public double querySegment(double x, double y, double w, double h, double dx, double dy, SegmentVisitor visitor) {
+        return querySegment(root, x, y, w, h, dx, dy, 1.0, visitor);
+    }
+
+    private double querySegment(Node n, double x, double y, double w, double h, double dx, double dy,
+                                double limit, SegmentVisitor visitor) {
+        for (int i = 0; i < n.count && limit >= 0.0; i++) {
+            Entity<?> e = n.items[i];
+            if (entry(x, y, dx, dy, e.position.x - w, e.position.y - h, e.size.x + w, e.size.y + h) <= limit) {
+                limit = Math.min(limit, visitor.visit(e));
+            }
+        }
+        if (n.children == null) {
+            return limit;
+        }
+        // enter the children in the order the segment crosses them, at most 4 passes.
+        int entered = 0;
+        while (limit >= 0.0) {
+            int next = -1;
+            double nextEntry = limit;
+            for (int i = 0; i < 4; i++) {
+                Node c = n.children[i];
+                if (c != null && (entered & (1 << i)) == 0) {
+                    double t = entry(x, y, dx, dy, c.x - c.w * 0.5 - w, c.y - c.h * 0.5 - h, c.w * 2 + w, c.h * 2 + h);
+                    if (t <= nextEntry) {
+                        next = i;
+                        nextEntry = t;
+                    }
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            entered |= 1 << next;
+            limit = querySegment(n.children[next], x, y, w, h, dx, dy, limit, visitor);
+        }
+        return limit;
+    }
+
+    /**
+     * Compute the fraction of the segment from (ox,oy) to (ox+dx,oy+dy) where it enters a box (slab test).
+     *
+     * @return the entry fraction (0 if the segment starts into the box), or {@link Double#POSITIVE_INFINITY}
+     * if the segment does not cross the box.
+     */
+    private static double entry(double ox, double oy, double dx, double dy,
+                                double bx, double by, double bw, double bh) {
+        double tMin = 0.0;
+        double tMax = 1.0;
+        if (dx != 0.0) {
+            double t0 = (bx - ox) / dx;
+            double t1 = (bx + bw - ox) / dx;
+            tMin = Math.max(tMin, Math.min(t0, t1));
+            tMax = Math.min(tMax, Math.max(t0, t1));
+        } else if (ox < bx || ox > bx + bw) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (dy != 0.0) {
+            double t0 = (by - oy) / dy;
+            double t1 = (by + bh - oy) / dy;
+            tMin = Math.max(tMin, Math.min(t0, t1));
+            tMax = Math.min(tMax, Math.max(t0, t1));
+        } else if (oy < by || oy > by + bh) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return tMin <= tMax ? tMin : Double.POSITIVE_INFINITY;
+    }
+
+    private boolean visitAll(Node n, Visitor visitor) {
+        for (int i = 0; i < n.count; i++) {
+            if (!visitor.visit(n.items[i])) {
+                return false;
+            }
+        }
+        if (n.children != null) {
+            for (Node c : n.children) {
+                if (c != null && !visitAll(c, visitor)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,245 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.RenderingKey;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@link DirtyRegionTracker} detects the regions of the screen to be drawn again by the {@link Renderer}
+ * when the dirty regions rendering is activated.
+ * <p>
+ * For each frame, the {@link Renderer} calls {@link DirtyRegionTracker#begin()}, then
+ * {@link DirtyRegionTracker#track(Entity, double, double)} for each visible {@link Entity}, and finally
+ * {@link DirtyRegionTracker#end()}. The tracker compares the screen bounds and the
+ * {@link RenderingKey} of each {@link Entity} with the ones of the previous frame: the previous and
+ * the current bounds of each moved or changed {@link Entity} (and the previous bounds of the disappeared ones)
+ * become dirty regions. Overlapping regions are merged, and if there are too many of them, they are merged
+ * into their bounding box.
+ * <p>
+ * If the dirty area goes over the threshold ratio of the screen area, a full redraw is required.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class DirtyRegionTracker {
+
+    /**
+     * Maximum number of regions before merging all of them.
+     */
+    public static final int MAX_REGIONS = 16;
+    /**
+     * Margin added to the {@link Entity} bounds, for the border strokes and the antialiasing.
+     */
+    private static final int MARGIN = 2;
+
+    /**
+     * The state of an {@link Entity} at the previous frame.
+     */
+    private static class State {
+        int x0, y0, x1, y1;
+        final RenderingKey renderingKey = new RenderingKey();
+        long frame;
+    }
+
+    private final Map<Entity<?>, State> states = new HashMap<>();
+    private final RenderingKey key = new RenderingKey();
+    private final int width;
+    private final int height;
+    private final double threshold;
+
+    private final int[] regions = new int[MAX_REGIONS * 4];
+    private int count;
+    private long frame;
+    private boolean overflow;
+
+    /**
+     * Create a new {@link DirtyRegionTracker}.
+     *
+     * @param width     the screen width.
+     * @param height    the screen height.
+     * @param threshold the ratio (0.0 to 1.0) of the screen area above which a full redraw is required.
+     */
+    public DirtyRegionTracker(int width, int height, double threshold) {
+        this.width = width;
+        this.height = height;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Start the tracking of a new frame.
+     */
+    public void begin() {
+        frame++;
+        count = 0;
+        overflow = false;
+    }
+
+    /**
+     * Track the {@link Entity} e, drawn with the (offsetX,offsetY) translation (the camera offset).
+     *
+     * @param e       the visible {@link Entity}.
+     * @param offsetX the horizontal translation applied to the {@link Entity} at rendering time.
+     * @param offsetY the vertical translation applied to the {@link Entity} at rendering time.
+     */
+    public void track(Entity<?> e, double offsetX, double offsetY) {
+        int x0 = (int) Math.floor(e.position.x + offsetX) - MARGIN;
+        int y0 = (int) Math.floor(e.position.y + offsetY) - MARGIN;
+        int x1 = (int) Math.ceil(e.position.x + offsetX + e.size.x) + MARGIN;
+        int y1 = (int) Math.ceil(e.position.y + offsetY + e.size.y) + MARGIN;
+        e.createRenderingKey(key.clear());
+        State s = states.get(e);
+        if (!Optional.ofNullable(s).isPresent()) {
+            s = new State();
+            states.put(e, s);
+            addRegion(x0, y0, x1, y1);
+        } else if (s.x0 != x0 || s.y0 != y0 || s.x1 != x1 || s.y1 != y1 || !s.renderingKey.matches(key)) {
+            addRegion(s.x0, s.y0, s.x1, s.y1);
+            addRegion(x0, y0, x1, y1);
+        }
+        s.x0 = x0;
+        s.y0 = y0;
+        s.x1 = x1;
+        s.y1 = y1;
+        s.renderingKey.copyFrom(key);
+        s.frame = frame;
+    }
+
+    /**
+     * End the tracking of the current frame: the {@link Entity} not tracked in this frame
+     * (removed, deactivated or out of view) release their previous region.
+     */
+    public void end() {
+        Iterator<State> it = states.values().iterator();
+        while (it.hasNext()) {
+            State s = it.next();
+            if (s.frame != frame) {
+                addRegion(s.x0, s.y0, s.x1, s.y1);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Forget all the tracked {@link Entity}: the next frame will be fully dirty.
+     */
+    public void reset() {
+        states.clear();
+        count = 0;
+    }
+
+    private void addRegion(int x0, int y0, int x1, int y1) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(width, x1);
+        y1 = Math.min(height, y1);
+        if (x0 >= x1 || y0 >= y1) {
+            return;
+        }
+        // merge with all the overlapping regions.
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < count; i++) {
+                int r = i * 4;
+                if (x0 <= regions[r + 2] && x1 >= regions[r] && y0 <= regions[r + 3] && y1 >= regions[r + 1]) {
+                    x0 = Math.min(x0, regions[r]);
+                    y0 = Math.min(y0, regions[r + 1]);
+                    x1 = Math.max(x1, regions[r + 2]);
+                    y1 = Math.max(y1, regions[r + 3]);
+                    removeRegion(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        if (count == MAX_REGIONS) {
+            // too many regions: merge all of them into their bounding box.
+            for (int i = 0; i < count; i++) {
+                int r = i * 4;
+                x0 = Math.min(x0, regions[r]);
+                y0 = Math.min(y0, regions[r + 1]);
+                x1 = Math.max(x1, regions[r + 2]);
+                y1 = Math.max(y1, regions[r + 3]);
+            }
+            count = 0;
+            overflow = true;
+        }
+        int r = count * 4;
+        regions[r] = x0;
+        regions[r + 1] = y0;
+        regions[r + 2] = x1;
+        regions[r + 3] = y1;
+        count++;
+    }
+
+    private void removeRegion(int i) {
+        count--;
+        System.arraycopy(regions, (i + 1) * 4, regions, i * 4, (count - i) * 4);
+    }
+
+    /**
+     * Return true if the dirty area is over the threshold, and the full screen must be drawn again.
+     *
+     * @return true if a full redraw is required.
+     */
+    public boolean isFullRedrawRequired() {
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            int r = i * 4;
+            area += (long) (regions[r + 2] - regions[r]) * (regions[r + 3] - regions[r + 1]);
+        }
+        return area > threshold * width * height;
+    }
+
+    /**
+     * Return the number of dirty regions for the current frame.
+     *
+     * @return the number of regions.
+     */
+    public int getRegionCount() {
+        return count;
+    }
+
+    /**
+     * Return true if the regions have been merged into their bounding box for the current frame.
+     *
+     * @return true if there was more than {@link DirtyRegionTracker#MAX_REGIONS} regions.
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    public int getRegionX(int i) {
+        return regions[i * 4];
+    }
+
+    public int getRegionY(int i) {
+        return regions[i * 4 + 1];
+    }
+
+    public int getRegionWidth(int i) {
+        return regions[i * 4 + 2] - regions[i * 4];
+    }
+
+    public int getRegionHeight(int i) {
+        return regions[i * 4 + 3] - regions[i * 4 + 1];
+    }
+
+    /**
+     * Return true if the tracked {@link Entity} e intersects the i-th region.
+     *
+     * @param e the tracked {@link Entity}.
+     * @param i the region index.
+     * @return true if the {@link Entity} must be drawn again in this region.
+     */
+    public boolean intersects(Entity<?> e, int i) {
+        State s = states.get(e);
+        int r = i * 4;
+        return Optional.ofNullable(s).isPresent()
+                && s.x0 < regions[r + 2] && s.x1 > regions[r] && s.y0 < regions[r + 3] && s.y1 > regions[r + 1];
+    }
+}
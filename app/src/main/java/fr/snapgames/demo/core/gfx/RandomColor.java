@@ -1,5 +1,7 @@
 package fr.snapgames.demo.core.gfx;
 
+import fr.snapgames.demo.core.math.Rng;
+
 import java.awt.*;
 
 /**
@@ -13,29 +15,37 @@ public class RandomColor {
     /**
      * Create a random color with red, green, blue and alpha channel.
      *
+     * @param rng   the {@link Rng} random generator to be used
      * @param red   random max value to be subtracted from 1.0f
      * @param green random max value to be subtracted from 1.0f
      * @param blue  random max value to be subtracted from 1.0f
      * @param alpha random max value to be subtracted from 1.0f
-     * @return
+     * @return a new random {@link Color}.
      */
-    public static Color get(float red, float green, float blue, float alpha) {
+    public static Color get(Rng rng, float red, float green, float blue, float alpha) {
         return new Color(
-                (float) (1.0 - (Math.random() * red)),
-                (float) (1.0 - (Math.random() * green)),
-                (float) (1.0 - (Math.random() * blue)),
-                (float) (1.0 - (Math.random() * alpha))
+                (float) (1.0 - (rng.nextDouble() * red)),
+                (float) (1.0 - (rng.nextDouble() * green)),
+                (float) (1.0 - (rng.nextDouble() * blue)),
+                (float) (1.0 - (rng.nextDouble() * alpha))
         );
     }
 
 
-    public static Color get(float minRed, float minGreen, float minBlue, float minAlpha,
+    /**
+     * Create a random color with each red, green, blue and alpha channel between its min and max values.
+     *
+     * @param rng the {@link Rng} random generator to be used
+     * @return a new random {@link Color}.
+     */
+    public static Color get(Rng rng,
+                            float minRed, float minGreen, float minBlue, float minAlpha,
                             float maxRed, float maxGreen, float maxBlue, float maxAlpha) {
         return new Color(
-                (float) (minRed + (Math.random() * (maxRed - minRed))),
-                (float) (minGreen + (Math.random() * (maxGreen - minGreen))),
-                (float) (minBlue + (Math.random() * (maxBlue - minBlue))),
-                (float) (minAlpha + (Math.random() * (maxAlpha - minAlpha)))
+                (float) (minRed + (rng.nextDouble() * (maxRed - minRed))),
+                (float) (minGreen + (rng.nextDouble() * (maxGreen - minGreen))),
+                (float) (minBlue + (rng.nextDouble() * (maxBlue - minBlue))),
+                (float) (minAlpha + (rng.nextDouble() * (maxAlpha - minAlpha)))
         );
     }
 }
@@ -0,0 +1,772 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.gfx.plugins.DrawHelperPlugin;
+import fr.snapgames.demo.core.gfx.raster.TileRasterizer;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The {@link RenderCommandList} is the list of the draw commands recorded by the {@link DrawHelperPlugin}s
+ * for one frame, decoupling the scene traversal from the {@link Graphics2D} API.
+ * <p>
+ * The {@link Renderer} calls {@link RenderCommandList#begin(Entity, double, double)} for each visible
+ * {@link Entity}, and its {@link DrawHelperPlugin} appends compact commands (filled or stroked shapes, lines,
+ * images, texts) through {@link DrawHelperPlugin#record(Renderer, RenderCommandList, Entity)}.
+ * A plugin without specific recording is kept as a custom command calling its
+ * {@link DrawHelperPlugin#draw(Renderer, Graphics2D, Entity)} at execution time.
+ * <p>
+ * Each command gets a sort key built from:
+ * <ol>
+ *     <li>the {@link Entity} layer and priority (0 to 255),</li>
+ *     <li>the batch of the {@link Entity} in its layer and priority,</li>
+ *     <li>the command rank in its {@link Entity} commands (e.g. the border is drawn after the fill),</li>
+ *     <li>the rendering state (image, color, stroke or font) of the command,</li>
+ *     <li>the recording order.</li>
+ * </ol>
+ * An {@link Entity} is put in the batch following the last batch of the previously recorded entities its drawn
+ * bounds overlap: so the entities of a batch never overlap each other, and an {@link Entity} is always drawn after
+ * the entities it overlaps, keeping the painter's order of the recording. {@link RenderCommandList#sort()} then
+ * only groups the commands sharing the same state inside a batch, and
+ * {@link RenderCommandList#execute(Renderer, Graphics2D, TileRasterizer)} only calls <code>setColor</code>,
+ * <code>setStroke</code> and <code>setFont</code> when the state really changes.
+ * <p>
+ * The commands without known bounds (texts, custom commands, shapes with a custom stroke) are drawn after all
+ * the previously recorded ones, and before all the following ones. Beyond {@link RenderCommandList#MAX_BATCH}
+ * overlapping batches, the commands are simply drawn in their recording order.
+ * <p>
+ * The commands are stored as arrays, reused from one frame to the next. Up to
+ * {@link RenderCommandList#MAX_COMMANDS} commands can be recorded for one frame.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderCommandList {
+
+    private static final byte FILL_RECT = 1;
+    private static final byte DRAW_RECT = 2;
+    private static final byte FILL_ELLIPSE = 3;
+    private static final byte DRAW_ELLIPSE = 4;
+    private static final byte LINE = 5;
+    private static final byte IMAGE = 6;
+    private static final byte IMAGE_SCALED = 7;
+    private static final byte TEXT = 8;
+    private static final byte CUSTOM = 9;
+
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final int STATE_SHIFT = INDEX_BITS;
+    private static final int RANK_SHIFT = STATE_SHIFT + 12;
+    private static final int BATCH_SHIFT = RANK_SHIFT + 5;
+    private static final int PRIORITY_SHIFT = BATCH_SHIFT + 10;
+    private static final int LAYER_SHIFT = PRIORITY_SHIFT + 8;
+    private static final long RANK_STATE_MASK = ((1L << (BATCH_SHIFT - STATE_SHIFT)) - 1) << STATE_SHIFT;
+
+    /**
+     * The maximum number of overlapping batches, beyond which the commands are sorted in their recording order.
+     */
+    public static final int MAX_BATCH = (1 << 10) - 1;
+
+    /**
+     * The maximum number of commands recorded for one frame, the command index being part of its sort key.
+     */
+    public static final int MAX_COMMANDS = (int) INDEX_MASK + 1;
+
+    // the number of rendering states getting their own id, the following ones sharing the last id.
+    private static final int MAX_STATE_ID = 63;
+
+    // the grid used to find the overlapped entities.
+    private static final int CELL_SIZE = 32;
+    private static final int GRID_SIZE = 64;
+    private static final int MAX_ENTITY_CELLS = 16;
+
+    private static final Stroke DEFAULT_STROKE = new BasicStroke();
+
+    private int count;
+    private long[] keys = new long[256];
+    private byte[] ops = new byte[256];
+    private double[] xs = new double[256];
+    private double[] ys = new double[256];
+    private double[] ws = new double[256];
+    private double[] hs = new double[256];
+    private double[] offsetXs = new double[256];
+    private double[] offsetYs = new double[256];
+    private Color[] colors = new Color[256];
+    private Stroke[] strokes = new Stroke[256];
+    private Font[] fonts = new Font[256];
+    private Object[] refs = new Object[256];
+    private Entity<?>[] entities = new Entity<?>[256];
+
+    // current entity being recorded.
+    private Entity<?> entity;
+    private long entityKey;
+    private int rank;
+    private double offsetX;
+    private double offsetY;
+    // bounds of the current entity commands, on screen.
+    private int entityStart;
+    private boolean unbounded;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    // the drawn bounds and the batch of the recorded entities.
+    private int boundsCount;
+    private double[] boundsMinX = new double[64];
+    private double[] boundsMinY = new double[64];
+    private double[] boundsMaxX = new double[64];
+    private double[] boundsMaxY = new double[64];
+    private int[] batches = new int[64];
+    private final int[][] cells = new int[GRID_SIZE * GRID_SIZE][];
+    private final int[] cellCounts = new int[GRID_SIZE * GRID_SIZE];
+    private int[] largeBounds = new int[16];
+    private int largeCount;
+    private int lastBatch;
+    private int barrier;
+
+    // the identity table of the rendering states of the frame, and their id.
+    private final Object[] stateObjects = new Object[128];
+    private final int[] stateObjectIds = new int[128];
+    private int stateCount;
+    private int stateChanges;
+    private int drawCalls;
+    private int images;
+    private long pixels;
+    private int rasterized;
+
+    // reused shapes at execution time.
+    private final Rectangle2D.Double rect = new Rectangle2D.Double();
+    private final Ellipse2D.Double ellipse = new Ellipse2D.Double();
+    private final Line2D.Double line = new Line2D.Double();
+
+    /**
+     * Start the recording of the commands for the {@link Entity} e, drawn with the (offsetX,offsetY)
+     * translation (the camera offset).
+     *
+     * @param e       the {@link Entity} to be recorded.
+     * @param offsetX the horizontal translation applied to the {@link Entity} commands.
+     * @param offsetY the vertical translation applied to the {@link Entity} commands.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList begin(Entity<?> e, double offsetX, double offsetY) {
+        closeEntity();
+        this.entity = e;
+        this.entityKey = ((long) clamp(e.getLayer(), 255) << LAYER_SHIFT)
+                | ((long) clamp(e.getPriority(), 255) << PRIORITY_SHIFT);
+        this.rank = 0;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        return this;
+    }
+
+    /**
+     * Fill a rectangle with the color.
+     *
+     * @param c the fill color.
+     * @param x the rectangle horizontal position.
+     * @param y the rectangle vertical position.
+     * @param w the rectangle width.
+     * @param h the rectangle height.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList fillRect(Color c, double x, double y, double w, double h) {
+        add(FILL_RECT, x, y, w, h, c, null, null, null);
+        return this;
+    }
+
+    /**
+     * Draw the outline of a rectangle with the color and the stroke.
+     *
+     * @param c the border color.
+     * @param s the stroke (null for the default 1 pixel stroke).
+     * @param x the rectangle horizontal position.
+     * @param y the rectangle vertical position.
+     * @param w the rectangle width.
+     * @param h the rectangle height.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList drawRect(Color c, Stroke s, double x, double y, double w, double h) {
+        add(DRAW_RECT, x, y, w, h, c, s, null, null);
+        return this;
+    }
+
+    /**
+     * Fill an ellipse with the color.
+     *
+     * @param c the fill color.
+     * @param x the ellipse bounding box horizontal position.
+     * @param y the ellipse bounding box vertical position.
+     * @param w the ellipse width.
+     * @param h the ellipse height.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList fillEllipse(Color c, double x, double y, double w, double h) {
+        add(FILL_ELLIPSE, x, y, w, h, c, null, null, null);
+        return this;
+    }
+
+    /**
+     * Draw the outline of an ellipse with the color and the stroke.
+     *
+     * @param c the border color.
+     * @param s the stroke (null for the default 1 pixel stroke).
+     * @param x the ellipse bounding box horizontal position.
+     * @param y the ellipse bounding box vertical position.
+     * @param w the ellipse width.
+     * @param h the ellipse height.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList drawEllipse(Color c, Stroke s, double x, double y, double w, double h) {
+        add(DRAW_ELLIPSE, x, y, w, h, c, s, null, null);
+        return this;
+    }
+
+    /**
+     * Draw a line from (x0,y0) to (x1,y1) with the color and the stroke.
+     *
+     * @param c  the line color.
+     * @param s  the stroke (null for the default 1 pixel stroke).
+     * @param x0 the start horizontal position.
+     * @param y0 the start vertical position.
+     * @param x1 the end horizontal position.
+     * @param y1 the end vertical position.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList line(Color c, Stroke s, double x0, double y0, double x1, double y1) {
+        add(LINE, x0, y0, x1, y1, c, s, null, null);
+        return this;
+    }
+
+    /**
+     * Draw an image at its natural size, at the (x,y) position.
+     *
+     * @param image the image to be drawn.
+     * @param x     the horizontal position.
+     * @param y     the vertical position.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList image(BufferedImage image, int x, int y) {
+        add(IMAGE, x, y, image.getWidth(), image.getHeight(), null, null, null, image);
+        return this;
+    }
+
+    /**
+     * Draw an image scaled to the (w,h) size at the (x,y) position. A negative width flips the image horizontally,
+     * like the {@link Graphics2D#drawImage(Image, int, int, int, int, java.awt.image.ImageObserver)} does.
+     *
+     * @param image the image to be drawn.
+     * @param x     the horizontal position.
+     * @param y     the vertical position.
+     * @param w     the drawn width.
+     * @param h     the drawn height.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList image(BufferedImage image, int x, int y, int w, int h) {
+        add(IMAGE_SCALED, x, y, w, h, null, null, null, image);
+        return this;
+    }
+
+    /**
+     * Draw a text with its baseline at the (x,y) position.
+     *
+     * @param text the text to be drawn.
+     * @param f    the font for the text.
+     * @param c    the text color.
+     * @param x    the horizontal position.
+     * @param y    the baseline vertical position.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList text(String text, Font f, Color c, int x, int y) {
+        add(TEXT, x, y, 0, 0, c, null, f, text);
+        return this;
+    }
+
+    /**
+     * Add a custom command, calling the {@link DrawHelperPlugin#draw(Renderer, Graphics2D, Entity)} of the plugin
+     * at execution time.
+     *
+     * @param plugin the {@link DrawHelperPlugin} drawing the {@link Entity}.
+     * @param e      the {@link Entity} to be drawn.
+     * @return the updated {@link RenderCommandList} (Fluent API).
+     */
+    public RenderCommandList custom(DrawHelperPlugin<? extends Entity<?>> plugin, Entity<?> e) {
+        add(CUSTOM, 0, 0, 0, 0, null, null, null, plugin);
+        entities[count - 1] = e;
+        return this;
+    }
+
+    private void add(byte op, double x, double y, double w, double h, Color c, Stroke s, Font f, Object ref) {
+        if (count == ops.length) {
+            if (count == MAX_COMMANDS) {
+                throw new IllegalStateException("More than " + MAX_COMMANDS + " render commands in one frame");
+            }
+            grow();
+        }
+        int i = count++;
+        ops[i] = op;
+        xs[i] = x;
+        ys[i] = y;
+        ws[i] = w;
+        hs[i] = h;
+        colors[i] = c;
+        strokes[i] = s;
+        fonts[i] = f;
+        refs[i] = ref;
+        entities[i] = entity;
+        offsetXs[i] = offsetX;
+        offsetYs[i] = offsetY;
+        // the texture (or font, or stroke) and the color define the rendering state.
+        Object main = op == IMAGE || op == IMAGE_SCALED ? ref : Optional.ofNullable((Object) f).orElse(s);
+        long state = (stateId(main) << 6) | stateId(c);
+        keys[i] = entityKey | ((long) clamp(rank++, 31) << RANK_SHIFT) | (state << STATE_SHIFT) | i;
+        addBounds(op, x + offsetX, y + offsetY, w, h, s);
+    }
+
+    private long stateId(Object o) {
+        if (!Optional.ofNullable(o).isPresent()) {
+            return 0;
+        }
+        int mask = stateObjects.length - 1;
+        int slot = System.identityHashCode(o) & mask;
+        while (Optional.ofNullable(stateObjects[slot]).isPresent()) {
+            if (stateObjects[slot] == o) {
+                return stateObjectIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        // the table is never full: only MAX_STATE_ID states are kept.
+        if (stateCount == MAX_STATE_ID) {
+            return MAX_STATE_ID;
+        }
+        stateObjects[slot] = o;
+        stateObjectIds[slot] = ++stateCount;
+        return stateCount;
+    }
+
+    /**
+     * Extend the drawn bounds of the current {@link Entity} with the area drawn by a command (on screen).
+     */
+    private void addBounds(byte op, double x, double y, double w, double h, Stroke s) {
+        double margin = 1.0;
+        if (op == DRAW_RECT || op == DRAW_ELLIPSE || op == LINE) {
+            if (Optional.ofNullable(s).isPresent() && !(s instanceof BasicStroke)) {
+                unbounded = true;
+                return;
+            }
+            margin += Optional.ofNullable(s).isPresent() ? ((BasicStroke) s).getLineWidth() : 1.0;
+        }
+        switch (op) {
+            case TEXT, CUSTOM -> unbounded = true;
+            case LINE -> extend(Math.min(x, w + offsetX), Math.min(y, h + offsetY),
+                    Math.max(x, w + offsetX), Math.max(y, h + offsetY), margin);
+            default -> extend(Math.min(x, x + w), Math.min(y, y + h), Math.max(x, x + w), Math.max(y, y + h), margin);
+        }
+    }
+
+    private void extend(double x0, double y0, double x1, double y1, double margin) {
+        minX = Math.min(minX, x0 - margin);
+        minY = Math.min(minY, y0 - margin);
+        maxX = Math.max(maxX, x1 + margin);
+        maxY = Math.max(maxY, y1 + margin);
+    }
+
+    /**
+     * Put the commands of the current {@link Entity} in the batch following the last batch of the entities it
+     * overlaps.
+     */
+    private void closeEntity() {
+        if (entityStart < count) {
+            int batch;
+            if (unbounded) {
+                batch = lastBatch + 1;
+                barrier = batch;
+            } else {
+                batch = addEntityBounds();
+            }
+            lastBatch = Math.max(lastBatch, batch);
+            for (int i = entityStart; i < count; i++) {
+                if (batch < MAX_BATCH) {
+                    keys[i] |= (long) batch << BATCH_SHIFT;
+                } else {
+                    // too many overlapping batches: the recording order is kept.
+                    keys[i] = (keys[i] & ~RANK_STATE_MASK) | ((long) MAX_BATCH << BATCH_SHIFT);
+                }
+            }
+        }
+        entityStart = count;
+        unbounded = false;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Store the bounds of the current {@link Entity}, and compute its batch from the entities it overlaps.
+     */
+    private int addEntityBounds() {
+        int cx0 = cell(minX);
+        int cy0 = cell(minY);
+        int cx1 = cell(maxX);
+        int cy1 = cell(maxY);
+        boolean large = (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_ENTITY_CELLS;
+        int batch = large ? lastBatch : barrier;
+        for (int k = 0; k < largeCount; k++) {
+            batch = overlapped(largeBounds[k], batch);
+        }
+        if (!large) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int c = cy * GRID_SIZE + cx;
+                    for (int k = 0; k < cellCounts[c]; k++) {
+                        batch = overlapped(cells[c][k], batch);
+                    }
+                }
+            }
+        }
+        batch++;
+        if (boundsCount == batches.length) {
+            int n = boundsCount * 2;
+            boundsMinX = Arrays.copyOf(boundsMinX, n);
+            boundsMinY = Arrays.copyOf(boundsMinY, n);
+            boundsMaxX = Arrays.copyOf(boundsMaxX, n);
+            boundsMaxY = Arrays.copyOf(boundsMaxY, n);
+            batches = Arrays.copyOf(batches, n);
+        }
+        int b = boundsCount++;
+        boundsMinX[b] = minX;
+        boundsMinY[b] = minY;
+        boundsMaxX[b] = maxX;
+        boundsMaxY[b] = maxY;
+        batches[b] = batch;
+        if (large) {
+            if (largeCount == largeBounds.length) {
+                largeBounds = Arrays.copyOf(largeBounds, largeCount * 2);
+            }
+            largeBounds[largeCount++] = b;
+        } else {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int c = cy * GRID_SIZE + cx;
+                    if (!Optional.ofNullable(cells[c]).isPresent()) {
+                        cells[c] = new int[8];
+                    } else if (cellCounts[c] == cells[c].length) {
+                        cells[c] = Arrays.copyOf(cells[c], cellCounts[c] * 2);
+                    }
+                    cells[c][cellCounts[c]++] = b;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private int overlapped(int b, int batch) {
+        if (batches[b] > batch && boundsMinX[b] < maxX && boundsMaxX[b] > minX
+                && boundsMinY[b] < maxY && boundsMaxY[b] > minY) {
+            return batches[b];
+        }
+        return batch;
+    }
+
+    private static int cell(double v) {
+        return clamp((int) Math.floor(v / CELL_SIZE), GRID_SIZE - 1);
+    }
+
+    private static int clamp(int v, int max) {
+        return Math.max(0, Math.min(v, max));
+    }
+
+    private void grow() {
+        int n = Math.min(count * 2, MAX_COMMANDS);
+        keys = Arrays.copyOf(keys, n);
+        ops = Arrays.copyOf(ops, n);
+        xs = Arrays.copyOf(xs, n);
+        ys = Arrays.copyOf(ys, n);
+        ws = Arrays.copyOf(ws, n);
+        hs = Arrays.copyOf(hs, n);
+        offsetXs = Arrays.copyOf(offsetXs, n);
+        offsetYs = Arrays.copyOf(offsetYs, n);
+        colors = Arrays.copyOf(colors, n);
+        strokes = Arrays.copyOf(strokes, n);
+        fonts = Arrays.copyOf(fonts, n);
+        refs = Arrays.copyOf(refs, n);
+        entities = Arrays.copyOf(entities, n);
+    }
+
+    /**
+     * Sort the commands on their sort key.
+     */
+    public void sort() {
+        closeEntity();
+        Arrays.sort(keys, 0, count);
+    }
+
+    /**
+     * Execute the sorted commands with the {@link Graphics2D} API, changing the color, stroke and font only when
+     * required. If a {@link TileRasterizer} is given, the simple primitives it supports are drawn by it.
+     *
+     * @param r          the parent {@link Renderer}.
+     * @param g          the {@link Graphics2D} API to draw with.
+     * @param rasterizer the optional raster backend (may be null).
+     */
+    public void execute(Renderer r, Graphics2D g, TileRasterizer rasterizer) {
+        Color color = g.getColor();
+        Stroke stroke = g.getStroke();
+        Font font = g.getFont();
+        double tx = 0;
+        double ty = 0;
+        stateChanges = 0;
+        drawCalls = 0;
+        images = 0;
+        pixels = 0;
+        rasterized = 0;
+        for (int k = 0; k < count; k++) {
+            int i = (int) (keys[k] & INDEX_MASK);
+            byte op = ops[i];
+            if (op == FILL_RECT || op == FILL_ELLIPSE || op == IMAGE || op == IMAGE_SCALED) {
+                pixels += (long) Math.abs(ws[i] * hs[i]);
+                images += op == IMAGE || op == IMAGE_SCALED ? 1 : 0;
+            }
+            if (Optional.ofNullable(rasterizer).isPresent()) {
+                if (rasterize(rasterizer, i)) {
+                    rasterized++;
+                    continue;
+                }
+                rasterizer.flush();
+            }
+            drawCalls++;
+            if (offsetXs[i] != tx || offsetYs[i] != ty) {
+                g.translate(offsetXs[i] - tx, offsetYs[i] - ty);
+                tx = offsetXs[i];
+                ty = offsetYs[i];
+            }
+            if (op == CUSTOM) {
+                ((DrawHelperPlugin<?>) refs[i]).draw(r, g, entities[i]);
+                // the plugin may have changed anything.
+                color = g.getColor();
+                stroke = g.getStroke();
+                font = g.getFont();
+                continue;
+            }
+            if (Optional.ofNullable(colors[i]).isPresent() && !colors[i].equals(color)) {
+                color = colors[i];
+                g.setColor(color);
+                stateChanges++;
+            }
+            if (op == DRAW_RECT || op == DRAW_ELLIPSE || op == LINE) {
+                Stroke s = Optional.ofNullable(strokes[i]).orElse(DEFAULT_STROKE);
+                if (!s.equals(stroke)) {
+                    stroke = s;
+                    g.setStroke(stroke);
+                    stateChanges++;
+                }
+            }
+            switch (op) {
+                case FILL_RECT -> {
+                    rect.setRect(xs[i], ys[i], ws[i], hs[i]);
+                    g.fill(rect);
+                }
+                case DRAW_RECT -> {
+                    rect.setRect(xs[i], ys[i], ws[i], hs[i]);
+                    g.draw(rect);
+                }
+                case FILL_ELLIPSE -> {
+                    ellipse.setFrame(xs[i], ys[i], ws[i], hs[i]);
+                    g.fill(ellipse);
+                }
+                case DRAW_ELLIPSE -> {
+                    ellipse.setFrame(xs[i], ys[i], ws[i], hs[i]);
+                    g.draw(ellipse);
+                }
+                case LINE -> {
+                    line.setLine(xs[i], ys[i], ws[i], hs[i]);
+                    g.draw(line);
+                }
+                case IMAGE -> g.drawImage((Image) refs[i], (int) xs[i], (int) ys[i], null);
+                case IMAGE_SCALED -> g.drawImage((Image) refs[i],
+                        (int) xs[i], (int) ys[i], (int) ws[i], (int) hs[i], null);
+                case TEXT -> {
+                    if (!fonts[i].equals(font)) {
+                        font = fonts[i];
+                        g.setFont(font);
+                        stateChanges++;
+                    }
+                    g.drawString((String) refs[i], (int) xs[i], (int) ys[i]);
+                }
+                default -> {
+                    // unknown command.
+                }
+            }
+        }
+        if (Optional.ofNullable(rasterizer).isPresent()) {
+            rasterizer.flush();
+        }
+        if (tx != 0 || ty != 0) {
+            g.translate(-tx, -ty);
+        }
+    }
+
+    /**
+     * Send the i-th command to the raster backend if it supports it.
+     *
+     * @return true if the command has been batched by the {@link TileRasterizer}.
+     */
+    private boolean rasterize(TileRasterizer rasterizer, int i) {
+        double x = xs[i] + offsetXs[i];
+        double y = ys[i] + offsetYs[i];
+        boolean defaultStroke = !Optional.ofNullable(strokes[i]).isPresent();
+        switch (ops[i]) {
+            case FILL_RECT -> rasterizer.addRect(x, y, x + ws[i], y + hs[i], colors[i], null);
+            case DRAW_RECT -> {
+                if (!defaultStroke) {
+                    return false;
+                }
+                rasterizer.addRect(x, y, x + ws[i], y + hs[i], null, colors[i]);
+            }
+            case FILL_ELLIPSE -> rasterizer.addEllipse(x, y, x + ws[i], y + hs[i], colors[i], null);
+            case DRAW_ELLIPSE -> {
+                if (!defaultStroke) {
+                    return false;
+                }
+                rasterizer.addEllipse(x, y, x + ws[i], y + hs[i], null, colors[i]);
+            }
+            case LINE -> {
+                if (!defaultStroke) {
+                    return false;
+                }
+                rasterizer.addLine(x, y, ws[i] + offsetXs[i], hs[i] + offsetYs[i], colors[i]);
+            }
+            case IMAGE, IMAGE_SCALED -> {
+                BufferedImage image = (BufferedImage) refs[i];
+                int w = (int) ws[i];
+                int h = (int) hs[i];
+                if (h != image.getHeight() || Math.abs(w) != image.getWidth()) {
+                    return false;
+                }
+                // a flipped image is drawn from its right side.
+                return rasterizer.addImage(image, w > 0 ? x : x + w, y, w < 0);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clear the list for a new frame.
+     */
+    public void clear() {
+        Arrays.fill(refs, 0, count, null);
+        Arrays.fill(entities, 0, count, null);
+        Arrays.fill(colors, 0, count, null);
+        Arrays.fill(strokes, 0, count, null);
+        Arrays.fill(fonts, 0, count, null);
+        if (stateCount > 0) {
+            Arrays.fill(stateObjects, null);
+            stateCount = 0;
+        }
+        // only reset the grid cells used by the recorded bounds.
+        for (int b = 0; b < boundsCount; b++) {
+            int cx0 = cell(boundsMinX[b]);
+            int cy0 = cell(boundsMinY[b]);
+            int cx1 = cell(boundsMaxX[b]);
+            int cy1 = cell(boundsMaxY[b]);
+            if ((cx1 - cx0 + 1) * (cy1 - cy0 + 1) <= MAX_ENTITY_CELLS) {
+                for (int cy = cy0; cy <= cy1; cy++) {
+                    Arrays.fill(cellCounts, cy * GRID_SIZE + cx0, cy * GRID_SIZE + cx1 + 1, 0);
+                }
+            }
+        }
+        entity = null;
+        count = 0;
+        entityStart = 0;
+        boundsCount = 0;
+        largeCount = 0;
+        lastBatch = 0;
+        barrier = 0;
+    }
+
+    /**
+     * Record the commands of the {@link Entity} e with its {@link DrawHelperPlugin}, and execute them at once:
+     * the plugins recording their own commands draw through this single routine, and never duplicate it in their
+     * {@link DrawHelperPlugin#draw(Renderer, Graphics2D, Entity)} method.
+     * <p>
+     * The list is cleared before and after the replay, and must be dedicated to it. The plugin must override
+     * {@link DrawHelperPlugin#record(Renderer, RenderCommandList, Entity)}: the default custom command would
+     * call its draw method again.
+     *
+     * @param r      the parent {@link Renderer}.
+     * @param g      the {@link Graphics2D} API to draw with.
+     * @param plugin the {@link DrawHelperPlugin} recording the commands.
+     * @param e      the {@link Entity} to be drawn.
+     */
+    public void replay(Renderer r, Graphics2D g, DrawHelperPlugin<? extends Entity<?>> plugin, Entity<?> e) {
+        clear();
+        plugin.record(r, begin(e, 0.0, 0.0), e);
+        sort();
+        execute(r, g, null);
+        clear();
+    }
+
+    /**
+     * Return the number of recorded commands.
+     *
+     * @return the number of commands.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Return the number of calls to the {@link Graphics2D} API (or to the custom plugins) during the last execution.
+     *
+     * @return the number of draw calls.
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Return the number of commands drawn by the raster backend during the last execution.
+     *
+     * @return the number of rasterized commands.
+     */
+    public int getRasterized() {
+        return rasterized;
+    }
+
+    /**
+     * Return the number of images drawn during the last execution.
+     *
+     * @return the number of image commands.
+     */
+    public int getImages() {
+        return images;
+    }
+
+    /**
+     * Return the bounding area of the filled shapes and images drawn during the last execution.
+     *
+     * @return the number of filled pixels.
+     */
+    public long getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Return the number of color, stroke and font changes during the last execution.
+     *
+     * @return the number of state changes.
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+}
@@ -0,0 +1,213 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.core.Utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@link RenderStats} are the per-frame counters of the work done by the {@link Renderer}:
+ * <ul>
+ *     <li>entities considered (in the spatial index), culled (out of view) and drawn,</li>
+ *     <li>draw commands recorded, draw calls sent to the {@link java.awt.Graphics2D} API (also counted per
+ *     {@link fr.snapgames.demo.core.gfx.plugins.DrawHelperPlugin} type), primitives sent to the raster backend,</li>
+ *     <li>color, stroke and font state changes,</li>
+ *     <li>images blitted and pixels filled (bounding area of the filled shapes and images),</li>
+ *     <li>debug labels drawn and rendered again,</li>
+ *     <li>time spent in {@link Renderer#draw(Map)} and in {@link Renderer#drawToWindow(Window)}.</li>
+ * </ul>
+ * The counters are reset at the start of {@link Renderer#draw(Map)}, and the frame is complete once
+ * {@link Renderer#drawToWindow(Window)} has been called (until then, the presentation time is the one of the
+ * previous frame).
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderStats {
+
+    /**
+     * The CSV header matching the {@link RenderStats#appendCsv(StringBuilder)} output.
+     */
+    public static final String CSV_HEADER = "frame;considered;culled;drawn;commands;drawCalls;rasterized;"
+            + "stateChanges;images;pixels;labelsDrawn;labelsRendered;dirtyRegions;drawMs;presentMs";
+
+    long frame;
+    int entitiesConsidered;
+    int entitiesCulled;
+    int entitiesDrawn;
+    int commands;
+    int drawCalls;
+    int rasterized;
+    int stateChanges;
+    int imagesBlitted;
+    long pixelsFilled;
+    int labelsDrawn;
+    int labelsRendered;
+    int dirtyRegions;
+    long drawTime;
+    long presentTime;
+
+    private final Map<Class<?>, int[]> drawCallsByPlugin = new LinkedHashMap<>();
+
+    /**
+     * Reset the counters for a new frame.
+     */
+    void reset() {
+        frame++;
+        entitiesConsidered = 0;
+        entitiesCulled = 0;
+        entitiesDrawn = 0;
+        commands = 0;
+        drawCalls = 0;
+        rasterized = 0;
+        stateChanges = 0;
+        imagesBlitted = 0;
+        pixelsFilled = 0;
+        labelsDrawn = 0;
+        labelsRendered = 0;
+        dirtyRegions = 0;
+        drawTime = 0;
+        for (int[] count : drawCallsByPlugin.values()) {
+            count[0] = 0;
+        }
+    }
+
+    /**
+     * Count one entity drawn by the plugin.
+     *
+     * @param pluginType the class of the {@link fr.snapgames.demo.core.gfx.plugins.DrawHelperPlugin}.
+     */
+    void countPluginDraw(Class<?> pluginType) {
+        drawCallsByPlugin.computeIfAbsent(pluginType, k -> new int[1])[0]++;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public int getEntitiesConsidered() {
+        return entitiesConsidered;
+    }
+
+    public int getEntitiesCulled() {
+        return entitiesCulled;
+    }
+
+    public int getEntitiesDrawn() {
+        return entitiesDrawn;
+    }
+
+    public int getCommands() {
+        return commands;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Return the number of entities drawn by a plugin type during the frame.
+     *
+     * @param pluginType the class of the {@link fr.snapgames.demo.core.gfx.plugins.DrawHelperPlugin}.
+     * @return the number of entities drawn by this plugin.
+     */
+    public int getDrawCalls(Class<?> pluginType) {
+        int[] count = drawCallsByPlugin.get(pluginType);
+        return count != null ? count[0] : 0;
+    }
+
+    public int getRasterized() {
+        return rasterized;
+    }
+
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    public int getImagesBlitted() {
+        return imagesBlitted;
+    }
+
+    public long getPixelsFilled() {
+        return pixelsFilled;
+    }
+
+    public int getLabelsDrawn() {
+        return labelsDrawn;
+    }
+
+    public int getLabelsRendered() {
+        return labelsRendered;
+    }
+
+    public int getDirtyRegions() {
+        return dirtyRegions;
+    }
+
+    /**
+     * Return the time spent in {@link Renderer#draw(Map)}.
+     *
+     * @return the draw time in nanoseconds.
+     */
+    public long getDrawTime() {
+        return drawTime;
+    }
+
+    /**
+     * Return the time spent in {@link Renderer#drawToWindow(Window)}.
+     *
+     * @return the presentation time in nanoseconds.
+     */
+    public long getPresentTime() {
+        return presentTime;
+    }
+
+    /**
+     * Append a short human-readable summary of the counters to the {@link StringBuilder}.
+     *
+     * @param sb the {@link StringBuilder} to append to.
+     * @return the {@link StringBuilder} (Fluent API).
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("e:").append(entitiesDrawn).append('/').append(entitiesConsidered)
+                .append(" cmd:").append(commands)
+                .append(" dc:").append(drawCalls)
+                .append(" rz:").append(rasterized)
+                .append(" sc:").append(stateChanges)
+                .append(" img:").append(imagesBlitted)
+                .append(" px:").append(pixelsFilled)
+                .append(" lbl:").append(labelsRendered).append('/').append(labelsDrawn)
+                .append(" drw:");
+        Utils.appendFixed(sb, drawTime / 1000000.0, 2).append("ms prs:");
+        Utils.appendFixed(sb, presentTime / 1000000.0, 2).append("ms");
+        for (Map.Entry<Class<?>, int[]> e : drawCallsByPlugin.entrySet()) {
+            sb.append(' ').append(e.getKey().getSimpleName()).append(':').append(e.getValue()[0]);
+        }
+        return sb;
+    }
+
+    /**
+     * Append one CSV line (see {@link RenderStats#CSV_HEADER}) with the counters to the {@link StringBuilder}.
+     *
+     * @param sb the {@link StringBuilder} to append to.
+     * @return the {@link StringBuilder} (Fluent API).
+     */
+    public StringBuilder appendCsv(StringBuilder sb) {
+        sb.append(frame).append(';')
+                .append(entitiesConsidered).append(';')
+                .append(entitiesCulled).append(';')
+                .append(entitiesDrawn).append(';')
+                .append(commands).append(';')
+                .append(drawCalls).append(';')
+                .append(rasterized).append(';')
+                .append(stateChanges).append(';')
+                .append(imagesBlitted).append(';')
+                .append(pixelsFilled).append(';')
+                .append(labelsDrawn).append(';')
+                .append(labelsRendered).append(';')
+                .append(dirtyRegions).append(';');
+        Utils.appendFixed(sb, drawTime / 1000000.0, 3).append(';');
+        Utils.appendFixed(sb, presentTime / 1000000.0, 3);
+        return sb;
+    }
+}
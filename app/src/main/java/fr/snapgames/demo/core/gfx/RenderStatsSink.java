@@ -0,0 +1,88 @@
+package fr.snapgames.demo.core.gfx;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link RenderStatsSink} publishes the {@link RenderStats} of each frame:
+ * <ul>
+ *     <li>to the log, every <code>logPeriod</code> frames (0 means never),</li>
+ *     <li>to a CSV file, one line per frame (see {@link RenderStats#CSV_HEADER}).</li>
+ * </ul>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderStatsSink implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(RenderStatsSink.class.getName());
+
+    private final int logPeriod;
+    private Writer csv;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Create a new {@link RenderStatsSink}.
+     *
+     * @param logPeriod the number of frames between two log outputs (0 for no log).
+     * @param csvFile   the CSV file to write (null for no CSV output).
+     * @throws IOException if the CSV file can not be created.
+     */
+    public RenderStatsSink(int logPeriod, Path csvFile) throws IOException {
+        this.logPeriod = logPeriod;
+        if (Optional.ofNullable(csvFile).isPresent()) {
+            csv = new BufferedWriter(Files.newBufferedWriter(csvFile), 64 * 1024);
+            csv.write(RenderStats.CSV_HEADER);
+            csv.write('\n');
+        }
+    }
+
+    /**
+     * Publish the statistics of a completed frame.
+     *
+     * @param stats the {@link RenderStats} of the frame.
+     */
+    public void publish(RenderStats stats) {
+        if (Optional.ofNullable(csv).isPresent()) {
+            line.setLength(0);
+            stats.appendCsv(line).append('\n');
+            try {
+                csv.append(line);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to write rendering statistics, CSV output stopped: {0}", e.getMessage());
+                closeCsv();
+            }
+        }
+        if (logPeriod > 0 && stats.getFrame() % logPeriod == 0) {
+            line.setLength(0);
+            line.append("frame ").append(stats.getFrame()).append(": ");
+            logger.log(Level.INFO, stats.appendTo(line).toString());
+        }
+    }
+
+    private void closeCsv() {
+        try {
+            csv.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Unable to close rendering statistics CSV file: {0}", e.getMessage());
+        }
+        csv = null;
+    }
+
+    /**
+     * Flush and close the CSV output.
+     */
+    @Override
+    public void close() {
+        if (Optional.ofNullable(csv).isPresent()) {
+            closeCsv();
+        }
+    }
+}
@@ -2,17 +2,30 @@ package fr.snapgames.demo.core.gfx;
 
 
 import fr.snapgames.demo.core.Game;
+import fr.snapgames.demo.core.Utils;
 import fr.snapgames.demo.core.entity.Camera;
+import fr.snapgames.demo.core.entity.DebugInfo;
 import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.SpatialIndex;
+import fr.snapgames.demo.core.gfx.capture.FrameCapture;
 import fr.snapgames.demo.core.gfx.plugins.DrawHelperPlugin;
+import fr.snapgames.demo.core.gfx.raster.TileRasterizer;
 import fr.snapgames.demo.core.gfx.plugins.GameObjectDrawHelperPlugin;
 import fr.snapgames.demo.core.gfx.plugins.GridObjectDrawHelperPlugin;
+import fr.snapgames.demo.core.gfx.plugins.ParticleEmitterDrawHelperPlugin;
+import fr.snapgames.demo.core.gfx.plugins.TileMapDrawHelperPlugin;
 import fr.snapgames.demo.gdemoapp.ConfigAttribute;
 
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * {@link Renderer} is the Rendering service for our game.
@@ -22,6 +35,7 @@ import java.util.*;
  * @since 0.0.5
  */
 public class Renderer {
+    private static final Logger logger = Logger.getLogger(Renderer.class.getName());
     /**
      * Parent game hosting the service.
      */
@@ -30,6 +44,15 @@ public class Renderer {
      * Internal buffer image to render all things before display on window.
      */
     private BufferedImage buffer;
+    /**
+     * The pixels of the buffer, only retrieved with the "raster" backend: getting them prevents Java2D from
+     * accelerating the buffer.
+     */
+    private int[] bufferPixels;
+    /**
+     * The {@link Graphics2D} API drawing into the buffer during the current frame.
+     */
+    private Graphics2D bufferGraphics;
     /**
      * Window width
      */
@@ -50,10 +73,85 @@ public class Renderer {
     private Camera currentCamera;
 
     private Map<Class<? extends Entity<?>>, DrawHelperPlugin<? extends Entity<?>>> plugins = new HashMap<>();
-    private String filterWhiteList;
-    private String filterBlackList;
+    private String[] filterWhiteList;
+    private String[] filterBlackList;
     private boolean rendering;
 
+    /**
+     * Sort the {@link Entity} on their layer then on their priority in this layer.
+     */
+    private static final Comparator<Entity<?>> DISPLAY_ORDER = Comparator
+            .<Entity<?>>comparingInt(Entity::getLayer)
+            .thenComparingInt(Entity::getPriority);
+    /**
+     * The list of the visible entities for the current frame (reused frame after frame).
+     */
+    private final List<Entity<?>> visibleEntities = new ArrayList<>();
+    /**
+     * The cache of pre-rendered images for the static layer entities.
+     */
+    private final StaticLayerCache staticLayerCache = new StaticLayerCache();
+
+    private static final Color DEBUG_LINE_BACKGROUND = new Color(0.3f, 0.0f, 0.0f, 0.5f);
+    private static final Color DEBUG_INFO_BACKGROUND = new Color(0.0f, 0.0f, 0.4f, 0.5f);
+    /**
+     * The cache of the debug text labels.
+     */
+    private final TextLabelCache labelCache = new TextLabelCache();
+    /**
+     * The text buffer reused to build all the debug texts.
+     */
+    private final StringBuilder debugText = new StringBuilder();
+    private Font debugFont;
+    private Font debugLineFont;
+    /**
+     * The dirty regions tracker, only set if the dirty regions rendering is activated.
+     */
+    private DirtyRegionTracker dirtyRegionTracker;
+    private double lastCameraX = Double.NaN;
+    private double lastCameraY = Double.NaN;
+    private int previousDebugMode;
+    /**
+     * The parallel raster backend for simple shapes, only set if the "raster" backend is selected.
+     */
+    private TileRasterizer rasterizer;
+    /**
+     * The draw commands recorded for the current frame.
+     */
+    private final RenderCommandList commands = new RenderCommandList();
+    /**
+     * The rendering statistics of the current frame, and their optional sink.
+     */
+    private final RenderStats stats = new RenderStats();
+    private RenderStatsSink statsSink;
+    private final StringBuilder statsText = new StringBuilder();
+    /**
+     * The optional capture of the rendered frames.
+     */
+    private FrameCapture frameCapture;
+    /**
+     * The visible area returned by {@link Renderer#getViewArea(Entity)} (reused call after call).
+     */
+    private final Rectangle2D viewArea = new Rectangle2D.Double();
+    private final SpatialIndex.Visitor collectAll = e -> {
+        if (e.isActive()) {
+            visibleEntities.add(e);
+        }
+        return true;
+    };
+    private final SpatialIndex.Visitor collectInView = e -> {
+        if (e.isActive() && e.isNotStickToCamera()) {
+            visibleEntities.add(e);
+        }
+        return true;
+    };
+    private final SpatialIndex.Visitor collectStuckToCamera = e -> {
+        if (e.isActive() && !e.isNotStickToCamera()) {
+            visibleEntities.add(e);
+        }
+        return true;
+    };
+
     /**
      * Initialize the {@link Renderer} service with its parent {@link Game} instance.
      *
@@ -70,18 +168,59 @@ public class Renderer {
         playArea = new Rectangle2D.Double(0, 0, playAreaWidth, playAreaHeight);
 
         // Debug information draw Entity's filtering list
-        filterWhiteList = (String) game.getConfiguration().get(ConfigAttribute.DEBUG_WHILE_LIST);
-        filterBlackList = (String) game.getConfiguration().get(ConfigAttribute.DEBUG_BLACK_LIST);
+        filterWhiteList = splitFilter((String) game.getConfiguration().get(ConfigAttribute.DEBUG_WHILE_LIST));
+        filterBlackList = splitFilter((String) game.getConfiguration().get(ConfigAttribute.DEBUG_BLACK_LIST));
+
+        // Activate the dirty regions rendering if required.
+        if ((boolean) game.getConfiguration().get(ConfigAttribute.RENDER_DIRTY_REGIONS)) {
+            dirtyRegionTracker = new DirtyRegionTracker(screenWidth, screenHeight,
+                    (double) game.getConfiguration().get(ConfigAttribute.RENDER_DIRTY_THRESHOLD));
+        }
 
         // Initialize internal rendering buffer
         buffer = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_ARGB);
+        // Activate the raster backend if required.
+        if ("raster".equals(game.getConfiguration().get(ConfigAttribute.RENDER_BACKEND))) {
+            rasterizer = new TileRasterizer(buffer);
+            bufferPixels = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
+        }
+        // Publish the rendering statistics if required.
+        int statsLogPeriod = (int) game.getConfiguration().get(ConfigAttribute.RENDER_STATS_LOG_PERIOD);
+        String statsCsvFile = (String) game.getConfiguration().get(ConfigAttribute.RENDER_STATS_CSV_FILE);
+        if (statsLogPeriod > 0 || !statsCsvFile.equals("")) {
+            try {
+                statsSink = new RenderStatsSink(statsLogPeriod, statsCsvFile.equals("") ? null : Path.of(statsCsvFile));
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to create the rendering statistics file {0}: {1}",
+                        new Object[]{statsCsvFile, e.getMessage()});
+            }
+        }
+        // Start the frames capture if required.
+        String capturePath = (String) game.getConfiguration().get(ConfigAttribute.RENDER_CAPTURE_PATH);
+        if (!capturePath.equals("")) {
+            try {
+                frameCapture = new FrameCapture(screenWidth, screenHeight, Path.of(capturePath),
+                        FrameCapture.Format.valueOf(
+                                ((String) game.getConfiguration().get(ConfigAttribute.RENDER_CAPTURE_FORMAT)).toUpperCase()),
+                        (int) game.getConfiguration().get(ConfigAttribute.RENDER_CAPTURE_POOL));
+            } catch (IOException | IllegalArgumentException e) {
+                logger.log(Level.SEVERE, "Unable to start the frames capture to {0}: {1}",
+                        new Object[]{capturePath, e.getMessage()});
+            }
+        }
         // add default rendering helpers
         addPlugin(new GameObjectDrawHelperPlugin());
         addPlugin(new GridObjectDrawHelperPlugin());
+        addPlugin(new ParticleEmitterDrawHelperPlugin());
+        addPlugin(new TileMapDrawHelperPlugin());
 
     }
 
 
+    private static String[] splitFilter(String filter) {
+        return filter.equals("") ? new String[0] : filter.split(",");
+    }
+
     public void addPlugin(DrawHelperPlugin<? extends Entity<?>> dhp) {
         this.plugins.put(dhp.getEntityType(), dhp);
     }
@@ -91,56 +230,153 @@ public class Renderer {
      * <p>
      * All the {@link Entity} are drawn by the Renderer,  according to their {@link Entity#isActive()} status,
      * and following their own {@link Entity#getLayer()} and {@link Entity#getPriority()} in this layer
-     * for a good rendering sort order. are drawn
+     * for a good rendering sort order. Only the {@link Entity} intersecting the current view are drawn.
      *
      * @param attributes a Map of object to be used at rendering time, provisioned by the engine itself (information from the {@link Game#loop()})
      */
     public void draw(Map<String, Object> attributes) {
+        long start = System.nanoTime();
         rendering = true;
+        stats.reset();
+        int labelsRendered = labelCache.getRenderedCount();
+        int labelsDrawn = labelCache.getDrawnCount();
         Graphics2D g = (Graphics2D) buffer.getGraphics();
+        bufferGraphics = g;
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        // retrieve the visible entities and sort them in display order.
+        collectVisibleEntities();
+        stats.entitiesConsidered = game.getEntityManager().getSpatialIndex().size();
+        stats.entitiesCulled = Math.max(0, stats.entitiesConsidered - visibleEntities.size());
+        if (Optional.ofNullable(dirtyRegionTracker).isPresent() && drawDirtyRegions(g)) {
+            g.dispose();
+            bufferGraphics = null;
+            stats.drawTime = System.nanoTime() - start;
+            rendering = false;
+            return;
+        }
         // clear buffer with default color;
         g.setColor(Color.BLACK);
         g.fillRect(0, 0, screenWidth, screenHeight);
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        // draw all the things you need.
-        game.getEntityManager().getEntities()
-                .stream()
-                .filter(e1 -> e1.isActive())
-                .sorted((o1, o2) -> o1.getLayer() > o2.getLayer() ? 1 : (o1.getPriority() > o1.getPriority() ? 1 : -1))
-                .forEach(e -> {
-                    // Move view to camera view
-                    moveCameraViewTo(g, e, -1);
-                    // draw objects
-                    drawEntity(g, e);
-                    // move back from camera view
-                    moveCameraViewTo(g, e, 1);
-
-                });
+        // record the draw commands of all the visible entities, then sort and execute them.
+        commands.clear();
+        for (Entity<?> e : visibleEntities) {
+            recordEntity(g, e);
+        }
+        commands.sort();
+        commands.execute(this, g, rasterizer);
+        stats.entitiesDrawn = visibleEntities.size();
+        stats.commands = commands.size();
+        stats.drawCalls = commands.getDrawCalls();
+        stats.rasterized = commands.getRasterized();
+        stats.stateChanges = commands.getStateChanges();
+        stats.imagesBlitted = commands.getImages();
+        stats.pixelsFilled = commands.getPixels();
         // draw entity's display debug information
         if (game.getDebugMode() > 0) {
-            game.getEntityManager().getEntities()
-                    .stream()
-                    .sorted((o1, o2) -> o1.getLayer() > o2.getLayer() ? 1 : (o1.getPriority() > o1.getPriority() ? 1 : -1))
-                    .forEach(e -> {
-                        // Move view to camera view
-                        moveCameraViewTo(g, e, -1);
-
-                        // draw Entity debug display information.
-                        drawDebugInformation(g, e);
-                        // move back from camera view
-                        moveCameraViewTo(g, e, 1);
-
-                    });
+            if (!Optional.ofNullable(debugFont).isPresent()) {
+                debugFont = g.getFont().deriveFont(8.5f);
+                debugLineFont = g.getFont().deriveFont(10.0f);
+            }
+            for (Entity<?> e : visibleEntities) {
+                // Move view to camera view
+                moveCameraViewTo(g, e, -1);
+                // draw Entity debug display information.
+                drawDebugInformation(g, e);
+                // move back from camera view
+                moveCameraViewTo(g, e, 1);
+            }
+            stats.labelsRendered = labelCache.getRenderedCount() - labelsRendered;
+            stats.labelsDrawn = labelCache.getDrawnCount() - labelsDrawn;
             // draw some debug information.
             drawDisplayDebugLine(g, attributes);
         }
 
         // release Graphics API
         g.dispose();
+        bufferGraphics = null;
+        stats.drawTime = System.nanoTime() - start;
         rendering = false;
     }
 
+    /**
+     * Fill the {@link Renderer#visibleEntities} list with the active {@link Entity} intersecting the current view,
+     * thanks to the {@link fr.snapgames.demo.core.entity.SpatialIndex} of the {@link fr.snapgames.demo.core.entity.EntityManager},
+     * and sort them according to their layer and priority.
+     * <p>
+     * The view is the {@link Camera} viewport if a camera is active, else the screen area. The {@link Entity} stuck
+     * to the camera are always tested against the screen area.
+     */
+    private void collectVisibleEntities() {
+        visibleEntities.clear();
+        SpatialIndex index = game.getEntityManager().getSpatialIndex();
+        if (Optional.ofNullable(currentCamera).isPresent()) {
+            Rectangle2D viewport = currentCamera.getViewport();
+            double vw = Optional.ofNullable(viewport).isPresent() ? viewport.getWidth() : screenWidth;
+            double vh = Optional.ofNullable(viewport).isPresent() ? viewport.getHeight() : screenHeight;
+            index.queryRect(currentCamera.position.x, currentCamera.position.y, vw, vh, collectInView);
+            index.queryRect(0, 0, screenWidth, screenHeight, collectStuckToCamera);
+        } else {
+            index.queryRect(0, 0, screenWidth, screenHeight, collectAll);
+        }
+        visibleEntities.sort(DISPLAY_ORDER);
+    }
+
+    /**
+     * Draw again only the dirty regions of the buffer (see {@link DirtyRegionTracker}).
+     * <p>
+     * A full redraw is required when the camera has moved, in debug mode, or when the dirty area is over
+     * the threshold.
+     *
+     * @param g the {@link Graphics2D} API to draw things.
+     * @return true if the buffer has been updated through the dirty regions, false if a full redraw is required.
+     */
+    private boolean drawDirtyRegions(Graphics2D g) {
+        double camX = Optional.ofNullable(currentCamera).isPresent() ? currentCamera.position.x : 0.0;
+        double camY = Optional.ofNullable(currentCamera).isPresent() ? currentCamera.position.y : 0.0;
+        boolean cameraMoved = camX != lastCameraX || camY != lastCameraY;
+        lastCameraX = camX;
+        lastCameraY = camY;
+
+        dirtyRegionTracker.begin();
+        for (Entity<?> e : visibleEntities) {
+            if (e.isNotStickToCamera()) {
+                dirtyRegionTracker.track(e, -camX, -camY);
+            } else {
+                dirtyRegionTracker.track(e, 0, 0);
+            }
+        }
+        dirtyRegionTracker.end();
+        // the debug overlays of the previous frame must also be erased.
+        boolean debugDisplayed = previousDebugMode > 0 || game.getDebugMode() > 0;
+        previousDebugMode = game.getDebugMode();
+        if (cameraMoved || debugDisplayed || dirtyRegionTracker.isFullRedrawRequired()) {
+            return false;
+        }
+        stats.dirtyRegions = dirtyRegionTracker.getRegionCount();
+        for (int i = 0; i < dirtyRegionTracker.getRegionCount(); i++) {
+            int x = dirtyRegionTracker.getRegionX(i);
+            int y = dirtyRegionTracker.getRegionY(i);
+            int w = dirtyRegionTracker.getRegionWidth(i);
+            int h = dirtyRegionTracker.getRegionHeight(i);
+            g.setClip(x, y, w, h);
+            g.setColor(Color.BLACK);
+            g.fillRect(x, y, w, h);
+            for (Entity<?> e : visibleEntities) {
+                // static layers may draw out of their bounds, and are only blitted: always draw them.
+                if (e.isStaticLayer() || dirtyRegionTracker.intersects(e, i)) {
+                    moveCameraViewTo(g, e, -1);
+                    drawEntity(g, e);
+                    stats.entitiesDrawn++;
+                    stats.drawCalls++;
+                    moveCameraViewTo(g, e, 1);
+                }
+            }
+        }
+        g.setClip(null);
+        return true;
+    }
+
     private void moveCameraViewTo(Graphics2D g, Entity<?> e, double moveDirection) {
         if (Optional.ofNullable(currentCamera).isPresent() && e.isNotStickToCamera()) {
             g.translate(moveDirection * currentCamera.position.x, moveDirection * currentCamera.position.y);
@@ -148,70 +384,93 @@ public class Renderer {
     }
 
     private void drawDisplayDebugLine(Graphics2D g, Map<String, Object> attributes) {
-        g.setFont(g.getFont().deriveFont(10.0f));
-        g.setColor(new Color(0.3f, 0.0f, 0.0f, 0.5f));
+        g.setColor(DEBUG_LINE_BACKGROUND);
         g.fillRect(0, buffer.getHeight() - 20, buffer.getWidth(), 20);
-        g.setColor(Color.ORANGE);
         int ups = (int) (attributes.getOrDefault("game.ups", -1));
         int fps = (int) (attributes.getOrDefault("game.fps", -1));
         double gameTime = (double) (attributes.getOrDefault("game.time", -1.0));
-        String debugLine = String.format("[ dbg:%d | f:%02d u:%02d |>%s| scn:%s |o:%d | g:%1.3f | gtime: %04.3fs]",
-                game.getDebugMode(),
-                fps, ups,
-                game.isPaused() ? "off" : "on",
-                game.getSceneManager().getCurrent().getName(),
-                game.getEntityManager().getEntities().size(),
-                game.getPhysicEngine().getWorld().getGravity().y,
-                Math.abs(gameTime / 1000.0));
-        g.drawString(debugLine, 8, buffer.getHeight() - 8);
+        debugText.setLength(0);
+        debugText.append("[ dbg:").append(game.getDebugMode())
+                .append(" | f:");
+        Utils.appendPadded(debugText, fps, 2).append(" u:");
+        Utils.appendPadded(debugText, ups, 2)
+                .append(" |>").append(game.isPaused() ? "off" : "on")
+                .append("| scn:").append(game.getSceneManager().getCurrent().getName())
+                .append(" |o:").append(game.getEntityManager().getEntities().size())
+                .append(" | g:");
+        Utils.appendFixed(debugText, game.getPhysicEngine().getWorld().getGravity().y, 3)
+                .append(" | gtime: ");
+        Utils.appendFixed(debugText, Math.abs(gameTime / 1000.0), 3).append("s]");
+        TextLabelCache.Label[] labels = labelCache.getLabels(this, 2);
+        labelCache.update(g, labels[0], debugText, debugLineFont, Color.ORANGE);
+        labelCache.draw(g, labels[0], 8, buffer.getHeight() - 8);
+        // the rendering statistics of the frame, from debug level 3.
+        if (game.getDebugMode() > 2) {
+            g.setColor(DEBUG_LINE_BACKGROUND);
+            g.fillRect(0, buffer.getHeight() - 34, buffer.getWidth(), 14);
+            statsText.setLength(0);
+            statsText.append("[ ");
+            stats.appendTo(statsText).append(" ]");
+            labelCache.update(g, labels[1], statsText, debugFont, Color.ORANGE);
+            labelCache.draw(g, labels[1], 8, buffer.getHeight() - 24);
+        }
     }
 
     /**
-     * The debug information are drawn line by line and applying the concept of priority. if the line starts with
-     * an '(#)' where # is a number from 1 to 9, the line will be displayed according to the debug level value.
+     * The debug information are drawn line by line from the {@link Entity#getDebugEntries()}, each entry being
+     * displayed only if the debug mode is greater or equal to its level.
+     * <p>
+     * Each line is drawn from a {@link TextLabelCache.Label}, rendered again only when its value changes.
      *
      * @param g Graphics2D API to draw things
      * @param e the entity to draw debug information for.
      */
     private void drawDebugInformation(Graphics2D g, Entity<?> e) {
-
-        if (game.getDebugMode() >= e.debug
+        int debugMode = game.getDebugMode();
+        if (debugMode >= e.debug
                 && filteredName(filterWhiteList, e.name)
                 && !filteredName(filterBlackList, e.name)) {
             g.setColor(Color.ORANGE);
             g.draw(e.box);
-            if (game.getDebugMode() > 1) {
+            if (debugMode > 1) {
+                DebugInfo info = e.getDebugEntries();
+                TextLabelCache.Label[] labels = labelCache.getLabels(e, info.size());
+                int nbLines = 0;
+                int ww = 0;
+                for (int i = 0; i < info.size(); i++) {
+                    TextLabelCache.Label label = labels[i];
+                    label.visible = false;
+                    if (debugMode >= info.getLevel(i)) {
+                        debugText.setLength(0);
+                        if (info.appendEntry(i, debugText)) {
+                            labelCache.update(g, label, debugText, debugFont, Color.WHITE);
+                            label.visible = true;
+                            nbLines++;
+                            ww = Math.max(ww, label.getWidth());
+                        }
+                    }
+                }
+
                 int offX = (int) e.position.x + 4;
                 int offY = (int) e.position.y;
-                g.setFont(g.getFont().deriveFont(8.5f));
-                long nbLines = e.getDebugInfo().stream().filter(s -> game.getDebugMode() >= Integer.parseInt(s.substring(1, 2))).count();
-                int hh = (int) (g.getFontMetrics().getHeight()
-                        * (nbLines - 1));
+                int hh = labelCache.getFontMetrics(debugFont).getHeight() * (nbLines - 1);
                 if (e.position.y + hh > playArea.getHeight()) {
                     offY = (int) playArea.getHeight() - hh;
                 }
-
-                int ww = g.getFontMetrics().stringWidth(e.getDebugInfo().stream().max(Comparator.comparingInt(String::length)).get());
-
                 if (e.position.x + ww > playArea.getWidth()) {
                     offX = (int) playArea.getWidth() - ww;
                 }
 
                 int l = 0;
-                for (String s : e.getDebugInfo()) {
-                    if (s.startsWith("(")) {
-                        if (game.getDebugMode() >= Integer.parseInt(s.substring(1, 2))) {
-                            l += 10;
-                            g.setColor(new Color(0.0f, 0.0f, 0.4f, 0.5f));
-                            g.fillRect((int) (offX + e.size.x + 1), offY - 10 + l, ww + 2, 10);
-                            g.setColor(Color.WHITE);
-                            g.drawString(s.substring(3), (int) (offX + e.size.x + 4), offY + l);
-                        }
-                    } else {
+                g.setColor(DEBUG_INFO_BACKGROUND);
+                for (int i = 0; i < info.size(); i++) {
+                    if (labels[i].visible) {
                         l += 10;
-                        g.drawString(s, (int) (offX + e.size.x + 4), offY + l);
+                        g.fillRect((int) (offX + e.size.x + 1), offY - 10 + l, ww + 2, 10);
+                        labelCache.draw(g, labels[i], (int) (offX + e.size.x + 4), offY + l);
                     }
                 }
+                g.setColor(Color.ORANGE);
                 g.drawLine((int) (e.position.x + e.size.x + 1.0), (int) e.position.y, (int) (offX + e.size.x + 3.0), offY);
             }
         }
@@ -220,20 +479,22 @@ public class Renderer {
     /**
      * Return true if the entityName is containing one of the filtered string (coma separated).
      *
-     * @param filter     the filter list (coma separated) to check entityName with
+     * @param filter     the filter list (split on comas) to check entityName with
      * @param entityName the name of the entity to check against the filter list.
      * @return true if the entityName correspond to one of the filter's string, else false.
      */
-    private boolean filteredName(String filter, String entityName) {
-        if (!filter.equals("")) {
-            return Arrays.stream(filter.split(",")).anyMatch(entityName::contains);
-        } else {
-            return false;
+    private boolean filteredName(String[] filter, String entityName) {
+        for (String f : filter) {
+            if (entityName.contains(f)) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
      * Draw an {@link Entity} using the corresponding instance of the {@link DrawHelperPlugin}.
+     * A static layer {@link Entity} is drawn from its cached image (see {@link StaticLayerCache}).
      *
      * @param g the {@link Graphics2D} API to draw anything in Java.
      * @param e the {@link Entity} to be drawn by its corresponding {@link DrawHelperPlugin}
@@ -241,7 +502,36 @@ public class Renderer {
     private void drawEntity(Graphics2D g, Entity<?> e) {
         if (plugins.containsKey(e.getClass())) {
             DrawHelperPlugin<? extends Entity<?>> dhp = plugins.get(e.getClass());
-            dhp.draw(this, g, e);
+            stats.countPluginDraw(dhp.getClass());
+            if (e.isStaticLayer()) {
+                staticLayerCache.draw(this, g, e, dhp);
+            } else {
+                dhp.draw(this, g, e);
+            }
+        }
+    }
+
+    /**
+     * Record the draw commands of an {@link Entity} using the corresponding instance of the {@link DrawHelperPlugin},
+     * with the camera offset if the {@link Entity} is not stuck to the camera.
+     * A static layer {@link Entity} is recorded as its cached image (see {@link StaticLayerCache}).
+     *
+     * @param g the {@link Graphics2D} API providing the rendering configuration.
+     * @param e the {@link Entity} to be recorded by its corresponding {@link DrawHelperPlugin}
+     */
+    private void recordEntity(Graphics2D g, Entity<?> e) {
+        if (plugins.containsKey(e.getClass())) {
+            DrawHelperPlugin<? extends Entity<?>> dhp = plugins.get(e.getClass());
+            stats.countPluginDraw(dhp.getClass());
+            boolean moved = Optional.ofNullable(currentCamera).isPresent() && e.isNotStickToCamera();
+            commands.begin(e,
+                    moved ? -currentCamera.position.x : 0.0,
+                    moved ? -currentCamera.position.y : 0.0);
+            if (e.isStaticLayer()) {
+                staticLayerCache.record(this, g, commands, e, dhp);
+            } else {
+                dhp.record(this, commands, e);
+            }
         }
     }
 
@@ -251,6 +541,10 @@ public class Renderer {
      * @param w the window where to draw rendering output.
      */
     public void drawToWindow(Window w) {
+        long start = System.nanoTime();
+        if (Optional.ofNullable(frameCapture).isPresent()) {
+            frameCapture.capture(buffer);
+        }
         Graphics2D g = w.getGraphics2D();
         if (w.isDisplayable()) {
             g.drawImage(buffer,
@@ -258,6 +552,10 @@ public class Renderer {
                     0, 0, screenWidth, screenHeight,
                     null);
         }
+        stats.presentTime = System.nanoTime() - start;
+        if (Optional.ofNullable(statsSink).isPresent()) {
+            statsSink.publish(stats);
+        }
     }
 
     /**
@@ -269,6 +567,74 @@ public class Renderer {
         return buffer;
     }
 
+    /**
+     * Retrieve the pixels of the drawing buffer, to be written directly by a {@link DrawHelperPlugin}.
+     * <p>
+     * The pixels are only shared with the "raster" backend, whose {@link TileRasterizer} already writes into
+     * them, and only when g is the {@link Graphics2D} API drawing into the buffer for the current frame:
+     * a plugin drawing into another image (like a {@link StaticLayerCache} image) must use g.
+     *
+     * @param g the {@link Graphics2D} API the plugin has been given.
+     * @return the ARGB pixels of the buffer, or null if they must not be written directly.
+     */
+    public int[] getBufferPixels(Graphics2D g) {
+        return g == bufferGraphics ? bufferPixels : null;
+    }
+
+    /**
+     * Retrieve the rendering statistics of the last frame.
+     *
+     * @return the {@link RenderStats} instance.
+     */
+    public RenderStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Retrieve the draw commands recorded for the last frame.
+     *
+     * @return the {@link RenderCommandList} instance.
+     */
+    public RenderCommandList getRenderCommandList() {
+        return commands;
+    }
+
+    /**
+     * Retrieve the frames capture, if activated by the configuration.
+     *
+     * @return the {@link FrameCapture} instance, or null if no capture is requested.
+     */
+    public FrameCapture getFrameCapture() {
+        return frameCapture;
+    }
+
+    /**
+     * Release the {@link Renderer} resources, writing the pending captured frames.
+     */
+    public void dispose() {
+        if (Optional.ofNullable(frameCapture).isPresent()) {
+            try {
+                frameCapture.close();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to close the frames capture: {0}", e.getMessage());
+            }
+            frameCapture = null;
+        }
+        if (Optional.ofNullable(statsSink).isPresent()) {
+            statsSink.close();
+            statsSink = null;
+        }
+    }
+
+    /**
+     * Retrieve the cache of the static layer {@link Entity} images.
+     *
+     * @return the {@link StaticLayerCache} instance.
+     */
+    public StaticLayerCache getStaticLayerCache() {
+        return staticLayerCache;
+    }
+
     /**
      * Set the active {@link Camera} for the rendering process.
      *
@@ -278,6 +644,36 @@ public class Renderer {
         this.currentCamera = currentCamera;
     }
 
+    /**
+     * Retrieve the active {@link Camera} for the rendering process.
+     *
+     * @return the current {@link Camera} (null if none).
+     */
+    public Camera getCurrentCamera() {
+        return currentCamera;
+    }
+
+    /**
+     * Retrieve the area visible on screen for an {@link Entity}, in its own coordinates: the {@link Camera} viewport
+     * for an {@link Entity} following the camera, else the screen area.
+     * <p>
+     * <em>NOTE</em> The returned {@link Rectangle2D} is reused by the next call.
+     *
+     * @param e the drawn {@link Entity}.
+     * @return the visible area.
+     */
+    public Rectangle2D getViewArea(Entity<?> e) {
+        if (Optional.ofNullable(currentCamera).isPresent() && e.isNotStickToCamera()) {
+            Rectangle2D viewport = currentCamera.getViewport();
+            viewArea.setRect(currentCamera.position.x, currentCamera.position.y,
+                    Optional.ofNullable(viewport).isPresent() ? viewport.getWidth() : screenWidth,
+                    Optional.ofNullable(viewport).isPresent() ? viewport.getHeight() : screenHeight);
+        } else {
+            viewArea.setRect(0, 0, screenWidth, screenHeight);
+        }
+        return viewArea;
+    }
+
     /**
      * Return the rendering flag value.
      *
@@ -0,0 +1,182 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.RenderingKey;
+import fr.snapgames.demo.core.gfx.plugins.DrawHelperPlugin;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * The {@link StaticLayerCache} keeps a pre-rendered image for each {@link Entity} flagged as
+ * {@link Entity#isStaticLayer()}, like the {@link fr.snapgames.demo.core.entity.GridObject}.
+ * <p>
+ * The {@link Entity} is drawn once by its {@link DrawHelperPlugin} into compatible images covering its
+ * {@link DrawHelperPlugin#getDrawBounds(Entity)}, and these images are then only blitted at the same place
+ * (the camera offset being already applied by the {@link Renderer}).
+ * The images are rendered again only when the {@link RenderingKey} of the {@link Entity} changes (size, colors,
+ * stroke, etc...) or when the {@link Entity} is moved.
+ * <p>
+ * The drawn area is split into tiles of at most {@link StaticLayerCache#TILE_SIZE} pixels, so that a large
+ * {@link Entity} (like a grid covering a large play area) never needs one huge image, and only the tiles visible
+ * through the {@link Renderer} view are blitted.
+ * <p>
+ * Cached images are weakly linked to their {@link Entity}, so they are released with the {@link Entity} itself.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class StaticLayerCache {
+
+    /**
+     * Margin around the drawn area, keeping the right and bottom strokes in the cached image.
+     */
+    private static final int MARGIN = 1;
+    /**
+     * The maximum width and height of one cached image.
+     */
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * The cached tile images of an {@link Entity}, with the rendering key they have been rendered for.
+     */
+    private static class CachedLayer {
+        BufferedImage[] images;
+        int[] xs;
+        int[] ys;
+        final RenderingKey renderingKey = new RenderingKey();
+        double entityX;
+        double entityY;
+    }
+
+    private final Map<Entity<?>, CachedLayer> layers = new WeakHashMap<>();
+    private final RenderingKey key = new RenderingKey();
+
+    /**
+     * Draw the {@link Entity} e from its cached image, rendering it with the {@link DrawHelperPlugin}
+     * first if needed.
+     *
+     * @param r   the parent {@link Renderer}.
+     * @param g   the {@link Graphics2D} API to draw the cached image with.
+     * @param e   the static {@link Entity} to be drawn.
+     * @param dhp the {@link DrawHelperPlugin} used to render the {@link Entity} into the cached image.
+     */
+    public void draw(Renderer r, Graphics2D g, Entity<?> e, DrawHelperPlugin<? extends Entity<?>> dhp) {
+        CachedLayer layer = getLayer(r, g, e, dhp);
+        Rectangle2D view = getView(r, e);
+        for (int i = 0; i < layer.images.length; i++) {
+            if (isVisible(layer, i, view)) {
+                g.drawImage(layer.images[i], layer.xs[i], layer.ys[i], null);
+            }
+        }
+    }
+
+    /**
+     * Record the cached image of the {@link Entity} e as an image command, rendering it with the
+     * {@link DrawHelperPlugin} first if needed.
+     *
+     * @param r        the parent {@link Renderer}.
+     * @param g        the {@link Graphics2D} API providing the rendering configuration for the cached image.
+     * @param commands the {@link RenderCommandList} to record the image command into.
+     * @param e        the static {@link Entity} to be drawn.
+     * @param dhp      the {@link DrawHelperPlugin} used to render the {@link Entity} into the cached image.
+     */
+    public void record(Renderer r, Graphics2D g, RenderCommandList commands, Entity<?> e,
+                       DrawHelperPlugin<? extends Entity<?>> dhp) {
+        CachedLayer layer = getLayer(r, g, e, dhp);
+        Rectangle2D view = getView(r, e);
+        for (int i = 0; i < layer.images.length; i++) {
+            if (isVisible(layer, i, view)) {
+                commands.image(layer.images[i], layer.xs[i], layer.ys[i]);
+            }
+        }
+    }
+
+    private static Rectangle2D getView(Renderer r, Entity<?> e) {
+        return Optional.ofNullable(r).isPresent() ? r.getViewArea(e) : null;
+    }
+
+    private static boolean isVisible(CachedLayer layer, int i, Rectangle2D view) {
+        return !Optional.ofNullable(view).isPresent()
+                || view.intersects(layer.xs[i], layer.ys[i], layer.images[i].getWidth(), layer.images[i].getHeight());
+    }
+
+    private CachedLayer getLayer(Renderer r, Graphics2D g, Entity<?> e, DrawHelperPlugin<? extends Entity<?>> dhp) {
+        e.createRenderingKey(key.clear());
+        CachedLayer layer = layers.get(e);
+        if (!Optional.ofNullable(layer).isPresent() || !layer.renderingKey.matches(key)
+                || layer.entityX != e.position.x || layer.entityY != e.position.y) {
+            layer = render(r, g, e, dhp);
+            layer.renderingKey.copyFrom(key);
+            layer.entityX = e.position.x;
+            layer.entityY = e.position.y;
+            layers.put(e, layer);
+        }
+        return layer;
+    }
+
+    private CachedLayer render(Renderer r, Graphics2D g, Entity<?> e, DrawHelperPlugin<? extends Entity<?>> dhp) {
+        CachedLayer layer = new CachedLayer();
+        Rectangle2D bounds = dhp.getDrawBounds(e);
+        int x = (int) Math.floor(bounds.getX()) - MARGIN;
+        int y = (int) Math.floor(bounds.getY()) - MARGIN;
+        int width = Math.max((int) Math.ceil(bounds.getMaxX()) + MARGIN - x, 1);
+        int height = Math.max((int) Math.ceil(bounds.getMaxY()) + MARGIN - y, 1);
+        int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        layer.images = new BufferedImage[columns * rows];
+        layer.xs = new int[columns * rows];
+        layer.ys = new int[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int i = row * columns + column;
+                layer.xs[i] = x + column * TILE_SIZE;
+                layer.ys[i] = y + row * TILE_SIZE;
+                layer.images[i] = g.getDeviceConfiguration().createCompatibleImage(
+                        Math.min(TILE_SIZE, width - column * TILE_SIZE),
+                        Math.min(TILE_SIZE, height - row * TILE_SIZE),
+                        Transparency.TRANSLUCENT);
+                Graphics2D lg = layer.images[i].createGraphics();
+                lg.setRenderingHints(g.getRenderingHints());
+                lg.setFont(g.getFont());
+                lg.translate(-layer.xs[i], -layer.ys[i]);
+                dhp.draw(r, lg, e);
+                lg.dispose();
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Release all the cached images.
+     */
+    public void clear() {
+        layers.clear();
+    }
+
+    /**
+     * Return the number of cached static layers.
+     *
+     * @return the number of cached entities.
+     */
+    public int size() {
+        return layers.size();
+    }
+
+    /**
+     * Return the number of cached tile images, for all the cached static layers.
+     *
+     * @return the number of cached images.
+     */
+    public int getTileCount() {
+        int count = 0;
+        for (CachedLayer layer : layers.values()) {
+            count += layer.images.length;
+        }
+        return count;
+    }
+}
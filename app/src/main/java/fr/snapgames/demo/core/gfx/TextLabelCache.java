@@ -0,0 +1,196 @@
+package fr.snapgames.demo.core.gfx;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * The {@link TextLabelCache} keeps the text labels drawn by the {@link Renderer} (debug information, debug line)
+ * pre-rendered into images.
+ * <p>
+ * Each {@link Label} remembers the text it has been rendered with, and the text is rendered again into its image
+ * only when it changes. So drawing a label whose value does not change is only an image blit, without
+ * any glyph rasterization nor String allocation.
+ * <p>
+ * Labels are grouped by owner (usually the {@link fr.snapgames.demo.core.entity.Entity} they belong to), weakly
+ * linked to this owner.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class TextLabelCache {
+
+    /**
+     * One cached text label.
+     */
+    public static class Label {
+        private char[] chars = new char[32];
+        private int length = -1;
+        private Font font;
+        private Color color;
+        private BufferedImage image;
+        private int width;
+        private int height;
+        private int ascent;
+        /**
+         * Free flag for the label user (e.g. to remember if the label must be drawn in this frame).
+         */
+        public boolean visible;
+
+        private boolean sameAs(CharSequence text, Font f, Color c) {
+            if (length != text.length() || font != f || !color.equals(c)) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (chars[i] != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Return the width of the rendered text.
+         *
+         * @return the text width in pixels.
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Return the height of the rendered text.
+         *
+         * @return the text height in pixels.
+         */
+        public int getHeight() {
+            return height;
+        }
+    }
+
+    private final Map<Object, Label[]> labels = new WeakHashMap<>();
+    private final Map<Font, FontMetrics> metrics = new HashMap<>();
+    private final Graphics2D measure;
+    private int renderedCount;
+    private int drawnCount;
+
+    /**
+     * Create a new {@link TextLabelCache}.
+     */
+    public TextLabelCache() {
+        measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+
+    /**
+     * Retrieve the labels of an owner, creating them if needed.
+     *
+     * @param owner the owner of the labels.
+     * @param count the number of labels required.
+     * @return an array of at least count {@link Label}.
+     */
+    public Label[] getLabels(Object owner, int count) {
+        Label[] ls = labels.get(owner);
+        if (!Optional.ofNullable(ls).isPresent() || ls.length < count) {
+            Label[] nls = new Label[count];
+            for (int i = 0; i < count; i++) {
+                nls[i] = (ls != null && i < ls.length) ? ls[i] : new Label();
+            }
+            ls = nls;
+            labels.put(owner, ls);
+        }
+        return ls;
+    }
+
+    /**
+     * Retrieve the (cached) {@link FontMetrics} for the font.
+     *
+     * @param font the font to get metrics for.
+     * @return the corresponding {@link FontMetrics}.
+     */
+    public FontMetrics getFontMetrics(Font font) {
+        return metrics.computeIfAbsent(font, measure::getFontMetrics);
+    }
+
+    /**
+     * Update the label with a text, rendering it again only if the text, the font or the color has changed.
+     *
+     * @param g     the {@link Graphics2D} API used for the image creation and rendering hints.
+     * @param label the {@link Label} to be updated.
+     * @param text  the new text for the label.
+     * @param font  the font for the text.
+     * @param color the color for the text.
+     */
+    public void update(Graphics2D g, Label label, CharSequence text, Font font, Color color) {
+        if (label.length >= 0 && label.sameAs(text, font, color)) {
+            return;
+        }
+        int len = text.length();
+        if (label.chars.length < len) {
+            label.chars = new char[Math.max(len, label.chars.length * 2)];
+        }
+        for (int i = 0; i < len; i++) {
+            label.chars[i] = text.charAt(i);
+        }
+        label.length = len;
+        label.font = font;
+        label.color = color;
+
+        FontMetrics fm = getFontMetrics(font);
+        label.width = fm.charsWidth(label.chars, 0, len);
+        label.height = fm.getHeight();
+        label.ascent = fm.getAscent();
+        if (!Optional.ofNullable(label.image).isPresent()
+                || label.image.getWidth() < label.width + 1
+                || label.image.getHeight() < label.height) {
+            // keep some room to avoid re-creating the image for each new character.
+            label.image = g.getDeviceConfiguration().createCompatibleImage(
+                    ((label.width + 1) / 64 + 1) * 64, label.height, Transparency.TRANSLUCENT);
+        }
+        Graphics2D lg = label.image.createGraphics();
+        lg.setComposite(AlphaComposite.Clear);
+        lg.fillRect(0, 0, label.image.getWidth(), label.image.getHeight());
+        lg.setComposite(AlphaComposite.SrcOver);
+        lg.setRenderingHints(g.getRenderingHints());
+        lg.setFont(font);
+        lg.setColor(color);
+        lg.drawChars(label.chars, 0, len, 0, label.ascent);
+        lg.dispose();
+        renderedCount++;
+    }
+
+    /**
+     * Draw the label with its text baseline at (x,y), like {@link Graphics2D#drawString(String, int, int)} would do.
+     *
+     * @param g     the {@link Graphics2D} API to draw with.
+     * @param label the {@link Label} to be drawn.
+     * @param x     the horizontal position.
+     * @param y     the baseline vertical position.
+     */
+    public void draw(Graphics2D g, Label label, int x, int y) {
+        if (Optional.ofNullable(label.image).isPresent()) {
+            g.drawImage(label.image, x, y - label.ascent, null);
+            drawnCount++;
+        }
+    }
+
+    /**
+     * Return the number of label renderings since the creation of this cache.
+     *
+     * @return the number of times a label text has been rendered.
+     */
+    public int getRenderedCount() {
+        return renderedCount;
+    }
+
+    /**
+     * Return the number of label drawings since the creation of this cache.
+     *
+     * @return the number of times a label has been drawn.
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+}
@@ -141,13 +141,14 @@ public class Window extends JPanel {
 
 
     /**
-     * Add the {@link InputHandler} to manage keys and mouse.
+     * Add the {@link InputHandler} to manage keys, mouse buttons and mouse moves.
      *
      * @param inputHandler the {@link InputHandler} instance to be connected to this {@link Window}.
      */
     public void addListener(InputHandler inputHandler) {
         frame.addKeyListener(inputHandler);
         frame.addMouseListener(inputHandler);
+        frame.addMouseMotionListener(inputHandler);
         backUpListeners();
     }
 
@@ -0,0 +1,269 @@
+package fr.snapgames.demo.core.gfx.capture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link FrameCapture} records the rendered frames for QA and performance regression purpose,
+ * without slowing down the game loop.
+ * <p>
+ * The game thread only copies the pixels of the rendering buffer with a {@link System#arraycopy} into one
+ * of the preallocated frames of a pool, and hands it to a background encoder thread. This encoder writes
+ * the frames to disk, and gives them back to the pool. The game thread never blocks: if no free frame is
+ * available (the encoder is late), the captured frame is dropped and counted.
+ * <p>
+ * Two output formats are supported:
+ * <ul>
+ *     <li>{@link Format#PNG}: a sequence of <code>frame-000000.png</code> images into the output directory,</li>
+ *     <li>{@link Format#RAW}: one raw RGBA stream file, each frame being width x height x 4 bytes,
+ *     to be encoded later, e.g. with
+ *     <code>ffmpeg -f rawvideo -pixel_format rgba -video_size WxH -i capture.rgba capture.mp4</code>.</li>
+ * </ul>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class FrameCapture implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(FrameCapture.class.getName());
+
+    /**
+     * Output format of the captured frames.
+     */
+    public enum Format {
+        PNG,
+        RAW
+    }
+
+    /**
+     * A preallocated captured frame.
+     */
+    private static class Frame {
+        final int[] pixels;
+        long index;
+
+        Frame(int size) {
+            pixels = new int[size];
+        }
+    }
+
+    /**
+     * Frame sent to the encoder to request its end.
+     */
+    private static final Frame END_OF_CAPTURE = new Frame(0);
+
+    private final int width;
+    private final int height;
+    private final Path output;
+    private final Format format;
+
+    private final BlockingQueue<Frame> freeFrames;
+    private final BlockingQueue<Frame> pendingFrames;
+    private final Thread encoder;
+
+    private boolean enabled = true;
+    private boolean closed;
+    private long frameIndex;
+    private long capturedCount;
+    private long droppedCount;
+    private volatile long writtenCount;
+    private volatile boolean failed;
+
+    // encoder side buffers, only used by the encoder thread.
+    private BufferedImage pngImage;
+    private ByteBuffer rawBuffer;
+    private FileChannel rawChannel;
+
+    /**
+     * Create a new {@link FrameCapture} and start its encoder thread.
+     *
+     * @param width    the width of the captured frames.
+     * @param height   the height of the captured frames.
+     * @param output   the output directory for {@link Format#PNG}, or the output file for {@link Format#RAW}.
+     * @param format   the output {@link Format}.
+     * @param poolSize the number of preallocated frames.
+     * @throws IOException if the output can not be created.
+     */
+    public FrameCapture(int width, int height, Path output, Format format, int poolSize) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.output = output;
+        this.format = format;
+        int size = Math.max(poolSize, 1);
+        freeFrames = new ArrayBlockingQueue<>(size);
+        // one more room for the end of capture request.
+        pendingFrames = new ArrayBlockingQueue<>(size + 1);
+        for (int i = 0; i < size; i++) {
+            freeFrames.add(new Frame(width * height));
+        }
+        if (format == Format.PNG) {
+            Files.createDirectories(output);
+            pngImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        } else {
+            Optional.ofNullable(output.toAbsolutePath().getParent()).ifPresent(p -> p.toFile().mkdirs());
+            rawChannel = FileChannel.open(output,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            rawBuffer = ByteBuffer.allocateDirect(width * height * 4);
+        }
+        encoder = new Thread(this::encode, "frame-capture");
+        encoder.setDaemon(true);
+        encoder.start();
+        logger.log(Level.INFO, "Start capturing {0}x{1} frames as {2} to {3}",
+                new Object[]{width, height, format, output});
+    }
+
+    /**
+     * Capture the current content of the image. This never blocks: if no free frame is available,
+     * the frame is dropped.
+     *
+     * @param image the rendered image to be captured, with the same size as this {@link FrameCapture}.
+     * @return true if the frame has been captured, false if it has been dropped (or if the capture is disabled).
+     */
+    public boolean capture(BufferedImage image) {
+        if (!enabled || closed || failed) {
+            return false;
+        }
+        long index = frameIndex++;
+        Frame frame = freeFrames.poll();
+        if (!Optional.ofNullable(frame).isPresent()) {
+            droppedCount++;
+            return false;
+        }
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB) {
+            int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            System.arraycopy(data, 0, frame.pixels, 0, frame.pixels.length);
+        } else {
+            image.getRGB(0, 0, width, height, frame.pixels, 0, width);
+        }
+        frame.index = index;
+        pendingFrames.offer(frame);
+        capturedCount++;
+        return true;
+    }
+
+    private void encode() {
+        try {
+            while (true) {
+                Frame frame = pendingFrames.take();
+                if (frame == END_OF_CAPTURE) {
+                    break;
+                }
+                try {
+                    if (!failed) {
+                        write(frame);
+                        writtenCount++;
+                    }
+                } catch (IOException e) {
+                    failed = true;
+                    logger.log(Level.SEVERE, "Unable to write captured frame {0}, capture stopped: {1}",
+                            new Object[]{frame.index, e.getMessage()});
+                }
+                freeFrames.offer(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Frame frame) throws IOException {
+        if (format == Format.PNG) {
+            int[] data = ((DataBufferInt) pngImage.getRaster().getDataBuffer()).getData();
+            System.arraycopy(frame.pixels, 0, data, 0, data.length);
+            ImageIO.write(pngImage, "png", output.resolve(String.format("frame-%06d.png", frame.index)).toFile());
+        } else {
+            rawBuffer.clear();
+            for (int argb : frame.pixels) {
+                // ARGB to RGBA
+                rawBuffer.putInt((argb << 8) | (argb >>> 24));
+            }
+            rawBuffer.flip();
+            while (rawBuffer.hasRemaining()) {
+                rawChannel.write(rawBuffer);
+            }
+        }
+    }
+
+    /**
+     * Stop the capture: the pending frames are written before the encoder thread ends.
+     *
+     * @throws IOException if the raw output file can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pendingFrames.offer(END_OF_CAPTURE);
+        try {
+            encoder.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Optional.ofNullable(rawChannel).isPresent()) {
+            rawChannel.close();
+        }
+        logger.log(Level.INFO, "Capture stopped: {0} frames written, {1} frames dropped",
+                new Object[]{writtenCount, droppedCount});
+    }
+
+    /**
+     * Enable or disable the capture (e.g. to capture only a part of the game session).
+     *
+     * @param enabled true to capture the next frames.
+     * @return the updated {@link FrameCapture} (Fluent API).
+     */
+    public FrameCapture setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Return true if the frames are currently captured.
+     *
+     * @return the enabled state.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Return the number of frames copied for the encoder.
+     *
+     * @return the number of captured frames.
+     */
+    public long getCapturedCount() {
+        return capturedCount;
+    }
+
+    /**
+     * Return the number of frames dropped because no free frame was available.
+     *
+     * @return the number of dropped frames.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Return the number of frames written by the encoder.
+     *
+     * @return the number of written frames.
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+}
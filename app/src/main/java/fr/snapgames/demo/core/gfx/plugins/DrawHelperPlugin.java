@@ -2,9 +2,11 @@ package fr.snapgames.demo.core.gfx.plugins;
 
 
 import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.gfx.RenderCommandList;
 import fr.snapgames.demo.core.gfx.Renderer;
 
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
 
 /**
  * The DrawHelperPlugin define how a helper plugin must be implemented through
@@ -33,4 +35,28 @@ public interface DrawHelperPlugin<T extends Entity<?>> {
      */
     public void draw(Renderer r, Graphics2D g, Entity<?> e);
 
+    /**
+     * Record the draw commands for this specific {@link Entity} implementation into the {@link RenderCommandList}.
+     * By default, a custom command is recorded, calling {@link DrawHelperPlugin#draw(Renderer, Graphics2D, Entity)}
+     * at execution time.
+     *
+     * @param r        the parent {@link Renderer} service
+     * @param commands the {@link RenderCommandList} to record the commands into.
+     * @param e        the {@link Entity} instance to be drawn.
+     */
+    default void record(Renderer r, RenderCommandList commands, Entity<?> e) {
+        commands.custom(this, e);
+    }
+
+    /**
+     * Return the area really covered by the drawing of this {@link Entity}, used when the drawing must be
+     * cached or clipped. By default, this is the {@link Entity} bounds.
+     *
+     * @param e the {@link Entity} instance to be drawn.
+     * @return the covered area as a {@link Rectangle2D}.
+     */
+    default Rectangle2D getDrawBounds(Entity<?> e) {
+        return new Rectangle2D.Double(e.position.x, e.position.y, e.size.x, e.size.y);
+    }
+
 }
@@ -2,6 +2,7 @@ package fr.snapgames.demo.core.gfx.plugins;
 
 import fr.snapgames.demo.core.entity.Entity;
 import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.gfx.RenderCommandList;
 import fr.snapgames.demo.core.gfx.Renderer;
 
 import java.awt.*;
@@ -18,44 +19,61 @@ import java.util.Optional;
  */
 public class GameObjectDrawHelperPlugin implements DrawHelperPlugin<GameObject> {
 
+    private final RenderCommandList replay = new RenderCommandList();
+
     @Override
     public Class<GameObject> getEntityType() {
         return GameObject.class;
     }
 
+    /**
+     * Draw the {@link GameObject} by replaying its recorded commands.
+     *
+     * @param r      the parent {@link Renderer} service
+     * @param g      the {@link Graphics2D} API instance to be used
+     * @param entity the {@link GameObject} instance to be drawn.
+     */
     @Override
     public void draw(Renderer r, Graphics2D g, Entity<?> entity) {
+        replay.replay(r, g, this, entity);
+    }
+
+    @Override
+    public void record(Renderer r, RenderCommandList commands, Entity<?> entity) {
         GameObject go = (GameObject) entity;
         switch (go.type) {
             case IMAGE -> {
-                if (go.direction > 0) {
-                    g.drawImage(go.image, (int) go.position.x, (int) go.position.y, null);
-                } else {
-                    g.drawImage(go.image,
-                            (int) (go.position.x + go.size.x), (int) go.position.y, -(int) go.size.x, (int) go.size.y,
-                            null);
-
+                if (Optional.ofNullable(go.image).isPresent() && go.direction > 0) {
+                    commands.image(go.image, (int) go.position.x, (int) go.position.y);
+                } else if (Optional.ofNullable(go.image).isPresent()) {
+                    commands.image(go.image,
+                            (int) (go.position.x + go.size.x), (int) go.position.y, -(int) go.size.x, (int) go.size.y);
+                }
+            }
+            case POINT, RECTANGLE -> {
+                if (Optional.ofNullable(go.fillColor).isPresent()) {
+                    commands.fillRect(go.fillColor, go.position.x, go.position.y, go.size.x, go.size.y);
+                }
+                if (Optional.ofNullable(go.borderColor).isPresent()) {
+                    commands.drawRect(go.borderColor, null, go.position.x, go.position.y, go.size.x, go.size.y);
                 }
             }
-            case POINT, RECTANGLE, ELLIPSE -> {
+            case ELLIPSE -> {
                 if (Optional.ofNullable(go.fillColor).isPresent()) {
-                    g.setColor(go.fillColor);
-                    g.fill(go.box);
+                    commands.fillEllipse(go.fillColor, go.position.x, go.position.y, go.size.x, go.size.y);
                 }
                 if (Optional.ofNullable(go.borderColor).isPresent()) {
-                    g.setColor(go.borderColor);
-                    g.draw(go.box);
+                    commands.drawEllipse(go.borderColor, null, go.position.x, go.position.y, go.size.x, go.size.y);
                 }
             }
             case LINE -> {
                 if (Optional.ofNullable(go.borderColor).isPresent()) {
-                    g.setColor(go.borderColor);
-                    g.drawLine((int) go.position.x, (int) go.position.y,
+                    commands.line(go.borderColor, null, (int) go.position.x, (int) go.position.y,
                             (int) (go.position.x + go.size.x), (int) (go.position.y + go.size.y));
                 }
             }
             default -> {
-                // nothing to test here
+                // nothing to record.
             }
         }
     }
@@ -2,9 +2,11 @@ package fr.snapgames.demo.core.gfx.plugins;
 
 import fr.snapgames.demo.core.entity.Entity;
 import fr.snapgames.demo.core.entity.GridObject;
+import fr.snapgames.demo.core.gfx.RenderCommandList;
 import fr.snapgames.demo.core.gfx.Renderer;
 
 import java.awt.*;
+import java.awt.geom.Rectangle2D;
 
 /**
  * Add the GridObject draw helper.
@@ -19,7 +21,7 @@ public class GridObjectDrawHelperPlugin implements DrawHelperPlugin<GridObject>
     }
 
     @Override
-    public void draw(Renderer r, Graphics2D g, Entity e) {
+    public void draw(Renderer r, Graphics2D g, Entity<?> e) {
         GridObject go = (GridObject) e;
         g.setColor(go.borderColor);
         Stroke backPreviousStrokeValue = null;
@@ -37,4 +39,29 @@ public class GridObjectDrawHelperPlugin implements DrawHelperPlugin<GridObject>
             g.setStroke(backPreviousStrokeValue);
         }
     }
+
+    @Override
+    public void record(Renderer r, RenderCommandList commands, Entity<?> e) {
+        GridObject go = (GridObject) e;
+        for (double x = 0; x < go.size.x; x += go.getStepX()) {
+            commands.drawRect(go.borderColor, go.getStroke(), (int) x, 0, (int) go.getStepX(), (int) go.size.y);
+        }
+        for (double y = 0; y < go.size.y; y += go.getStepY()) {
+            commands.drawRect(go.borderColor, go.getStroke(), 0, (int) y, (int) go.size.x, (int) go.getStepY());
+        }
+    }
+
+    /**
+     * The grid is drawn from the origin, and its last cells can go beyond its size.
+     *
+     * @param e the {@link GridObject} instance to be drawn.
+     * @return the area covered by the grid.
+     */
+    @Override
+    public Rectangle2D getDrawBounds(Entity<?> e) {
+        GridObject go = (GridObject) e;
+        return new Rectangle2D.Double(0, 0,
+                Math.max(go.size.x, Math.ceil(go.size.x / go.getStepX()) * go.getStepX()),
+                Math.max(go.size.y, Math.ceil(go.size.y / go.getStepY()) * go.getStepY()));
+    }
 }
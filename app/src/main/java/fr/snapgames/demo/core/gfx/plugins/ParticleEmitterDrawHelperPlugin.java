@@ -0,0 +1,170 @@
+package fr.snapgames.demo.core.gfx.plugins;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.gfx.Renderer;
+import fr.snapgames.demo.core.particle.ParticleEmitter;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Optional;
+
+/**
+ * This is the {@link ParticleEmitter} rendering plugin.
+ * <p>
+ * All the particles of an emitter are drawn in one pass: when the {@link Renderer} shares its buffer pixels for the
+ * given {@link Graphics2D} (see {@link Renderer#getBufferPixels(Graphics2D)}) with a simple translation, the
+ * particle pixels are blended directly into the buffer pixel array (fading out with the particle remaining life),
+ * without any {@link Graphics2D} call per particle.
+ * Otherwise (default backend, rotated or scaled {@link Graphics2D}, other target image), each particle is drawn with
+ * {@link Graphics2D#fillRect(int, int, int, int)}, with colors reused from a small cache.
+ *
+ * @author Frédéric Delorme
+ * @see DrawHelperPlugin
+ * @see Renderer
+ * @see ParticleEmitter
+ * @since 0.1.4
+ */
+public class ParticleEmitterDrawHelperPlugin implements DrawHelperPlugin<ParticleEmitter> {
+
+    private static final int COLOR_CACHE_SIZE = 256;
+
+    // the colors used by the particles, indexed on their ARGB value hash.
+    private final Color[] colorCache = new Color[COLOR_CACHE_SIZE];
+
+    @Override
+    public Class<ParticleEmitter> getEntityType() {
+        return ParticleEmitter.class;
+    }
+
+    @Override
+    public void draw(Renderer r, Graphics2D g, Entity<?> e) {
+        ParticleEmitter pe = (ParticleEmitter) e;
+        if (pe.getCount() == 0) {
+            return;
+        }
+        AffineTransform t = g.getTransform();
+        int[] pixels = Optional.ofNullable(r).isPresent() ? r.getBufferPixels(g) : null;
+        if (Optional.ofNullable(pixels).isPresent() && (t.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+            BufferedImage buffer = r.getBuffer();
+            drawPixels(pixels, buffer.getWidth(), buffer.getHeight(), g.getClipBounds(), pe,
+                    (int) Math.floor(t.getTranslateX()), (int) Math.floor(t.getTranslateY()));
+        } else {
+            drawShapes(g, pe);
+        }
+    }
+
+    /**
+     * Blend the particles directly into the pixels of the ARGB buffer.
+     *
+     * @param pixels the target image pixels.
+     * @param width  the target image width.
+     * @param height the target image height.
+     * @param clip   the current clip area in user space (null for the full image).
+     * @param pe     the {@link ParticleEmitter} to draw.
+     * @param tx     the horizontal translation to device space.
+     * @param ty     the vertical translation to device space.
+     */
+    private void drawPixels(int[] pixels, int width, int height, Rectangle clip, ParticleEmitter pe, int tx, int ty) {
+        int minX = 0, minY = 0, maxX = width, maxY = height;
+        if (Optional.ofNullable(clip).isPresent()) {
+            minX = Math.max(minX, clip.x + tx);
+            minY = Math.max(minY, clip.y + ty);
+            maxX = Math.min(maxX, clip.x + clip.width + tx);
+            maxY = Math.min(maxY, clip.y + clip.height + ty);
+        }
+        float[] xs = pe.getXs();
+        float[] ys = pe.getYs();
+        float[] lives = pe.getLives();
+        float[] maxLives = pe.getMaxLives();
+        int[] colors = pe.getColors();
+        int ps = pe.getParticleSize();
+        for (int i = 0, n = pe.getCount(); i < n; i++) {
+            int x0 = (int) Math.floor(xs[i]) + tx;
+            int y0 = (int) Math.floor(ys[i]) + ty;
+            int x1 = Math.min(x0 + ps, maxX);
+            int y1 = Math.min(y0 + ps, maxY);
+            x0 = Math.max(x0, minX);
+            y0 = Math.max(y0, minY);
+            if (x0 >= x1 || y0 >= y1) {
+                continue;
+            }
+            int c = colors[i];
+            int alpha = (int) (((c >>> 24) & 0xff) * Math.min(1.0f, lives[i] / maxLives[i]));
+            if (alpha <= 0) {
+                continue;
+            }
+            for (int y = y0; y < y1; y++) {
+                int row = y * width;
+                for (int x = x0; x < x1; x++) {
+                    pixels[row + x] = blend(pixels[row + x], c, alpha);
+                }
+            }
+        }
+    }
+
+    /**
+     * Blend the color src with the given alpha over the non premultiplied ARGB color dst.
+     *
+     * @param dst   the destination color.
+     * @param src   the source color (its alpha is ignored).
+     * @param alpha the source alpha, from 0 to 255.
+     * @return the resulting color.
+     */
+    private static int blend(int dst, int src, int alpha) {
+        if (alpha >= 255) {
+            return src | 0xff000000;
+        }
+        int da = dst >>> 24;
+        int inv = 255 - alpha;
+        int outA = alpha + da * inv / 255;
+        if (outA == 0) {
+            return 0;
+        }
+        int dw = da * inv / 255;
+        int r = (((src >> 16) & 0xff) * alpha + ((dst >> 16) & 0xff) * dw) / outA;
+        int gr = (((src >> 8) & 0xff) * alpha + ((dst >> 8) & 0xff) * dw) / outA;
+        int b = ((src & 0xff) * alpha + (dst & 0xff) * dw) / outA;
+        return (outA << 24) | (r << 16) | (gr << 8) | b;
+    }
+
+    /**
+     * Draw the particles through the {@link Graphics2D} API.
+     *
+     * @param g  the {@link Graphics2D} API instance to be used.
+     * @param pe the {@link ParticleEmitter} to draw.
+     */
+    private void drawShapes(Graphics2D g, ParticleEmitter pe) {
+        float[] xs = pe.getXs();
+        float[] ys = pe.getYs();
+        float[] lives = pe.getLives();
+        float[] maxLives = pe.getMaxLives();
+        int[] colors = pe.getColors();
+        int ps = pe.getParticleSize();
+        Color previous = g.getColor();
+        for (int i = 0, n = pe.getCount(); i < n; i++) {
+            int c = colors[i];
+            int alpha = (int) (((c >>> 24) & 0xff) * Math.min(1.0f, lives[i] / maxLives[i]));
+            g.setColor(getColor((c & 0x00ffffff) | (alpha << 24)));
+            g.fillRect((int) Math.floor(xs[i]), (int) Math.floor(ys[i]), ps, ps);
+        }
+        g.setColor(previous);
+    }
+
+    /**
+     * Retrieve the {@link Color} for the ARGB value from the cache, only creating it when missing.
+     *
+     * @param argb the ARGB color value.
+     * @return the corresponding {@link Color}.
+     */
+    private Color getColor(int argb) {
+        int h = argb * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & (COLOR_CACHE_SIZE - 1);
+        Color c = colorCache[i];
+        if (!Optional.ofNullable(c).isPresent() || c.getRGB() != argb) {
+            c = new Color(argb, true);
+            colorCache[i] = c;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,89 @@
+package fr.snapgames.demo.core.gfx.plugins;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.gfx.RenderCommandList;
+import fr.snapgames.demo.core.gfx.Renderer;
+import fr.snapgames.demo.core.tile.TileMap;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Optional;
+
+/**
+ * This is the {@link TileMap} rendering plugin.
+ * <p>
+ * The chunks of the map are first streamed around the area visible through the current
+ * {@link fr.snapgames.demo.core.entity.Camera} (see {@link Renderer#getViewArea(Entity)}), then only the
+ * pre-rendered images of the visible chunks are drawn: one image per chunk, whatever the number of tiles is.
+ *
+ * @author Frédéric Delorme
+ * @see DrawHelperPlugin
+ * @see Renderer
+ * @see TileMap
+ * @since 0.1.4
+ */
+public class TileMapDrawHelperPlugin implements DrawHelperPlugin<TileMap> {
+
+    private final Rectangle2D fullArea = new Rectangle2D.Double();
+    private final RenderCommandList replay = new RenderCommandList();
+
+    @Override
+    public Class<TileMap> getEntityType() {
+        return TileMap.class;
+    }
+
+    /**
+     * Draw the visible chunks of the {@link TileMap} by replaying its recorded commands.
+     *
+     * @param r the parent {@link Renderer} service
+     * @param g the {@link Graphics2D} API instance to be used
+     * @param e the {@link TileMap} instance to be drawn.
+     */
+    @Override
+    public void draw(Renderer r, Graphics2D g, Entity<?> e) {
+        replay.replay(r, g, this, e);
+    }
+
+    @Override
+    public void record(Renderer r, RenderCommandList commands, Entity<?> e) {
+        TileMap map = (TileMap) e;
+        Rectangle2D view = getView(r, map);
+        map.stream(view);
+        int cx0 = Math.max(0, map.getChunkColumn(view.getMinX()));
+        int cy0 = Math.max(0, map.getChunkRow(view.getMinY()));
+        int cx1 = Math.min(map.getChunkColumns() - 1, map.getChunkColumn(view.getMaxX()));
+        int cy1 = Math.min(map.getChunkRows() - 1, map.getChunkRow(view.getMaxY()));
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                BufferedImage chunk = map.getChunk(cx, cy);
+                if (Optional.ofNullable(chunk).isPresent()) {
+                    commands.image(chunk, getChunkX(map, cx), getChunkY(map, cy));
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve the visible area of the map: the {@link Renderer} view, or the whole map without any {@link Renderer}.
+     *
+     * @param r   the parent {@link Renderer} (can be null).
+     * @param map the drawn {@link TileMap}.
+     * @return the visible area, in world coordinates.
+     */
+    private Rectangle2D getView(Renderer r, TileMap map) {
+        if (Optional.ofNullable(r).isPresent()) {
+            return r.getViewArea(map);
+        }
+        fullArea.setRect(map.position.x, map.position.y, map.size.x, map.size.y);
+        return fullArea;
+    }
+
+    private static int getChunkX(TileMap map, int chunkColumn) {
+        return (int) map.position.x + chunkColumn * map.getChunkSize() * map.getTileWidth();
+    }
+
+    private static int getChunkY(TileMap map, int chunkRow) {
+        return (int) map.position.y + chunkRow * map.getChunkSize() * map.getTileHeight();
+    }
+}
@@ -0,0 +1,445 @@
+package fr.snapgames.demo.core.gfx.raster;
+
+import fr.snapgames.demo.core.entity.GameObject;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * The {@link TileRasterizer} is an optional raster backend for the {@link fr.snapgames.demo.core.gfx.Renderer},
+ * drawing the simple {@link GameObject} primitives (rectangle, ellipse, line, point and opaque image)
+ * directly into the <code>int[]</code> pixels of the rendering buffer.
+ * <p>
+ * The primitives are first added to a batch, in drawing order, and binned into the screen tiles they cover.
+ * On {@link TileRasterizer#flush()}, all the tiles are rasterized in parallel: each tile only writes its own pixels,
+ * processing its primitives in the batch order, so no synchronization is needed and the drawing order is kept.
+ * <p>
+ * Shapes edges are antialiased with a simple coverage computation (box overlap for rectangles, approximated signed
+ * distance for ellipses and lines), close to the Java2D antialiased rendering.
+ * <p>
+ * The primitives are fed by the {@link fr.snapgames.demo.core.gfx.RenderCommandList} execution, which flushes
+ * the batch before drawing anything through the {@link Graphics2D} API, to keep the drawing order.
+ * <p>
+ * Writing the pixels prevents Java2D from accelerating the rendering buffer: that is why this backend is optional,
+ * and only created when the "raster" backend is selected.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class TileRasterizer {
+
+    /**
+     * Size of a square tile in pixels.
+     */
+    public static final int TILE_SIZE = 64;
+    /**
+     * Below this number of primitives, the tiles are rasterized by the calling thread only.
+     */
+    public static final int PARALLEL_THRESHOLD = 64;
+
+    private static final byte RECT = 1;
+    private static final byte ELLIPSE = 2;
+    private static final byte LINE = 3;
+    private static final byte IMAGE = 4;
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final int tilesX;
+    private final int tilesY;
+
+    // primitives batch (structure of arrays).
+    private int count;
+    private byte[] types = new byte[256];
+    private double[] x0s = new double[256];
+    private double[] y0s = new double[256];
+    private double[] x1s = new double[256];
+    private double[] y1s = new double[256];
+    private int[] fills = new int[256];
+    private int[] borders = new int[256];
+    private int[][] images = new int[256][];
+    private int[] imageWidths = new int[256];
+
+    // primitives indexes binned per tile.
+    private final int[][] tilePrimitives;
+    private final int[] tileCounts;
+
+    private final Map<BufferedImage, int[]> imagePixels = new WeakHashMap<>();
+
+    /**
+     * Create a new {@link TileRasterizer} drawing into the buffer.
+     *
+     * @param buffer the {@link BufferedImage} to draw into, must be a {@link BufferedImage#TYPE_INT_ARGB} image.
+     */
+    public TileRasterizer(BufferedImage buffer) {
+        this.width = buffer.getWidth();
+        this.height = buffer.getHeight();
+        this.pixels = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
+        this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilePrimitives = new int[tilesX * tilesY][16];
+        this.tileCounts = new int[tilesX * tilesY];
+    }
+
+    /**
+     * Add a rectangle from (x0,y0) to (x1,y1), filled and/or with a 1 pixel border.
+     *
+     * @param x0     the left position.
+     * @param y0     the top position.
+     * @param x1     the right position.
+     * @param y1     the bottom position.
+     * @param fill   the fill color (null for no fill).
+     * @param border the border color (null for no border).
+     */
+    public void addRect(double x0, double y0, double x1, double y1, Color fill, Color border) {
+        addPrimitive(RECT, x0, y0, x1, y1, argb(fill), argb(border), null, 0);
+    }
+
+    /**
+     * Add an ellipse inside the (x0,y0)-(x1,y1) box, filled and/or with a 1 pixel border.
+     *
+     * @param x0     the left position.
+     * @param y0     the top position.
+     * @param x1     the right position.
+     * @param y1     the bottom position.
+     * @param fill   the fill color (null for no fill).
+     * @param border the border color (null for no border).
+     */
+    public void addEllipse(double x0, double y0, double x1, double y1, Color fill, Color border) {
+        addPrimitive(ELLIPSE, x0, y0, x1, y1, argb(fill), argb(border), null, 0);
+    }
+
+    /**
+     * Add a 1 pixel line from (x0,y0) to (x1,y1).
+     *
+     * @param x0    the start horizontal position.
+     * @param y0    the start vertical position.
+     * @param x1    the end horizontal position.
+     * @param y1    the end vertical position.
+     * @param color the line color.
+     */
+    public void addLine(double x0, double y0, double x1, double y1, Color color) {
+        addPrimitive(LINE, x0, y0, x1, y1, 0, argb(color), null, 0);
+    }
+
+    /**
+     * Add an opaque image at its natural size, at the (x,y) position.
+     *
+     * @param image   the image to be drawn.
+     * @param x       the horizontal position.
+     * @param y       the vertical position.
+     * @param flipped true to flip the image horizontally.
+     * @return false if the image is not opaque, and can not be drawn by this backend.
+     */
+    public boolean addImage(BufferedImage image, double x, double y, boolean flipped) {
+        if (image.getTransparency() != Transparency.OPAQUE) {
+            return false;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] src = imagePixels.computeIfAbsent(image, img -> img.getRGB(0, 0, w, h, null, 0, w));
+        double ix = (int) x;
+        double iy = (int) y;
+        // the direction is encoded in the fill value: 1 = normal, -1 = horizontally flipped.
+        addPrimitive(IMAGE, ix, iy, ix + w, iy + h, flipped ? -1 : 1, 0, src, w);
+        return true;
+    }
+
+    private static int argb(Color c) {
+        return Optional.ofNullable(c).isPresent() ? c.getRGB() : 0;
+    }
+
+    private void addPrimitive(byte type, double x0, double y0, double x1, double y1,
+                              int fill, int border, int[] image, int imageWidth) {
+        if (count == types.length) {
+            int n = count * 2;
+            types = Arrays.copyOf(types, n);
+            x0s = Arrays.copyOf(x0s, n);
+            y0s = Arrays.copyOf(y0s, n);
+            x1s = Arrays.copyOf(x1s, n);
+            y1s = Arrays.copyOf(y1s, n);
+            fills = Arrays.copyOf(fills, n);
+            borders = Arrays.copyOf(borders, n);
+            images = Arrays.copyOf(images, n);
+            imageWidths = Arrays.copyOf(imageWidths, n);
+        }
+        int i = count++;
+        types[i] = type;
+        x0s[i] = x0;
+        y0s[i] = y0;
+        x1s[i] = x1;
+        y1s[i] = y1;
+        fills[i] = fill;
+        borders[i] = border;
+        images[i] = image;
+        imageWidths[i] = imageWidth;
+
+        // bin the primitive into the tiles it covers (with 1 pixel for the antialiased borders).
+        int tx0 = clamp((int) Math.floor(Math.min(x0, x1) - 1) / TILE_SIZE, 0, tilesX - 1);
+        int ty0 = clamp((int) Math.floor(Math.min(y0, y1) - 1) / TILE_SIZE, 0, tilesY - 1);
+        int tx1 = (int) Math.ceil(Math.max(x0, x1) + 1) / TILE_SIZE;
+        int ty1 = (int) Math.ceil(Math.max(y0, y1) + 1) / TILE_SIZE;
+        if (Math.max(x0, x1) + 1 < 0 || Math.max(y0, y1) + 1 < 0 || tx1 < 0 || ty1 < 0
+                || Math.min(x0, x1) - 1 >= width || Math.min(y0, y1) - 1 >= height) {
+            return;
+        }
+        tx1 = Math.min(tx1, tilesX - 1);
+        ty1 = Math.min(ty1, tilesY - 1);
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                int t = ty * tilesX + tx;
+                if (tileCounts[t] == tilePrimitives[t].length) {
+                    tilePrimitives[t] = Arrays.copyOf(tilePrimitives[t], tileCounts[t] * 2);
+                }
+                tilePrimitives[t][tileCounts[t]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Return the number of primitives waiting in the batch.
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize() {
+        return count;
+    }
+
+    /**
+     * Rasterize all the batched primitives into the buffer and clear the batch.
+     */
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+        int nbTiles = tilesX * tilesY;
+        if (count < PARALLEL_THRESHOLD) {
+            for (int t = 0; t < nbTiles; t++) {
+                rasterizeTile(t);
+            }
+        } else {
+            IntStream.range(0, nbTiles).parallel().forEach(this::rasterizeTile);
+        }
+        Arrays.fill(tileCounts, 0);
+        Arrays.fill(images, 0, count, null);
+        count = 0;
+    }
+
+    private void rasterizeTile(int t) {
+        int n = tileCounts[t];
+        if (n == 0) {
+            return;
+        }
+        int cx0 = (t % tilesX) * TILE_SIZE;
+        int cy0 = (t / tilesX) * TILE_SIZE;
+        int cx1 = Math.min(cx0 + TILE_SIZE, width);
+        int cy1 = Math.min(cy0 + TILE_SIZE, height);
+        int[] prims = tilePrimitives[t];
+        for (int k = 0; k < n; k++) {
+            int i = prims[k];
+            switch (types[i]) {
+                case RECT -> rasterizeRect(i, cx0, cy0, cx1, cy1);
+                case ELLIPSE -> rasterizeEllipse(i, cx0, cy0, cx1, cy1);
+                case LINE -> rasterizeLine(i, cx0, cy0, cx1, cy1);
+                case IMAGE -> rasterizeImage(i, cx0, cy0, cx1, cy1);
+                default -> {
+                    // nothing to draw.
+                }
+            }
+        }
+    }
+
+    private void rasterizeRect(int i, int cx0, int cy0, int cx1, int cy1) {
+        double x0 = x0s[i], y0 = y0s[i], x1 = x1s[i], y1 = y1s[i];
+        double sx0 = normalize(x0), sy0 = normalize(y0), sx1 = normalize(x1), sy1 = normalize(y1);
+        int px0 = Math.max(cx0, (int) Math.floor(x0 - 1));
+        int py0 = Math.max(cy0, (int) Math.floor(y0 - 1));
+        int px1 = Math.min(cx1, (int) Math.ceil(x1 + 1));
+        int py1 = Math.min(cy1, (int) Math.ceil(y1 + 1));
+        int fill = fills[i];
+        int border = borders[i];
+        for (int py = py0; py < py1; py++) {
+            int row = py * width;
+            for (int px = px0; px < px1; px++) {
+                if ((fill >>> 24) != 0) {
+                    double c = overlap(px, x0, x1) * overlap(py, y0, y1);
+                    if (c > 0) {
+                        blend(row + px, fill, c);
+                    }
+                }
+                if ((border >>> 24) != 0) {
+                    // the 1 pixel border stroke is centered on the normalized rectangle edges.
+                    double outer = overlap(px, sx0 - 0.5, sx1 + 0.5) * overlap(py, sy0 - 0.5, sy1 + 0.5);
+                    double inner = overlap(px, sx0 + 0.5, sx1 - 0.5) * overlap(py, sy0 + 0.5, sy1 - 0.5);
+                    double c = outer - inner;
+                    if (c > 0) {
+                        blend(row + px, border, c);
+                    }
+                }
+            }
+        }
+    }
+
+    private void rasterizeEllipse(int i, int cx0, int cy0, int cx1, int cy1) {
+        double x0 = x0s[i], y0 = y0s[i], x1 = x1s[i], y1 = y1s[i];
+        double rx = (x1 - x0) * 0.5;
+        double ry = (y1 - y0) * 0.5;
+        if (rx <= 0 || ry <= 0) {
+            return;
+        }
+        double ecx = x0 + rx;
+        double ecy = y0 + ry;
+        double irx2 = 1.0 / (rx * rx);
+        double iry2 = 1.0 / (ry * ry);
+        int px0 = Math.max(cx0, (int) Math.floor(x0 - 1));
+        int py0 = Math.max(cy0, (int) Math.floor(y0 - 1));
+        int px1 = Math.min(cx1, (int) Math.ceil(x1 + 1));
+        int py1 = Math.min(cy1, (int) Math.ceil(y1 + 1));
+        // like Java2D stroke normalization, the border is drawn on the pixel centers.
+        double brx = Math.max((normalize(x1) - normalize(x0)) * 0.5, 0.5);
+        double bry = Math.max((normalize(y1) - normalize(y0)) * 0.5, 0.5);
+        double bcx = normalize(x0) + brx;
+        double bcy = normalize(y0) + bry;
+        double birx2 = 1.0 / (brx * brx);
+        double biry2 = 1.0 / (bry * bry);
+        int fill = fills[i];
+        int border = borders[i];
+        for (int py = py0; py < py1; py++) {
+            int row = py * width;
+            double dy = py + 0.5 - ecy;
+            for (int px = px0; px < px1; px++) {
+                double dx = px + 0.5 - ecx;
+                double sd = signedDistance(dx, dy, irx2, iry2, rx, ry);
+                if ((fill >>> 24) != 0) {
+                    double c = clamp01(0.5 - sd);
+                    if (c > 0) {
+                        blend(row + px, fill, c);
+                    }
+                }
+                if ((border >>> 24) != 0) {
+                    double c = clamp01(1.0 - Math.abs(signedDistance(px + 0.5 - bcx, py + 0.5 - bcy, birx2, biry2, brx, bry)));
+                    if (c > 0) {
+                        blend(row + px, border, c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Approximated signed distance from (dx,dy), relative to the ellipse center, to the ellipse edge: f / |grad(f)|.
+     */
+    private static double signedDistance(double dx, double dy, double irx2, double iry2, double rx, double ry) {
+        double f = dx * dx * irx2 + dy * dy * iry2 - 1.0;
+        double gx = dx * irx2;
+        double gy = dy * iry2;
+        double grad = 2.0 * Math.sqrt(gx * gx + gy * gy);
+        return grad > 0 ? f / grad : -Math.min(rx, ry);
+    }
+
+    /**
+     * Move a stroke coordinate to the pixel center, like the Java2D default stroke normalization does.
+     */
+    private static double normalize(double v) {
+        return Math.floor(v) + 0.5;
+    }
+
+    private void rasterizeLine(int i, int cx0, int cy0, int cx1, int cy1) {
+        double x0 = x0s[i] + 0.5, y0 = y0s[i] + 0.5, x1 = x1s[i] + 0.5, y1 = y1s[i] + 0.5;
+        int color = borders[i];
+        if ((color >>> 24) == 0) {
+            return;
+        }
+        double lx = x1 - x0;
+        double ly = y1 - y0;
+        double len2 = lx * lx + ly * ly;
+        int px0 = Math.max(cx0, (int) Math.floor(Math.min(x0, x1) - 1));
+        int py0 = Math.max(cy0, (int) Math.floor(Math.min(y0, y1) - 1));
+        int px1 = Math.min(cx1, (int) Math.ceil(Math.max(x0, x1) + 1));
+        int py1 = Math.min(cy1, (int) Math.ceil(Math.max(y0, y1) + 1));
+        for (int py = py0; py < py1; py++) {
+            int row = py * width;
+            for (int px = px0; px < px1; px++) {
+                double dx = px + 0.5 - x0;
+                double dy = py + 0.5 - y0;
+                double u = len2 > 0 ? Math.max(0, Math.min(1, (dx * lx + dy * ly) / len2)) : 0;
+                double ex = dx - u * lx;
+                double ey = dy - u * ly;
+                double c = clamp01(1.0 - Math.sqrt(ex * ex + ey * ey));
+                if (c > 0) {
+                    blend(row + px, color, c);
+                }
+            }
+        }
+    }
+
+    private void rasterizeImage(int i, int cx0, int cy0, int cx1, int cy1) {
+        int ix = (int) x0s[i];
+        int iy = (int) y0s[i];
+        int w = imageWidths[i];
+        int h = (int) (y1s[i] - y0s[i]);
+        int[] src = images[i];
+        boolean flipped = fills[i] < 0;
+        int px0 = Math.max(cx0, ix);
+        int py0 = Math.max(cy0, iy);
+        int px1 = Math.min(cx1, ix + w);
+        int py1 = Math.min(cy1, iy + h);
+        if (px0 >= px1) {
+            return;
+        }
+        for (int py = py0; py < py1; py++) {
+            int srcRow = (py - iy) * w;
+            int dstRow = py * width;
+            if (!flipped) {
+                System.arraycopy(src, srcRow + (px0 - ix), pixels, dstRow + px0, px1 - px0);
+            } else {
+                for (int px = px0; px < px1; px++) {
+                    pixels[dstRow + px] = src[srcRow + (w - 1 - (px - ix))] | 0xff000000;
+                }
+            }
+        }
+    }
+
+    /**
+     * Blend the ARGB color with the given coverage over the pixel at index (source over).
+     */
+    private void blend(int index, int color, double coverage) {
+        int a = (int) ((color >>> 24) * coverage + 0.5);
+        if (a <= 0) {
+            return;
+        }
+        if (a >= 255) {
+            pixels[index] = color | 0xff000000;
+            return;
+        }
+        int dst = pixels[index];
+        int ia = 255 - a;
+        int da = dst >>> 24;
+        int oa = a + (da * ia + 127) / 255;
+        int r = (((color >> 16) & 0xff) * a + ((dst >> 16) & 0xff) * da * ia / 255) / oa;
+        int g = (((color >> 8) & 0xff) * a + ((dst >> 8) & 0xff) * da * ia / 255) / oa;
+        int b = ((color & 0xff) * a + (dst & 0xff) * da * ia / 255) / oa;
+        pixels[index] = (oa << 24) | (Math.min(r, 255) << 16) | (Math.min(g, 255) << 8) | Math.min(b, 255);
+    }
+
+    /**
+     * Return the length of the overlap between the pixel [p, p+1] and the segment [a, b].
+     */
+    private static double overlap(int p, double a, double b) {
+        return Math.max(0.0, Math.min(p + 1.0, b) - Math.max(p, a));
+    }
+
+    private static double clamp01(double v) {
+        return v < 0 ? 0 : (v > 1 ? 1 : v);
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return Math.max(min, Math.min(max, v));
+    }
+}
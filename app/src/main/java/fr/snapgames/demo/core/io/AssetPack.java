@@ -0,0 +1,212 @@
+package fr.snapgames.demo.core.io;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The {@link AssetPack} gives access to the images of a pack file built by the {@link AssetPackBuilder}.
+ * <p>
+ * The pack file is mapped in memory: an image is created by a bulk transfer of its pre-decoded pixels
+ * from the mapped region into the image raster, without any decoding. The images are named after their resource
+ * path (e.g. <code>/images/sprites01.png</code>).
+ * <p>
+ * The pack is not rebuilt automatically: {@link AssetPack#getStaleNames()} reports the images whose class path
+ * resource has been modified after the pack file, so that the game can warn about a stale pack.
+ * <p>
+ * The pack format is:
+ * <pre>
+ * header : int magic ('GPAK'), short version, byte byteOrder (0 big endian, 1 little endian), byte reserved,
+ *          int nbEntries, nbEntries x entry
+ * entry  : short nameLength, nameLength x byte (UTF-8), int width, int height, byte hasAlpha, long offset
+ * pixels : width x height int ARGB values for each entry, starting at its page aligned offset
+ * </pre>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class AssetPack implements Closeable {
+
+    /**
+     * Magic number starting any asset pack.
+     */
+    public static final int MAGIC = 0x4750414B;
+    /**
+     * Current version of the asset pack format.
+     */
+    public static final short VERSION = 1;
+    /**
+     * The pixels of each entry start on a page boundary.
+     */
+    public static final int PAGE_SIZE = 4096;
+
+    /**
+     * One image of the pack.
+     */
+    private static class Entry {
+        private final int width;
+        private final int height;
+        private final boolean alpha;
+        private final long offset;
+
+        Entry(int width, int height, boolean alpha, long offset) {
+            this.width = width;
+            this.height = height;
+            this.alpha = alpha;
+            this.offset = offset;
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final ByteOrder order;
+    private final long lastModified;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // the pixels of one image row, reused for all transfers.
+    private int[] row = new int[0];
+
+    private AssetPack(FileChannel channel, long lastModified) throws IOException {
+        this.channel = channel;
+        this.lastModified = lastModified;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("The file is not an asset pack");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported asset pack version " + version);
+        }
+        this.order = buffer.get() == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        buffer.get();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            entries.put(new String(name, StandardCharsets.UTF_8),
+                    new Entry(buffer.getInt(), buffer.getInt(), buffer.get() != 0, buffer.getLong()));
+        }
+    }
+
+    /**
+     * Open an asset pack file, and map it in memory.
+     *
+     * @param path the asset pack file.
+     * @return the opened {@link AssetPack}.
+     * @throws IOException if the file can not be read or is not an asset pack.
+     */
+    public static AssetPack open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new AssetPack(channel, Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieve the names of the images whose class path resource has been modified after the pack file was written.
+     * The resources unknown to the class path, or without any modification time, are considered up to date.
+     *
+     * @return the names of the stale images, empty if the pack is up to date.
+     */
+    public List<String> getStaleNames() {
+        List<String> stale = new ArrayList<>();
+        for (String name : entries.keySet()) {
+            URL resource = AssetPack.class.getResource(name);
+            if (Optional.ofNullable(resource).isPresent()) {
+                try {
+                    if (resource.openConnection().getLastModified() > lastModified) {
+                        stale.add(name);
+                    }
+                } catch (IOException e) {
+                    // no modification time: the image is kept as up to date.
+                }
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Return true if the pack contains the named image.
+     *
+     * @param name the name of the image (its resource path).
+     * @return true if the image is in the pack.
+     */
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Retrieve the names of all the images of the pack.
+     *
+     * @return an unmodifiable set of names.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Create the named image from its pre-decoded pixels. An opaque image is created as
+     * {@link BufferedImage#TYPE_INT_RGB}, else as {@link BufferedImage#TYPE_INT_ARGB}.
+     *
+     * @param name the name of the image (its resource path).
+     * @return a new {@link BufferedImage}, or null if the pack does not contain the image.
+     */
+    public synchronized BufferedImage getImage(String name) {
+        Entry entry = entries.get(name);
+        if (!Optional.ofNullable(entry).isPresent()) {
+            return null;
+        }
+        BufferedImage image = new BufferedImage(entry.width, entry.height,
+                entry.alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        if (row.length < entry.width) {
+            row = new int[entry.width];
+        }
+        IntBuffer pixels = buffer.slice((int) entry.offset, entry.width * entry.height * 4)
+                .order(order)
+                .asIntBuffer();
+        // the raster is filled row by row, keeping the image eligible to the graphics acceleration.
+        for (int y = 0; y < entry.height; y++) {
+            pixels.get(row, 0, entry.width);
+            image.getRaster().setDataElements(0, y, entry.width, 1, row);
+        }
+        return image;
+    }
+
+    /**
+     * Close the pack file (the memory mapping is released once no more referenced).
+     *
+     * @throws IOException if the file can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Compute the page aligned position following a position.
+     *
+     * @param position a position in the pack.
+     * @return the next page boundary (or position itself if already aligned).
+     */
+    static long align(long position) {
+        return (position + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+}
@@ -0,0 +1,175 @@
+package fr.snapgames.demo.core.io;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * The {@link AssetPackBuilder} decodes images once, at build time, and writes their raw pixels into one pack file
+ * to be mapped in memory at runtime by the {@link AssetPack} (see the pack format there).
+ * <p>
+ * It is used as a command line tool, through the Gradle <code>assetPack</code> task:
+ * <pre>
+ * AssetPackBuilder &lt;pack file&gt; &lt;resources directory&gt;
+ * </pre>
+ * All the images found in the resources directory are added to the pack, named after their path
+ * relative to this directory (e.g. <code>/images/sprites01.png</code>), so that they can be retrieved with the same
+ * path as the class path resource.
+ * <p>
+ * An image is rejected if its pixels (4 bytes each) do not fit in 2 GB, like the whole pack.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class AssetPackBuilder {
+
+    private static final Logger logger = Logger.getLogger(AssetPackBuilder.class.getName());
+
+    private static final List<String> IMAGE_EXTENSIONS = List.of(".png", ".jpg", ".jpeg", ".gif", ".bmp");
+
+    private final Map<String, BufferedImage> images = new LinkedHashMap<>();
+
+    /**
+     * Add an image to the pack.
+     *
+     * @param name  the name of the image in the pack.
+     * @param image the image.
+     * @return the updated {@link AssetPackBuilder} (Fluent API).
+     */
+    public AssetPackBuilder add(String name, BufferedImage image) {
+        images.put(name, image);
+        return this;
+    }
+
+    /**
+     * Decode and add all the images of a directory and its sub-directories, named after their path relative to
+     * the directory, starting with a '/'.
+     *
+     * @param root the root directory.
+     * @return the updated {@link AssetPackBuilder} (Fluent API).
+     * @throws IOException if a directory or an image can not be read.
+     */
+    public AssetPackBuilder addDirectory(Path root) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(p -> IMAGE_EXTENSIONS.stream()
+                            .anyMatch(ext -> p.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(ext)))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (Optional.ofNullable(image).isPresent()) {
+                add("/" + root.relativize(file).toString().replace('\\', '/'), image);
+            } else {
+                logger.log(Level.WARNING, "Unable to decode image {0}", file);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write the pack file.
+     *
+     * @param path the pack file to be written.
+     * @return the size of the pack, in bytes.
+     * @throws IOException if the file can not be written, or if an image or the pack exceeds 2 GB.
+     */
+    public long write(Path path) throws IOException {
+        List<byte[]> names = new ArrayList<>();
+        int headerSize = 12;
+        for (String name : images.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            headerSize += 2 + bytes.length + 4 + 4 + 1 + 8;
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(AssetPack.MAGIC);
+        header.putShort(AssetPack.VERSION);
+        header.put((byte) (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0));
+        header.put((byte) 0);
+        header.putInt(images.size());
+        long offset = AssetPack.align(headerSize);
+        int i = 0;
+        for (Map.Entry<String, BufferedImage> entry : images.entrySet()) {
+            BufferedImage image = entry.getValue();
+            if ((long) image.getWidth() * image.getHeight() * 4 > Integer.MAX_VALUE) {
+                throw new IOException("The image " + entry.getKey() + " exceeds 2 GB");
+            }
+            byte[] name = names.get(i++);
+            header.putShort((short) name.length);
+            header.put(name);
+            header.putInt(image.getWidth());
+            header.putInt(image.getHeight());
+            header.put((byte) (image.getColorModel().hasAlpha() ? 1 : 0));
+            header.putLong(offset);
+            offset = AssetPack.align(offset + (long) image.getWidth() * image.getHeight() * 4);
+        }
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("The asset pack exceeds 2 GB");
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header.flip(), 0);
+            long position = AssetPack.align(headerSize);
+            for (BufferedImage image : images.values()) {
+                int w = image.getWidth();
+                int h = image.getHeight();
+                ByteBuffer pixels = ByteBuffer.allocate((int) ((long) w * h * 4)).order(ByteOrder.nativeOrder());
+                pixels.asIntBuffer().put(image.getRGB(0, 0, w, h, null, 0, w));
+                writeFully(channel, pixels, position);
+                position = AssetPack.align(position + (long) w * h * 4);
+            }
+            // the last entry is padded up to the page boundary.
+            if (channel.size() < position) {
+                writeFully(channel, ByteBuffer.allocate(1), position - 1);
+            }
+        }
+        return offset;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Build an asset pack from the images of a resources directory.
+     *
+     * @param args the pack file to be written, and the resources directory.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            logger.log(Level.SEVERE, "usage: AssetPackBuilder <pack file> <resources directory>");
+            System.exit(1);
+        }
+        try {
+            AssetPackBuilder builder = new AssetPackBuilder().addDirectory(Path.of(args[1]));
+            long size = builder.write(Path.of(args[0]));
+            logger.log(Level.INFO, "Asset pack {0} written: {1} images, {2} bytes",
+                    new Object[]{args[0], builder.images.size(), size});
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Unable to build the asset pack", e);
+            System.exit(1);
+        }
+    }
+}
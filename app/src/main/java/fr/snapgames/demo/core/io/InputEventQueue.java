@@ -0,0 +1,191 @@
+package fr.snapgames.demo.core.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link InputEventQueue} is a lock-free single-producer / single-consumer ring buffer
+ * transferring timestamped input events from the AWT Event Dispatch Thread (the producer)
+ * to the game loop thread (the consumer).
+ * <p>
+ * Events are stored in preallocated parallel arrays, so pushing or draining an event does not allocate anything.
+ * The producer publishes a new event by moving the {@link InputEventQueue#tail} index, the consumer releases
+ * the drained slots by moving the {@link InputEventQueue#head} index; these two ordered writes are the only
+ * memory barriers required between both threads.
+ * <p>
+ * If the consumer does not drain the queue fast enough, new events are dropped and counted
+ * (see {@link InputEventQueue#getDroppedCount()}).
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class InputEventQueue {
+
+    /**
+     * A key has been pressed (or auto-repeated by the system).
+     */
+    public static final int KEY_PRESSED = 1;
+    /**
+     * A key has been released.
+     */
+    public static final int KEY_RELEASED = 2;
+    /**
+     * A key has been typed.
+     */
+    public static final int KEY_TYPED = 3;
+    /**
+     * A mouse button has been pressed.
+     */
+    public static final int MOUSE_PRESSED = 4;
+    /**
+     * A mouse button has been released.
+     */
+    public static final int MOUSE_RELEASED = 5;
+    /**
+     * The mouse has moved (with or without a button pressed).
+     */
+    public static final int MOUSE_MOVED = 6;
+
+    /**
+     * The visitor used to consume the events drained from the {@link InputEventQueue}.
+     */
+    @FunctionalInterface
+    public interface Consumer {
+        /**
+         * Consume one event.
+         *
+         * @param type      the event type (one of the <code>KEY_*</code> or <code>MOUSE_*</code> constants)
+         * @param code      the key code or the mouse button number
+         * @param x         the mouse horizontal position at event time (mouse events only, 0 for key events)
+         * @param y         the mouse vertical position at event time (mouse events only, 0 for key events)
+         * @param modifiers the modifiers keys mask at event time
+         * @param time      the event timestamp in ms
+         * @param source    the original AWT event (may be null)
+         */
+        void accept(int type, int code, int x, int y, int modifiers, long time, Object source);
+    }
+
+    private final int capacity;
+    private final int mask;
+
+    private final int[] types;
+    private final int[] codes;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] modifiers;
+    private final long[] times;
+    private final Object[] sources;
+
+    /**
+     * Next slot to be read by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Next slot to be written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Number of events dropped because the queue was full (written by the producer only).
+     */
+    private volatile long dropped;
+
+    /**
+     * Create a new {@link InputEventQueue}.
+     *
+     * @param requestedCapacity the minimum number of events the queue can hold; rounded up to a power of 2.
+     */
+    public InputEventQueue(int requestedCapacity) {
+        int c = 1;
+        while (c < requestedCapacity) {
+            c <<= 1;
+        }
+        capacity = c;
+        mask = c - 1;
+        types = new int[c];
+        codes = new int[c];
+        xs = new int[c];
+        ys = new int[c];
+        modifiers = new int[c];
+        times = new long[c];
+        sources = new Object[c];
+    }
+
+    /**
+     * Push a new event into the queue. Must only be called from the producer thread.
+     *
+     * @param type   the event type
+     * @param code   the key code or mouse button number
+     * @param x      the mouse horizontal position
+     * @param y      the mouse vertical position
+     * @param mods   the modifiers keys mask
+     * @param time   the event timestamp in ms
+     * @param source the original event (may be null)
+     * @return true if the event has been queued, false if it has been dropped.
+     */
+    public boolean offer(int type, int code, int x, int y, int mods, long time, Object source) {
+        long t = tail.get();
+        if (t - head.get() >= capacity) {
+            dropped++;
+            return false;
+        }
+        int i = (int) (t & mask);
+        types[i] = type;
+        codes[i] = code;
+        xs[i] = x;
+        ys[i] = y;
+        modifiers[i] = mods;
+        times[i] = time;
+        sources[i] = source;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Drain all the events currently available to the {@link Consumer}. Must only be called from the consumer thread.
+     *
+     * @param consumer the visitor receiving each event in arrival order.
+     * @return the number of drained events.
+     */
+    public int drain(Consumer consumer) {
+        long h = head.get();
+        long t = tail.get();
+        int count = 0;
+        while (h < t) {
+            int i = (int) (h & mask);
+            Object source = sources[i];
+            sources[i] = null;
+            consumer.accept(types[i], codes[i], xs[i], ys[i], modifiers[i], times[i], source);
+            h++;
+            count++;
+        }
+        head.lazySet(h);
+        return count;
+    }
+
+    /**
+     * Return the number of events waiting to be drained.
+     *
+     * @return the current number of queued events.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Return the real capacity of this queue.
+     *
+     * @return the maximum number of events the queue can hold.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Return the number of events dropped because the queue was full.
+     *
+     * @return the dropped events counter.
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+}
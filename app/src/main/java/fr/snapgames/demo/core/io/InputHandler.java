@@ -1,55 +1,102 @@
 package fr.snapgames.demo.core.io;
 
+import fr.snapgames.demo.core.entity.Camera;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.SpatialIndex;
+
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The {@link InputHandler} service is provided a nice implementation to manage Event from mouse and keyboard,
- * and adapt to our own Game framework implementing the {@link KeyListener} and the {@link MouseListener}.
+ * and adapt to our own Game framework implementing the {@link KeyListener}, the {@link MouseListener}
+ * and the {@link MouseMotionListener}.
+ * <p>
+ * The AWT callbacks are executed on the Event Dispatch Thread: they never touch the input state (not even the mouse
+ * position, only carried by the mouse events), but only push timestamped events into the lock-free
+ * {@link InputEventQueue}. Once per frame, the game loop calls
+ * {@link InputHandler#update(double)} to drain this queue and build the per-frame input snapshot:
  * <ul>
- *     <li>2 internal buffers are keeping status for keys: {@link InputHandler#keys} and {@link InputHandler#preKeys},</li>
- *     <li>and a simple bunch of boolean holds mouse buttons status
- *     {@link InputHandler#mouseButtons} and {@link InputHandler#preMouseButtons}.</li>
+ *     <li>the {@link InputHandler#keys} buffer keeps the current key status,</li>
+ *     <li>the {@link InputHandler#pressedKeys} and {@link InputHandler#releasedKeys} buffers keep the edges
+ *     detected during the last drained frame,</li>
+ *     <li>and the same goes for the mouse buttons with {@link InputHandler#mouseButtons},
+ *     {@link InputHandler#pressedMouseButtons} and {@link InputHandler#releasedMouseButtons}.</li>
  * </ul>
  * <p>
  * And a set of methods will request status of those buffers to get mouse buttons and keys status:
  *
  * <ul>
  *     <li>{@link InputHandler#getKey(int)} will return the current corresponding key status on its {@link KeyEvent} code,</li>
- *     <li>{@link InputHandler#getMouseButton(int)} returns the status of one of the mouse button.</li>
+ *     <li>{@link InputHandler#getMouseButton(int)} returns the status of one of the mouse button,</li>
+ *     <li>{@link InputHandler#pick(SpatialIndex, Camera, double, double)} returns the {@link Entity} under the mouse,
+ *     found through the {@link SpatialIndex}.</li>
  * </ul>
+ * <p>
+ * For reproducible sessions, the drained frames can be recorded with an {@link InputRecorder}
+ * (see {@link InputHandler#startRecording(Path, long)}) and later replayed in place of the live events with an
+ * {@link InputReplayer} (see {@link InputHandler#startReplay(Path)}).
  *
  * @author Frédéric Delorme
  * @since 0.0.6
  */
-public class InputHandler implements KeyListener, MouseListener {
+public class InputHandler implements KeyListener, MouseListener, MouseMotionListener {
+
+    private static final Logger logger = Logger.getLogger(InputHandler.class.getName());
+
+    private static final int MAX_KEY_CODE = 65535;
+
+    /**
+     * The queue transferring events from the AWT Event Dispatch Thread to the game loop.
+     */
+    private final InputEventQueue queue = new InputEventQueue(1024);
 
     /**
      * Internal key state buffer for current status
      */
-    private boolean[] keys = new boolean[65535];
+    private boolean[] keys = new boolean[MAX_KEY_CODE];
+    /**
+     * Keys pressed during the last drained frame.
+     */
+    private boolean[] pressedKeys = new boolean[MAX_KEY_CODE];
     /**
-     * Internal key state buffer holding previous status
+     * Keys released during the last drained frame.
      */
-    private boolean[] preKeys = new boolean[65535];
+    private boolean[] releasedKeys = new boolean[MAX_KEY_CODE];
+    /**
+     * Key codes having an edge flag set during the last drained frame, to be cleared at next frame.
+     */
+    private int[] touchedKeys = new int[256];
+    private int nbTouchedKeys = 0;
 
     /**
-     * Current mouse 2D position
+     * Current mouse 2D position, only updated from the drained mouse events (never read by the AWT callbacks).
      */
-    private Point mousePosition;
+    private int mouseX;
+    private int mouseY;
     /**
      * Current mouse button states
      */
     private boolean[] mouseButtons;
     /**
-     * Previous mouse button states
+     * Mouse buttons pressed during the last drained frame.
      */
-    private boolean[] preMouseButtons;
+    private boolean[] pressedMouseButtons;
+    /**
+     * Mouse buttons released during the last drained frame.
+     */
+    private boolean[] releasedMouseButtons;
 
     /**
      * Shift key status
@@ -72,11 +119,49 @@ public class InputHandler implements KeyListener, MouseListener {
      */
     private boolean metaPressed;
 
+    /**
+     * Timestamp of the last drained event.
+     */
+    private long lastEventTime;
+
     /**
      * The list of Listeners to be updated according to Key events.
      */
     private List<KeyListener> listeners = new ArrayList<>();
 
+    /**
+     * The consumer applying drained events to the input snapshot.
+     */
+    private final InputEventQueue.Consumer eventApplier = this::applyEvent;
+    /**
+     * The consumer used to throw away live events while replaying.
+     */
+    private final InputEventQueue.Consumer eventDiscarder = (type, code, x, y, modifiers, time, source) -> {
+    };
+
+    /**
+     * The picking query state, reused from one pick to the next one.
+     */
+    private Entity<?> picked;
+    private final SpatialIndex.Visitor picker = e -> {
+        if (e.isActive() && e.isNotStickToCamera() && !(e instanceof Camera)
+                && (!Optional.ofNullable(picked).isPresent()
+                || e.getLayer() > picked.getLayer()
+                || (e.getLayer() == picked.getLayer() && e.getPriority() >= picked.getPriority()))) {
+            picked = e;
+        }
+        return true;
+    };
+
+    /**
+     * The active recorder, if any.
+     */
+    private InputRecorder recorder;
+    /**
+     * The active replayer, if any.
+     */
+    private InputReplayer replayer;
+
     /**
      * INputHandler initialization:
      * <ol>
@@ -85,13 +170,16 @@ public class InputHandler implements KeyListener, MouseListener {
      * </ol>
      */
     public InputHandler() {
-        int msButtons = MouseInfo.getNumberOfButtons();
-        preMouseButtons = new boolean[msButtons];
+        int msButtons = Math.max(GraphicsEnvironment.isHeadless() ? 3 : MouseInfo.getNumberOfButtons(), 3) + 1;
         mouseButtons = new boolean[msButtons];
+        pressedMouseButtons = new boolean[msButtons];
+        releasedMouseButtons = new boolean[msButtons];
     }
 
     /**
      * Add a specific Listener to be updated at Key Event.
+     * <p>
+     * Listeners are called from the game loop thread, during {@link InputHandler#update(double)}.
      *
      * @param kl a KeyListener implementation to keep updated on Key event.
      */
@@ -99,42 +187,270 @@ public class InputHandler implements KeyListener, MouseListener {
         listeners.add(kl);
     }
 
+    /**
+     * Drain all the events received since the previous call and build the new input snapshot.
+     * Must be called once per frame, from the game loop thread.
+     * <ul>
+     *     <li>in live mode, the queued events are applied and the measured elapsed time is returned,</li>
+     *     <li>in record mode, the applied events and the elapsed time are also written to the input log,</li>
+     *     <li>in replay mode, the live events are discarded, the next recorded frame is applied and its recorded
+     *     elapsed time is returned. If the input log is corrupted, the replay is stopped and the live input is used
+     *     again from the next frame.</li>
+     * </ul>
+     *
+     * @param elapsed the measured elapsed time for this frame.
+     * @return the elapsed time to be used by the game loop for this frame.
+     */
+    public double update(double elapsed) {
+        for (int i = 0; i < nbTouchedKeys; i++) {
+            pressedKeys[touchedKeys[i]] = false;
+            releasedKeys[touchedKeys[i]] = false;
+        }
+        nbTouchedKeys = 0;
+        for (int i = 0; i < mouseButtons.length; i++) {
+            pressedMouseButtons[i] = false;
+            releasedMouseButtons[i] = false;
+        }
+        if (Optional.ofNullable(replayer).isPresent()) {
+            queue.drain(eventDiscarder);
+            try {
+                double recordedElapsed = replayer.nextFrame(eventApplier);
+                return replayer.isOver() ? elapsed : recordedElapsed;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to read input log, back to live input: {0}", e.getMessage());
+                stopReplay();
+                return elapsed;
+            }
+        }
+        if (Optional.ofNullable(recorder).isPresent()) {
+            recorder.beginFrame(elapsed);
+            queue.drain(eventApplier);
+            try {
+                recorder.endFrame();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to write input log, recording stopped: {0}", e.getMessage());
+                stopRecording();
+            }
+        } else {
+            queue.drain(eventApplier);
+        }
+        return elapsed;
+    }
+
+    /**
+     * Start recording all the drained frames to an input log file.
+     *
+     * @param path the input log file to be written.
+     * @param seed the random seed of the session, stored in the log header.
+     * @return true if recording has started.
+     */
+    public boolean startRecording(Path path, long seed) {
+        try {
+            recorder = new InputRecorder(path, seed);
+            logger.log(Level.INFO, "Start recording input to {0}", path);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Unable to create input log {0}: {1}", new Object[]{path, e.getMessage()});
+            return false;
+        }
+    }
+
+    /**
+     * Replay an input log file in place of the live input events.
+     *
+     * @param path the input log file to be replayed.
+     * @return true if replay has started.
+     */
+    public boolean startReplay(Path path) {
+        try {
+            replayer = new InputReplayer(path);
+            logger.log(Level.INFO, "Start replaying input from {0}", path);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Unable to read input log {0}: {1}", new Object[]{path, e.getMessage()});
+            return false;
+        }
+    }
+
+    /**
+     * Stop and close any active recording.
+     */
+    public void stopRecording() {
+        if (Optional.ofNullable(recorder).isPresent()) {
+            try {
+                recorder.close();
+                logger.log(Level.INFO, "Input recording stopped after {0} frames", recorder.getFrameCount());
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to close input log: {0}", e.getMessage());
+            }
+            recorder = null;
+        }
+    }
+
+    /**
+     * Stop and close any active replay.
+     */
+    public void stopReplay() {
+        if (Optional.ofNullable(replayer).isPresent()) {
+            try {
+                replayer.close();
+                logger.log(Level.INFO, "Input replay stopped after {0} frames", replayer.getFrameCount());
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to close input log: {0}", e.getMessage());
+            }
+            replayer = null;
+        }
+    }
+
+    /**
+     * Return true if a replay is active.
+     *
+     * @return the replay mode status.
+     */
+    public boolean isReplaying() {
+        return Optional.ofNullable(replayer).isPresent();
+    }
+
+    /**
+     * Return true if a recording is active.
+     *
+     * @return the record mode status.
+     */
+    public boolean isRecording() {
+        return Optional.ofNullable(recorder).isPresent();
+    }
+
+    /**
+     * Return true if the active replay reached the end of its input log.
+     *
+     * @return true if all the recorded frames have been replayed.
+     */
+    public boolean isReplayOver() {
+        return Optional.ofNullable(replayer).isPresent() && replayer.isOver();
+    }
+
+    /**
+     * Return the random seed stored in the replayed input log header.
+     *
+     * @return the seed of the recorded session, or 0 if no replay is active.
+     */
+    public long getReplaySeed() {
+        return Optional.ofNullable(replayer).isPresent() ? replayer.getSeed() : 0;
+    }
 
-    private void testModifierKeys(KeyEvent e) {
-        shiftPressed = e.isShiftDown();
-        ctrlPressed = e.isControlDown();
-        altPressed = e.isAltDown();
-        altGrPressed = e.isAltGraphDown();
-        metaPressed = e.isMetaDown();
+    /**
+     * Release the recording and replay resources.
+     */
+    public void dispose() {
+        stopRecording();
+        stopReplay();
+    }
+
+    private void applyEvent(int type, int code, int x, int y, int modifiers, long time, Object source) {
+        lastEventTime = time;
+        if (Optional.ofNullable(recorder).isPresent()) {
+            recorder.event(type, code, x, y, modifiers,
+                    source instanceof KeyEvent ke ? ke.getKeyChar() : KeyEvent.CHAR_UNDEFINED);
+        }
+        switch (type) {
+            case InputEventQueue.KEY_PRESSED -> {
+                if (code >= 0 && code < MAX_KEY_CODE) {
+                    if (!keys[code]) {
+                        pressedKeys[code] = true;
+                        touchKey(code);
+                    }
+                    keys[code] = true;
+                }
+                applyModifiers(modifiers);
+                if (source instanceof KeyEvent ke) {
+                    for (KeyListener kl : listeners) {
+                        kl.keyPressed(ke);
+                    }
+                }
+            }
+            case InputEventQueue.KEY_RELEASED -> {
+                if (code >= 0 && code < MAX_KEY_CODE) {
+                    if (keys[code]) {
+                        releasedKeys[code] = true;
+                        touchKey(code);
+                    }
+                    keys[code] = false;
+                }
+                applyModifiers(modifiers);
+                if (source instanceof KeyEvent ke) {
+                    for (KeyListener kl : listeners) {
+                        kl.keyReleased(ke);
+                    }
+                }
+            }
+            case InputEventQueue.KEY_TYPED -> {
+                applyModifiers(modifiers);
+                if (source instanceof KeyEvent ke) {
+                    for (KeyListener kl : listeners) {
+                        kl.keyTyped(ke);
+                    }
+                }
+            }
+            case InputEventQueue.MOUSE_PRESSED -> {
+                mouseX = x;
+                mouseY = y;
+                if (code >= 0 && code < mouseButtons.length) {
+                    if (!mouseButtons[code]) {
+                        pressedMouseButtons[code] = true;
+                    }
+                    mouseButtons[code] = true;
+                }
+            }
+            case InputEventQueue.MOUSE_RELEASED -> {
+                mouseX = x;
+                mouseY = y;
+                if (code >= 0 && code < mouseButtons.length) {
+                    if (mouseButtons[code]) {
+                        releasedMouseButtons[code] = true;
+                    }
+                    mouseButtons[code] = false;
+                }
+            }
+            case InputEventQueue.MOUSE_MOVED -> {
+                mouseX = x;
+                mouseY = y;
+            }
+            default -> {
+                // unknown event type, nothing to do.
+            }
+        }
+    }
+
+    private void touchKey(int code) {
+        if (nbTouchedKeys == touchedKeys.length) {
+            int[] larger = new int[touchedKeys.length * 2];
+            System.arraycopy(touchedKeys, 0, larger, 0, touchedKeys.length);
+            touchedKeys = larger;
+        }
+        touchedKeys[nbTouchedKeys++] = code;
+    }
+
+    private void applyModifiers(int modifiers) {
+        shiftPressed = (modifiers & KeyEvent.SHIFT_DOWN_MASK) != 0;
+        ctrlPressed = (modifiers & KeyEvent.CTRL_DOWN_MASK) != 0;
+        altPressed = (modifiers & KeyEvent.ALT_DOWN_MASK) != 0;
+        altGrPressed = (modifiers & KeyEvent.ALT_GRAPH_DOWN_MASK) != 0;
+        metaPressed = (modifiers & KeyEvent.META_DOWN_MASK) != 0;
     }
 
     @Override
     public void keyTyped(KeyEvent e) {
-        testModifierKeys(e);
-        for (KeyListener kl : listeners) {
-            kl.keyTyped(e);
-        }
-        // nothing done now with that event.
+        queue.offer(InputEventQueue.KEY_TYPED, e.getKeyCode(), 0, 0, e.getModifiersEx(), e.getWhen(), e);
     }
 
     @Override
     public void keyPressed(KeyEvent e) {
-        preKeys[e.getKeyCode()] = keys[e.getKeyCode()];
-        keys[e.getKeyCode()] = true;
-        testModifierKeys(e);
-        for (KeyListener kl : listeners) {
-            kl.keyPressed(e);
-        }
+        queue.offer(InputEventQueue.KEY_PRESSED, e.getKeyCode(), 0, 0, e.getModifiersEx(), e.getWhen(), e);
     }
 
     @Override
     public void keyReleased(KeyEvent e) {
-        preKeys[e.getKeyCode()] = keys[e.getKeyCode()];
-        keys[e.getKeyCode()] = false;
-        testModifierKeys(e);
-        for (KeyListener kl : listeners) {
-            kl.keyReleased(e);
-        }
+        queue.offer(InputEventQueue.KEY_RELEASED, e.getKeyCode(), 0, 0, e.getModifiersEx(), e.getWhen(), e);
     }
 
     /**
@@ -148,58 +464,64 @@ public class InputHandler implements KeyListener, MouseListener {
     }
 
     /**
-     * Return if the keyCode from {@link KeyEvent} has just been pressed.
+     * Return if the keyCode from {@link KeyEvent} has just been pressed during the last frame.
      *
      * @param keyCode the key code to retrieve status for.
      * @return true if key is pressed.
      */
     public boolean isKeyPressed(int keyCode) {
-        return !preKeys[keyCode] && keys[keyCode];
+        return pressedKeys[keyCode];
     }
 
     /**
-     * Return if the keyCode from {@link KeyEvent} has just been released.
+     * Return if the keyCode from {@link KeyEvent} has just been released during the last frame.
      *
      * @param keyCode the key code to retrieve status for.
      * @return true if key is pushed.
      */
     public boolean isKeyReleased(int keyCode) {
-        return preKeys[keyCode] && !keys[keyCode];
+        return releasedKeys[keyCode];
     }
 
     @Override
     public void mouseClicked(MouseEvent e) {
-        mousePosition = e.getPoint();
+        queue.offer(InputEventQueue.MOUSE_MOVED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
     }
 
     @Override
     public void mousePressed(MouseEvent e) {
-        mousePosition = e.getPoint();
-        preMouseButtons[e.getClickCount()] = mouseButtons[e.getClickCount()];
-        mouseButtons[e.getClickCount()] = true;
+        queue.offer(InputEventQueue.MOUSE_PRESSED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
-        mousePosition = e.getPoint();
-        preMouseButtons[e.getClickCount()] = mouseButtons[e.getClickCount()];
-        mouseButtons[e.getClickCount()] = false;
+        queue.offer(InputEventQueue.MOUSE_RELEASED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
     }
 
     @Override
     public void mouseEntered(MouseEvent e) {
-        mousePosition = e.getPoint();
+        queue.offer(InputEventQueue.MOUSE_MOVED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
     }
 
     @Override
     public void mouseExited(MouseEvent e) {
-        mousePosition = e.getPoint();
+        queue.offer(InputEventQueue.MOUSE_MOVED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        queue.offer(InputEventQueue.MOUSE_MOVED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
+    }
+
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        queue.offer(InputEventQueue.MOUSE_MOVED, e.getButton(), e.getX(), e.getY(), e.getModifiersEx(), e.getWhen(), null);
     }
 
     /**
      * Return the mouse button <code>mouseButtonCode</code> status
      *
-     * @param mouseButtonCode the mouse button number (max value defined at InputHandler initialization).
+     * @param mouseButtonCode the mouse button number (see {@link MouseEvent#getButton()}).
      * @return true if active.
      */
     public boolean getMouseButton(int mouseButtonCode) {
@@ -207,22 +529,128 @@ public class InputHandler implements KeyListener, MouseListener {
     }
 
     /**
-     * Return if the mouseButtonCode has just been pressed.
+     * Return if the mouseButtonCode has just been pressed during the last frame.
      *
      * @param mouseButtonCode the mouse button number to retrieve status for.
      * @return true if louse button is pressed.
      */
     public boolean isMouseButtonPressed(int mouseButtonCode) {
-        return !preMouseButtons[mouseButtonCode] && mouseButtons[mouseButtonCode];
+        return pressedMouseButtons[mouseButtonCode];
     }
 
     /**
-     * Return if the mouseButtonCode has just been released.
+     * Return if the mouseButtonCode has just been released during the last frame.
      *
      * @param mouseButtonCode the mouse button number to retrieve status for.
      * @return true if louse button is pressed.
      */
     public boolean isMouseButtonReleased(int mouseButtonCode) {
-        return preMouseButtons[mouseButtonCode] && !mouseButtons[mouseButtonCode];
+        return releasedMouseButtons[mouseButtonCode];
+    }
+
+    /**
+     * Return the mouse horizontal position in the last drained frame.
+     *
+     * @return the mouse x position.
+     */
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    /**
+     * Return the mouse vertical position in the last drained frame.
+     *
+     * @return the mouse y position.
+     */
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * Find the {@link Entity} under the mouse in the last drained frame, through the {@link SpatialIndex} of the
+     * entities: the one drawn on top (highest layer, then highest priority) is returned.
+     * The entities stuck to the camera and the {@link Camera} itself are ignored.
+     *
+     * @param index  the {@link SpatialIndex} of the entities.
+     * @param camera the current {@link Camera} (can be null).
+     * @param scaleX the ratio between the rendering buffer width and the window width.
+     * @param scaleY the ratio between the rendering buffer height and the window height.
+     * @return the {@link Entity} under the mouse, or null if none.
+     */
+    public Entity<?> pick(SpatialIndex index, Camera camera, double scaleX, double scaleY) {
+        double x = mouseX * scaleX;
+        double y = mouseY * scaleY;
+        if (Optional.ofNullable(camera).isPresent()) {
+            x += camera.position.x;
+            y += camera.position.y;
+        }
+        picked = null;
+        index.queryPoint(x, y, picker);
+        Entity<?> e = picked;
+        picked = null;
+        return e;
+    }
+
+    /**
+     * Return the timestamp of the last event processed by {@link InputHandler#update(double)}.
+     *
+     * @return a time in ms.
+     */
+    public long getLastEventTime() {
+        return lastEventTime;
+    }
+
+    /**
+     * Return true if the Shift key was down at last processed key event.
+     *
+     * @return Shift key status.
+     */
+    public boolean isShiftPressed() {
+        return shiftPressed;
+    }
+
+    /**
+     * Return true if the Control key was down at last processed key event.
+     *
+     * @return Control key status.
+     */
+    public boolean isCtrlPressed() {
+        return ctrlPressed;
+    }
+
+    /**
+     * Return true if the Alt key was down at last processed key event.
+     *
+     * @return Alt key status.
+     */
+    public boolean isAltPressed() {
+        return altPressed;
+    }
+
+    /**
+     * Return true if the AltGr key was down at last processed key event.
+     *
+     * @return AltGr key status.
+     */
+    public boolean isAltGrPressed() {
+        return altGrPressed;
+    }
+
+    /**
+     * Return true if the Meta key was down at last processed key event.
+     *
+     * @return Meta key status.
+     */
+    public boolean isMetaPressed() {
+        return metaPressed;
+    }
+
+    /**
+     * Retrieve the queue feeding this {@link InputHandler}.
+     *
+     * @return the {@link InputEventQueue} instance.
+     */
+    public InputEventQueue getQueue() {
+        return queue;
     }
 }
@@ -0,0 +1,139 @@
+package fr.snapgames.demo.core.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The {@link InputRecorder} writes the per-frame input events, the frame elapsed time and the random seed
+ * of a game session into a compact binary log, to be replayed later by the {@link InputReplayer}.
+ * <p>
+ * The log format is:
+ * <pre>
+ * header : int magic ('G101'), short version, long seed
+ * frame  : double elapsed, short nbEvents, nbEvents x event
+ * event  : byte type, int code, int x, int y, int modifiers, char keyChar
+ * </pre>
+ * Events of a frame are buffered into preallocated arrays until {@link InputRecorder#endFrame()} is called.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class InputRecorder implements Closeable {
+
+    /**
+     * Magic number starting any input log file.
+     */
+    public static final int MAGIC = 0x47313031;
+    /**
+     * Current version of the log format.
+     */
+    public static final short VERSION = 1;
+
+    private final DataOutputStream out;
+
+    private double frameElapsed;
+    private int nbEvents;
+    private byte[] types = new byte[64];
+    private int[] codes = new int[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] modifiers = new int[64];
+    private char[] keyChars = new char[64];
+
+    private long frameCount;
+
+    /**
+     * Create a new recorder writing to the file at path, and write the log header.
+     *
+     * @param path the file to write the input log to.
+     * @param seed the random seed used by the recorded session.
+     * @throws IOException if the file can not be created.
+     */
+    public InputRecorder(Path path, long seed) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+    }
+
+    /**
+     * Start recording a new frame.
+     *
+     * @param elapsed the elapsed time for this frame.
+     */
+    public void beginFrame(double elapsed) {
+        frameElapsed = elapsed;
+        nbEvents = 0;
+    }
+
+    /**
+     * Add an event to the current frame.
+     *
+     * @param type    the event type (see {@link InputEventQueue})
+     * @param code    the key code or mouse button
+     * @param x       mouse horizontal position
+     * @param y       mouse vertical position
+     * @param mods    modifiers keys mask
+     * @param keyChar the character for key events
+     */
+    public void event(int type, int code, int x, int y, int mods, char keyChar) {
+        if (nbEvents == types.length) {
+            grow();
+        }
+        types[nbEvents] = (byte) type;
+        codes[nbEvents] = code;
+        xs[nbEvents] = x;
+        ys[nbEvents] = y;
+        modifiers[nbEvents] = mods;
+        keyChars[nbEvents] = keyChar;
+        nbEvents++;
+    }
+
+    /**
+     * Write the current frame to the log.
+     *
+     * @throws IOException if the log can not be written.
+     */
+    public void endFrame() throws IOException {
+        out.writeDouble(frameElapsed);
+        out.writeShort(nbEvents);
+        for (int i = 0; i < nbEvents; i++) {
+            out.writeByte(types[i]);
+            out.writeInt(codes[i]);
+            out.writeInt(xs[i]);
+            out.writeInt(ys[i]);
+            out.writeInt(modifiers[i]);
+            out.writeChar(keyChars[i]);
+        }
+        frameCount++;
+    }
+
+    private void grow() {
+        int size = types.length * 2;
+        types = Arrays.copyOf(types, size);
+        codes = Arrays.copyOf(codes, size);
+        xs = Arrays.copyOf(xs, size);
+        ys = Arrays.copyOf(ys, size);
+        modifiers = Arrays.copyOf(modifiers, size);
+        keyChars = Arrays.copyOf(keyChars, size);
+    }
+
+    /**
+     * Return the number of frames written to the log.
+     *
+     * @return the number of recorded frames.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
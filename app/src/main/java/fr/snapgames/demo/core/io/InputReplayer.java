@@ -0,0 +1,142 @@
+package fr.snapgames.demo.core.io;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@link InputReplayer} reads back an input log written by the {@link InputRecorder} and feeds,
+ * frame by frame, the recorded events and elapsed time to the game loop.
+ * <p>
+ * Key events are rebuilt as {@link KeyEvent} instances so that the {@link java.awt.event.KeyListener}s
+ * registered on the {@link InputHandler} are called exactly as during the recorded session.
+ * <p>
+ * The end of the file between two frames is the normal end of the replay, while a frame truncated or holding an
+ * unknown event is reported as an {@link IOException}: the {@link InputHandler} then stops the replay and goes
+ * back to the live input.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class InputReplayer implements Closeable {
+
+    private final DataInputStream in;
+    private final long seed;
+    private final Component eventSource = new Canvas();
+
+    private boolean over = false;
+    private long frameCount;
+
+    /**
+     * Open an input log and read its header.
+     *
+     * @param path the input log file to be replayed.
+     * @throws IOException if the file can not be read or is not an input log.
+     */
+    public InputReplayer(Path path) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+        if (in.readInt() != InputRecorder.MAGIC) {
+            in.close();
+            throw new IOException("File " + path + " is not an input log");
+        }
+        short version = in.readShort();
+        if (version != InputRecorder.VERSION) {
+            in.close();
+            throw new IOException("Unsupported input log version " + version + " in file " + path);
+        }
+        seed = in.readLong();
+    }
+
+    /**
+     * Read the next recorded frame, send its events to the consumer and return its elapsed time.
+     *
+     * @param consumer the consumer receiving the recorded events.
+     * @return the recorded elapsed time for this frame, or {@link Double#NaN} if the log is over.
+     * @throws IOException if the frame can not be read, is truncated or holds an unknown event.
+     */
+    public double nextFrame(InputEventQueue.Consumer consumer) throws IOException {
+        if (over) {
+            return Double.NaN;
+        }
+        double elapsed;
+        try {
+            elapsed = in.readDouble();
+        } catch (EOFException eof) {
+            over = true;
+            return Double.NaN;
+        }
+        try {
+            int nbEvents = in.readUnsignedShort();
+            for (int i = 0; i < nbEvents; i++) {
+                int type = in.readByte();
+                if (type < InputEventQueue.KEY_PRESSED || type > InputEventQueue.MOUSE_MOVED) {
+                    throw new IOException("Unknown event type " + type + " in input log frame " + frameCount);
+                }
+                int code = in.readInt();
+                int x = in.readInt();
+                int y = in.readInt();
+                int mods = in.readInt();
+                char keyChar = in.readChar();
+                consumer.accept(type, code, x, y, mods, 0, createKeyEvent(type, code, mods, keyChar));
+            }
+        } catch (EOFException eof) {
+            over = true;
+            throw new IOException("Input log truncated in frame " + frameCount, eof);
+        } catch (IOException e) {
+            over = true;
+            throw e;
+        }
+        frameCount++;
+        return elapsed;
+    }
+
+    private KeyEvent createKeyEvent(int type, int code, int mods, char keyChar) {
+        return switch (type) {
+            case InputEventQueue.KEY_PRESSED ->
+                    new KeyEvent(eventSource, KeyEvent.KEY_PRESSED, 0, mods, code, keyChar);
+            case InputEventQueue.KEY_RELEASED ->
+                    new KeyEvent(eventSource, KeyEvent.KEY_RELEASED, 0, mods, code, keyChar);
+            case InputEventQueue.KEY_TYPED ->
+                    new KeyEvent(eventSource, KeyEvent.KEY_TYPED, 0, mods, KeyEvent.VK_UNDEFINED, keyChar);
+            default -> null;
+        };
+    }
+
+    /**
+     * Return the random seed of the recorded session.
+     *
+     * @return the seed read from the log header.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Return true when all the recorded frames have been replayed.
+     *
+     * @return the replay end status.
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Return the number of replayed frames.
+     *
+     * @return the replayed frames counter.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,339 @@
+package fr.snapgames.demo.core.io;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.entity.ObjectType;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.Integrator;
+import fr.snapgames.demo.core.physic.Material;
+import fr.snapgames.demo.core.physic.PhysicType;
+import fr.snapgames.demo.core.physic.World;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link SnapshotReader} restores a {@link World} and the entities of an {@link EntityManager} from a snapshot
+ * written by the {@link SnapshotWriter}.
+ * <p>
+ * The entities are matched by name: an existing {@link Entity} is updated in place, a missing {@link Entity} or
+ * {@link GameObject} is created, and the entities not part of the snapshot are removed from the
+ * {@link EntityManager}. The entities of an extended class (like {@link fr.snapgames.demo.core.entity.Camera} or
+ * {@link fr.snapgames.demo.core.particle.ParticleEmitter}) are only restored in place, and only their {@link Entity}
+ * and {@link GameObject} attributes are restored.
+ * <p>
+ * The images of the {@link GameObject} are retrieved from their {@link GameObject#imageKey} through the image resolver.
+ * <p>
+ * The whole snapshot is decoded a first time without being applied, so that a truncated or corrupted snapshot is
+ * rejected before any change of the {@link World} or of the entities.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SnapshotReader {
+
+    private static final Logger logger = Logger.getLogger(SnapshotReader.class.getName());
+
+    private static final PhysicType[] PHYSIC_TYPES = PhysicType.values();
+    private static final Integrator[] INTEGRATORS = Integrator.values();
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+    private static final Material[] MATERIALS = {
+            Material.DEFAULT, Material.AIR, Material.RUBBER, Material.SUPER_BALL, Material.STEEL, Material.FLOOR};
+
+    private final Function<String, BufferedImage> images;
+
+    private ByteBuffer buffer;
+    private byte[] chars = new byte[64];
+    private final Set<Entity<?>> restored = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Entity<?>> toBeRemoved = new ArrayList<>();
+    // an entity receiving the state of the entities that can not be restored.
+    private final GameObject ignored = new GameObject();
+    // the world receiving the state decoded by the first pass (see SnapshotReader#read).
+    private final World checked = new World();
+    // true while the snapshot is decoded without being applied.
+    private boolean dryRun;
+
+    /**
+     * Create a {@link SnapshotReader} without any image resolver: the existing images are kept.
+     */
+    public SnapshotReader() {
+        this(key -> null);
+    }
+
+    /**
+     * Create a {@link SnapshotReader}.
+     *
+     * @param images the image resolver, returning the image for a {@link GameObject#imageKey} (or null if unknown).
+     */
+    public SnapshotReader(Function<String, BufferedImage> images) {
+        this.images = images;
+    }
+
+    /**
+     * Restore the {@link World} and the {@link EntityManager} entities from a snapshot.
+     * The position of the snapshot buffer is not modified, so that the same snapshot can be restored again.
+     *
+     * @param snapshot the buffer containing the snapshot, from its position to its limit.
+     * @param world    the {@link World} to be restored.
+     * @param entities the {@link EntityManager} to be restored.
+     * @return the number of entities in the snapshot.
+     * @throws IOException if the buffer does not contain a supported snapshot.
+     */
+    public int read(ByteBuffer snapshot, World world, EntityManager entities) throws IOException {
+        try {
+            // first pass: decode the whole snapshot without applying it, to leave the game untouched on a bad one.
+            dryRun = true;
+            int count = readHeader(snapshot);
+            readWorld(checked, entities);
+            for (int i = 0; i < count; i++) {
+                readEntity(entities);
+            }
+            dryRun = false;
+            readHeader(snapshot);
+            readWorld(world, entities);
+            restored.clear();
+            for (int i = 0; i < count; i++) {
+                readEntity(entities);
+            }
+            for (Entity<?> e : entities.getEntities()) {
+                if (!restored.contains(e)) {
+                    toBeRemoved.add(e);
+                }
+            }
+            toBeRemoved.forEach(entities::remove);
+            return count;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The snapshot is truncated", e);
+        } finally {
+            dryRun = false;
+            toBeRemoved.clear();
+            restored.clear();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Restore the {@link World} and the {@link EntityManager} entities from a snapshot file, mapped in memory.
+     *
+     * @param path     the snapshot file.
+     * @param world    the {@link World} to be restored.
+     * @param entities the {@link EntityManager} to be restored.
+     * @return the number of entities in the snapshot.
+     * @throws IOException if the file can not be read or is not a supported snapshot.
+     */
+    public int load(Path path, World world, EntityManager entities) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), world, entities);
+        }
+    }
+
+    /**
+     * Start reading the snapshot from its position, and check its header.
+     *
+     * @param snapshot the buffer containing the snapshot.
+     * @return the number of entities in the snapshot.
+     * @throws IOException if the buffer does not contain a supported snapshot.
+     */
+    private int readHeader(ByteBuffer snapshot) throws IOException {
+        buffer = snapshot.duplicate();
+        if (buffer.remaining() < 10 || buffer.getInt() != SnapshotWriter.MAGIC) {
+            throw new IOException("The buffer does not contain a snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        return buffer.getInt();
+    }
+
+    private void readWorld(World world, EntityManager entities) {
+        world.setGravity(new Vector2D(buffer.getDouble(), buffer.getDouble()));
+        world.minSpeed = buffer.getDouble();
+        world.maxSpeedX = buffer.getDouble();
+        world.maxSpeedY = buffer.getDouble();
+        world.minAcc = buffer.getDouble();
+        world.maxAccX = buffer.getDouble();
+        world.maxAccY = buffer.getDouble();
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        double w = buffer.getDouble();
+        double h = buffer.getDouble();
+        Rectangle2D playArea = world.getPlayArea();
+        if (playArea.getX() != x || playArea.getY() != y || playArea.getWidth() != w || playArea.getHeight() != h) {
+            playArea.setRect(x, y, w, h);
+            if (!dryRun) {
+                entities.setIndexBounds(playArea);
+            }
+        }
+        world.material = readMaterial(world.material);
+        world.staticCollision = buffer.get() != 0;
+        world.integrator = readEnum(INTEGRATORS);
+    }
+
+    private void readEntity(EntityManager entities) {
+        byte kind = buffer.get();
+        int id = buffer.getInt();
+        String name = readString();
+        boolean gameObject = kind == SnapshotWriter.KIND_GAME_OBJECT || kind == SnapshotWriter.KIND_EXTENDED_GAME_OBJECT;
+        if (dryRun) {
+            readState(ignored, gameObject);
+            return;
+        }
+        Entity<?> e = entities.get(name);
+        boolean created = false;
+        if (kind == SnapshotWriter.KIND_ENTITY && (!Optional.ofNullable(e).isPresent() || e.getClass() != Entity.class)) {
+            e = new Entity<>(name);
+            created = true;
+        } else if (kind == SnapshotWriter.KIND_GAME_OBJECT
+                && (!Optional.ofNullable(e).isPresent() || e.getClass() != GameObject.class)) {
+            e = new GameObject(name);
+            created = true;
+        } else if (!Optional.ofNullable(e).isPresent()
+                || (kind == SnapshotWriter.KIND_EXTENDED_GAME_OBJECT && !(e instanceof GameObject))) {
+            logger.log(Level.WARNING, "The entity {0} can not be created from the snapshot", name);
+            e = ignored;
+        }
+        e.id = id;
+        PhysicType previousType = e.physicType;
+        readState(e, gameObject);
+        if (e == ignored) {
+            return;
+        }
+        if (created) {
+            entities.add(e);
+        } else {
+            entities.register(e);
+            entities.update(e);
+            // the update only reports a static entity: a static entity becoming dynamic must also be reported.
+            if (PhysicType.STATIC.equals(previousType) && !PhysicType.STATIC.equals(e.physicType)) {
+                entities.invalidateStatic();
+            }
+        }
+        restored.add(e);
+    }
+
+    private void readState(Entity<?> e, boolean gameObject) {
+        e.physicType = readEnum(PHYSIC_TYPES);
+        e.integrator = readEnum(INTEGRATORS);
+        e.position.x = buffer.getDouble();
+        e.position.y = buffer.getDouble();
+        e.size.x = buffer.getDouble();
+        e.size.y = buffer.getDouble();
+        e.velocity.x = buffer.getDouble();
+        e.velocity.y = buffer.getDouble();
+        e.acceleration.x = buffer.getDouble();
+        e.acceleration.y = buffer.getDouble();
+        e.mass = buffer.getDouble();
+        if (buffer.get() != 0) {
+            if (Optional.ofNullable(e.oldPosition).isPresent()) {
+                e.oldPosition.x = buffer.getDouble();
+                e.oldPosition.y = buffer.getDouble();
+            } else {
+                e.oldPosition = new Vector2D(buffer.getDouble(), buffer.getDouble());
+            }
+        } else {
+            e.oldPosition = null;
+        }
+        e.material = readMaterial(e.material);
+        e.contact = buffer.getInt();
+        e.setLayer(buffer.getInt());
+        e.setPriority(buffer.getInt());
+        e.debug = buffer.getInt();
+        int flags = buffer.get();
+        e.setActive((flags & SnapshotWriter.FLAG_ACTIVE) != 0);
+        e.setStickToCamera((flags & SnapshotWriter.FLAG_STICK_TO_CAMERA) != 0);
+        e.setStaticLayer((flags & SnapshotWriter.FLAG_STATIC_LAYER) != 0);
+        int fill = buffer.getInt();
+        int border = buffer.getInt();
+        e.fillColor = (flags & SnapshotWriter.FLAG_FILL_COLOR) != 0 ? color(e.fillColor, fill) : null;
+        e.borderColor = (flags & SnapshotWriter.FLAG_BORDER_COLOR) != 0 ? color(e.borderColor, border) : null;
+        e.forces.clear();
+        int nbForces = buffer.getInt();
+        for (int i = 0; i < nbForces; i++) {
+            e.forces.add(new Vector2D(buffer.getDouble(), buffer.getDouble()));
+        }
+        if (gameObject) {
+            GameObject go = (GameObject) e;
+            go.type = readEnum(OBJECT_TYPES);
+            go.direction = buffer.getDouble();
+            String imageKey = readString();
+            if (dryRun) {
+                return;
+            }
+            if (Optional.ofNullable(imageKey).isPresent()
+                    && (!imageKey.equals(go.imageKey) || !Optional.ofNullable(go.image).isPresent())) {
+                BufferedImage image = images.apply(imageKey);
+                if (Optional.ofNullable(image).isPresent()) {
+                    go.image = image;
+                }
+            }
+            go.imageKey = imageKey;
+            if (ObjectType.IMAGE.equals(go.type) && !Optional.ofNullable(go.image).isPresent()) {
+                logger.log(Level.WARNING, "The image {0} of the entity {1} is unknown", new Object[]{imageKey, go.name});
+                go.type = ObjectType.RECTANGLE;
+            }
+        }
+        e.updateBox();
+    }
+
+    private Material readMaterial(Material current) {
+        String name = readString();
+        double elasticity = buffer.getDouble();
+        double density = buffer.getDouble();
+        double friction = buffer.getDouble();
+        if (isMaterial(current, name, elasticity, density, friction)) {
+            return current;
+        }
+        for (Material m : MATERIALS) {
+            if (isMaterial(m, name, elasticity, density, friction)) {
+                return m;
+            }
+        }
+        return new Material(name, elasticity, density, friction);
+    }
+
+    private static boolean isMaterial(Material m, String name, double elasticity, double density, double friction) {
+        return Optional.ofNullable(m).isPresent() && Objects.equals(m.name, name)
+                && m.elasticity == elasticity && m.density == density && m.friction == friction;
+    }
+
+    private <E extends Enum<E>> E readEnum(E[] values) {
+        int ordinal = buffer.get();
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+    }
+
+    private String readString() {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (chars.length < length) {
+            chars = new byte[Math.max(length, chars.length * 2)];
+        }
+        buffer.get(chars, 0, length);
+        return new String(chars, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static Color color(Color current, int argb) {
+        return Optional.ofNullable(current).isPresent() && current.getRGB() == argb ? current : new Color(argb, true);
+    }
+}
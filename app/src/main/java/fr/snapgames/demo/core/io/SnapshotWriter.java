@@ -0,0 +1,244 @@
+package fr.snapgames.demo.core.io;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.Material;
+import fr.snapgames.demo.core.physic.World;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * The {@link SnapshotWriter} writes the state of a {@link World} and of all the {@link Entity} of an
+ * {@link EntityManager} into a compact binary snapshot, to be restored later by the {@link SnapshotReader}
+ * (save, rewind, restart from a checkpoint).
+ * <p>
+ * The snapshot format is:
+ * <pre>
+ * header   : int magic ('GSNP'), short version, int nbEntities, world, nbEntities x entity
+ * world    : double gravity x,y, double minSpeed, maxSpeedX, maxSpeedY, minAcc, maxAccX, maxAccY,
+ *            double playArea x,y,width,height, material, byte staticCollision, byte integrator
+ * material : string name, double elasticity, density, friction
+ * entity   : byte kind, int id, string name, byte physicType, byte integrator,
+ *            double position x,y, size x,y, velocity x,y, acceleration x,y, mass,
+ *            byte hasOldPosition [double oldPosition x,y], material, int contact, layer, priority, debug,
+ *            byte flags, int fillColor, int borderColor, int nbForces, nbForces x (double x,y)
+ *            [kind GameObject: byte type, double direction, string imageKey]
+ * string   : int length (-1 for null), length x byte (UTF-8)
+ * </pre>
+ * Enumerations are written as their ordinal (-1 for null). The snapshot is written into a reused {@link ByteBuffer},
+ * growing when required: no reflection nor Java serialization is involved.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SnapshotWriter {
+
+    /**
+     * Magic number starting any snapshot.
+     */
+    public static final int MAGIC = 0x47534E50;
+    /**
+     * Current version of the snapshot format.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * Entity kinds: an exact {@link Entity} or {@link GameObject} can be created again by the {@link SnapshotReader},
+     * an extended one (any subclass) can only be restored in place.
+     */
+    static final byte KIND_ENTITY = 0;
+    static final byte KIND_GAME_OBJECT = 1;
+    static final byte KIND_EXTENDED_ENTITY = 2;
+    static final byte KIND_EXTENDED_GAME_OBJECT = 3;
+
+    /**
+     * Entity flags.
+     */
+    static final int FLAG_ACTIVE = 1;
+    static final int FLAG_STICK_TO_CAMERA = 2;
+    static final int FLAG_STATIC_LAYER = 4;
+    static final int FLAG_FILL_COLOR = 8;
+    static final int FLAG_BORDER_COLOR = 16;
+
+    private ByteBuffer buffer;
+
+    /**
+     * Create a {@link SnapshotWriter} with a 64 KB initial buffer.
+     */
+    public SnapshotWriter() {
+        this(64 * 1024);
+    }
+
+    /**
+     * Create a {@link SnapshotWriter}.
+     *
+     * @param capacity the initial capacity of the buffer, in bytes.
+     */
+    public SnapshotWriter(int capacity) {
+        buffer = ByteBuffer.allocate(Math.max(256, capacity));
+    }
+
+    /**
+     * Write the snapshot of the {@link World} and the {@link EntityManager} entities.
+     * <p>
+     * <em>NOTE</em> The returned buffer is reused by the next write: it must be copied to be kept.
+     *
+     * @param world    the {@link World} to be saved.
+     * @param entities the {@link EntityManager} holding the entities to be saved.
+     * @return the buffer containing the snapshot, from its position to its limit.
+     */
+    public ByteBuffer write(World world, EntityManager entities) {
+        while (true) {
+            try {
+                buffer.clear();
+                writeSnapshot(world, entities);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Write the snapshot of the {@link World} and the {@link EntityManager} entities to a file.
+     *
+     * @param path     the file to write the snapshot to.
+     * @param world    the {@link World} to be saved.
+     * @param entities the {@link EntityManager} holding the entities to be saved.
+     * @throws IOException if the file can not be written.
+     */
+    public void save(Path path, World world, EntityManager entities) throws IOException {
+        ByteBuffer snapshot = write(world, entities);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        }
+    }
+
+    private void writeSnapshot(World world, EntityManager entities) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        writeWorld(world);
+        int count = 0;
+        for (Entity<?> e : entities.getEntities()) {
+            writeEntity(e);
+            count++;
+        }
+        buffer.putInt(countPosition, count);
+    }
+
+    private void writeWorld(World world) {
+        buffer.putDouble(world.gravity.x);
+        buffer.putDouble(world.gravity.y);
+        buffer.putDouble(world.minSpeed);
+        buffer.putDouble(world.maxSpeedX);
+        buffer.putDouble(world.maxSpeedY);
+        buffer.putDouble(world.minAcc);
+        buffer.putDouble(world.maxAccX);
+        buffer.putDouble(world.maxAccY);
+        Rectangle2D playArea = world.getPlayArea();
+        buffer.putDouble(playArea.getX());
+        buffer.putDouble(playArea.getY());
+        buffer.putDouble(playArea.getWidth());
+        buffer.putDouble(playArea.getHeight());
+        writeMaterial(world.material);
+        buffer.put((byte) (world.staticCollision ? 1 : 0));
+        writeEnum(world.integrator);
+    }
+
+    private void writeEntity(Entity<?> e) {
+        boolean gameObject = e instanceof GameObject;
+        if (e.getClass() == Entity.class) {
+            buffer.put(KIND_ENTITY);
+        } else if (e.getClass() == GameObject.class) {
+            buffer.put(KIND_GAME_OBJECT);
+        } else {
+            buffer.put(gameObject ? KIND_EXTENDED_GAME_OBJECT : KIND_EXTENDED_ENTITY);
+        }
+        buffer.putInt(e.id);
+        writeString(e.name);
+        writeEnum(e.physicType);
+        writeEnum(e.integrator);
+        buffer.putDouble(e.position.x);
+        buffer.putDouble(e.position.y);
+        buffer.putDouble(e.size.x);
+        buffer.putDouble(e.size.y);
+        buffer.putDouble(e.velocity.x);
+        buffer.putDouble(e.velocity.y);
+        buffer.putDouble(e.acceleration.x);
+        buffer.putDouble(e.acceleration.y);
+        buffer.putDouble(e.mass);
+        if (Optional.ofNullable(e.oldPosition).isPresent()) {
+            buffer.put((byte) 1);
+            buffer.putDouble(e.oldPosition.x);
+            buffer.putDouble(e.oldPosition.y);
+        } else {
+            buffer.put((byte) 0);
+        }
+        writeMaterial(e.material);
+        buffer.putInt(e.contact);
+        buffer.putInt(e.getLayer());
+        buffer.putInt(e.getPriority());
+        buffer.putInt(e.debug);
+        int flags = (e.isActive() ? FLAG_ACTIVE : 0)
+                | (e.isNotStickToCamera() ? 0 : FLAG_STICK_TO_CAMERA)
+                | (e.isStaticLayer() ? FLAG_STATIC_LAYER : 0)
+                | (Optional.ofNullable(e.fillColor).isPresent() ? FLAG_FILL_COLOR : 0)
+                | (Optional.ofNullable(e.borderColor).isPresent() ? FLAG_BORDER_COLOR : 0);
+        buffer.put((byte) flags);
+        buffer.putInt(argb(e.fillColor));
+        buffer.putInt(argb(e.borderColor));
+        buffer.putInt(e.forces.size());
+        for (Vector2D f : e.forces) {
+            buffer.putDouble(f.x);
+            buffer.putDouble(f.y);
+        }
+        if (gameObject) {
+            GameObject go = (GameObject) e;
+            writeEnum(go.type);
+            buffer.putDouble(go.direction);
+            writeString(go.imageKey);
+        }
+    }
+
+    private void writeMaterial(Material m) {
+        Material material = Optional.ofNullable(m).orElse(Material.DEFAULT);
+        writeString(material.name);
+        buffer.putDouble(material.elasticity);
+        buffer.putDouble(material.density);
+        buffer.putDouble(material.friction);
+    }
+
+    private void writeEnum(Enum<?> value) {
+        buffer.put((byte) (Optional.ofNullable(value).isPresent() ? value.ordinal() : -1));
+    }
+
+    private void writeString(String value) {
+        if (Optional.ofNullable(value).isPresent()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        } else {
+            buffer.putInt(-1);
+        }
+    }
+
+    private static int argb(Color c) {
+        return Optional.ofNullable(c).isPresent() ? c.getRGB() : 0;
+    }
+}
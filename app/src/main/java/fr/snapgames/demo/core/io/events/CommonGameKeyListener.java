@@ -2,11 +2,13 @@ package fr.snapgames.demo.core.io.events;
 
 
 import fr.snapgames.demo.core.Game;
+import fr.snapgames.demo.core.gfx.capture.FrameCapture;
 import fr.snapgames.demo.core.math.Vector2D;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.geom.Point2D;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -56,6 +58,24 @@ public class CommonGameKeyListener implements KeyListener {
                 game.getWindow().switchFullScreen(!fullScreen);
                 logger.log(Level.FINEST, "Switch FullScreen: {}", new Object[]{!fullScreen ? "ON" : "OFF"});
             }
+            // pause or resume the frames capture (if activated)
+            case KeyEvent.VK_F9 -> {
+                FrameCapture capture = game.getRenderer().getFrameCapture();
+                if (Optional.ofNullable(capture).isPresent()) {
+                    capture.setEnabled(!capture.isEnabled());
+                    logger.log(Level.FINEST, "Frames capture: {}", new Object[]{capture.isEnabled() ? "ON" : "OFF"});
+                }
+            }
+            // save a checkpoint of the current world and entities
+            case KeyEvent.VK_F5 -> {
+                game.saveCheckpoint();
+                logger.log(Level.FINEST, "Checkpoint saved");
+            }
+            // restore the last saved checkpoint
+            case KeyEvent.VK_F8 -> {
+                boolean restored = game.restoreCheckpoint();
+                logger.log(Level.FINEST, "Checkpoint restored: {}", new Object[]{restored});
+            }
             // switch gravity effect
             case KeyEvent.VK_G -> {
                 Vector2D g = game.getPhysicEngine().getWorld().getGravity();
@@ -0,0 +1,265 @@
+package fr.snapgames.demo.core.math;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@link Rng} is the seeded random number service of the engine, to be used in place of {@link Math#random()}.
+ * <p>
+ * It is built on {@link SplittableRandom}: each instance owns its own generator, so there is no contention between
+ * threads, and every value it produces is reproducible from its seed.
+ * <p>
+ * A root {@link Rng} is created by the Game from the session seed, and derived instances must be requested for
+ * each subsystem or thread. All the derived instances are split from the root seed in a fixed order (the subsystems
+ * in their first request order, the threads in their index order), so that the same seed always gives the same
+ * streams, whatever the launch or the threads running the game:
+ *
+ * <pre>
+ *     Rng root = new Rng(seed);
+ *     // a reproducible stream dedicated to one subsystem (the same instance for the same name).
+ *     Rng sceneRng = root.forSubsystem("scene.demo");
+ *     // a reproducible stream dedicated to the n-th worker thread.
+ *     Rng workerRng = root.forThread(n);
+ *     // a stream dedicated to the calling thread (its pool index for a fork/join worker).
+ *     Rng threadRng = root.forThread();
+ *     // a reproducible stream for the n-th chunk of a parallel processing.
+ *     Rng chunkRng = sceneRng.stream(n);
+ * </pre>
+ * <blockquote><em>IMPORTANT</em> An {@link Rng} instance is not thread-safe: one instance must only be used by
+ * one thread at a time.</blockquote>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class Rng implements RandomGenerator {
+
+    private final long seed;
+    private final SplittableRandom random;
+
+    // the generators the derived instances are split from, each one in its own fixed order.
+    private final SplittableRandom subsystemSplitter;
+    private final Streams threads;
+    private final Streams workers;
+
+    private final Map<String, Rng> subsystems = new HashMap<>();
+    private final ThreadLocal<Rng> perThread = ThreadLocal.withInitial(this::createThreadRng);
+    private int threadCount;
+
+    /**
+     * Create a new {@link Rng} from a seed.
+     *
+     * @param seed the seed for this random generator.
+     */
+    public Rng(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.subsystemSplitter = random.split();
+        this.threads = new Streams(random.split());
+        this.workers = new Streams(random.split());
+    }
+
+    /**
+     * SplitMix64 finalizer used to derive well-distributed seeds from a parent seed.
+     *
+     * @param z the value to be mixed.
+     * @return the mixed value.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Retrieve the seed of this {@link Rng}.
+     *
+     * @return the seed value.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieve the {@link Rng} dedicated to a subsystem. The subsystem streams are split from this {@link Rng} in
+     * their first request order, and the same instance is returned for the same name.
+     *
+     * @param name the name of the subsystem.
+     * @return the {@link Rng} instance for that subsystem.
+     */
+    public synchronized Rng forSubsystem(String name) {
+        return subsystems.computeIfAbsent(name, n -> new Rng(subsystemSplitter.split().nextLong()));
+    }
+
+    /**
+     * Retrieve the {@link Rng} dedicated to the n-th thread of a processing. The thread streams are split from
+     * this {@link Rng} in their index order, so the same index always gives the same stream.
+     *
+     * @param index the thread index (from 0).
+     * @return the {@link Rng} instance for that thread.
+     */
+    public Rng forThread(int index) {
+        return threads.get(index);
+    }
+
+    /**
+     * Retrieve the {@link Rng} dedicated to the calling thread: a fork/join worker gets the stream of its pool index,
+     * any other thread gets the stream of the order it first called this method in.
+     *
+     * @return the {@link Rng} instance for the current thread.
+     */
+    public Rng forThread() {
+        return perThread.get();
+    }
+
+    private Rng createThreadRng() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof ForkJoinWorkerThread) {
+            return workers.get(((ForkJoinWorkerThread) thread).getPoolIndex());
+        }
+        synchronized (this) {
+            return threads.get(threadCount++);
+        }
+    }
+
+    /**
+     * Create a new independent {@link Rng} for the n-th stream derived from this one, e.g. for the n-th chunk
+     * of a parallel processing. The same index always gives the same stream.
+     *
+     * @param index the stream index.
+     * @return a new {@link Rng} instance.
+     */
+    public Rng stream(long index) {
+        return new Rng(mix(seed + mix(index + 1)));
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public int nextInt(int origin, int bound) {
+        return random.nextInt(origin, bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public double nextDouble(double bound) {
+        return random.nextDouble(bound);
+    }
+
+    @Override
+    public double nextDouble(double origin, double bound) {
+        return random.nextDouble(origin, bound);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    /**
+     * Fill count values of the dst array with random values between min and max.
+     *
+     * @param dst   the array to be filled.
+     * @param count the number of values to generate.
+     * @param min   the minimum value.
+     * @param max   the maximum value.
+     */
+    public void fill(double[] dst, int count, double min, double max) {
+        double range = max - min;
+        for (int i = 0; i < count; i++) {
+            dst[i] = min + random.nextDouble() * range;
+        }
+    }
+
+    /**
+     * Generate count random positions into the xs and ys arrays, inside the (x,y,width,height) area.
+     *
+     * @param xs     the array receiving the horizontal positions.
+     * @param ys     the array receiving the vertical positions.
+     * @param count  the number of positions to generate.
+     * @param x      the area horizontal origin.
+     * @param y      the area vertical origin.
+     * @param width  the area width.
+     * @param height the area height.
+     */
+    public void positions(double[] xs, double[] ys, int count, double x, double y, double width, double height) {
+        for (int i = 0; i < count; i++) {
+            xs[i] = x + random.nextDouble() * width;
+            ys[i] = y + random.nextDouble() * height;
+        }
+    }
+
+    /**
+     * Generate count random ARGB colors into the dst array, each channel being between its min and max value
+     * (all values from 0.0 to 1.0).
+     *
+     * @param dst      the array receiving the ARGB colors.
+     * @param count    the number of colors to generate.
+     * @param minRed   minimum red value
+     * @param minGreen minimum green value
+     * @param minBlue  minimum blue value
+     * @param minAlpha minimum alpha value
+     * @param maxRed   maximum red value
+     * @param maxGreen maximum green value
+     * @param maxBlue  maximum blue value
+     * @param maxAlpha maximum alpha value
+     */
+    public void colors(int[] dst, int count,
+                       float minRed, float minGreen, float minBlue, float minAlpha,
+                       float maxRed, float maxGreen, float maxBlue, float maxAlpha) {
+        for (int i = 0; i < count; i++) {
+            int r = channel(minRed, maxRed);
+            int g = channel(minGreen, maxGreen);
+            int b = channel(minBlue, maxBlue);
+            int a = channel(minAlpha, maxAlpha);
+            dst[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+    }
+
+    private int channel(float min, float max) {
+        return (int) ((min + random.nextDouble() * (max - min)) * 255.0 + 0.5);
+    }
+
+    /**
+     * The streams derived from one splitter, always split in their index order.
+     */
+    private static class Streams {
+        private final SplittableRandom splitter;
+        private Rng[] streams = new Rng[8];
+        private int count;
+
+        Streams(SplittableRandom splitter) {
+            this.splitter = splitter;
+        }
+
+        synchronized Rng get(int index) {
+            if (index >= streams.length) {
+                streams = Arrays.copyOf(streams, Math.max(index + 1, streams.length * 2));
+            }
+            while (count <= index) {
+                streams[count++] = new Rng(splitter.split().nextLong());
+            }
+            return streams[index];
+        }
+    }
+}
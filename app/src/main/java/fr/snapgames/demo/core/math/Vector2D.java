@@ -1,5 +1,7 @@
 package fr.snapgames.demo.core.math;
 
+import fr.snapgames.demo.core.Utils;
+
 import java.util.List;
 import java.util.Objects;
 
@@ -105,6 +107,18 @@ public class Vector2D {
         return String.format("{x:%04.2f,y:%04.2f}", x, y);
     }
 
+    /**
+     * Append the same text as {@link Vector2D#toString()} to a {@link StringBuilder}, without allocation.
+     *
+     * @param sb the {@link StringBuilder} to append the vector to.
+     * @return the updated {@link StringBuilder}.
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("{x:");
+        Utils.appendFixed(sb, x, 2).append(",y:");
+        return Utils.appendFixed(sb, y, 2).append('}');
+    }
+
     public Vector2D maximize(double maxAccel) {
         if (Math.abs(x) > maxAccel) {
             x = Math.signum(x) * maxAccel;
@@ -0,0 +1,431 @@
+package fr.snapgames.demo.core.particle;
+
+import fr.snapgames.demo.core.Utils;
+import fr.snapgames.demo.core.entity.DebugInfo;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.RenderingKey;
+import fr.snapgames.demo.core.math.Rng;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.PhysicType;
+
+import java.awt.*;
+import java.util.stream.IntStream;
+
+/**
+ * The {@link ParticleEmitter} is an {@link Entity} owning a whole set of particles (sparks, dust, debris...),
+ * stored in primitive arrays (position, velocity, life and color), instead of one {@link Entity} per particle.
+ * <p>
+ * The particles are updated in bulk by {@link ParticleEmitter#update(double, Vector2D)} (called by the
+ * {@link fr.snapgames.demo.core.physic.PhysicEngine} with the {@link fr.snapgames.demo.core.physic.World} gravity
+ * and the same physic time as the bodies),
+ * in parallel chunks for large particle counts, and are drawn in one batched pass by the
+ * {@link fr.snapgames.demo.core.gfx.plugins.ParticleEmitterDrawHelperPlugin}.
+ * <p>
+ * New particles are emitted from the emission area (see {@link ParticleEmitter#setOrigin(double, double)}) at a
+ * continuous rate and/or with bursts, with a random speed and direction. The dead particles are replaced by the last
+ * alive ones, so the alive particles are always packed at the beginning of the arrays.
+ * <p>
+ * The {@link Entity#position} and {@link Entity#size} of the emitter are the bounding box of its alive particles
+ * (or the emission area when there is no particle), so the emitter is culled and tracked as a whole by the
+ * {@link fr.snapgames.demo.core.gfx.Renderer}. The emitter itself is not moved by the physic engine
+ * (its {@link PhysicType} is {@link PhysicType#NONE}).
+ * <p>
+ * eg. usage :
+ *
+ * <pre>
+ *     ParticleEmitter sparks = new ParticleEmitter("sparks", 10000, rng.forSubsystem("sparks"))
+ *         .setOrigin(100, 50)
+ *         .setRate(2000)
+ *         .setSpeed(20, 80)
+ *         .setDirection(-Math.PI / 2, Math.PI / 4)
+ *         .setLife(0.5, 1.5)
+ *         .setColors(Color.YELLOW, Color.RED);
+ *     entityManager.add(sparks);
+ * </pre>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class ParticleEmitter extends Entity<ParticleEmitter> {
+
+    /**
+     * Number of particles updated by one parallel task.
+     */
+    public static final int CHUNK_SIZE = 8192;
+    /**
+     * Below this number of alive particles, the update is processed by the calling thread only.
+     */
+    public static final int PARALLEL_THRESHOLD = 32768;
+
+    private final int capacity;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] vxs;
+    private final float[] vys;
+    private final float[] lives;
+    private final float[] maxLives;
+    private final int[] colors;
+    private int count;
+
+    private final Rng rng;
+
+    // emission parameters.
+    private double originX;
+    private double originY;
+    private double areaWidth;
+    private double areaHeight;
+    private double rate;
+    private double pendingEmission;
+    private double minSpeed = 10.0;
+    private double maxSpeed = 50.0;
+    private double directionAngle = -Math.PI / 2;
+    private double directionSpread = Math.PI;
+    private double minLife = 1.0;
+    private double maxLife = 2.0;
+    private Color startColor = Color.WHITE;
+    private Color endColor = Color.WHITE;
+    private double gravityScale = 1.0;
+    private int particleSize = 1;
+    private boolean parallel = true;
+
+    private long updateCount;
+
+    /**
+     * Create a new {@link ParticleEmitter}.
+     *
+     * @param name     the name of this emitter.
+     * @param capacity the maximum number of alive particles.
+     * @param rng      the random generator for the emission.
+     */
+    public ParticleEmitter(String name, int capacity, Rng rng) {
+        super(name);
+        this.capacity = capacity;
+        this.rng = rng;
+        xs = new float[capacity];
+        ys = new float[capacity];
+        vxs = new float[capacity];
+        vys = new float[capacity];
+        lives = new float[capacity];
+        maxLives = new float[capacity];
+        colors = new int[capacity];
+        setPhysicType(PhysicType.NONE);
+        setMass(0.0);
+    }
+
+    /**
+     * Update all the particles: emit the new ones, move them according to their velocity and the gravity,
+     * and remove the dead ones.
+     *
+     * @param time    the physic time elapsed since previous update (the elapsed milliseconds scaled by the
+     *                {@link fr.snapgames.demo.core.physic.PhysicEngine#TIME_FACTOR}, like for the bodies).
+     * @param gravity the gravity (in pixels per physic time unit²), scaled by the gravity scale of this emitter.
+     */
+    public void update(double time, Vector2D gravity) {
+        float dt = (float) time;
+        if (isActive() && rate > 0) {
+            pendingEmission += rate * dt;
+            int n = (int) pendingEmission;
+            pendingEmission -= n;
+            emit(n);
+        }
+        float gx = (float) (gravity.x * gravityScale);
+        float gy = (float) (gravity.y * gravityScale);
+        if (parallel && count >= PARALLEL_THRESHOLD) {
+            int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(c ->
+                    integrate(c * CHUNK_SIZE, Math.min(count, (c + 1) * CHUNK_SIZE), dt, gx, gy));
+        } else {
+            integrate(0, count, dt, gx, gy);
+        }
+        compact();
+        updateCount++;
+    }
+
+    private void integrate(int from, int to, float dt, float gx, float gy) {
+        for (int i = from; i < to; i++) {
+            vxs[i] += gx * dt;
+            vys[i] += gy * dt;
+            xs[i] += vxs[i] * dt;
+            ys[i] += vys[i] * dt;
+            lives[i] -= dt;
+        }
+    }
+
+    /**
+     * Remove the dead particles, moving the last alive ones into their slots, and compute the particles
+     * bounding box.
+     */
+    private void compact() {
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        int i = 0;
+        while (i < count) {
+            if (lives[i] <= 0) {
+                count--;
+                move(count, i);
+                continue;
+            }
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+            i++;
+        }
+        if (count > 0) {
+            position.x = minX;
+            position.y = minY;
+            size.x = maxX - minX + particleSize;
+            size.y = maxY - minY + particleSize;
+        } else {
+            position.x = originX;
+            position.y = originY;
+            size.x = areaWidth;
+            size.y = areaHeight;
+        }
+    }
+
+    private void move(int from, int to) {
+        xs[to] = xs[from];
+        ys[to] = ys[from];
+        vxs[to] = vxs[from];
+        vys[to] = vys[from];
+        lives[to] = lives[from];
+        maxLives[to] = maxLives[from];
+        colors[to] = colors[from];
+    }
+
+    /**
+     * Emit up to n new particles (limited by the capacity of the emitter).
+     *
+     * @param n the number of particles to emit.
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter emit(int n) {
+        int end = Math.min(capacity, count + n);
+        int start = startColor.getRGB();
+        int stop = endColor.getRGB();
+        for (int i = count; i < end; i++) {
+            xs[i] = (float) (originX + (areaWidth > 0 ? rng.nextDouble() * areaWidth : 0.0));
+            ys[i] = (float) (originY + (areaHeight > 0 ? rng.nextDouble() * areaHeight : 0.0));
+            double angle = directionAngle + (rng.nextDouble() - 0.5) * directionSpread;
+            double speed = minSpeed + rng.nextDouble() * (maxSpeed - minSpeed);
+            vxs[i] = (float) (Math.cos(angle) * speed);
+            vys[i] = (float) (Math.sin(angle) * speed);
+            lives[i] = (float) (minLife + rng.nextDouble() * (maxLife - minLife));
+            maxLives[i] = lives[i];
+            colors[i] = start == stop ? start : lerpColor(start, stop, rng.nextDouble());
+        }
+        count = end;
+        return this;
+    }
+
+    private static int lerpColor(int c0, int c1, double t) {
+        int a = (int) (((c0 >>> 24) & 0xff) * (1 - t) + ((c1 >>> 24) & 0xff) * t);
+        int r = (int) (((c0 >> 16) & 0xff) * (1 - t) + ((c1 >> 16) & 0xff) * t);
+        int g = (int) (((c0 >> 8) & 0xff) * (1 - t) + ((c1 >> 8) & 0xff) * t);
+        int b = (int) ((c0 & 0xff) * (1 - t) + (c1 & 0xff) * t);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Remove all the alive particles.
+     *
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter clear() {
+        count = 0;
+        pendingEmission = 0;
+        return this;
+    }
+
+    /**
+     * Set the emission area top-left corner.
+     *
+     * @param x the horizontal position of the emission area.
+     * @param y the vertical position of the emission area.
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setOrigin(double x, double y) {
+        this.originX = x;
+        this.originY = y;
+        if (count == 0) {
+            setPosition(x, y);
+        }
+        return this;
+    }
+
+    /**
+     * Set the emission area size (0 x 0 means a point).
+     *
+     * @param w the width of the emission area.
+     * @param h the height of the emission area.
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setArea(double w, double h) {
+        this.areaWidth = w;
+        this.areaHeight = h;
+        if (count == 0) {
+            setSize(w, h);
+        }
+        return this;
+    }
+
+    /**
+     * Set the continuous emission rate.
+     *
+     * @param rate the number of particles emitted per physic time unit (0 for bursts only).
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setRate(double rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    /**
+     * Set the range of the initial speed of the particles.
+     *
+     * @param min the minimum speed (in pixels per physic time unit).
+     * @param max the maximum speed (in pixels per physic time unit).
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setSpeed(double min, double max) {
+        this.minSpeed = min;
+        this.maxSpeed = max;
+        return this;
+    }
+
+    /**
+     * Set the emission direction.
+     *
+     * @param angle  the mean direction angle (in radians, 0 is right, -PI/2 is up).
+     * @param spread the angular range around the mean direction (2*PI for all directions).
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setDirection(double angle, double spread) {
+        this.directionAngle = angle;
+        this.directionSpread = spread;
+        return this;
+    }
+
+    /**
+     * Set the range of the particles life duration.
+     *
+     * @param min the minimum life duration (in physic time units).
+     * @param max the maximum life duration (in physic time units).
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setLife(double min, double max) {
+        this.minLife = min;
+        this.maxLife = max;
+        return this;
+    }
+
+    /**
+     * Set the range of the particles colors: each particle gets a random color between the two ones.
+     *
+     * @param start the first color.
+     * @param end   the second color.
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setColors(Color start, Color end) {
+        this.startColor = start;
+        this.endColor = end;
+        return this;
+    }
+
+    /**
+     * Set the ratio of the {@link fr.snapgames.demo.core.physic.World} gravity applied to the particles.
+     *
+     * @param scale the gravity scale (0 for no gravity).
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setGravityScale(double scale) {
+        this.gravityScale = scale;
+        return this;
+    }
+
+    /**
+     * Set the size of the square drawn for each particle.
+     *
+     * @param particleSize the particle size in pixels.
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setParticleSize(int particleSize) {
+        this.particleSize = Math.max(1, particleSize);
+        return this;
+    }
+
+    /**
+     * Activate the parallel update for large particle counts.
+     *
+     * @param parallel true to update the particles in parallel chunks.
+     * @return the updated {@link ParticleEmitter} (Fluent API).
+     */
+    public ParticleEmitter setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getParticleSize() {
+        return particleSize;
+    }
+
+    public float[] getXs() {
+        return xs;
+    }
+
+    public float[] getYs() {
+        return ys;
+    }
+
+    public float[] getVelocitiesX() {
+        return vxs;
+    }
+
+    public float[] getVelocitiesY() {
+        return vys;
+    }
+
+    public float[] getLives() {
+        return lives;
+    }
+
+    public float[] getMaxLives() {
+        return maxLives;
+    }
+
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * The particles change at each update: the rendering key changes with them.
+     *
+     * @param key the {@link RenderingKey} to be populated.
+     */
+    @Override
+    public void createRenderingKey(RenderingKey key) {
+        super.createRenderingKey(key);
+        key.add(updateCount).add(count).add(particleSize);
+    }
+
+    @Override
+    protected void createDebugInfo(DebugInfo info) {
+        info.add(1, "name", sb -> sb.append(name))
+                .add(1, "particles", sb -> sb.append(count).append('/').append(capacity))
+                .add(2, "pos", sb -> position.appendTo(sb))
+                .add(2, "size", sb -> size.appendTo(sb))
+                .add(3, "rate", sb -> Utils.appendFixed(sb, rate, 1))
+                .add(4, "l", sb -> sb.append(getLayer()).append(" p:").append(getPriority()));
+    }
+}
@@ -0,0 +1,125 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.math.Vector2D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link BodyBuffer} holds the physic state of a set of {@link Entity} in primitive arrays
+ * (one array per attribute), to let a {@link BodyKernel} process all the bodies in bulk.
+ * <p>
+ * The {@link Entity} state is copied into the arrays with {@link BodyBuffer#load(List, World)}, and the computed
+ * velocity and acceleration are copied back with {@link BodyBuffer#store()}. The computed move of each body is kept
+ * in the buffer, to be swept against the play area and the static colliders by the {@link PhysicEngine}.
+ * The arrays are reused from one update to the next one, and only grow when more bodies are loaded.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class BodyBuffer {
+
+    double[] mass = new double[0];
+    double[] friction = new double[0];
+    /**
+     * The sum of the forces applied to the body, then the resulting acceleration.
+     */
+    double[] ax = new double[0];
+    double[] ay = new double[0];
+    double[] vx = new double[0];
+    double[] vy = new double[0];
+    /**
+     * The move computed for the body, before any collision.
+     */
+    double[] dx = new double[0];
+    double[] dy = new double[0];
+
+    private Entity<?>[] entities = new Entity<?>[0];
+    int count;
+
+    /**
+     * Load the physic state of the entities into the arrays. The sum of the forces of each {@link Entity}
+     * is loaded as its acceleration, and the friction is selected according to its previous contact state.
+     *
+     * @param bodies the list of {@link Entity} to process.
+     * @param world  the {@link World} providing the default material.
+     * @return the updated {@link BodyBuffer} (Fluent API).
+     */
+    public BodyBuffer load(List<Entity<?>> bodies, World world) {
+        ensureCapacity(bodies.size());
+        count = bodies.size();
+        for (int i = 0; i < count; i++) {
+            Entity<?> e = bodies.get(i);
+            entities[i] = e;
+            double fx = 0.0, fy = 0.0;
+            for (Vector2D f : e.forces) {
+                fx += f.x;
+                fy += f.y;
+            }
+            ax[i] = fx;
+            ay[i] = fy;
+            mass[i] = e.mass;
+            friction[i] = e.contact == 0 ? world.material.friction : e.material.friction;
+        }
+        return this;
+    }
+
+    /**
+     * Copy the computed velocity and acceleration back to the loaded {@link Entity}.
+     */
+    public void store() {
+        for (int i = 0; i < count; i++) {
+            Entity<?> e = entities[i];
+            e.velocity.x = vx[i];
+            e.velocity.y = vy[i];
+            e.acceleration.x = ax[i];
+            e.acceleration.y = ay[i];
+            entities[i] = null;
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (mass.length < n) {
+            int capacity = Math.max(n, mass.length * 2);
+            mass = Arrays.copyOf(mass, capacity);
+            friction = Arrays.copyOf(friction, capacity);
+            ax = Arrays.copyOf(ax, capacity);
+            ay = Arrays.copyOf(ay, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+            dx = Arrays.copyOf(dx, capacity);
+            dy = Arrays.copyOf(dy, capacity);
+            entities = Arrays.copyOf(entities, capacity);
+        }
+    }
+
+    /**
+     * Retrieve the number of loaded bodies.
+     *
+     * @return the number of bodies.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieve the horizontal move computed for a body.
+     *
+     * @param i the index of the body.
+     * @return the horizontal move.
+     */
+    public double getMoveX(int i) {
+        return dx[i];
+    }
+
+    /**
+     * Retrieve the vertical move computed for a body.
+     *
+     * @param i the index of the body.
+     * @return the vertical move.
+     */
+    public double getMoveY(int i) {
+        return dy[i];
+    }
+}
@@ -0,0 +1,88 @@
+package fr.snapgames.demo.core.physic;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link BodyKernel} integrates all the bodies of a {@link BodyBuffer} in bulk, with the model of the
+ * {@link Integrator#LEGACY} per entity processing:
+ * <ul>
+ *     <li>the acceleration is the {@link World#gravity} applied to the body mass plus the sum of its forces,
+ *     ceiled by {@link World#minAcc} and limited by {@link World#maxAccX} and {@link World#maxAccY},</li>
+ *     <li>the velocity is computed from the acceleration, ceiled by {@link World#minSpeed} and limited by
+ *     {@link World#maxSpeedX} and {@link World#maxSpeedY},</li>
+ *     <li>the move is computed from the velocity and the friction.</li>
+ * </ul>
+ * The resulting move is then swept against the play area and the static colliders by the {@link PhysicEngine},
+ * exactly as for the entities updated one by one.
+ * <p>
+ * The {@link Integrator#LEGACY} integrator limits both axis with the horizontal limits, and ceils the vertical
+ * values according to the horizontal ones (see {@link fr.snapgames.demo.core.math.Vector2D#ceil(double)}).
+ * A kernel created in legacy mode reproduces exactly this behavior.
+ * <p>
+ * Two implementations are provided:
+ * <ul>
+ *     <li>{@link ScalarBodyKernel} (<code>scalar</code>), a plain loop over the arrays,</li>
+ *     <li><code>VectorBodyKernel</code> (<code>vector</code>), processing several bodies per instruction with the
+ *     <code>jdk.incubator.vector</code> module. It is only available when the JVM is started with
+ *     <code>--add-modules jdk.incubator.vector</code>.</li>
+ * </ul>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public interface BodyKernel {
+
+    /**
+     * Integrate all the bodies of the buffer: compute their acceleration, velocity and move.
+     *
+     * @param bodies the {@link BodyBuffer} to be updated.
+     * @param world  the {@link World} providing gravity and limits.
+     * @param time   the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     */
+    void integrate(BodyBuffer bodies, World world, double time);
+
+    /**
+     * Return true if this kernel reproduces exactly the {@link Integrator#LEGACY} limits.
+     *
+     * @return true for the legacy mode, false for the per axis limits.
+     */
+    boolean isLegacy();
+
+    /**
+     * Create the {@link BodyKernel} corresponding to the name, with the per axis limits.
+     *
+     * @param name the name of the kernel.
+     * @return the created {@link BodyKernel}.
+     * @see BodyKernel#create(String, boolean)
+     */
+    static BodyKernel create(String name) {
+        return create(name, false);
+    }
+
+    /**
+     * Create the {@link BodyKernel} corresponding to the name:
+     * <ul>
+     *     <li><code>scalar</code> for the {@link ScalarBodyKernel},</li>
+     *     <li><code>vector</code> or <code>auto</code> for the <code>VectorBodyKernel</code> if the vector module is
+     *     available, else the {@link ScalarBodyKernel}.</li>
+     * </ul>
+     *
+     * @param name   the name of the kernel.
+     * @param legacy true to reproduce exactly the {@link Integrator#LEGACY} limits.
+     * @return the created {@link BodyKernel}.
+     */
+    static BodyKernel create(String name, boolean legacy) {
+        if ("vector".equalsIgnoreCase(name) || "auto".equalsIgnoreCase(name)) {
+            try {
+                return (BodyKernel) Class.forName("fr.snapgames.demo.core.physic.VectorBodyKernel")
+                        .getDeclaredConstructor(boolean.class).newInstance(legacy);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                Logger.getLogger(BodyKernel.class.getName()).log(Level.INFO,
+                        "Vector API not available ({0}), scalar body kernel used",
+                        e.getClass().getSimpleName());
+            }
+        }
+        return new ScalarBodyKernel(legacy);
+    }
+}
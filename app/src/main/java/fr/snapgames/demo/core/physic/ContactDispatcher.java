@@ -0,0 +1,361 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The {@link ContactDispatcher} collects the contacts detected by the {@link PhysicEngine} during a step, and
+ * dispatches them as {@link ContactEvent} to the subscribed {@link ContactListener} once the step is over.
+ * <p>
+ * A contact is reported for a pair of entities: a dynamic {@link Entity} hitting a static one, or overlapping a
+ * trigger volume (see {@link Entity#setTrigger(boolean)}). The contacts of a pair are coalesced: whatever the number
+ * of sub-steps or bounces during a step, a pair produces one event per step:
+ * <ul>
+ *     <li>{@link Phase#ENTER} on the first step of the contact,</li>
+ *     <li>{@link Phase#STAY} on the following steps while the contact is reported again,</li>
+ *     <li>{@link Phase#EXIT} on the first step without contact.</li>
+ * </ul>
+ * A listener is subscribed to the {@link Entity#id} or the {@link Entity#tag} of one of the two entities of the pair.
+ * <p>
+ * Only the contacts between two entities are dispatched: a body bouncing on the limits of the
+ * {@link World#playArea} has no other {@link Entity} to pair with, and produces no event.
+ * <p>
+ * The pairs are stored in preallocated hash tables and the events in a preallocated array, all reused step after
+ * step (they only grow when more pairs than ever are in contact): no allocation happens while dispatching.
+ * <blockquote><em>NOTE</em> The dispatched {@link ContactEvent} is reused for the next events, and must not be
+ * kept by a listener.</blockquote>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class ContactDispatcher {
+
+    /**
+     * The phase of a contact.
+     */
+    public enum Phase {
+        ENTER,
+        STAY,
+        EXIT
+    }
+
+    /**
+     * One contact event, between the moving {@link Entity} and the other one (static entity or trigger volume).
+     */
+    public static class ContactEvent {
+        private Phase phase;
+        private Entity<?> entity;
+        private Entity<?> other;
+
+        /**
+         * Retrieve the phase of the contact.
+         *
+         * @return the {@link Phase} of the contact during this step.
+         */
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * Retrieve the moving {@link Entity} of the pair.
+         *
+         * @return the dynamic {@link Entity} which reported the contact.
+         */
+        public Entity<?> getEntity() {
+            return entity;
+        }
+
+        /**
+         * Retrieve the other {@link Entity} of the pair.
+         *
+         * @return the static {@link Entity} or the trigger volume touched by the moving one.
+         */
+        public Entity<?> getOther() {
+            return other;
+        }
+
+        /**
+         * Return true if the other {@link Entity} of the pair is a trigger volume.
+         *
+         * @return true for a trigger contact, false for a collision.
+         */
+        public boolean isTrigger() {
+            return other.isTrigger();
+        }
+    }
+
+    /**
+     * The listener receiving the {@link ContactEvent} of its subscribed entities.
+     */
+    @FunctionalInterface
+    public interface ContactListener {
+        /**
+         * Receive one contact event.
+         *
+         * @param event the (reused) contact event.
+         */
+        void onContact(ContactEvent event);
+    }
+
+    private static final ContactListener[] NO_LISTENER = new ContactListener[0];
+
+    // the pairs in contact during the current step and the previous one.
+    private PairTable current = new PairTable(64);
+    private PairTable previous = new PairTable(64);
+
+    // the events of the step.
+    private ContactEvent[] events = new ContactEvent[0];
+    private int eventCount;
+
+    // the listeners, by id (sorted ids, with their listeners at the same index) and by tag.
+    private int[] ids = new int[0];
+    private ContactListener[] idListeners = new ContactListener[0];
+    private final Map<String, ContactListener[]> tagListeners = new HashMap<>();
+
+    /**
+     * Subscribe a listener to the contacts of the {@link Entity} with this id.
+     *
+     * @param id       the {@link Entity#id}.
+     * @param listener the {@link ContactListener} to be notified.
+     * @return the updated {@link ContactDispatcher} (Fluent API).
+     */
+    public ContactDispatcher subscribe(int id, ContactListener listener) {
+        int i = Arrays.binarySearch(ids, id);
+        int at = i < 0 ? -i - 1 : i;
+        ids = insert(ids, at, id);
+        ContactListener[] listeners = new ContactListener[idListeners.length + 1];
+        System.arraycopy(idListeners, 0, listeners, 0, at);
+        listeners[at] = listener;
+        System.arraycopy(idListeners, at, listeners, at + 1, idListeners.length - at);
+        idListeners = listeners;
+        return this;
+    }
+
+    private static int[] insert(int[] values, int at, int value) {
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(values, at, result, at + 1, values.length - at);
+        return result;
+    }
+
+    /**
+     * Subscribe a listener to the contacts of all the entities with this tag.
+     *
+     * @param tag      the {@link Entity#tag}.
+     * @param listener the {@link ContactListener} to be notified.
+     * @return the updated {@link ContactDispatcher} (Fluent API).
+     */
+    public ContactDispatcher subscribe(String tag, ContactListener listener) {
+        ContactListener[] listeners = tagListeners.getOrDefault(tag, NO_LISTENER);
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        tagListeners.put(tag, listeners);
+        return this;
+    }
+
+    /**
+     * Remove a listener from all its subscriptions.
+     *
+     * @param listener the {@link ContactListener} to be removed.
+     * @return the updated {@link ContactDispatcher} (Fluent API).
+     */
+    public ContactDispatcher unsubscribe(ContactListener listener) {
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (idListeners[i] != listener) {
+                ids[n] = ids[i];
+                idListeners[n++] = idListeners[i];
+            }
+        }
+        ids = Arrays.copyOf(ids, n);
+        idListeners = Arrays.copyOf(idListeners, n);
+        tagListeners.replaceAll((tag, listeners) -> Arrays.stream(listeners)
+                .filter(l -> l != listener)
+                .toArray(ContactListener[]::new));
+        tagListeners.values().removeIf(listeners -> listeners.length == 0);
+        return this;
+    }
+
+    /**
+     * Report a contact between a moving {@link Entity} and another one during the current step.
+     *
+     * @param entity the moving {@link Entity}.
+     * @param other  the static {@link Entity} or trigger volume.
+     */
+    public void report(Entity<?> entity, Entity<?> other) {
+        if (current.size == current.capacity / 2) {
+            current = current.grow();
+        }
+        current.add(entity, other);
+    }
+
+    /**
+     * Dispatch the events of the current step to the subscribed listeners, then start a new step.
+     *
+     * @return the number of dispatched events.
+     */
+    public int dispatch() {
+        eventCount = 0;
+        for (int s = 0; s < current.capacity; s++) {
+            if (current.used[s] == current.stamp) {
+                boolean stay = previous.contains(current.entities[s], current.others[s]);
+                addEvent(stay ? Phase.STAY : Phase.ENTER, current.entities[s], current.others[s]);
+            }
+        }
+        for (int s = 0; s < previous.capacity; s++) {
+            if (previous.used[s] == previous.stamp && !current.contains(previous.entities[s], previous.others[s])) {
+                addEvent(Phase.EXIT, previous.entities[s], previous.others[s]);
+            }
+        }
+        for (int i = 0; i < eventCount; i++) {
+            notify(events[i]);
+        }
+        // the current pairs become the previous ones.
+        previous.clear();
+        PairTable t = previous;
+        previous = current;
+        current = t;
+        for (int i = 0; i < eventCount; i++) {
+            events[i].entity = null;
+            events[i].other = null;
+        }
+        return eventCount;
+    }
+
+    private void addEvent(Phase phase, Entity<?> entity, Entity<?> other) {
+        if (eventCount == events.length) {
+            events = Arrays.copyOf(events, Math.max(16, events.length * 2));
+            for (int i = eventCount; i < events.length; i++) {
+                events[i] = new ContactEvent();
+            }
+        }
+        ContactEvent event = events[eventCount++];
+        event.phase = phase;
+        event.entity = entity;
+        event.other = other;
+    }
+
+    private void notify(ContactEvent event) {
+        notifyId(event, event.entity.id);
+        if (event.other.id != event.entity.id) {
+            notifyId(event, event.other.id);
+        }
+        notifyTag(event, event.entity.tag);
+        if (!Objects.equals(event.other.tag, event.entity.tag)) {
+            notifyTag(event, event.other.tag);
+        }
+    }
+
+    private void notifyId(ContactEvent event, int id) {
+        int i = Arrays.binarySearch(ids, id);
+        if (i < 0) {
+            return;
+        }
+        while (i > 0 && ids[i - 1] == id) {
+            i--;
+        }
+        for (; i < ids.length && ids[i] == id; i++) {
+            idListeners[i].onContact(event);
+        }
+    }
+
+    private void notifyTag(ContactEvent event, String tag) {
+        if (Optional.ofNullable(tag).isPresent()) {
+            for (ContactListener listener : tagListeners.getOrDefault(tag, NO_LISTENER)) {
+                listener.onContact(event);
+            }
+        }
+    }
+
+    /**
+     * Drop all the pairs, without any event, and release their entities.
+     */
+    public void clear() {
+        current.release();
+        previous.release();
+    }
+
+    /**
+     * Retrieve the number of pairs reported during the current step.
+     *
+     * @return the number of pairs.
+     */
+    public int getPairCount() {
+        return current.size;
+    }
+
+    /**
+     * An open addressing hash set of entity pairs, cleared in constant time by changing its stamp: a slot belongs
+     * to the set only when its stamp is the current one, the stale slots keep their entities until they are
+     * overwritten (or {@link #release()}d).
+     */
+    private static class PairTable {
+        private final int capacity;
+        private final Entity<?>[] entities;
+        private final Entity<?>[] others;
+        private final int[] used;
+        private int stamp = 1;
+        private int size;
+
+        PairTable(int capacity) {
+            this.capacity = capacity;
+            this.entities = new Entity<?>[capacity];
+            this.others = new Entity<?>[capacity];
+            this.used = new int[capacity];
+        }
+
+        private int slot(Entity<?> entity, Entity<?> other) {
+            int h = System.identityHashCode(entity) * 31 + System.identityHashCode(other);
+            h ^= h >>> 16;
+            int s = h & (capacity - 1);
+            while (used[s] == stamp && (entities[s] != entity || others[s] != other)) {
+                s = (s + 1) & (capacity - 1);
+            }
+            return s;
+        }
+
+        void add(Entity<?> entity, Entity<?> other) {
+            int s = slot(entity, other);
+            if (used[s] != stamp) {
+                used[s] = stamp;
+                entities[s] = entity;
+                others[s] = other;
+                size++;
+            }
+        }
+
+        boolean contains(Entity<?> entity, Entity<?> other) {
+            return used[slot(entity, other)] == stamp;
+        }
+
+        void clear() {
+            size = 0;
+            if (++stamp == 0) {
+                Arrays.fill(used, 0);
+                stamp = 1;
+            }
+        }
+
+        void release() {
+            clear();
+            Arrays.fill(entities, null);
+            Arrays.fill(others, null);
+        }
+
+        PairTable grow() {
+            PairTable table = new PairTable(capacity * 2);
+            for (int s = 0; s < capacity; s++) {
+                if (used[s] == stamp) {
+                    table.add(entities[s], others[s]);
+                }
+            }
+            return table;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.math.Vector2D;
+
+import java.util.Optional;
+
+/**
+ * The {@link Integrator} defines how the {@link PhysicEngine} computes the velocity and the move of an
+ * {@link Entity} from the forces applied to it. It is selected for the whole {@link World}
+ * (see {@link World#integrator}) or per {@link Entity} (see {@link Entity#integrator}).
+ * <p>
+ * Except for {@link Integrator#LEGACY}, the integrators:
+ * <ul>
+ *     <li>compute the acceleration as the sum of the forces divided by the {@link Entity#mass},
+ *     ceiled by {@link World#minAcc} and limited by {@link World#maxAccX} and {@link World#maxAccY},</li>
+ *     <li>accumulate the velocity, limited by {@link World#maxSpeedX} and {@link World#maxSpeedY},</li>
+ *     <li>apply the friction as a damping of the velocity: <code>friction</code> is the ratio of the velocity
+ *     kept after one time unit, whatever the number of steps used to compute it.</li>
+ * </ul>
+ * The resulting move is then swept against the play area by the {@link PhysicEngine}.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public enum Integrator {
+    /**
+     * The historical integration: the velocity is recomputed from the acceleration at each step
+     * (not accumulated), and the friction reduces the move.
+     */
+    LEGACY {
+        @Override
+        void integrate(Entity<?> e, double fx, double fy, World world, double time, double friction, Vector2D move) {
+            e.acceleration = new Vector2D(fx, fy);
+            e.acceleration.ceil(world.minAcc);
+            e.acceleration.maximize(world.maxAccX);
+
+            e.velocity = e.acceleration.multiply(0.5 * time);
+            e.velocity.ceil(world.minSpeed);
+            e.velocity.maximize(world.maxSpeedX);
+
+            move.x = e.velocity.x * time * friction;
+            move.y = e.velocity.y * time * friction;
+        }
+    },
+    /**
+     * Semi-implicit (symplectic) Euler: the velocity is updated first, and the new velocity moves the position.
+     * It keeps the energy of an oscillating or bouncing system bounded, even with large steps.
+     */
+    SEMI_IMPLICIT_EULER {
+        @Override
+        void integrate(Entity<?> e, double fx, double fy, World world, double time, double friction, Vector2D move) {
+            double damping = Math.pow(friction, time);
+            double ax = accelerationX(e, fx, world);
+            double ay = accelerationY(e, fy, world);
+            e.velocity.x = speedX(e.velocity.x * damping + ax * time, world);
+            e.velocity.y = speedY(e.velocity.y * damping + ay * time, world);
+            e.acceleration.x = ax;
+            e.acceleration.y = ay;
+            move.x = e.velocity.x * time;
+            move.y = e.velocity.y * time;
+        }
+    },
+    /**
+     * Velocity Verlet: the velocity is updated in two halves, with the previous acceleration before the move,
+     * and with the new one after the move: the position moves with the current velocity and the previous
+     * acceleration. It is exact for a constant acceleration.
+     * The {@link Entity#oldPosition} marks the previous acceleration as known.
+     */
+    VELOCITY_VERLET {
+        @Override
+        void integrate(Entity<?> e, double fx, double fy, World world, double time, double friction, Vector2D move) {
+            double damping = Math.pow(friction, time);
+            // the first step has no previous acceleration: the current one is used.
+            boolean started = Optional.ofNullable(e.oldPosition).isPresent();
+            double pax = started ? e.acceleration.x : accelerationX(e, fx, world);
+            double pay = started ? e.acceleration.y : accelerationY(e, fy, world);
+            // first half of the velocity update: the mean velocity over the step, moving the position
+            // (and reflected by the sweep on a bounce).
+            e.velocity.x = speedX(e.velocity.x * damping + 0.5 * pax * time, world);
+            e.velocity.y = speedY(e.velocity.y * damping + 0.5 * pay * time, world);
+            move.x = e.velocity.x * time;
+            move.y = e.velocity.y * time;
+            if (started) {
+                e.oldPosition.x = e.position.x;
+                e.oldPosition.y = e.position.y;
+            } else {
+                e.oldPosition = new Vector2D(e.position.x, e.position.y);
+            }
+        }
+
+        @Override
+        void afterMove(Entity<?> e, double fx, double fy, World world, double time) {
+            // second half of the velocity update, with the new acceleration.
+            double ax = accelerationX(e, fx, world);
+            double ay = accelerationY(e, fy, world);
+            e.velocity.x = speedX(e.velocity.x + 0.5 * ax * time, world);
+            e.velocity.y = speedY(e.velocity.y + 0.5 * ay * time, world);
+            e.acceleration.x = ax;
+            e.acceleration.y = ay;
+        }
+    },
+    /**
+     * Position Verlet: the move is the previous move plus the acceleration, the velocity being implicit
+     * (computed from the previous position, see {@link Entity#oldPosition}). It assumes a constant update step.
+     * An empty step (no elapsed time) moves nothing and keeps the previous velocity.
+     */
+    POSITION_VERLET {
+        @Override
+        void integrate(Entity<?> e, double fx, double fy, World world, double time, double friction, Vector2D move) {
+            if (time <= 0.0) {
+                move.x = 0.0;
+                move.y = 0.0;
+                return;
+            }
+            double damping = Math.pow(friction, time);
+            double ax = accelerationX(e, fx, world);
+            double ay = accelerationY(e, fy, world);
+            if (!Optional.ofNullable(e.oldPosition).isPresent()) {
+                e.oldPosition = new Vector2D(e.position.x - e.velocity.x * time, e.position.y - e.velocity.y * time);
+            }
+            double dx = (e.position.x - e.oldPosition.x) * damping + ax * time * time;
+            double dy = (e.position.y - e.oldPosition.y) * damping + ay * time * time;
+            e.velocity.x = speedX(dx / time, world);
+            e.velocity.y = speedY(dy / time, world);
+            e.acceleration.x = ax;
+            e.acceleration.y = ay;
+            e.oldPosition.x = e.position.x;
+            e.oldPosition.y = e.position.y;
+            move.x = e.velocity.x * time;
+            move.y = e.velocity.y * time;
+        }
+
+        @Override
+        void afterMove(Entity<?> e, double fx, double fy, World world, double time) {
+            // a bounce changes the velocity: the previous position must follow it.
+            if (e.contact != 0 && time > 0.0) {
+                e.oldPosition.x = e.position.x - e.velocity.x * time;
+                e.oldPosition.y = e.position.y - e.velocity.y * time;
+            }
+        }
+    };
+
+    /**
+     * Compute the new velocity, acceleration and the move of the {@link Entity} for this step.
+     *
+     * @param e        the {@link Entity} to be updated.
+     * @param fx       the horizontal sum of the forces, including the gravity.
+     * @param fy       the vertical sum of the forces, including the gravity.
+     * @param world    the {@link World} providing the limits.
+     * @param time     the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     * @param friction the friction applied to the {@link Entity}.
+     * @param move     the resulting move for this step.
+     */
+    abstract void integrate(Entity<?> e, double fx, double fy, World world, double time, double friction, Vector2D move);
+
+    /**
+     * Called once the move has been swept against the play area, and the {@link Entity#contact} updated.
+     *
+     * @param e     the moved {@link Entity}.
+     * @param fx    the horizontal sum of the forces, including the gravity.
+     * @param fy    the vertical sum of the forces, including the gravity.
+     * @param world the {@link World} providing the limits.
+     * @param time  the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     */
+    void afterMove(Entity<?> e, double fx, double fy, World world, double time) {
+        // nothing to do by default.
+    }
+
+    private static double accelerationX(Entity<?> e, double fx, World world) {
+        double ax = e.mass > 0.0 ? fx / e.mass : fx;
+        return PhysicEngine.thresholdMinMax(ax, world.minAcc, world.maxAccX);
+    }
+
+    private static double accelerationY(Entity<?> e, double fy, World world) {
+        double ay = e.mass > 0.0 ? fy / e.mass : fy;
+        return PhysicEngine.thresholdMinMax(ay, world.minAcc, world.maxAccY);
+    }
+
+    private static double speedX(double vx, World world) {
+        return PhysicEngine.thresholdMinMax(vx, world.minSpeed, world.maxSpeedX);
+    }
+
+    private static double speedY(double vy, World world) {
+        return PhysicEngine.thresholdMinMax(vy, world.minSpeed, world.maxSpeedY);
+    }
+}
@@ -1,5 +1,6 @@
 package fr.snapgames.demo.core.physic;
 
+import fr.snapgames.demo.core.Utils;
 import fr.snapgames.demo.core.math.Vector2D;
 
 import java.util.Objects;
@@ -116,6 +117,19 @@ public class Material {
                 friction);
     }
 
+    /**
+     * Append the same text as {@link Material#toString()} to a {@link StringBuilder}, without allocation.
+     *
+     * @param sb the {@link StringBuilder} to append the material to.
+     * @return the updated {@link StringBuilder}.
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append("[n=").append(name).append(",d=");
+        Utils.appendFixed(sb, density, 2).append(",e=");
+        Utils.appendFixed(sb, elasticity, 2).append(",f=");
+        return Utils.appendFixed(sb, friction, 2).append(']');
+    }
+
     public boolean equals(Object o) {
         if (this == o) {
             return true;
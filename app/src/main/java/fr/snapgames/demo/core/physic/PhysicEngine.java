@@ -2,7 +2,17 @@ package fr.snapgames.demo.core.physic;
 
 import fr.snapgames.demo.core.Game;
 import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.SpatialIndex;
 import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.particle.ParticleEmitter;
+import fr.snapgames.demo.gdemoapp.ConfigAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Create a Physic Engine to compute Entity moves and behaviors.
@@ -12,28 +22,190 @@ import fr.snapgames.demo.core.math.Vector2D;
  */
 public class PhysicEngine {
 
+    private static final Logger logger = Logger.getLogger(PhysicEngine.class.getName());
+
     public static final double TIME_FACTOR = 0.0045;
     /**
-     * Parent game
+     * Parent game (null for a {@link PhysicEngine} hosted outside a {@link Game}, see {@link WorldHost}).
      */
     private final Game game;
+    /**
+     * The processed entities, when not provided by the parent {@link Game}.
+     */
+    private final EntityManager entityManager;
 
     private World world;
 
+    /**
+     * Maximum number of bounces processed for one {@link Entity} during one update.
+     */
+    public static final int MAX_SWEEP_ITERATIONS = 4;
+
+    // current sweep state, reused for all entities to avoid any allocation.
+    private double hitTime;
+    private int hitContact;
+    private Entity<?> sweepEntity;
+    private double sweepDx;
+    private double sweepDy;
+    private Entity<?> sweepOwner;
+    private Entity<?> hitOwner;
+    private final StaticColliderGrid.Visitor staticSweep = (owner, x, y, w, h) -> {
+        sweepOwner = owner;
+        sweepAgainst(sweepEntity, x, y, w, h, sweepDx, sweepDy);
+        sweepOwner = null;
+    };
+
+    /**
+     * The contacts of the dynamic entities against the static ones and the trigger volumes, dispatched after
+     * each update.
+     */
+    private final ContactDispatcher contacts = new ContactDispatcher();
+    private Entity<?> triggerEntity;
+    private final SpatialIndex.Visitor triggerOverlap = o -> {
+        if (o != triggerEntity && !o.isTrigger() && isProcessed(o)
+                && o.position.x < triggerEntity.position.x + triggerEntity.size.x
+                && o.position.x + o.size.x > triggerEntity.position.x
+                && o.position.y < triggerEntity.position.y + triggerEntity.size.y
+                && o.position.y + o.size.y > triggerEntity.position.y) {
+            contacts.report(o, triggerEntity);
+        }
+        return true;
+    };
+
+    /**
+     * The static collision layer, built from the {@link PhysicType#STATIC} entities when they change.
+     */
+    private StaticColliderGrid staticColliders = new StaticColliderGrid(64.0);
+
+    /**
+     * The bulk body kernel, only set if activated through the configuration (see {@link BodyKernel}).
+     */
+    private BodyKernel kernel;
+    private final BodyBuffer bodies = new BodyBuffer();
+    private final List<Entity<?>> bulkEntities = new ArrayList<>();
+    // the move computed by the integrator, reused for all entities.
+    private final Vector2D move = new Vector2D();
+
+    /**
+     * The scheduler splitting (or merging) the frames elapsed time into physic sub-steps.
+     */
+    private SubStepScheduler scheduler = new SubStepScheduler();
+    private final SubStepScheduler.SubStep subStep = this::subStep;
+
+    /**
+     * The buffer recording the state of the processed entities after each update (null if not activated).
+     */
+    private RewindBuffer rewindBuffer;
+    private final List<Entity<?>> recordedEntities = new ArrayList<>();
+    // the physic time processed by the sub-steps of the current update.
+    private double frameTime;
+
     /**
      * Initialize the {@link PhysicEngine} with configuration values.
      * <ul>
      *         <li>PHYSIC_GRAVITY a Point2D value for gravity,</li>
      *         <li>PHYSIC_MIN_SPEED a double value for min speed below considered as zero,</li>
      *         <li>PHYSIC_MAX_SPEED_X the maximum speed value for X axis,</li>
-     *         <li>PHYSIC_MAX_SPEED_Y the maximum speed value for Y axis.</li>
+     *         <li>PHYSIC_MAX_SPEED_Y the maximum speed value for Y axis,</li>
+     *         <li>PHYSIC_SUBSTEP_* the {@link SubStepScheduler} settings,</li>
+     *         <li>PHYSIC_STATIC_CELL_SIZE the cell size of the {@link StaticColliderGrid},</li>
+     *         <li>PHYSIC_REWIND_* the optional {@link RewindBuffer} settings,</li>
+     *         <li>PHYSIC_KERNEL the optional bulk {@link BodyKernel} to be used, and PHYSIC_KERNEL_LEGACY its
+     *         limits mode.</li>
      * </ul>
      *
      * @param game the parent Game.
      */
     public PhysicEngine(Game game) {
         this.game = game;
+        this.entityManager = null;
         this.world = new World(this.game.getConfiguration());
+        this.world.engine = this;
+        if (Optional.ofNullable(getEntityManager()).isPresent()) {
+            getEntityManager().setIndexBounds(world.getPlayArea());
+        }
+        scheduler = new SubStepScheduler(
+                (double) game.getConfiguration().get(ConfigAttribute.PHYSIC_SUBSTEP_MAX_MOVE),
+                (int) game.getConfiguration().get(ConfigAttribute.PHYSIC_SUBSTEP_MAX),
+                (double) game.getConfiguration().get(ConfigAttribute.PHYSIC_SUBSTEP_BUDGET),
+                (double) game.getConfiguration().get(ConfigAttribute.PHYSIC_SUBSTEP_MERGE));
+        if (scheduler.isAdaptive() && Integrator.LEGACY.equals(world.integrator)) {
+            logger.log(Level.WARNING, "Physic sub-steps are used with the step dependent legacy integrator");
+        }
+        staticColliders = new StaticColliderGrid(
+                (double) game.getConfiguration().get(ConfigAttribute.PHYSIC_STATIC_CELL_SIZE));
+        int rewindSteps = (int) game.getConfiguration().get(ConfigAttribute.PHYSIC_REWIND_STEPS);
+        if (rewindSteps > 0) {
+            rewindBuffer = new RewindBuffer(rewindSteps,
+                    (double) game.getConfiguration().get(ConfigAttribute.PHYSIC_REWIND_SIZE),
+                    (int) game.getConfiguration().get(ConfigAttribute.PHYSIC_REWIND_KEYFRAME));
+        }
+        String kernelName = (String) game.getConfiguration().get(ConfigAttribute.PHYSIC_KERNEL);
+        if (!"none".equalsIgnoreCase(kernelName)) {
+            kernel = BodyKernel.create(kernelName,
+                    (boolean) game.getConfiguration().get(ConfigAttribute.PHYSIC_KERNEL_LEGACY));
+            logger.log(Level.INFO, "Physic bulk kernel activated: {0}", kernel.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Initialize a {@link PhysicEngine} processing its own {@link World} and {@link EntityManager}, without any
+     * parent {@link Game}: the engine does not share any state with the other instances, and can be updated from any
+     * thread, as long as one thread at a time updates it (see {@link WorldHost}).
+     * <p>
+     * The default {@link SubStepScheduler} is used (one step per update), without any {@link BodyKernel}.
+     *
+     * @param world         the {@link World} to be simulated.
+     * @param entityManager the {@link EntityManager} holding the entities of this world.
+     */
+    public PhysicEngine(World world, EntityManager entityManager) {
+        this.game = null;
+        this.entityManager = entityManager;
+        this.world = world;
+        this.world.engine = this;
+        entityManager.setIndexBounds(world.getPlayArea());
+    }
+
+    /**
+     * Define the {@link SubStepScheduler} processing the updates elapsed time.
+     *
+     * @param scheduler the new {@link SubStepScheduler}.
+     * @return the updated {@link PhysicEngine} (Fluent API).
+     */
+    public PhysicEngine setScheduler(SubStepScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Define the bulk {@link BodyKernel} (null to update the entities one by one).
+     *
+     * @param kernel the {@link BodyKernel} to be used.
+     * @return the updated {@link PhysicEngine} (Fluent API).
+     */
+    public PhysicEngine setKernel(BodyKernel kernel) {
+        this.kernel = kernel;
+        return this;
+    }
+
+    /**
+     * Define the {@link RewindBuffer} recording the processed entities after each update (null to stop recording).
+     *
+     * @param rewindBuffer the {@link RewindBuffer} to be used.
+     * @return the updated {@link PhysicEngine} (Fluent API).
+     */
+    public PhysicEngine setRewindBuffer(RewindBuffer rewindBuffer) {
+        this.rewindBuffer = rewindBuffer;
+        return this;
+    }
+
+    /**
+     * Retrieve the processed {@link EntityManager}: the own one, or the parent {@link Game} one.
+     *
+     * @return the {@link EntityManager} instance (can be null if the parent {@link Game} is not initialized).
+     */
+    public EntityManager getEntityManager() {
+        return Optional.ofNullable(entityManager).isPresent() ? entityManager : game.getEntityManager();
     }
 
     /**
@@ -47,61 +219,381 @@ public class PhysicEngine {
      * the elapsed time before computation. This time factor is useful to tune thinly the physic computation processing.
      * In a second step, it will be possible to accelerate or reduce the time speed on the game processing.
      * </blockquote>
+     * <p>
+     * The elapsed time is split into sub-steps, or merged with the next frames, by the {@link SubStepScheduler}.
+     * <p>
+     * If a {@link BodyKernel} is activated, the processed entities using the {@link Integrator#LEGACY} integrator
+     * are integrated in bulk by the kernel instead of one by one. Their moves are then swept as the other ones.
+     * <p>
+     * The active {@link ParticleEmitter} update their own particles with the {@link World#gravity}, for the same
+     * physic time as the processed sub-steps.
+     * <p>
+     * If a {@link RewindBuffer} is activated, the state of the processed entities is recorded after each sub-step
+     * (so nothing is recorded for the merged updates), see {@link PhysicEngine#rewind(int)}.
+     * <p>
+     * Finally, the trigger volumes are tested against the processed entities, and the contact events of the update
+     * are dispatched by the {@link ContactDispatcher} (except for the merged updates).
      *
      * @param elapsed a double value for the elapsed time since previous call.
      */
     public void update(double elapsed) {
+        frameTime = 0.0;
+        boolean adaptive = scheduler.isAdaptive();
+        int subSteps = scheduler.update(elapsed,
+                adaptive ? computeSpeedRatio() * TIME_FACTOR : 0.0,
+                adaptive && !hasPendingForces(),
+                subStep);
+        if (frameTime > 0.0) {
+            List<ParticleEmitter> emitters = getEntityManager().getEmitters();
+            for (int i = 0; i < emitters.size(); i++) {
+                ParticleEmitter emitter = emitters.get(i);
+                if (emitter.isActive()) {
+                    emitter.update(frameTime, world.gravity);
+                    getEntityManager().update(emitter);
+                }
+            }
+        }
+        if (subSteps > 0) {
+            detectTriggers();
+            contacts.dispatch();
+        }
+    }
+
+    /**
+     * Report the dynamic entities overlapping a trigger volume.
+     */
+    private void detectTriggers() {
+        for (Entity<?> e : getEntityManager().getEntities()) {
+            if (e.isActive() && e.isTrigger()) {
+                triggerEntity = e;
+                getEntityManager().getSpatialIndex().queryRect(
+                        e.position.x, e.position.y, e.size.x, e.size.y, triggerOverlap);
+            }
+        }
+        triggerEntity = null;
+    }
+
+    /**
+     * Process one physic sub-step (see {@link SubStepScheduler}).
+     *
+     * @param elapsed the elapsed time for this sub-step, in milliseconds.
+     * @param last    true if this is the last sub-step of the frame: the forces are then cleared.
+     */
+    private void subStep(double elapsed, boolean last) {
         double time = elapsed * TIME_FACTOR;
-        game.getEntityManager().getEntities().stream()
-                .filter(e1 -> e1.isActive() &&
-                        e1.isNotStickToCamera() &&
-                        e1.physicType.equals(PhysicType.DYNAMIC))
+        frameTime += time;
+        if (Optional.ofNullable(kernel).isPresent()) {
+            updateBulk(time, last);
+        } else {
+            updateEntities(time, last);
+        }
+        if (Optional.ofNullable(rewindBuffer).isPresent()) {
+            for (Entity<?> e : getEntityManager().getEntities()) {
+                if (isProcessed(e)) {
+                    recordedEntities.add(e);
+                }
+            }
+            rewindBuffer.record(recordedEntities);
+            recordedEntities.clear();
+        }
+    }
+
+    /**
+     * Compute the move of the fastest processed {@link Entity} per time unit, relative to its size.
+     *
+     * @return the highest speed to size ratio.
+     */
+    private double computeSpeedRatio() {
+        double ratio = 0.0;
+        for (Entity<?> e : getEntityManager().getEntities()) {
+            if (isProcessed(e)) {
+                ratio = Math.max(ratio, Math.max(
+                        Math.abs(e.velocity.x) / Math.max(1.0, e.size.x),
+                        Math.abs(e.velocity.y) / Math.max(1.0, e.size.y)));
+            }
+        }
+        return ratio;
+    }
+
+    private boolean hasPendingForces() {
+        for (Entity<?> e : getEntityManager().getEntities()) {
+            if (isProcessed(e) && !e.forces.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isProcessed(Entity<?> e) {
+        return e.isActive() && e.isNotStickToCamera() && PhysicType.DYNAMIC.equals(e.physicType);
+    }
+
+    /**
+     * Update the entities one by one, with the continuous collision detection.
+     *
+     * @param time        the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     * @param clearForces true to clear the forces applied to the entities after this step.
+     */
+    private void updateEntities(double time, boolean clearForces) {
+        getEntityManager().getEntities().stream()
+                .filter(this::isProcessed)
                 .forEach(e2 -> {
-                    updateEntity(game, e2, time);
-                    constrained(game, e2, time);
+                    step(e2, time, clearForces);
+                    getEntityManager().update(e2);
                 });
     }
 
     /**
-     * Update one entity.
+     * Update all the entities in bulk with the {@link BodyKernel}. As the kernel implements the
+     * {@link Integrator#LEGACY} model, the entities using another {@link Integrator} are updated one by one.
+     * The moves computed by the kernel are swept against the play area and the static colliders, as the moves of the
+     * entities updated one by one.
      *
-     * @param game    the parent Game instance.
-     * @param e       the concerned entity.
-     * @param elapsed the elapsed time since previous call.
+     * @param time        the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     * @param clearForces true to clear the forces applied to the entities after this step.
      */
-    private void updateEntity(Game game, Entity<?> e, double elapsed) {
-        double friction = 1.0;
-        e.acceleration = new Vector2D(0, 0);
-        e.addForce(world.gravity.multiply(e.mass));
-        e.acceleration = e.acceleration.addAll(e.forces);
-
-        e.acceleration.ceil(world.minAcc);
-        e.acceleration.maximize(world.maxAccX);
+    private void updateBulk(double time, boolean clearForces) {
+        bulkEntities.clear();
+        for (Entity<?> e : getEntityManager().getEntities()) {
+            if (isProcessed(e)) {
+                if (Integrator.LEGACY.equals(Optional.ofNullable(e.integrator).orElse(world.integrator))) {
+                    bulkEntities.add(e);
+                } else {
+                    step(e, time, clearForces);
+                    getEntityManager().update(e);
+                }
+            }
+        }
+        kernel.integrate(bodies.load(bulkEntities, world), world, time);
+        bodies.store();
+        for (int i = 0; i < bulkEntities.size(); i++) {
+            Entity<?> e = bulkEntities.get(i);
+            sweep(e, bodies.getMoveX(i), bodies.getMoveY(i));
+            constrained(e, time);
+            e.updateBox();
+            if (clearForces) {
+                e.forces.clear();
+            }
+            getEntityManager().update(e);
+        }
+        bulkEntities.clear();
+    }
 
-        e.velocity = e.acceleration.multiply(0.5 * (elapsed));
-        e.velocity.ceil(world.minSpeed);
-        e.velocity.maximize(world.maxSpeedX);
+    /**
+     * Update one entity: compute its move with its {@link Integrator} (or the {@link World#integrator} one),
+     * sweep it against the play area, and apply the play area constraints.
+     *
+     * @param e    the concerned entity.
+     * @param time the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     */
+    void step(Entity<?> e, double time) {
+        step(e, time, true);
+    }
 
-        friction = e.contact == 0 ? world.material.friction : e.material.friction;
+    /**
+     * Update one entity, keeping its forces for the next sub-steps if required.
+     *
+     * @param e           the concerned entity.
+     * @param time        the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     * @param clearForces true to clear the forces applied to the entity after this step.
+     */
+    private void step(Entity<?> e, double time, boolean clearForces) {
+        Integrator integrator = Optional.ofNullable(e.integrator).orElse(world.integrator);
+        double fx = 0.0, fy = 0.0;
+        for (Vector2D f : e.forces) {
+            fx += f.x;
+            fy += f.y;
+        }
+        fx += world.gravity.x * e.mass;
+        fy += world.gravity.y * e.mass;
+        double friction = e.contact == 0 ? world.material.friction : e.material.friction;
 
-        e.position = e.position.add(e.velocity.multiply(elapsed * friction));
+        integrator.integrate(e, fx, fy, world, time, friction, move);
+        sweep(e, move.x, move.y);
+        constrained(e, time);
+        integrator.afterMove(e, fx, fy, world, time);
 
         e.updateBox();
-        e.forces.clear();
+        if (clearForces) {
+            e.forces.clear();
+        }
+    }
+
+    /**
+     * Move the {@link Entity} e by (dx,dy) with a continuous collision detection: the time of impact against
+     * the play area bounds (and the {@link StaticColliderGrid} boxes baked from the {@link PhysicType#STATIC} entities,
+     * if {@link World#staticCollision} is set)
+     * is computed on the swept bounding box, the entity is moved up to that impact, its velocity is reflected
+     * according to its {@link Material#elasticity}, and the remaining part of the move is processed again,
+     * up to {@link PhysicEngine#MAX_SWEEP_ITERATIONS} times.
+     * <p>
+     * So a fast {@link Entity} can not tunnel through a border whatever the elapsed time is, and its bounce does not
+     * depend on the update rate. As the ellipse of an {@link Entity} touches an axis-aligned border at the same time
+     * as its bounding box, the same computation applies to both shapes.
+     * <p>
+     * The {@link Entity#contact} flags are updated with the touched sides, and the hit static entities are reported to
+     * the {@link ContactDispatcher}.
+     *
+     * @param e  the moving entity.
+     * @param dx the horizontal move for this update.
+     * @param dy the vertical move for this update.
+     */
+    void sweep(Entity<?> e, double dx, double dy) {
+        e.contact = 0;
+        for (int i = 0; i < MAX_SWEEP_ITERATIONS && (dx != 0.0 || dy != 0.0); i++) {
+            hitTime = 1.0;
+            hitContact = 0;
+            hitOwner = null;
+            sweepBounds(e, dx, dy);
+            if (world.staticCollision && Optional.ofNullable(getEntityManager()).isPresent()) {
+                sweepEntity = e;
+                sweepDx = dx;
+                sweepDy = dy;
+                getStaticColliders().query(
+                        Math.min(e.position.x, e.position.x + dx), Math.min(e.position.y, e.position.y + dy),
+                        e.size.x + Math.abs(dx), e.size.y + Math.abs(dy),
+                        staticSweep);
+                sweepEntity = null;
+            }
+            e.position.x += dx * hitTime;
+            e.position.y += dy * hitTime;
+            if (hitContact == 0) {
+                break;
+            }
+            e.contact |= hitContact;
+            if (Optional.ofNullable(hitOwner).isPresent()) {
+                contacts.report(e, hitOwner);
+            }
+            if ((hitContact & (1 | 4)) != 0) {
+                e.velocity.x = thresholdMinMax(
+                        -e.velocity.x * e.material.elasticity,
+                        world.minSpeed,
+                        world.maxSpeedX);
+                e.acceleration.x = 0.0;
+                // a bounce below the minimum speed stops the move on this axis.
+                dx = e.velocity.x == 0.0 ? 0.0 : -dx * e.material.elasticity;
+            }
+            if ((hitContact & (2 | 8)) != 0) {
+                e.velocity.y = thresholdMinMax(
+                        -e.velocity.y * e.material.elasticity,
+                        world.minSpeed,
+                        world.maxSpeedY);
+                e.acceleration.y = 0.0;
+                dy = e.velocity.y == 0.0 ? 0.0 : -dy * e.material.elasticity;
+            }
+            // consume the part of the move already done.
+            dx *= 1.0 - hitTime;
+            dy *= 1.0 - hitTime;
+        }
+    }
+
+    /**
+     * Compute the time of impact of the {@link Entity} e moving by (dx,dy) against the play area bounds.
+     *
+     * @param e  the moving entity.
+     * @param dx the horizontal move.
+     * @param dy the vertical move.
+     */
+    private void sweepBounds(Entity<?> e, double dx, double dy) {
+        double gapRight = world.playArea.getWidth() - (e.position.x + e.size.x);
+        double gapBottom = world.playArea.getHeight() - (e.position.y + e.size.y);
+        if (dx > gapRight && dx > 0.0) {
+            registerHit(gapRight / dx, 1);
+        }
+        if (dy > gapBottom && dy > 0.0) {
+            registerHit(gapBottom / dy, 2);
+        }
+        if (e.position.x + dx < 0.0 && dx < 0.0) {
+            registerHit(-e.position.x / dx, 4);
+        }
+        if (e.position.y + dy < 0.0 && dy < 0.0) {
+            registerHit(-e.position.y / dy, 8);
+        }
+    }
+
+    /**
+     * Compute the time of impact of the {@link Entity} e moving by (dx,dy) against a static box
+     * (swept AABB). A box already overlapped by the entity is ignored.
+     *
+     * @param e  the moving entity.
+     * @param sx the horizontal position of the static box.
+     * @param sy the vertical position of the static box.
+     * @param sw the width of the static box.
+     * @param sh the height of the static box.
+     * @param dx the horizontal move.
+     * @param dy the vertical move.
+     */
+    private void sweepAgainst(Entity<?> e, double sx, double sy, double sw, double sh, double dx, double dy) {
+        double xEntry, xExit, yEntry, yExit;
+        if (dx > 0.0) {
+            xEntry = (sx - (e.position.x + e.size.x)) / dx;
+            xExit = (sx + sw - e.position.x) / dx;
+        } else if (dx < 0.0) {
+            xEntry = (sx + sw - e.position.x) / dx;
+            xExit = (sx - (e.position.x + e.size.x)) / dx;
+        } else if (e.position.x < sx + sw && e.position.x + e.size.x > sx) {
+            xEntry = Double.NEGATIVE_INFINITY;
+            xExit = Double.POSITIVE_INFINITY;
+        } else {
+            return;
+        }
+        if (dy > 0.0) {
+            yEntry = (sy - (e.position.y + e.size.y)) / dy;
+            yExit = (sy + sh - e.position.y) / dy;
+        } else if (dy < 0.0) {
+            yEntry = (sy + sh - e.position.y) / dy;
+            yExit = (sy - (e.position.y + e.size.y)) / dy;
+        } else if (e.position.y < sy + sh && e.position.y + e.size.y > sy) {
+            yEntry = Double.NEGATIVE_INFINITY;
+            yExit = Double.POSITIVE_INFINITY;
+        } else {
+            return;
+        }
+        double entry = Math.max(xEntry, yEntry);
+        double exit = Math.min(xExit, yExit);
+        if (entry < 0.0 || entry >= 1.0 || entry >= exit) {
+            return;
+        }
+        if (xEntry > yEntry) {
+            registerHit(entry, dx > 0.0 ? 1 : 4);
+        } else {
+            registerHit(entry, dy > 0.0 ? 2 : 8);
+        }
+    }
+
+    /**
+     * Keep the earliest impact for the current sweep iteration (impacts at the same time are merged).
+     *
+     * @param t       the time of impact, from 0.0 to 1.0 of the move.
+     * @param contact the touched side flag (see {@link Entity#contact}).
+     */
+    private void registerHit(double t, int contact) {
+        t = Math.max(0.0, t);
+        if (t < hitTime) {
+            hitTime = t;
+            hitContact = contact;
+            hitOwner = sweepOwner;
+        } else if (t == hitTime) {
+            hitContact |= contact;
+            if (!Optional.ofNullable(hitOwner).isPresent()) {
+                hitOwner = sweepOwner;
+            }
+        }
     }
 
     /**
      * Apply the play area constrains to the Entity e.
+     * <p>
+     * As the moves are swept against the bounds, this is only a safety clamp for {@link Entity}
+     * placed outside the play area by something else than the {@link PhysicEngine}.
      *
-     * @param game    the parent Game instance.
      * @param e       the concerned entity.
      * @param elapsed the elapsed time since previous call.
      */
-    private void constrained(Game game, Entity<?> e, double elapsed) {
-        e.contact = 0;
+    private void constrained(Entity<?> e, double elapsed) {
         if (e.position.x + e.size.x > world.playArea.getWidth()) {
             e.position.x = world.playArea.getWidth() - e.size.x;
-            e.contact = 1;
+            e.contact |= 1;
             e.velocity.x = thresholdMinMax(
                     -e.velocity.x * e.material.elasticity,
                     world.minSpeed,
@@ -110,7 +602,7 @@ public class PhysicEngine {
         }
         if (e.position.y + e.size.y > world.playArea.getHeight()) {
             e.position.y = world.playArea.getHeight() - e.size.y;
-            e.contact += 2;
+            e.contact |= 2;
             e.velocity.y = thresholdMinMax(
                     -e.velocity.y * e.material.elasticity,
                     world.minSpeed,
@@ -119,7 +611,7 @@ public class PhysicEngine {
         }
         if (e.position.x < 0.0) {
             e.position.x = 0.0;
-            e.contact += 4;
+            e.contact |= 4;
             e.velocity.x = thresholdMinMax(
                     -e.velocity.x * e.material.elasticity,
                     world.minSpeed,
@@ -129,7 +621,7 @@ public class PhysicEngine {
         }
         if (e.position.y < 0.0) {
             e.position.y = 0.0;
-            e.contact += 8;
+            e.contact |= 8;
             e.velocity.y = thresholdMinMax(
                     -e.velocity.y * e.material.elasticity,
                     world.minSpeed,
@@ -169,4 +661,54 @@ public class PhysicEngine {
     public World getWorld() {
         return world;
     }
+
+    /**
+     * Go back in time: restore the state of the processed entities as recorded the given number of sub-steps ago.
+     *
+     * @param steps the number of recorded sub-steps to go back (see {@link SubStepScheduler#getLastSubSteps()}).
+     * @return true if the state has been restored, false if no {@link RewindBuffer} is activated or if the step
+     * is not kept anymore.
+     */
+    public boolean rewind(int steps) {
+        return Optional.ofNullable(rewindBuffer).isPresent()
+                && rewindBuffer.seek(rewindBuffer.getLastStep() - steps, getEntityManager());
+    }
+
+    /**
+     * Retrieve the {@link ContactDispatcher}, to subscribe to the contact events.
+     *
+     * @return the {@link ContactDispatcher} of this engine.
+     */
+    public ContactDispatcher getContacts() {
+        return contacts;
+    }
+
+    /**
+     * Retrieve the static collision layer, built again first if the {@link PhysicType#STATIC} entities changed
+     * since its last build.
+     *
+     * @return the up-to-date {@link StaticColliderGrid}.
+     */
+    public StaticColliderGrid getStaticColliders() {
+        staticColliders.refresh(getEntityManager());
+        return staticColliders;
+    }
+
+    /**
+     * Retrieve the {@link RewindBuffer} recording the processed entities.
+     *
+     * @return the {@link RewindBuffer} instance (null if not activated).
+     */
+    public RewindBuffer getRewindBuffer() {
+        return rewindBuffer;
+    }
+
+    /**
+     * Retrieve the {@link SubStepScheduler} processing the frames elapsed time.
+     *
+     * @return the {@link SubStepScheduler} instance.
+     */
+    public SubStepScheduler getScheduler() {
+        return scheduler;
+    }
 }
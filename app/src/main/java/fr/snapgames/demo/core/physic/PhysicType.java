@@ -15,5 +15,9 @@ public enum PhysicType {
     /**
      * Movable objects
      */
-    DYNAMIC
+    DYNAMIC,
+    /**
+     * Objects not moved by the PhysicEngine (e.g. self-updated particle emitters)
+     */
+    NONE
 }
@@ -0,0 +1,120 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+
+import java.util.Optional;
+
+/**
+ * The {@link RaycastHit} receives the nearest hit of a {@link World#raycast} or {@link World#sweep} query.
+ * It is provided by the caller and can be reused query after query, so that a query allocates nothing.
+ * <p>
+ * A hit is given along the cast segment, from its start (fraction 0.0) to its end (fraction 1.0), with the hit
+ * point (the position of the moved box for a sweep) and the normal of the touched side.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RaycastHit {
+
+    /**
+     * The hit {@link Entity} (null if nothing has been hit).
+     */
+    public Entity<?> entity;
+    /**
+     * The fraction of the cast segment before the hit.
+     */
+    public double fraction = 1.0;
+    /**
+     * The distance from the start of the cast segment to the hit.
+     */
+    public double distance;
+    /**
+     * The hit point.
+     */
+    public double x;
+    public double y;
+    /**
+     * The normal of the touched side (-1.0, 0.0 or 1.0 on each axis).
+     */
+    public double normalX;
+    public double normalY;
+
+    /**
+     * Return true if something has been hit.
+     *
+     * @return true on hit.
+     */
+    public boolean isHit() {
+        return Optional.ofNullable(entity).isPresent();
+    }
+
+    /**
+     * Clear the hit before a new query.
+     */
+    void reset() {
+        entity = null;
+        fraction = 1.0;
+        distance = 0.0;
+        normalX = 0.0;
+        normalY = 0.0;
+    }
+
+    /**
+     * Test the segment from (ox,oy) to (ox+dx,oy+dy) against a box (slab test), and keep the hit if it is the nearest
+     * one. A box containing the segment start is ignored.
+     *
+     * @param owner the {@link Entity} owning the box.
+     * @param ox    the horizontal start of the segment.
+     * @param oy    the vertical start of the segment.
+     * @param dx    the horizontal length of the segment.
+     * @param dy    the vertical length of the segment.
+     * @param bx    the horizontal position of the box.
+     * @param by    the vertical position of the box.
+     * @param bw    the width of the box.
+     * @param bh    the height of the box.
+     * @return true if the hit has been kept.
+     */
+    boolean offer(Entity<?> owner, double ox, double oy, double dx, double dy,
+                  double bx, double by, double bw, double bh) {
+        double xEntry, xExit, yEntry, yExit;
+        if (dx != 0.0) {
+            double t0 = (bx - ox) / dx;
+            double t1 = (bx + bw - ox) / dx;
+            xEntry = Math.min(t0, t1);
+            xExit = Math.max(t0, t1);
+        } else if (ox > bx && ox < bx + bw) {
+            xEntry = Double.NEGATIVE_INFINITY;
+            xExit = Double.POSITIVE_INFINITY;
+        } else {
+            return false;
+        }
+        if (dy != 0.0) {
+            double t0 = (by - oy) / dy;
+            double t1 = (by + bh - oy) / dy;
+            yEntry = Math.min(t0, t1);
+            yExit = Math.max(t0, t1);
+        } else if (oy > by && oy < by + bh) {
+            yEntry = Double.NEGATIVE_INFINITY;
+            yExit = Double.POSITIVE_INFINITY;
+        } else {
+            return false;
+        }
+        double entry = Math.max(xEntry, yEntry);
+        double exit = Math.min(xExit, yExit);
+        if (entry < 0.0 || entry > 1.0 || entry >= exit || entry >= fraction) {
+            return false;
+        }
+        entity = owner;
+        fraction = entry;
+        x = ox + dx * entry;
+        y = oy + dy * entry;
+        if (xEntry > yEntry) {
+            normalX = dx > 0.0 ? -1.0 : 1.0;
+            normalY = 0.0;
+        } else {
+            normalX = 0.0;
+            normalY = dy > 0.0 ? -1.0 : 1.0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,368 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * The {@link RewindBuffer} records the physic state of a set of {@link Entity} at each step, to go back to any
+ * recorded step (replays, "undo the last seconds" game play). The {@link PhysicEngine} records one step per
+ * physic sub-step, not per frame: a frame processed in several sub-steps (see {@link SubStepScheduler}) can be
+ * rewound to any of them.
+ * <p>
+ * The recorded state of an {@link Entity} is its position, velocity, acceleration and contact flags. The states are
+ * stored in a preallocated ring of primitive values, whose size is given in MB:
+ * <ul>
+ *     <li>a keyframe holds the full state of all the entities, every <code>keyframeInterval</code> steps, or as soon
+ *     as the set of recorded entities changes,</li>
+ *     <li>the other steps only hold the fields changed since their keyframe: a value is one 64 bits word, preceded by
+ *     one word for the entity slot and the mask of its changed fields.</li>
+ * </ul>
+ * When the ring or the steps table is full, the oldest steps are dropped, a keyframe being dropped with all the steps
+ * depending on it. So the memory is bounded, and any kept step is restored from its keyframe and its own delta,
+ * whatever the number of steps between them.
+ * <p>
+ * <blockquote><em>NOTE</em> Only the physic state is rewound: the entities added or removed since a step are not
+ * restored, and the Verlet integrators restart from the restored velocity (see {@link Entity#oldPosition}).</blockquote>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RewindBuffer {
+
+    /**
+     * Number of recorded fields per {@link Entity}.
+     */
+    static final int FIELDS = 7;
+
+    private final int maxSteps;
+    private final int keyframeInterval;
+    // the ring of recorded values.
+    private final long[] data;
+    private long writePos;
+
+    // the steps table (a ring of maxSteps frames).
+    private final long[] frameOffset;
+    private final int[] frameLength;
+    private final boolean[] frameKey;
+    private final int[] frameKeyIndex;
+    private final Entity<?>[][] frameEntities;
+    // the entity arrays of the dropped keyframes, reused by the next keyframes.
+    private final Entity<?>[][] freeEntities;
+    private int freeCount;
+    private final int[] frameEntityCount;
+    private int firstFrame;
+    private int frameCount;
+    private long firstStep;
+    private long nextStep;
+
+    // the current keyframe state, to compute the deltas.
+    private int currentKey = -1;
+    private int sinceKey;
+    private long[] keyValues = new long[0];
+    private long[] values = new long[0];
+
+    /**
+     * Create a {@link RewindBuffer}.
+     *
+     * @param maxSteps         the maximum number of recorded steps.
+     * @param maxMegaBytes     the memory allocated to the recorded states, in MB.
+     * @param keyframeInterval the number of steps between two keyframes.
+     */
+    public RewindBuffer(int maxSteps, double maxMegaBytes, int keyframeInterval) {
+        this.maxSteps = Math.max(1, maxSteps);
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.data = new long[(int) Math.min(Integer.MAX_VALUE - 8, (long) (maxMegaBytes * 1024 * 1024) / 8)];
+        this.frameOffset = new long[this.maxSteps];
+        this.frameLength = new int[this.maxSteps];
+        this.frameKey = new boolean[this.maxSteps];
+        this.frameKeyIndex = new int[this.maxSteps];
+        this.frameEntities = new Entity<?>[this.maxSteps][];
+        this.freeEntities = new Entity<?>[this.maxSteps][];
+        this.frameEntityCount = new int[this.maxSteps];
+    }
+
+    /**
+     * Record the state of the entities as the next step.
+     *
+     * @param entities the entities to be recorded (always iterated in the same order while the set does not change).
+     * @return the number of the recorded step, or -1 if the state of the entities does not fit into the buffer.
+     */
+    public long record(Collection<? extends Entity<?>> entities) {
+        int n = entities.size();
+        if ((long) n * (FIELDS + 1) > data.length) {
+            clear();
+            return -1;
+        }
+        if (values.length < n * FIELDS) {
+            values = new long[n * FIELDS];
+            keyValues = Arrays.copyOf(keyValues, n * FIELDS);
+        }
+        int i = 0;
+        for (Entity<?> e : entities) {
+            load(e, i++);
+        }
+        boolean key = currentKey < 0 || sinceKey >= keyframeInterval || !isKeyEntities(entities, n);
+        if (frameCount == maxSteps) {
+            evictOldest();
+        }
+        int maxSize = n * (key ? FIELDS : FIELDS + 1);
+        while (frameCount > 0 && writePos + maxSize - frameOffset[firstFrame] > data.length) {
+            evictOldest();
+        }
+        // the current keyframe may have been dropped.
+        key |= currentKey < 0;
+
+        if (frameCount == 0) {
+            firstStep = nextStep;
+            firstFrame = 0;
+        }
+        int idx = (firstFrame + frameCount) % maxSteps;
+        frameOffset[idx] = writePos;
+        frameKey[idx] = key;
+        if (key) {
+            writeKeyframe(idx, entities, n);
+        } else {
+            writeDelta(n);
+            sinceKey++;
+        }
+        frameKeyIndex[idx] = currentKey;
+        frameLength[idx] = (int) (writePos - frameOffset[idx]);
+        frameCount++;
+        return nextStep++;
+    }
+
+    private void load(Entity<?> e, int i) {
+        int o = i * FIELDS;
+        values[o] = Double.doubleToRawLongBits(e.position.x);
+        values[o + 1] = Double.doubleToRawLongBits(e.position.y);
+        values[o + 2] = Double.doubleToRawLongBits(e.velocity.x);
+        values[o + 3] = Double.doubleToRawLongBits(e.velocity.y);
+        values[o + 4] = Double.doubleToRawLongBits(e.acceleration.x);
+        values[o + 5] = Double.doubleToRawLongBits(e.acceleration.y);
+        values[o + 6] = e.contact;
+    }
+
+    private boolean isKeyEntities(Collection<? extends Entity<?>> entities, int n) {
+        if (currentKey < 0 || frameEntityCount[currentKey] != n) {
+            return false;
+        }
+        Entity<?>[] keyEntities = frameEntities[currentKey];
+        int i = 0;
+        for (Entity<?> e : entities) {
+            if (keyEntities[i++] != e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeKeyframe(int idx, Collection<? extends Entity<?>> entities, int n) {
+        Entity<?>[] keyEntities = null;
+        if (freeCount > 0) {
+            keyEntities = freeEntities[--freeCount];
+            freeEntities[freeCount] = null;
+        }
+        if (!Optional.ofNullable(keyEntities).isPresent() || keyEntities.length < n) {
+            // only while the first keyframes are recorded, or when the number of entities grows.
+            keyEntities = new Entity<?>[n];
+        }
+        frameEntities[idx] = keyEntities;
+        int i = 0;
+        for (Entity<?> e : entities) {
+            keyEntities[i++] = e;
+        }
+        Arrays.fill(keyEntities, n, keyEntities.length, null);
+        frameEntityCount[idx] = n;
+        for (int v = 0; v < n * FIELDS; v++) {
+            put(values[v]);
+        }
+        System.arraycopy(values, 0, keyValues, 0, n * FIELDS);
+        currentKey = idx;
+        sinceKey = 0;
+    }
+
+    private void writeDelta(int n) {
+        for (int i = 0; i < n; i++) {
+            int o = i * FIELDS;
+            int mask = 0;
+            for (int f = 0; f < FIELDS; f++) {
+                if (values[o + f] != keyValues[o + f]) {
+                    mask |= 1 << f;
+                }
+            }
+            if (mask != 0) {
+                put(((long) i << 8) | mask);
+                for (int f = 0; f < FIELDS; f++) {
+                    if ((mask & (1 << f)) != 0) {
+                        put(values[o + f]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void put(long value) {
+        data[(int) (writePos++ % data.length)] = value;
+    }
+
+    private long get(long pos) {
+        return data[(int) (pos % data.length)];
+    }
+
+    /**
+     * Give back the entity array of a dropped keyframe, to be reused by the next keyframes.
+     *
+     * @param idx the index of the dropped keyframe.
+     */
+    private void releaseEntities(int idx) {
+        Entity<?>[] keyEntities = frameEntities[idx];
+        if (Optional.ofNullable(keyEntities).isPresent()) {
+            Arrays.fill(keyEntities, null);
+            freeEntities[freeCount++] = keyEntities;
+            frameEntities[idx] = null;
+        }
+    }
+
+    /**
+     * Drop the oldest step, and all the steps depending on it if it is a keyframe.
+     */
+    private void evictOldest() {
+        boolean key = frameKey[firstFrame];
+        do {
+            if (firstFrame == currentKey) {
+                currentKey = -1;
+            }
+            if (frameKey[firstFrame]) {
+                releaseEntities(firstFrame);
+            }
+            firstFrame = (firstFrame + 1) % maxSteps;
+            frameCount--;
+            firstStep++;
+        } while (key && frameCount > 0 && !frameKey[firstFrame]);
+    }
+
+    /**
+     * Restore the state of the entities recorded at the step. The steps recorded after this one are dropped:
+     * the next recorded step follows the restored one.
+     *
+     * @param step     the number of the step to be restored.
+     * @param entities the {@link EntityManager} to be notified of the moved entities (can be null).
+     * @return true if the step has been restored, false if it is not in the buffer.
+     */
+    public boolean seek(long step, EntityManager entities) {
+        if (step < firstStep || step >= firstStep + frameCount) {
+            return false;
+        }
+        int idx = (int) ((firstFrame + (step - firstStep)) % maxSteps);
+        int key = frameKeyIndex[idx];
+        Entity<?>[] keyEntities = frameEntities[key];
+        int n = frameEntityCount[key];
+        long pos = frameOffset[key];
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < FIELDS; f++) {
+                apply(keyEntities[i], f, get(pos++));
+            }
+        }
+        if (idx != key) {
+            pos = frameOffset[idx];
+            long end = pos + frameLength[idx];
+            while (pos < end) {
+                long header = get(pos++);
+                Entity<?> e = keyEntities[(int) (header >>> 8)];
+                for (int f = 0; f < FIELDS; f++) {
+                    if ((header & (1L << f)) != 0) {
+                        apply(e, f, get(pos++));
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            Entity<?> e = keyEntities[i];
+            e.oldPosition = null;
+            e.updateBox();
+            if (Optional.ofNullable(entities).isPresent()) {
+                entities.update(e);
+            }
+        }
+        // the following steps are dropped, and the next step starts a new keyframe.
+        int kept = (int) (step - firstStep) + 1;
+        for (int i = kept; i < frameCount; i++) {
+            int dropped = (firstFrame + i) % maxSteps;
+            if (frameKey[dropped]) {
+                releaseEntities(dropped);
+            }
+        }
+        frameCount = kept;
+        writePos = frameOffset[idx] + frameLength[idx];
+        nextStep = step + 1;
+        currentKey = -1;
+        return true;
+    }
+
+    private static void apply(Entity<?> e, int field, long value) {
+        switch (field) {
+            case 0 -> e.position.x = Double.longBitsToDouble(value);
+            case 1 -> e.position.y = Double.longBitsToDouble(value);
+            case 2 -> e.velocity.x = Double.longBitsToDouble(value);
+            case 3 -> e.velocity.y = Double.longBitsToDouble(value);
+            case 4 -> e.acceleration.x = Double.longBitsToDouble(value);
+            case 5 -> e.acceleration.y = Double.longBitsToDouble(value);
+            default -> e.contact = (int) value;
+        }
+    }
+
+    /**
+     * Drop all the recorded steps.
+     */
+    public void clear() {
+        while (frameCount > 0) {
+            evictOldest();
+        }
+        writePos = 0;
+        currentKey = -1;
+    }
+
+    /**
+     * Retrieve the number of the oldest recorded step.
+     *
+     * @return the first step number (the next step number if the buffer is empty).
+     */
+    public long getFirstStep() {
+        return frameCount > 0 ? firstStep : nextStep;
+    }
+
+    /**
+     * Retrieve the number of the last recorded step.
+     *
+     * @return the last step number (-1 if nothing has been recorded yet).
+     */
+    public long getLastStep() {
+        return nextStep - 1;
+    }
+
+    public int getStepCount() {
+        return frameCount;
+    }
+
+    /**
+     * Retrieve the memory used by the recorded steps.
+     *
+     * @return the used size, in bytes.
+     */
+    public long getUsedBytes() {
+        return frameCount > 0 ? (writePos - frameOffset[firstFrame]) * 8 : 0;
+    }
+
+    /**
+     * Retrieve the memory allocated to the recorded states.
+     *
+     * @return the capacity, in bytes.
+     */
+    public long getCapacityBytes() {
+        return data.length * 8L;
+    }
+}
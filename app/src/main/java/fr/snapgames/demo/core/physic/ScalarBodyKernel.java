@@ -0,0 +1,88 @@
+package fr.snapgames.demo.core.physic;
+
+/**
+ * The {@link ScalarBodyKernel} integrates the bodies one by one, in a plain loop over the {@link BodyBuffer} arrays.
+ *
+ * @author Frédéric Delorme
+ * @see BodyKernel
+ * @since 0.1.4
+ */
+public class ScalarBodyKernel implements BodyKernel {
+
+    private final boolean legacy;
+
+    /**
+     * Create a {@link ScalarBodyKernel} limiting each axis with its own {@link World} limits.
+     */
+    public ScalarBodyKernel() {
+        this(false);
+    }
+
+    /**
+     * Create a {@link ScalarBodyKernel}.
+     *
+     * @param legacy true to reproduce exactly the {@link Integrator#LEGACY} limits (see {@link BodyKernel}).
+     */
+    public ScalarBodyKernel(boolean legacy) {
+        this.legacy = legacy;
+    }
+
+    @Override
+    public void integrate(BodyBuffer b, World world, double time) {
+        integrate(b, world, time, legacy, 0, b.count);
+    }
+
+    @Override
+    public boolean isLegacy() {
+        return legacy;
+    }
+
+    /**
+     * Integrate the bodies from index <code>from</code> (inclusive) to <code>to</code> (exclusive).
+     *
+     * @param b      the {@link BodyBuffer} to be updated.
+     * @param world  the {@link World} providing gravity and limits.
+     * @param time   the elapsed time, with the {@link PhysicEngine#TIME_FACTOR} applied.
+     * @param legacy true to apply the {@link Integrator#LEGACY} limits.
+     * @param from   the first body index.
+     * @param to     the index following the last body.
+     */
+    static void integrate(BodyBuffer b, World world, double time, boolean legacy, int from, int to) {
+        double gx = world.gravity.x;
+        double gy = world.gravity.y;
+        double maxAccY = legacy ? world.maxAccX : world.maxAccY;
+        double maxSpeedY = legacy ? world.maxSpeedX : world.maxSpeedY;
+        for (int i = from; i < to; i++) {
+            double fx = b.mass[i] * gx + b.ax[i];
+            double fy = b.mass[i] * gy + b.ay[i];
+            double ax = limit(ceil(fx, fx, world.minAcc), world.maxAccX);
+            double ay = limit(ceil(legacy ? fx : fy, fy, world.minAcc), maxAccY);
+            double sx = ax * (0.5 * time);
+            double sy = ay * (0.5 * time);
+            double vx = limit(ceil(sx, sx, world.minSpeed), world.maxSpeedX);
+            double vy = limit(ceil(legacy ? sx : sy, sy, world.minSpeed), maxSpeedY);
+            b.ax[i] = ax;
+            b.ay[i] = ay;
+            b.vx[i] = vx;
+            b.vy[i] = vy;
+            b.dx[i] = vx * time * b.friction[i];
+            b.dy[i] = vy * time * b.friction[i];
+        }
+    }
+
+    /**
+     * Ceil a value according to a reference value.
+     *
+     * @param reference the value compared to the minimum.
+     * @param value     the value to be ceiled.
+     * @param min       the minimum.
+     * @return 0 if the reference is below the minimum, else the value.
+     */
+    private static double ceil(double reference, double value, double min) {
+        return Math.abs(reference) < min ? 0.0 : value;
+    }
+
+    private static double limit(double x, double max) {
+        return Math.max(-max, Math.min(max, x));
+    }
+}
@@ -0,0 +1,537 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.tile.TileMap;
+
+import java.util.Arrays;
+
+/**
+ * The {@link StaticColliderGrid} is the static collision layer of the {@link PhysicEngine}: all the active
+ * {@link PhysicType#STATIC} entities (but the trigger volumes), and the solid cells of the {@link TileMap}, are baked
+ * once into a set of axis-aligned boxes, queried by the dynamic entities only (two static entities are never tested
+ * against each other).
+ * <p>
+ * At build time, the touching boxes of the same {@link Entity} sharing the same edges are merged (a row of solid
+ * tiles becomes one box, a wall of stacked rows becomes one box), then the boxes are distributed into a uniform grid stored in a compressed layout:
+ * the boxes of the cell <code>i</code> are <code>cellBoxes[cellStart[i]]</code> to
+ * <code>cellBoxes[cellStart[i + 1] - 1]</code>. Nothing is modified until the next build, and a query allocates
+ * nothing.
+ * <p>
+ * The grid is only built again when the static entities changed, as reported by
+ * {@link EntityManager#getStaticVersion()} and {@link TileMap#getSolidVersion()} (see
+ * {@link StaticColliderGrid#refresh(EntityManager)}).
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class StaticColliderGrid {
+
+    /**
+     * The visitor receiving the static boxes matching a query.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Visit one static box.
+         *
+         * @param owner the static {@link Entity} this box has been baked from.
+         * @param x     the horizontal position of the box.
+         * @param y     the vertical position of the box.
+         * @param w     the width of the box.
+         * @param h     the height of the box.
+         */
+        void visit(Entity<?> owner, double x, double y, double w, double h);
+    }
+
+    /**
+     * Maximum number of cells of the grid: the cell size is increased for very large static areas.
+     */
+    public static final int MAX_CELLS = 1 << 20;
+
+    private final double cellSize;
+
+    // the merged boxes.
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] ws = new double[0];
+    private double[] hs = new double[0];
+    private Entity<?>[] owners = new Entity<?>[0];
+    // the rank of the owner in the build order, a stable sort key.
+    private int[] ownerRanks = new int[0];
+    private int ownerRank;
+    // the reused index buffers of the merge sort.
+    private int[] order = new int[0];
+    private int[] sortBuffer = new int[0];
+    private int boxCount;
+
+    // the grid, in compressed layout.
+    private double originX;
+    private double originY;
+    private double cellWidth;
+    private double cellHeight;
+    private int columns;
+    private int rows;
+    private int[] cellStart = new int[1];
+    private int[] cellBoxes = new int[0];
+
+    // the last query visiting each box, so that a box spread over several cells is visited once.
+    private int[] stamps = new int[0];
+    private int queryStamp;
+
+    // the versions of the baked entities.
+    private int staticVersion = -1;
+    private TileMap[] maps = new TileMap[0];
+    private int[] mapVersions = new int[0];
+    private int builds;
+
+    /**
+     * Create an empty {@link StaticColliderGrid}.
+     *
+     * @param cellSize the default width and height of a grid cell.
+     */
+    public StaticColliderGrid(double cellSize) {
+        this.cellSize = cellSize > 0.0 ? cellSize : 64.0;
+    }
+
+    /**
+     * Build the grid again if the static entities of the {@link EntityManager} changed since the last build.
+     *
+     * @param entities the {@link EntityManager} holding the static entities.
+     * @return true if the grid has been built again.
+     */
+    public boolean refresh(EntityManager entities) {
+        if (!isStale(entities)) {
+            return false;
+        }
+        build(entities);
+        return true;
+    }
+
+    /**
+     * Return true if the static entities changed since the last build.
+     *
+     * @param entities the {@link EntityManager} holding the static entities.
+     * @return true if the grid must be built again.
+     */
+    public boolean isStale(EntityManager entities) {
+        if (entities.getStaticVersion() != staticVersion) {
+            return true;
+        }
+        for (int i = 0; i < maps.length; i++) {
+            if (maps[i].getSolidVersion() != mapVersions[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bake all the active {@link PhysicType#STATIC} entities of the {@link EntityManager}.
+     *
+     * @param entities the {@link EntityManager} holding the static entities.
+     */
+    public void build(EntityManager entities) {
+        staticVersion = entities.getStaticVersion();
+        boxCount = 0;
+        ownerRank = 0;
+        int nbMaps = 0;
+        for (Entity<?> e : entities.getEntities()) {
+            if (!e.isActive() || e.isTrigger() || !PhysicType.STATIC.equals(e.physicType)) {
+                continue;
+            }
+            ownerRank++;
+            if (e instanceof TileMap) {
+                TileMap map = (TileMap) e;
+                if (nbMaps == maps.length) {
+                    maps = Arrays.copyOf(maps, nbMaps + 1);
+                    mapVersions = Arrays.copyOf(mapVersions, nbMaps + 1);
+                }
+                maps[nbMaps] = map;
+                mapVersions[nbMaps++] = map.getSolidVersion();
+                addTiles(map);
+            } else {
+                addBox(e, e.position.x, e.position.y, e.size.x, e.size.y);
+            }
+        }
+        if (nbMaps < maps.length) {
+            maps = Arrays.copyOf(maps, nbMaps);
+            mapVersions = Arrays.copyOf(mapVersions, nbMaps);
+        }
+        // merge the boxes side by side, then the rows of boxes.
+        Arrays.fill(owners, boxCount, owners.length, null);
+        merge(true);
+        merge(false);
+        buildCells();
+        builds++;
+    }
+
+    /**
+     * Add the runs of solid cells of each row of the map as boxes.
+     */
+    private void addTiles(TileMap map) {
+        double tw = map.getTileWidth();
+        double th = map.getTileHeight();
+        for (int r = 0; r < map.getRows(); r++) {
+            int c = 0;
+            while (c < map.getColumns()) {
+                if (!map.isSolid(c, r)) {
+                    c++;
+                    continue;
+                }
+                int start = c;
+                while (c < map.getColumns() && map.isSolid(c, r)) {
+                    c++;
+                }
+                addBox(map, map.position.x + start * tw, map.position.y + r * th, (c - start) * tw, th);
+            }
+        }
+    }
+
+    private void addBox(Entity<?> owner, double x, double y, double w, double h) {
+        if (w <= 0.0 || h <= 0.0) {
+            return;
+        }
+        if (boxCount == xs.length) {
+            int capacity = Math.max(16, boxCount * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            ws = Arrays.copyOf(ws, capacity);
+            hs = Arrays.copyOf(hs, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            ownerRanks = Arrays.copyOf(ownerRanks, capacity);
+        }
+        owners[boxCount] = owner;
+        ownerRanks[boxCount] = ownerRank;
+        xs[boxCount] = x;
+        ys[boxCount] = y;
+        ws[boxCount] = w;
+        hs[boxCount] = h;
+        boxCount++;
+    }
+
+    /**
+     * Merge the boxes touching or overlapping along one axis and sharing the same extent on the other one, so that
+     * their union is exactly one box.
+     *
+     * @param horizontal true to merge along the horizontal axis, false along the vertical one.
+     */
+    private void merge(boolean horizontal) {
+        if (boxCount < 2) {
+            return;
+        }
+        sort(horizontal);
+        double[] nx = new double[xs.length];
+        double[] ny = new double[ys.length];
+        double[] nw = new double[ws.length];
+        double[] nh = new double[hs.length];
+        Entity<?>[] no = new Entity<?>[owners.length];
+        int[] nr = new int[ownerRanks.length];
+        int n = -1;
+        for (int j = 0; j < boxCount; j++) {
+            int k = order[j];
+            boolean mergeable = n >= 0 && no[n] == owners[k] && (horizontal
+                    ? ny[n] == ys[k] && nh[n] == hs[k] && xs[k] <= nx[n] + nw[n]
+                    : nx[n] == xs[k] && nw[n] == ws[k] && ys[k] <= ny[n] + nh[n]);
+            if (mergeable) {
+                if (horizontal) {
+                    nw[n] = Math.max(nx[n] + nw[n], xs[k] + ws[k]) - nx[n];
+                } else {
+                    nh[n] = Math.max(ny[n] + nh[n], ys[k] + hs[k]) - ny[n];
+                }
+            } else {
+                n++;
+                nx[n] = xs[k];
+                ny[n] = ys[k];
+                nw[n] = ws[k];
+                nh[n] = hs[k];
+                no[n] = owners[k];
+                nr[n] = ownerRanks[k];
+            }
+        }
+        xs = nx;
+        ys = ny;
+        ws = nw;
+        hs = nh;
+        owners = no;
+        ownerRanks = nr;
+        boxCount = n + 1;
+    }
+
+    /**
+     * Sort the box indexes into {@link StaticColliderGrid#order}, putting the mergeable boxes next to each other:
+     * by owner rank, then by position and extent on the other axis, then by position on the merge axis.
+     * The stable merge sort works on primitive indexes, and gives the same result from one run to the next.
+     *
+     * @param horizontal true to sort for a horizontal merge, false for a vertical one.
+     */
+    private void sort(boolean horizontal) {
+        if (order.length < boxCount) {
+            order = new int[xs.length];
+            sortBuffer = new int[xs.length];
+        }
+        for (int i = 0; i < boxCount; i++) {
+            order[i] = i;
+        }
+        int[] from = order;
+        int[] to = sortBuffer;
+        for (int width = 1; width < boxCount; width *= 2) {
+            for (int lo = 0; lo < boxCount; lo += 2 * width) {
+                int mid = Math.min(lo + width, boxCount);
+                int hi = Math.min(lo + 2 * width, boxCount);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (i < mid && (j >= hi || compare(from[i], from[j], horizontal) <= 0)) {
+                        to[k] = from[i++];
+                    } else {
+                        to[k] = from[j++];
+                    }
+                }
+            }
+            int[] t = from;
+            from = to;
+            to = t;
+        }
+        order = from;
+        sortBuffer = to;
+    }
+
+    private int compare(int a, int b, boolean horizontal) {
+        int c = Integer.compare(ownerRanks[a], ownerRanks[b]);
+        if (c == 0) {
+            c = horizontal ? Double.compare(ys[a], ys[b]) : Double.compare(xs[a], xs[b]);
+        }
+        if (c == 0) {
+            c = horizontal ? Double.compare(hs[a], hs[b]) : Double.compare(ws[a], ws[b]);
+        }
+        if (c == 0) {
+            c = horizontal ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]);
+        }
+        return c;
+    }
+
+    /**
+     * Distribute the boxes into the cells covering all of them.
+     */
+    private void buildCells() {
+        if (stamps.length < boxCount) {
+            stamps = new int[xs.length];
+        }
+        if (boxCount == 0) {
+            columns = 0;
+            rows = 0;
+            cellStart = new int[1];
+            cellBoxes = new int[0];
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < boxCount; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i] + ws[i]);
+            maxY = Math.max(maxY, ys[i] + hs[i]);
+        }
+        originX = minX;
+        originY = minY;
+        cellWidth = cellSize;
+        cellHeight = cellSize;
+        columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellWidth));
+        rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellHeight));
+        while ((long) columns * rows > MAX_CELLS) {
+            cellWidth *= 2;
+            cellHeight *= 2;
+            columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellWidth));
+            rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellHeight));
+        }
+        // count the boxes per cell, then compute the start of each cell, then fill the cells.
+        cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < boxCount; i++) {
+            for (int r = getRow(ys[i]); r <= getLastRow(ys[i] + hs[i]); r++) {
+                for (int c = getColumn(xs[i]); c <= getLastColumn(xs[i] + ws[i]); c++) {
+                    cellStart[r * columns + c + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < columns * rows; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        cellBoxes = new int[cellStart[columns * rows]];
+        int[] fill = Arrays.copyOf(cellStart, columns * rows);
+        for (int i = 0; i < boxCount; i++) {
+            for (int r = getRow(ys[i]); r <= getLastRow(ys[i] + hs[i]); r++) {
+                for (int c = getColumn(xs[i]); c <= getLastColumn(xs[i] + ws[i]); c++) {
+                    cellBoxes[fill[r * columns + c]++] = i;
+                }
+            }
+        }
+    }
+
+    private int getColumn(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - originX) / cellWidth)));
+    }
+
+    private int getRow(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - originY) / cellHeight)));
+    }
+
+    // a box ending exactly on a cell border does not belong to the next cell.
+    private int getLastColumn(double maxX) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.ceil((maxX - originX) / cellWidth) - 1));
+    }
+
+    private int getLastRow(double maxY) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.ceil((maxY - originY) / cellHeight) - 1));
+    }
+
+    /**
+     * Visit all the static boxes intersecting or touching an area, each box once.
+     *
+     * @param x       the horizontal position of the area.
+     * @param y       the vertical position of the area.
+     * @param w       the width of the area.
+     * @param h       the height of the area.
+     * @param visitor the {@link Visitor} receiving the matching boxes.
+     * @return the number of visited boxes.
+     */
+    public int query(double x, double y, double w, double h, Visitor visitor) {
+        if (boxCount == 0 || x > originX + columns * cellWidth || y > originY + rows * cellHeight
+                || x + w < originX || y + h < originY) {
+            return 0;
+        }
+        if (++queryStamp == 0) {
+            Arrays.fill(stamps, 0);
+            queryStamp = 1;
+        }
+        int visited = 0;
+        int c0 = getColumn(x);
+        int c1 = getColumn(x + w);
+        int r1 = getRow(y + h);
+        for (int r = getRow(y); r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellBoxes[k];
+                    if (stamps[i] == queryStamp) {
+                        continue;
+                    }
+                    stamps[i] = queryStamp;
+                    if (xs[i] <= x + w && xs[i] + ws[i] >= x && ys[i] <= y + h && ys[i] + hs[i] >= y) {
+                        visitor.visit(owners[i], xs[i], ys[i], ws[i], hs[i]);
+                        visited++;
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Cast the segment from (ox,oy) to (ox+dx,oy+dy) through the grid, walking the crossed cells in order (DDA), and
+     * keep the nearest hit box into the {@link RaycastHit} if nearer than its current hit. The walk stops as soon as
+     * the nearest hit is found.
+     *
+     * @param ox  the horizontal start of the segment.
+     * @param oy  the vertical start of the segment.
+     * @param dx  the horizontal length of the segment.
+     * @param dy  the vertical length of the segment.
+     * @param hit the {@link RaycastHit} to be updated.
+     * @return true if a nearer hit has been found.
+     */
+    public boolean raycast(double ox, double oy, double dx, double dy, RaycastHit hit) {
+        if (boxCount == 0) {
+            return false;
+        }
+        // clip the segment to the grid area.
+        double gridWidth = columns * cellWidth;
+        double gridHeight = rows * cellHeight;
+        double tEnter = 0.0;
+        double tExit = hit.fraction;
+        if (dx != 0.0) {
+            double t0 = (originX - ox) / dx;
+            double t1 = (originX + gridWidth - ox) / dx;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        } else if (ox < originX || ox > originX + gridWidth) {
+            return false;
+        }
+        if (dy != 0.0) {
+            double t0 = (originY - oy) / dy;
+            double t1 = (originY + gridHeight - oy) / dy;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit = Math.min(tExit, Math.max(t0, t1));
+        } else if (oy < originY || oy > originY + gridHeight) {
+            return false;
+        }
+        if (tEnter > tExit) {
+            return false;
+        }
+        if (++queryStamp == 0) {
+            Arrays.fill(stamps, 0);
+            queryStamp = 1;
+        }
+        int c = getColumn(ox + dx * tEnter);
+        int r = getRow(oy + dy * tEnter);
+        int stepX = dx > 0.0 ? 1 : -1;
+        int stepY = dy > 0.0 ? 1 : -1;
+        double tDeltaX = dx != 0.0 ? cellWidth / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = dy != 0.0 ? cellHeight / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tMaxX = dx != 0.0 ? (originX + (c + (dx > 0.0 ? 1 : 0)) * cellWidth - ox) / dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy != 0.0 ? (originY + (r + (dy > 0.0 ? 1 : 0)) * cellHeight - oy) / dy : Double.POSITIVE_INFINITY;
+        boolean found = false;
+        while (true) {
+            int cell = r * columns + c;
+            for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                int i = cellBoxes[k];
+                if (stamps[i] != queryStamp) {
+                    stamps[i] = queryStamp;
+                    found |= hit.offer(owners[i], ox, oy, dx, dy, xs[i], ys[i], ws[i], hs[i]);
+                }
+            }
+            double tNext = Math.min(tMaxX, tMaxY);
+            // a hit before leaving this cell can not be beaten by the boxes of the next cells.
+            if (hit.fraction <= tNext || tNext > tExit) {
+                break;
+            }
+            if (tMaxX < tMaxY) {
+                c += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                r += stepY;
+                tMaxY += tDeltaY;
+            }
+            if (c < 0 || c >= columns || r < 0 || r >= rows) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Retrieve the number of merged static boxes.
+     *
+     * @return the number of boxes.
+     */
+    public int getBoxCount() {
+        return boxCount;
+    }
+
+    /**
+     * Retrieve the number of cells of the grid.
+     *
+     * @return the number of cells.
+     */
+    public int getCellCount() {
+        return columns * rows;
+    }
+
+    /**
+     * Retrieve the number of builds since the creation of the grid.
+     *
+     * @return the number of builds.
+     */
+    public int getBuilds() {
+        return builds;
+    }
+}
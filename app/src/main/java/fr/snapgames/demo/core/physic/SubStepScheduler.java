@@ -0,0 +1,207 @@
+package fr.snapgames.demo.core.physic;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The {@link SubStepScheduler} decides how the elapsed time of a frame is processed by the {@link PhysicEngine}:
+ * <ul>
+ *     <li>a large elapsed time is split into sub-steps, so that the fastest body does not move more than
+ *     <code>maxMove</code> times its size during one sub-step (up to <code>maxSubSteps</code> sub-steps),</li>
+ *     <li>when everything is slow (and no force is pending), the elapsed time is merged with the next frames
+ *     (up to <code>maxMerge</code> milliseconds) instead of being processed,</li>
+ *     <li>the sub-steps stop when the next one would exceed the CPU time <code>budget</code> (in milliseconds),
+ *     the remaining time being carried forward to the next frame (up to {@link SubStepScheduler#MAX_CARRY}).</li>
+ * </ul>
+ * With the default values (1 sub-step, no merge, no budget), each frame is processed in one step.
+ * <p>
+ * As the CPU time spent depends on the machine load, the budget is ignored in deterministic mode
+ * (see {@link SubStepScheduler#setDeterministic(boolean)}): the number of sub-steps then only depends on the
+ * elapsed time and on the bodies speed, so that a recorded input log replays the same trajectories.
+ * <p>
+ * <blockquote><em>IMPORTANT</em> The {@link Integrator#LEGACY} integration depends on the step size:
+ * sub-steps must be used with one of the other {@link Integrator}.</blockquote>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SubStepScheduler {
+
+    /**
+     * The processing of one sub-step.
+     */
+    @FunctionalInterface
+    public interface SubStep {
+        /**
+         * Process one sub-step.
+         *
+         * @param elapsed the elapsed time for this sub-step, in milliseconds.
+         * @param last    true if this is the last sub-step of the frame.
+         */
+        void step(double elapsed, boolean last);
+    }
+
+    /**
+     * Maximum time carried forward to the next frame, in milliseconds: beyond, the time is dropped to avoid
+     * an ever-growing backlog.
+     */
+    public static final double MAX_CARRY = 250.0;
+
+    private double maxMove = 0.5;
+    private int maxSubSteps = 1;
+    private double budget = 0.0;
+    private double maxMerge = 0.0;
+
+    private LongSupplier clock = System::nanoTime;
+    private boolean deterministic;
+
+    private double pending;
+    private int lastSubSteps;
+    private double lastStepElapsed;
+    private boolean budgetExceeded;
+    // the mean CPU time of one sub-step during the previous frame, in milliseconds.
+    private double stepCost;
+
+    /**
+     * Create a {@link SubStepScheduler} processing each frame in one step.
+     */
+    public SubStepScheduler() {
+    }
+
+    /**
+     * Create a {@link SubStepScheduler}.
+     *
+     * @param maxMove     the maximum move of the fastest body during one sub-step, relative to its size.
+     * @param maxSubSteps the maximum number of sub-steps for one frame.
+     * @param budget      the CPU time budget for one frame, in milliseconds (0 for no limit).
+     * @param maxMerge    the maximum elapsed time merged when everything is slow, in milliseconds (0 for no merge).
+     */
+    public SubStepScheduler(double maxMove, int maxSubSteps, double budget, double maxMerge) {
+        this.maxMove = maxMove;
+        this.maxSubSteps = Math.max(1, maxSubSteps);
+        this.budget = budget;
+        this.maxMerge = maxMerge;
+    }
+
+    /**
+     * Define the clock used to measure the CPU time spent (for test purpose).
+     *
+     * @param clock the clock, in nanoseconds.
+     * @return the updated {@link SubStepScheduler} (Fluent API).
+     */
+    SubStepScheduler setClock(LongSupplier clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Activate the deterministic mode, ignoring the CPU time budget. It must be activated while an input log is
+     * recorded or replayed (see {@link fr.snapgames.demo.core.io.InputHandler}).
+     *
+     * @param deterministic true to ignore the CPU time budget.
+     * @return the updated {@link SubStepScheduler} (Fluent API).
+     */
+    public SubStepScheduler setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+        return this;
+    }
+
+    /**
+     * Return true if the CPU time budget is ignored.
+     *
+     * @return true in deterministic mode.
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Return true if the bodies speed is used to plan the sub-steps.
+     *
+     * @return true if sub-steps or merges are activated.
+     */
+    public boolean isAdaptive() {
+        return maxSubSteps > 1 || maxMerge > 0.0;
+    }
+
+    /**
+     * Process the elapsed time of a frame.
+     *
+     * @param elapsed    the elapsed time since the previous frame, in milliseconds.
+     * @param speedRatio the move of the fastest body per millisecond, relative to its size.
+     * @param mergeable  true if this frame can be merged with the next ones (no pending force).
+     * @param subStep    the sub-step processing.
+     * @return the number of processed sub-steps (0 if the frame has been merged).
+     */
+    public int update(double elapsed, double speedRatio, boolean mergeable, SubStep subStep) {
+        double total = pending + elapsed;
+        double move = speedRatio * total;
+        budgetExceeded = false;
+        if (mergeable && maxMerge > 0.0 && total < maxMerge && move < maxMove * 0.1) {
+            pending = total;
+            lastSubSteps = 0;
+            return 0;
+        }
+        int subSteps = (int) Math.min(maxSubSteps, Math.max(1, Math.ceil(move / maxMove)));
+        double stepElapsed = total / subSteps;
+        long start = clock.getAsLong();
+        int done = 0;
+        while (done < subSteps) {
+            boolean last = done + 1 == subSteps;
+            if (!last && budget > 0.0 && !deterministic) {
+                double spent = (clock.getAsLong() - start) / 1000000.0;
+                double cost = done > 0 ? spent / done : stepCost;
+                // no room left for a sub-step after this one: this one is the last.
+                if (spent + 2.0 * cost > budget) {
+                    budgetExceeded = true;
+                    last = true;
+                }
+            }
+            subStep.step(stepElapsed, last);
+            done++;
+            if (last) {
+                break;
+            }
+        }
+        stepCost = (clock.getAsLong() - start) / 1000000.0 / done;
+        pending = Math.min(MAX_CARRY, total - stepElapsed * done);
+        lastSubSteps = done;
+        lastStepElapsed = stepElapsed;
+        return done;
+    }
+
+    /**
+     * Retrieve the elapsed time carried forward to the next frame.
+     *
+     * @return the pending time in milliseconds.
+     */
+    public double getPending() {
+        return pending;
+    }
+
+    /**
+     * Retrieve the number of sub-steps processed by the last update.
+     *
+     * @return the number of sub-steps (0 if the last frame has been merged).
+     */
+    public int getLastSubSteps() {
+        return lastSubSteps;
+    }
+
+    /**
+     * Retrieve the elapsed time of each sub-step of the last processed update.
+     *
+     * @return the sub-step elapsed time, in milliseconds.
+     */
+    public double getLastStepElapsed() {
+        return lastStepElapsed;
+    }
+
+    /**
+     * Return true if the last update stopped its sub-steps to stay within the CPU time budget.
+     *
+     * @return true if the remaining time has been carried forward because of the budget.
+     */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+}
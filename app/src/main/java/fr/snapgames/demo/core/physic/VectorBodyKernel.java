@@ -0,0 +1,85 @@
+package fr.snapgames.demo.core.physic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link VectorBodyKernel} integrates several bodies per instruction with the <code>jdk.incubator.vector</code>
+ * API, using the preferred vector size of the platform (4 doubles on AVX2, 8 on AVX-512).
+ * The conditional parts of the integration (ceil and limits) are computed on all lanes and selected with masks.
+ * The remaining bodies are processed by the {@link ScalarBodyKernel}, giving exactly the same results.
+ * <p>
+ * This class is only loaded through {@link BodyKernel#create(String, boolean)}, which falls back to the
+ * {@link ScalarBodyKernel} when the vector module is not available.
+ *
+ * @author Frédéric Delorme
+ * @see BodyKernel
+ * @since 0.1.4
+ */
+public class VectorBodyKernel implements BodyKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final boolean legacy;
+
+    /**
+     * Create a {@link VectorBodyKernel} limiting each axis with its own {@link World} limits.
+     */
+    public VectorBodyKernel() {
+        this(false);
+    }
+
+    /**
+     * Create a {@link VectorBodyKernel}.
+     *
+     * @param legacy true to reproduce exactly the {@link Integrator#LEGACY} limits (see {@link BodyKernel}).
+     */
+    public VectorBodyKernel(boolean legacy) {
+        this.legacy = legacy;
+    }
+
+    @Override
+    public void integrate(BodyBuffer b, World world, double time) {
+        double gx = world.gravity.x;
+        double gy = world.gravity.y;
+        double maxAccY = legacy ? world.maxAccX : world.maxAccY;
+        double maxSpeedY = legacy ? world.maxSpeedX : world.maxSpeedY;
+        double halfTime = 0.5 * time;
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(b.count);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector mass = DoubleVector.fromArray(SPECIES, b.mass, i);
+            DoubleVector fx = mass.mul(gx).add(DoubleVector.fromArray(SPECIES, b.ax, i));
+            DoubleVector fy = mass.mul(gy).add(DoubleVector.fromArray(SPECIES, b.ay, i));
+            DoubleVector ax = limit(ceil(fx, fx, world.minAcc, zero), world.maxAccX);
+            DoubleVector ay = limit(ceil(legacy ? fx : fy, fy, world.minAcc, zero), maxAccY);
+            DoubleVector sx = ax.mul(halfTime);
+            DoubleVector sy = ay.mul(halfTime);
+            DoubleVector vx = limit(ceil(sx, sx, world.minSpeed, zero), world.maxSpeedX);
+            DoubleVector vy = limit(ceil(legacy ? sx : sy, sy, world.minSpeed, zero), maxSpeedY);
+            DoubleVector friction = DoubleVector.fromArray(SPECIES, b.friction, i);
+            ax.intoArray(b.ax, i);
+            ay.intoArray(b.ay, i);
+            vx.intoArray(b.vx, i);
+            vy.intoArray(b.vy, i);
+            vx.mul(time).mul(friction).intoArray(b.dx, i);
+            vy.mul(time).mul(friction).intoArray(b.dy, i);
+        }
+        ScalarBodyKernel.integrate(b, world, time, legacy, i, b.count);
+    }
+
+    @Override
+    public boolean isLegacy() {
+        return legacy;
+    }
+
+    private static DoubleVector ceil(DoubleVector reference, DoubleVector value, double min, DoubleVector zero) {
+        return value.blend(zero, reference.abs().compare(VectorOperators.LT, min));
+    }
+
+    private static DoubleVector limit(DoubleVector v, double max) {
+        return v.min(max).max(-max);
+    }
+}
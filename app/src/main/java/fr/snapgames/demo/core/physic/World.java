@@ -1,19 +1,47 @@
 package fr.snapgames.demo.core.physic;
 
 import fr.snapgames.demo.core.configuration.Configuration;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.SpatialIndex;
 import fr.snapgames.demo.core.math.Vector2D;
 import fr.snapgames.demo.gdemoapp.ConfigAttribute;
 
 import java.awt.geom.Rectangle2D;
+import java.util.Optional;
 
 /**
  * The {@link World} object intends to provide some world default attribute to configure the {@link PhysicEngine}
  * with some world game world.
+ * <p>
+ * Once simulated by a {@link PhysicEngine}, the {@link World} also answers the spatial queries of the game play
+ * (line of sight, ground probes, area detection):
+ * <ul>
+ *     <li>{@link World#raycast(double, double, double, double, double, int, RaycastHit)} gives the nearest
+ *     {@link Entity} hit by a ray,</li>
+ *     <li>{@link World#overlapBox(double, double, double, double, int, Entity[])} gives the entities overlapping
+ *     a box,</li>
+ *     <li>{@link World#sweep(Entity, double, double, int, RaycastHit)} gives the nearest {@link Entity} hit by
+ *     the box of an {@link Entity} moving along a segment.</li>
+ * </ul>
+ * The static entities are found by walking the cells of the {@link StaticColliderGrid} crossed by the query, the
+ * other ones by walking the nodes of the {@link SpatialIndex} of the {@link EntityManager} along the segment, up to
+ * the nearest hit. The results are written into the
+ * {@link RaycastHit} or the array provided by the caller: a query allocates nothing.
+ * <blockquote><em>NOTE</em> The queries must be called from the thread updating the {@link PhysicEngine}.</blockquote>
  *
  * @author Frédéric Delorme
  * @since 0.0.8
  */
 public class World {
+    /**
+     * Query masks: the kinds of {@link Entity} a query can find.
+     */
+    public static final int QUERY_STATIC = 1;
+    public static final int QUERY_DYNAMIC = 2;
+    public static final int QUERY_TRIGGERS = 4;
+    public static final int QUERY_ALL = QUERY_STATIC | QUERY_DYNAMIC | QUERY_TRIGGERS;
+
     /**
      * Define World physic attributes limits.
      */
@@ -35,6 +63,71 @@ public class World {
 
     public Material material = Material.AIR;
 
+    /**
+     * If true, the dynamic {@link fr.snapgames.demo.core.entity.Entity} are also swept against
+     * the {@link PhysicType#STATIC} ones, else only against the play area bounds.
+     */
+    public boolean staticCollision = false;
+
+    /**
+     * The default {@link Integrator} used to move the {@link fr.snapgames.demo.core.entity.Entity}
+     * not defining their own one.
+     */
+    public Integrator integrator = Integrator.LEGACY;
+
+    /**
+     * The {@link PhysicEngine} simulating this {@link World}, giving access to its entities and its static colliders
+     * (null until simulated).
+     */
+    PhysicEngine engine;
+
+    // current query state, reused for all the queries to avoid any allocation.
+    private int queryMask;
+    private Entity<?> queryIgnore;
+    private RaycastHit queryHit;
+    private double castX;
+    private double castY;
+    private double castDx;
+    private double castDy;
+    private double castWidth;
+    private double castHeight;
+    private double areaX;
+    private double areaY;
+    private double areaWidth;
+    private double areaHeight;
+    private Entity<?>[] queryResults;
+    private int queryCount;
+    private final SpatialIndex.SegmentVisitor entityCast = e -> {
+        if (isQueried(e)) {
+            queryHit.offer(e, castX, castY, castDx, castDy,
+                    e.position.x - castWidth, e.position.y - castHeight, e.size.x + castWidth, e.size.y + castHeight);
+        }
+        // the nodes beyond the nearest hit are not walked.
+        return queryHit.fraction;
+    };
+    private final StaticColliderGrid.Visitor staticCast = (owner, x, y, w, h) -> {
+        if (owner != queryIgnore) {
+            queryHit.offer(owner, castX, castY, castDx, castDy, x - castWidth, y - castHeight, w + castWidth, h + castHeight);
+        }
+    };
+    private final SpatialIndex.Visitor entityOverlap = e -> {
+        if (isQueried(e) && overlaps(e.position.x, e.position.y, e.size.x, e.size.y)) {
+            queryResults[queryCount++] = e;
+        }
+        return queryCount < queryResults.length;
+    };
+    private final StaticColliderGrid.Visitor staticOverlap = (owner, x, y, w, h) -> {
+        if (queryCount < queryResults.length && owner != queryIgnore && overlaps(x, y, w, h)) {
+            // the boxes of the same owner are reported once.
+            for (int i = 0; i < queryCount; i++) {
+                if (queryResults[i] == owner) {
+                    return;
+                }
+            }
+            queryResults[queryCount++] = owner;
+        }
+    };
+
     /**
      * Initialization of the World object with only default values.
      */
@@ -61,6 +154,10 @@ public class World {
         playArea = new Rectangle2D.Double(0.0, 0.0,
                 (double) configuration.get(ConfigAttribute.PLAY_AREA_WIDTH),
                 (double) configuration.get(ConfigAttribute.PLAY_AREA_HEIGHT));
+        // activate collisions against static entities
+        staticCollision = (boolean) configuration.get(ConfigAttribute.PHYSIC_STATIC_COLLISION);
+        // select the default integrator
+        integrator = (Integrator) configuration.get(ConfigAttribute.PHYSIC_INTEGRATOR);
     }
 
     /**
@@ -95,7 +192,156 @@ public class World {
         return this;
     }
 
+    /**
+     * Set the default {@link Integrator} for this {@link World}.
+     *
+     * @param integrator the {@link Integrator} to be used.
+     * @return the updated {@link World} instance (Fluent API).
+     */
+    public World setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+        return this;
+    }
+
     public Rectangle2D getPlayArea() {
         return playArea;
     }
+
+    /**
+     * Find the nearest {@link Entity} hit by a ray. A ray starting inside an {@link Entity} does not hit it.
+     *
+     * @param x           the horizontal start of the ray.
+     * @param y           the vertical start of the ray.
+     * @param dirX        the horizontal direction of the ray.
+     * @param dirY        the vertical direction of the ray.
+     * @param maxDistance the length of the ray.
+     * @param mask        the kinds of {@link Entity} to be found (see {@link World#QUERY_ALL}).
+     * @param hit         the {@link RaycastHit} receiving the nearest hit.
+     * @return true if an {@link Entity} has been hit.
+     */
+    public boolean raycast(double x, double y, double dirX, double dirY, double maxDistance, int mask, RaycastHit hit) {
+        double length = Math.hypot(dirX, dirY);
+        if (length == 0.0 || maxDistance <= 0.0) {
+            hit.reset();
+            return false;
+        }
+        cast(null, x, y, 0.0, 0.0, dirX / length * maxDistance, dirY / length * maxDistance, mask, hit);
+        return hit.isHit();
+    }
+
+    /**
+     * Find the nearest {@link Entity} hit by the box of an {@link Entity} moving by (dx,dy). The {@link Entity}
+     * itself, and the entities it already overlaps, are ignored.
+     *
+     * @param e    the moving {@link Entity}.
+     * @param dx   the horizontal move.
+     * @param dy   the vertical move.
+     * @param mask the kinds of {@link Entity} to be found (see {@link World#QUERY_ALL}).
+     * @param hit  the {@link RaycastHit} receiving the nearest hit, its point being the position of the moved box.
+     * @return true if an {@link Entity} has been hit.
+     */
+    public boolean sweep(Entity<?> e, double dx, double dy, int mask, RaycastHit hit) {
+        if (dx == 0.0 && dy == 0.0) {
+            hit.reset();
+            return false;
+        }
+        cast(e, e.position.x, e.position.y, e.size.x, e.size.y, dx, dy, mask, hit);
+        return hit.isHit();
+    }
+
+    private void cast(Entity<?> ignore, double x, double y, double w, double h, double dx, double dy,
+                      int mask, RaycastHit hit) {
+        hit.reset();
+        EntityManager entities = getEntityManager();
+        if (!Optional.ofNullable(entities).isPresent()) {
+            return;
+        }
+        queryMask = mask;
+        queryIgnore = ignore;
+        queryHit = hit;
+        castX = x;
+        castY = y;
+        castDx = dx;
+        castDy = dy;
+        castWidth = w;
+        castHeight = h;
+        try {
+            if ((mask & QUERY_STATIC) != 0) {
+                StaticColliderGrid statics = engine.getStaticColliders();
+                if (w == 0.0 && h == 0.0) {
+                    statics.raycast(x, y, dx, dy, hit);
+                } else {
+                    statics.query(Math.min(x, x + dx), Math.min(y, y + dy), w + Math.abs(dx), h + Math.abs(dy),
+                            staticCast);
+                }
+            }
+            if ((mask & (QUERY_DYNAMIC | QUERY_TRIGGERS)) != 0) {
+                entities.getSpatialIndex().querySegment(x, y, w, h, dx, dy, entityCast);
+            }
+        } finally {
+            queryIgnore = null;
+            queryHit = null;
+        }
+        if (hit.isHit()) {
+            hit.distance = hit.fraction * Math.hypot(dx, dy);
+        }
+    }
+
+    /**
+     * Find the entities overlapping a box (the entities only touching the box are not found).
+     *
+     * @param x       the horizontal position of the box.
+     * @param y       the vertical position of the box.
+     * @param w       the width of the box.
+     * @param h       the height of the box.
+     * @param mask    the kinds of {@link Entity} to be found (see {@link World#QUERY_ALL}).
+     * @param results the array receiving the found entities (the search stops when it is full).
+     * @return the number of entities written into the results.
+     */
+    public int overlapBox(double x, double y, double w, double h, int mask, Entity<?>[] results) {
+        EntityManager entities = getEntityManager();
+        if (!Optional.ofNullable(entities).isPresent() || results.length == 0) {
+            return 0;
+        }
+        queryMask = mask;
+        queryResults = results;
+        queryCount = 0;
+        areaX = x;
+        areaY = y;
+        areaWidth = w;
+        areaHeight = h;
+        try {
+            if ((mask & QUERY_STATIC) != 0) {
+                engine.getStaticColliders().query(x, y, w, h, staticOverlap);
+            }
+            if ((mask & (QUERY_DYNAMIC | QUERY_TRIGGERS)) != 0 && queryCount < results.length) {
+                entities.getSpatialIndex().queryRect(x, y, w, h, entityOverlap);
+            }
+            return queryCount;
+        } finally {
+            queryResults = null;
+        }
+    }
+
+    private EntityManager getEntityManager() {
+        return Optional.ofNullable(engine).isPresent() ? engine.getEntityManager() : null;
+    }
+
+    /**
+     * Return true if the {@link Entity} is found by the current query: the static entities are found through the
+     * {@link StaticColliderGrid}, so only the dynamic entities and the trigger volumes are found here.
+     */
+    private boolean isQueried(Entity<?> e) {
+        if (e == queryIgnore || !e.isActive() || !e.isNotStickToCamera()) {
+            return false;
+        }
+        if (e.isTrigger()) {
+            return (queryMask & QUERY_TRIGGERS) != 0;
+        }
+        return (queryMask & QUERY_DYNAMIC) != 0 && PhysicType.DYNAMIC.equals(e.physicType);
+    }
+
+    private boolean overlaps(double x, double y, double w, double h) {
+        return x < areaX + areaWidth && x + w > areaX && y < areaY + areaHeight && y + h > areaY;
+    }
 }
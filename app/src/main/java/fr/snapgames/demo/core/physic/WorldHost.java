@@ -0,0 +1,287 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.EntityManager;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link WorldHost} hosts many independent simulations in the same JVM: each {@link Simulation} owns its
+ * {@link World}, its {@link EntityManager} and its {@link PhysicEngine}, and does not share any mutable state with
+ * the other ones.
+ * <p>
+ * At each {@link WorldHost#step(double)}, all the simulations are updated on a fixed pool of worker threads
+ * (a {@link ForkJoinPool}): the list of simulations is split in halves down to one simulation per task, and an idle
+ * worker steals the pending tasks of a busy one, so that a few heavy worlds do not leave the other workers idle.
+ * A simulation is updated by one worker at a time, and the step returns once all the simulations are updated.
+ * <p>
+ * The CPU time spent to update each simulation is measured, to be reported per world
+ * (see {@link WorldHost#getStepTimes()}).
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class WorldHost implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(WorldHost.class.getName());
+
+    /**
+     * One hosted simulation, with its own {@link World}, {@link EntityManager} and {@link PhysicEngine}.
+     */
+    public static class Simulation {
+        private final String name;
+        private final World world;
+        private final EntityManager entityManager;
+        private final PhysicEngine physicEngine;
+
+        private long steps;
+        private long lastStepTime;
+        private long maxStepTime;
+        private long totalStepTime;
+
+        Simulation(String name, World world) {
+            this.name = name;
+            this.world = world;
+            this.entityManager = new EntityManager();
+            this.physicEngine = new PhysicEngine(world, entityManager);
+        }
+
+        /**
+         * Update the simulation, and measure the time spent.
+         *
+         * @param elapsed the elapsed time since the previous step, in milliseconds.
+         */
+        void step(double elapsed) {
+            long start = System.nanoTime();
+            physicEngine.update(elapsed);
+            lastStepTime = System.nanoTime() - start;
+            maxStepTime = Math.max(maxStepTime, lastStepTime);
+            totalStepTime += lastStepTime;
+            steps++;
+        }
+
+        /**
+         * Retrieve the name of the simulation, used to report its step times.
+         *
+         * @return the simulation name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Retrieve the {@link World} of the simulation.
+         *
+         * @return the simulated {@link World}.
+         */
+        public World getWorld() {
+            return world;
+        }
+
+        /**
+         * Retrieve the {@link EntityManager} holding the entities of this simulation only.
+         *
+         * @return the simulation {@link EntityManager}.
+         */
+        public EntityManager getEntityManager() {
+            return entityManager;
+        }
+
+        /**
+         * Retrieve the {@link PhysicEngine} updating this simulation.
+         *
+         * @return the simulation {@link PhysicEngine}.
+         */
+        public PhysicEngine getPhysicEngine() {
+            return physicEngine;
+        }
+
+        /**
+         * Retrieve the number of steps of the simulation since it has been added.
+         *
+         * @return the number of steps.
+         */
+        public long getSteps() {
+            return steps;
+        }
+
+        /**
+         * Retrieve the time spent by the last step.
+         *
+         * @return the last step time, in milliseconds.
+         */
+        public double getLastStepTime() {
+            return lastStepTime / 1000000.0;
+        }
+
+        /**
+         * Retrieve the longest time spent by one step.
+         *
+         * @return the maximum step time, in milliseconds.
+         */
+        public double getMaxStepTime() {
+            return maxStepTime / 1000000.0;
+        }
+
+        /**
+         * Retrieve the mean time spent by one step.
+         *
+         * @return the mean step time, in milliseconds (0 before the first step).
+         */
+        public double getMeanStepTime() {
+            return steps > 0 ? totalStepTime / 1000000.0 / steps : 0.0;
+        }
+    }
+
+    /**
+     * Update the simulations from <code>from</code> (inclusive) to <code>to</code> (exclusive),
+     * splitting the range in halves to let the idle workers steal one of them.
+     */
+    private static class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Simulation[] simulations;
+        private final int from;
+        private final int to;
+        private final double elapsed;
+
+        StepTask(Simulation[] simulations, int from, int to, double elapsed) {
+            this.simulations = simulations;
+            this.from = from;
+            this.to = to;
+            this.elapsed = elapsed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                simulations[from].step(elapsed);
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StepTask(simulations, from, middle, elapsed),
+                        new StepTask(simulations, middle, to, elapsed));
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final List<Simulation> simulations = new CopyOnWriteArrayList<>();
+    private long lastStepTime;
+
+    /**
+     * Create a {@link WorldHost} with one worker thread per available processor.
+     */
+    public WorldHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a {@link WorldHost} with a fixed number of worker threads.
+     *
+     * @param workers the number of worker threads.
+     */
+    public WorldHost(int workers) {
+        this.pool = new ForkJoinPool(Math.max(1, workers));
+    }
+
+    /**
+     * Create and host a new {@link Simulation} for the {@link World}.
+     *
+     * @param name  the name of the simulation.
+     * @param world the {@link World} to be simulated (must not be shared with another simulation).
+     * @return the new {@link Simulation}, to populate its {@link EntityManager}.
+     */
+    public Simulation add(String name, World world) {
+        Simulation simulation = new Simulation(name, world);
+        simulations.add(simulation);
+        return simulation;
+    }
+
+    /**
+     * Stop hosting a {@link Simulation}. It must not be called during a {@link WorldHost#step(double)}.
+     *
+     * @param simulation the simulation to be removed.
+     */
+    public void remove(Simulation simulation) {
+        simulations.remove(simulation);
+    }
+
+    /**
+     * Update all the hosted simulations on the worker threads, and wait for all of them to be updated.
+     *
+     * @param elapsed the elapsed time since the previous step, in milliseconds.
+     */
+    public void step(double elapsed) {
+        long start = System.nanoTime();
+        Simulation[] toBeStepped = simulations.toArray(new Simulation[0]);
+        if (toBeStepped.length > 0) {
+            pool.invoke(new StepTask(toBeStepped, 0, toBeStepped.length, elapsed));
+        }
+        lastStepTime = System.nanoTime() - start;
+    }
+
+    /**
+     * Retrieve the hosted simulations.
+     *
+     * @return an unmodifiable list of the {@link Simulation}.
+     */
+    public List<Simulation> getSimulations() {
+        return Collections.unmodifiableList(simulations);
+    }
+
+    /**
+     * Retrieve the time spent by the last step of each simulation.
+     *
+     * @return a map of the last step time, in milliseconds, per simulation name.
+     */
+    public Map<String, Double> getStepTimes() {
+        Map<String, Double> times = new LinkedHashMap<>();
+        for (Simulation s : simulations) {
+            times.put(s.getName(), s.getLastStepTime());
+        }
+        return times;
+    }
+
+    /**
+     * Retrieve the wall-clock time spent by the last {@link WorldHost#step(double)} for all the simulations.
+     *
+     * @return the last host step time, in milliseconds.
+     */
+    public double getLastStepTime() {
+        return lastStepTime / 1000000.0;
+    }
+
+    /**
+     * Retrieve the number of worker threads stepping the simulations.
+     *
+     * @return the parallelism of the worker pool.
+     */
+    public int getWorkers() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            logger.log(Level.WARNING, "Interrupted while stopping the world host workers");
+            Thread.currentThread().interrupt();
+        }
+    }
+}
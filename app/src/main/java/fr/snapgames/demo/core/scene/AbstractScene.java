@@ -7,6 +7,7 @@ import fr.snapgames.demo.core.entity.Entity;
 import fr.snapgames.demo.core.entity.EntityManager;
 import fr.snapgames.demo.core.gfx.Renderer;
 import fr.snapgames.demo.core.io.InputHandler;
+import fr.snapgames.demo.core.math.Rng;
 import fr.snapgames.demo.core.physic.PhysicEngine;
 
 import java.util.Map;
@@ -70,6 +71,10 @@ public abstract class AbstractScene implements Scene {
      * The handler to capture input events
      */
     protected InputHandler inputHandler;
+    /**
+     * The random generator dedicated to this scene.
+     */
+    protected Rng rng;
 
     /**
      * Create the default Scene parameters
@@ -100,6 +105,7 @@ public abstract class AbstractScene implements Scene {
         entityMgr = g.getEntityManager();
         physicEngine = g.getPhysicEngine();
         inputHandler = g.getInputHandler();
+        rng = g.getRng().forSubsystem("scene." + name);
         prepare(g);
     }
 
@@ -0,0 +1,35 @@
+package fr.snapgames.demo.core.session;
+
+/**
+ * A {@link Session} is a lightweight game session (no window, no rendering) ticked at its own rate by
+ * the {@link SessionScheduler}, on its own thread.
+ * <p>
+ * A long CPU-bound tick should call {@link Thread#yield()} between its parts, to let the other sessions
+ * sharing the same carrier thread progress.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+@FunctionalInterface
+public interface Session {
+
+    /**
+     * Called once on the session thread, before the first tick.
+     */
+    default void start() {
+    }
+
+    /**
+     * Process one tick of the session.
+     *
+     * @param elapsed the elapsed time since the previous tick, in milliseconds (0 for the first tick).
+     * @return true to continue, false to end the session.
+     */
+    boolean tick(double elapsed);
+
+    /**
+     * Called once on the session thread, after the last tick.
+     */
+    default void stop() {
+    }
+}
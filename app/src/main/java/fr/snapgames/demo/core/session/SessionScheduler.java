@@ -0,0 +1,298 @@
+package fr.snapgames.demo.core.session;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link SessionScheduler} runs many lightweight {@link Session}, each one on its own thread and at its own
+ * tick rate, following the same fixed rate loop as {@link fr.snapgames.demo.core.Game#loop()}.
+ * <p>
+ * The sessions are run on virtual threads when the JVM provides them (Java 19 with <code>--enable-preview</code>,
+ * Java 21 and later): waiting for the next tick then parks the virtual thread and releases its carrier thread, so that
+ * thousands of idle or low-rate sessions share a few carrier threads. A session late on its schedule yields after its
+ * tick, to let the other sessions of the same carrier progress. Without virtual threads, platform daemon threads
+ * are used. The virtual threads are retrieved through reflection, so that the project is not compiled with
+ * <code>--enable-preview</code>: on Java 19, only the JVM running the sessions needs this flag.
+ * <p>
+ * A session waits for its next tick up to its deadline, even if its thread is woken up earlier, and ends when its
+ * thread is interrupted.
+ * <p>
+ * The lag of each tick (the delay between its scheduled time and its actual start) is measured per session,
+ * see {@link Handle}. A session too late on its schedule (more than {@link SessionScheduler#MAX_LATE_TICKS} ticks)
+ * drops the missed ticks instead of trying to catch up.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SessionScheduler implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(SessionScheduler.class.getName());
+
+    /**
+     * Maximum number of late ticks before the schedule of a session is reset.
+     */
+    public static final int MAX_LATE_TICKS = 5;
+
+    /**
+     * The running state of one scheduled {@link Session}, and its tick statistics.
+     */
+    public static class Handle {
+        private final String name;
+        private final Session session;
+        private final long period;
+
+        private volatile boolean running = true;
+        private volatile Thread thread;
+
+        private volatile long ticks;
+        private volatile long lastLag;
+        private volatile long maxLag;
+        private volatile long totalLag;
+
+        Handle(String name, int tickRate, Session session) {
+            this.name = name;
+            this.session = session;
+            this.period = 1000000000L / Math.max(1, tickRate);
+        }
+
+        /**
+         * The session loop, run on the session thread.
+         */
+        void run() {
+            try {
+                session.start();
+                long previous = System.nanoTime();
+                long next = previous;
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    long now = System.nanoTime();
+                    long lag = Math.max(0L, now - next);
+                    if (!session.tick(ticks == 0 ? 0.0 : (now - previous) / 1000000.0)) {
+                        break;
+                    }
+                    previous = now;
+                    lastLag = lag;
+                    maxLag = Math.max(maxLag, lag);
+                    totalLag += lag;
+                    ticks++;
+                    next += period;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        // parks a virtual thread, its carrier thread running the other sessions meanwhile.
+                        // A spurious wake-up parks it again up to the deadline, an interruption ends the session.
+                        do {
+                            LockSupport.parkNanos(wait);
+                            if (Thread.interrupted()) {
+                                running = false;
+                            }
+                        } while (running && (wait = next - System.nanoTime()) > 0);
+                    } else {
+                        if (-wait > MAX_LATE_TICKS * period) {
+                            next = System.nanoTime();
+                        }
+                        Thread.yield();
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Session " + name + " failed", e);
+            } finally {
+                running = false;
+                session.stop();
+            }
+        }
+
+        /**
+         * Request the session to stop, and wake it up if it is waiting for its next tick.
+         */
+        public void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        /**
+         * Wait for the end of the session.
+         *
+         * @param timeout the maximum time to wait, in milliseconds.
+         * @return true if the session is ended.
+         */
+        public boolean join(long timeout) {
+            try {
+                thread.join(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return !thread.isAlive();
+        }
+
+        /**
+         * Retrieve the name of the session.
+         *
+         * @return the session name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Return true while the session is running.
+         *
+         * @return false once the session is stopped or ended.
+         */
+        public boolean isRunning() {
+            return running;
+        }
+
+        /**
+         * Retrieve the number of processed ticks.
+         *
+         * @return the ticks count.
+         */
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Retrieve the lag of the last tick.
+         *
+         * @return the last tick lag, in milliseconds.
+         */
+        public double getLastLag() {
+            return lastLag / 1000000.0;
+        }
+
+        /**
+         * Retrieve the highest lag of a tick.
+         *
+         * @return the maximum tick lag, in milliseconds.
+         */
+        public double getMaxLag() {
+            return maxLag / 1000000.0;
+        }
+
+        /**
+         * Retrieve the mean lag of the ticks.
+         *
+         * @return the mean tick lag, in milliseconds (0 before the first tick).
+         */
+        public double getMeanLag() {
+            long n = ticks;
+            return n > 0 ? totalLag / 1000000.0 / n : 0.0;
+        }
+    }
+
+    private final ThreadFactory threadFactory;
+    private final boolean virtual;
+    private final List<Handle> handles = new CopyOnWriteArrayList<>();
+
+    /**
+     * Create a {@link SessionScheduler} running the sessions on virtual threads when available.
+     */
+    public SessionScheduler() {
+        this(true);
+    }
+
+    /**
+     * Create a {@link SessionScheduler}.
+     *
+     * @param useVirtualThreads true to run the sessions on virtual threads when available, false to always use
+     *                          platform threads.
+     */
+    public SessionScheduler(boolean useVirtualThreads) {
+        ThreadFactory factory = useVirtualThreads ? createVirtualThreadFactory() : null;
+        this.virtual = factory != null;
+        if (virtual) {
+            this.threadFactory = factory;
+        } else {
+            AtomicInteger count = new AtomicInteger();
+            this.threadFactory = r -> {
+                Thread t = new Thread(r, "session-" + count.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+
+    /**
+     * Retrieve the virtual thread factory through reflection, the virtual threads being a preview API in Java 19.
+     *
+     * @return the virtual {@link ThreadFactory}, or null if the virtual threads are not available.
+     */
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "session-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.log(Level.WARNING, "Virtual threads are not available, sessions run on platform threads: {0}",
+                    e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    /**
+     * Start a new {@link Session} on its own thread.
+     *
+     * @param name     the name of the session.
+     * @param tickRate the number of ticks per second.
+     * @param session  the {@link Session} to be ticked.
+     * @return the {@link Handle} to follow and stop the session.
+     */
+    public Handle start(String name, int tickRate, Session session) {
+        Handle handle = new Handle(name, tickRate, session);
+        Thread thread = threadFactory.newThread(handle::run);
+        handle.thread = thread;
+        handles.add(handle);
+        thread.start();
+        return handle;
+    }
+
+    /**
+     * Return true if the sessions run on virtual threads.
+     *
+     * @return true for virtual threads, false for platform threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Retrieve the started sessions (the ended ones included, until {@link SessionScheduler#purge()}).
+     *
+     * @return an unmodifiable list of the session {@link Handle}.
+     */
+    public List<Handle> getSessions() {
+        return Collections.unmodifiableList(handles);
+    }
+
+    /**
+     * Remove the ended sessions from the list of sessions.
+     *
+     * @return the number of removed sessions.
+     */
+    public int purge() {
+        int size = handles.size();
+        handles.removeIf(h -> !h.isRunning());
+        return size - handles.size();
+    }
+
+    /**
+     * Stop all the sessions and wait for their end.
+     */
+    @Override
+    public void close() {
+        handles.forEach(Handle::stop);
+        for (Handle h : handles) {
+            if (!h.join(1000)) {
+                logger.log(Level.WARNING, "Session {0} did not stop in time", h.getName());
+            }
+        }
+        handles.clear();
+    }
+}
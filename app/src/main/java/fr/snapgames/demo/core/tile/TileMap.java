@@ -0,0 +1,485 @@
+package fr.snapgames.demo.core.tile;
+
+import fr.snapgames.demo.core.entity.DebugInfo;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.RenderingKey;
+import fr.snapgames.demo.core.physic.PhysicType;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * The {@link TileMap} is an {@link Entity} drawing a whole level from a grid of tiles, picked into a tile set image
+ * (like <code>/images/tiles01.png</code>).
+ * <p>
+ * The grid is split into square chunks of <code>chunkSize</code> x <code>chunkSize</code> tiles. The chunks around
+ * the visible area are streamed by {@link TileMap#stream(Rectangle2D)} (called by the
+ * {@link fr.snapgames.demo.core.gfx.plugins.TileMapDrawHelperPlugin} with the
+ * {@link fr.snapgames.demo.core.entity.Camera} view): a chunk entering the area is pre-rendered once into its own
+ * image, and a chunk leaving the area (and its margin) gives its image back to a pool, to be reused by the next loaded
+ * chunk. So the memory and the drawing cost only depend on the visible area, whatever the size of the level is: one
+ * image is drawn per visible chunk instead of one per tile.
+ * <p>
+ * Some tiles of the tile set can be declared solid: the solid cells are then seen by the
+ * {@link fr.snapgames.demo.core.physic.PhysicEngine} as static colliders (the map is a {@link PhysicType#STATIC}
+ * entity), baked with the other static entities into the
+ * {@link fr.snapgames.demo.core.physic.StaticColliderGrid}, and each cell can be tested in constant time with
+ * {@link TileMap#isSolid(int, int)}.
+ * <p>
+ * eg. usage :
+ *
+ * <pre>
+ *     TileMap level = new TileMap("level", 200, 15, 16, 16, 16)
+ *         .setTileSet(tiles)
+ *         .setSolidTiles(26, 46)
+ *         .fill(0, 14, 200, 1, 26);
+ *     entityManager.add(level);
+ * </pre>
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class TileMap extends Entity<TileMap> {
+
+    /**
+     * The tile value of an empty cell.
+     */
+    public static final int EMPTY = -1;
+
+    private final int columns;
+    private final int rows;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final short[] tiles;
+    private final boolean[] solidCells;
+
+    private BufferedImage tileSet;
+    private int tileSetColumns;
+    private int tileSetCount;
+    private boolean[] solidTiles = new boolean[0];
+
+    // the chunks: their image (null if empty or not loaded) and their loading state.
+    private final int chunkSize;
+    private final int chunkColumns;
+    private final int chunkRows;
+    private final BufferedImage[] chunks;
+    private final boolean[] loaded;
+    // the indexes of the loaded chunks, so that the streaming never walks the whole map.
+    private int[] loadedChunks = new int[16];
+    private int loadedCount;
+    private final Deque<BufferedImage> pool = new ArrayDeque<>();
+    private int margin = 1;
+    private int chunkRenders;
+    private int version;
+    private int solidVersion;
+
+    /**
+     * Create a new empty {@link TileMap}.
+     *
+     * @param name       the name of this new {@link TileMap}.
+     * @param columns    the number of tiles on the horizontal axis.
+     * @param rows       the number of tiles on the vertical axis.
+     * @param tileWidth  the width of a tile, in pixels.
+     * @param tileHeight the height of a tile, in pixels.
+     * @param chunkSize  the number of tiles on each side of a chunk.
+     */
+    public TileMap(String name, int columns, int rows, int tileWidth, int tileHeight, int chunkSize) {
+        super(name);
+        this.columns = columns;
+        this.rows = rows;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.tiles = new short[columns * rows];
+        Arrays.fill(tiles, (short) EMPTY);
+        this.solidCells = new boolean[columns * rows];
+        this.chunkColumns = (columns + this.chunkSize - 1) / this.chunkSize;
+        this.chunkRows = (rows + this.chunkSize - 1) / this.chunkSize;
+        this.chunks = new BufferedImage[chunkColumns * chunkRows];
+        this.loaded = new boolean[chunkColumns * chunkRows];
+        this.physicType = PhysicType.STATIC;
+        this.fillColor = null;
+        this.borderColor = null;
+        setSize((double) columns * tileWidth, (double) rows * tileHeight);
+    }
+
+    /**
+     * Define the tile set image: the tiles are numbered from left to right then top to bottom, starting at 0.
+     *
+     * @param tileSet the tile set image.
+     * @return the updated {@link TileMap} (Fluent API).
+     */
+    public TileMap setTileSet(BufferedImage tileSet) {
+        this.tileSet = tileSet;
+        this.tileSetColumns = Optional.ofNullable(tileSet).isPresent() ? tileSet.getWidth() / tileWidth : 0;
+        this.tileSetCount = Optional.ofNullable(tileSet).isPresent() ? tileSetColumns * (tileSet.getHeight() / tileHeight) : 0;
+        unloadAll();
+        return this;
+    }
+
+    /**
+     * Declare the solid tiles of the tile set: all the cells using one of these tiles are static colliders.
+     *
+     * @param solid the solid tile values.
+     * @return the updated {@link TileMap} (Fluent API).
+     */
+    public TileMap setSolidTiles(int... solid) {
+        int max = 0;
+        for (int t : solid) {
+            max = Math.max(max, t + 1);
+        }
+        solidTiles = new boolean[max];
+        for (int t : solid) {
+            if (t >= 0) {
+                solidTiles[t] = true;
+            }
+        }
+        for (int i = 0; i < tiles.length; i++) {
+            solidCells[i] = isSolidTile(tiles[i]);
+        }
+        solidVersion++;
+        return this;
+    }
+
+    private boolean isSolidTile(int tile) {
+        return tile >= 0 && tile < solidTiles.length && solidTiles[tile];
+    }
+
+    /**
+     * Set the tile of one cell. The chunk containing the cell is rendered again on the next streaming.
+     *
+     * @param column the column of the cell.
+     * @param row    the row of the cell.
+     * @param tile   the tile value ({@link TileMap#EMPTY} to clear the cell).
+     * @return the updated {@link TileMap} (Fluent API).
+     */
+    public TileMap setTile(int column, int row, int tile) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return this;
+        }
+        int i = row * columns + column;
+        tiles[i] = (short) tile;
+        if (solidCells[i] != isSolidTile(tile)) {
+            solidCells[i] = !solidCells[i];
+            solidVersion++;
+        }
+        unload((row / chunkSize) * chunkColumns + column / chunkSize);
+        return this;
+    }
+
+    /**
+     * Set the same tile in a rectangle of cells.
+     *
+     * @param column the first column.
+     * @param row    the first row.
+     * @param width  the number of columns.
+     * @param height the number of rows.
+     * @param tile   the tile value ({@link TileMap#EMPTY} to clear the cells).
+     * @return the updated {@link TileMap} (Fluent API).
+     */
+    public TileMap fill(int column, int row, int width, int height, int tile) {
+        for (int r = row; r < row + height; r++) {
+            for (int c = column; c < column + width; c++) {
+                setTile(c, r, tile);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Set the tiles of the map from an array of tile values, row by row.
+     *
+     * @param values the tile values (missing values are left unchanged).
+     * @return the updated {@link TileMap} (Fluent API).
+     */
+    public TileMap setTiles(int[] values) {
+        int n = Math.min(values.length, tiles.length);
+        for (int i = 0; i < n; i++) {
+            tiles[i] = (short) values[i];
+            solidCells[i] = isSolidTile(values[i]);
+        }
+        solidVersion++;
+        unloadAll();
+        return this;
+    }
+
+    /**
+     * Define the number of chunks kept loaded around the visible area, so that a small camera move back does not
+     * render the same chunks again.
+     *
+     * @param margin the number of chunks around the visible area.
+     * @return the updated {@link TileMap} (Fluent API).
+     */
+    public TileMap setMargin(int margin) {
+        this.margin = Math.max(0, margin);
+        return this;
+    }
+
+    /**
+     * Retrieve the tile of a cell.
+     *
+     * @param column the column of the cell.
+     * @param row    the row of the cell.
+     * @return the tile value, or {@link TileMap#EMPTY} for a cell outside the map.
+     */
+    public int getTile(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return EMPTY;
+        }
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * Return true if the cell is a static collider.
+     *
+     * @param column the column of the cell.
+     * @param row    the row of the cell.
+     * @return true if the cell uses a solid tile, false if it is not solid or outside the map.
+     */
+    public boolean isSolid(int column, int row) {
+        return column >= 0 && column < columns && row >= 0 && row < rows && solidCells[row * columns + column];
+    }
+
+    /**
+     * Return true if a world position is in a solid cell.
+     *
+     * @param x the horizontal world position.
+     * @param y the vertical world position.
+     * @return true if the position is in a solid cell.
+     */
+    public boolean isSolidAt(double x, double y) {
+        return isSolid(getColumn(x), getRow(y));
+    }
+
+    /**
+     * Retrieve the column of the cell containing a world horizontal position (can be outside the map).
+     *
+     * @param x the horizontal world position.
+     * @return the column.
+     */
+    public int getColumn(double x) {
+        return (int) Math.floor((x - position.x) / tileWidth);
+    }
+
+    /**
+     * Retrieve the row of the cell containing a world vertical position (can be outside the map).
+     *
+     * @param y the vertical world position.
+     * @return the row.
+     */
+    public int getRow(double y) {
+        return (int) Math.floor((y - position.y) / tileHeight);
+    }
+
+    /**
+     * Load the chunks intersecting the view (and its margin), and unload the others.
+     *
+     * @param view the visible area, in world coordinates.
+     */
+    public void stream(Rectangle2D view) {
+        int cx0 = Math.max(0, getChunkColumn(view.getMinX()) - margin);
+        int cy0 = Math.max(0, getChunkRow(view.getMinY()) - margin);
+        int cx1 = Math.min(chunkColumns - 1, getChunkColumn(view.getMaxX()) + margin);
+        int cy1 = Math.min(chunkRows - 1, getChunkRow(view.getMaxY()) + margin);
+        // unload the chunks out of range.
+        for (int i = loadedCount - 1; i >= 0; i--) {
+            int chunk = loadedChunks[i];
+            int cx = chunk % chunkColumns;
+            int cy = chunk / chunkColumns;
+            if (cx < cx0 || cx > cx1 || cy < cy0 || cy > cy1) {
+                unload(chunk);
+            }
+        }
+        // load the missing chunks in range.
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int chunk = cy * chunkColumns + cx;
+                if (!loaded[chunk]) {
+                    load(chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve the column of the chunk containing a world horizontal position (can be outside the map).
+     *
+     * @param x the horizontal world position.
+     * @return the chunk column.
+     */
+    public int getChunkColumn(double x) {
+        return Math.floorDiv(getColumn(x), chunkSize);
+    }
+
+    /**
+     * Retrieve the row of the chunk containing a world vertical position (can be outside the map).
+     *
+     * @param y the vertical world position.
+     * @return the chunk row.
+     */
+    public int getChunkRow(double y) {
+        return Math.floorDiv(getRow(y), chunkSize);
+    }
+
+    /**
+     * Retrieve the pre-rendered image of a loaded chunk.
+     *
+     * @param chunkColumn the column of the chunk.
+     * @param chunkRow    the row of the chunk.
+     * @return the chunk image, or null if the chunk is empty, not loaded or outside the map.
+     */
+    public BufferedImage getChunk(int chunkColumn, int chunkRow) {
+        if (chunkColumn < 0 || chunkColumn >= chunkColumns || chunkRow < 0 || chunkRow >= chunkRows) {
+            return null;
+        }
+        return chunks[chunkRow * chunkColumns + chunkColumn];
+    }
+
+    private void load(int chunk) {
+        int c0 = (chunk % chunkColumns) * chunkSize;
+        int r0 = (chunk / chunkColumns) * chunkSize;
+        int c1 = Math.min(columns, c0 + chunkSize);
+        int r1 = Math.min(rows, r0 + chunkSize);
+        BufferedImage image = null;
+        Graphics2D g = null;
+        if (Optional.ofNullable(tileSet).isPresent()) {
+            for (int r = r0; r < r1; r++) {
+                for (int c = c0; c < c1; c++) {
+                    int tile = tiles[r * columns + c];
+                    if (tile < 0 || tile >= tileSetCount) {
+                        continue;
+                    }
+                    if (!Optional.ofNullable(g).isPresent()) {
+                        image = Optional.ofNullable(pool.poll()).orElseGet(() -> new BufferedImage(
+                                chunkSize * tileWidth, chunkSize * tileHeight, BufferedImage.TYPE_INT_ARGB));
+                        g = image.createGraphics();
+                        g.setComposite(AlphaComposite.Clear);
+                        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+                        g.setComposite(AlphaComposite.SrcOver);
+                    }
+                    int sx = (tile % tileSetColumns) * tileWidth;
+                    int sy = (tile / tileSetColumns) * tileHeight;
+                    int dx = (c - c0) * tileWidth;
+                    int dy = (r - r0) * tileHeight;
+                    g.drawImage(tileSet, dx, dy, dx + tileWidth, dy + tileHeight,
+                            sx, sy, sx + tileWidth, sy + tileHeight, null);
+                }
+            }
+        }
+        if (Optional.ofNullable(g).isPresent()) {
+            g.dispose();
+            chunkRenders++;
+        }
+        chunks[chunk] = image;
+        loaded[chunk] = true;
+        if (loadedCount == loadedChunks.length) {
+            loadedChunks = Arrays.copyOf(loadedChunks, loadedCount * 2);
+        }
+        loadedChunks[loadedCount++] = chunk;
+        version++;
+    }
+
+    private void unload(int chunk) {
+        if (!loaded[chunk]) {
+            return;
+        }
+        if (Optional.ofNullable(chunks[chunk]).isPresent()) {
+            pool.push(chunks[chunk]);
+            chunks[chunk] = null;
+        }
+        loaded[chunk] = false;
+        for (int i = 0; i < loadedCount; i++) {
+            if (loadedChunks[i] == chunk) {
+                loadedChunks[i] = loadedChunks[--loadedCount];
+                break;
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Unload all the chunks, to be rendered again on the next streaming.
+     */
+    public void unloadAll() {
+        while (loadedCount > 0) {
+            unload(loadedChunks[loadedCount - 1]);
+        }
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkColumns() {
+        return chunkColumns;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    /**
+     * Retrieve the version of the solid cells, changed each time a cell becomes solid or not, so that the static
+     * colliders built from this map know when to be built again.
+     *
+     * @return the solid cells version.
+     */
+    public int getSolidVersion() {
+        return solidVersion;
+    }
+
+    /**
+     * Retrieve the number of chunks currently loaded (empty chunks included).
+     *
+     * @return the number of loaded chunks.
+     */
+    public int getLoadedChunkCount() {
+        return loadedCount;
+    }
+
+    /**
+     * Retrieve the number of chunk images rendered since the creation of the map.
+     *
+     * @return the number of chunk renderings.
+     */
+    public int getChunkRenders() {
+        return chunkRenders;
+    }
+
+    @Override
+    public void createRenderingKey(RenderingKey key) {
+        super.createRenderingKey(key);
+        key.add(version);
+    }
+
+    @Override
+    protected void createDebugInfo(DebugInfo info) {
+        info.add(1, "name", sb -> sb.append(name))
+                .add(1, "tiles", sb -> sb.append(columns).append('x').append(rows))
+                .add(2, "pos", sb -> position.appendTo(sb))
+                .add(2, "chunks", sb -> sb.append(loadedCount).append('/').append(chunks.length))
+                .add(3, "renders", sb -> sb.append(chunkRenders))
+                .add(4, "l", sb -> sb.append(getLayer()).append(" p:").append(getPriority()));
+    }
+}
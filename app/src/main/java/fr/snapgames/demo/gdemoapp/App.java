@@ -8,15 +8,26 @@ import fr.snapgames.demo.core.Utils;
 import fr.snapgames.demo.core.configuration.Configuration;
 import fr.snapgames.demo.core.entity.Camera;
 import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
 import fr.snapgames.demo.core.gfx.Renderer;
 import fr.snapgames.demo.core.gfx.Window;
+import fr.snapgames.demo.core.io.AssetPack;
 import fr.snapgames.demo.core.io.InputHandler;
+import fr.snapgames.demo.core.io.SnapshotReader;
+import fr.snapgames.demo.core.io.SnapshotWriter;
 import fr.snapgames.demo.core.io.events.CommonGameKeyListener;
+import fr.snapgames.demo.core.math.Rng;
 import fr.snapgames.demo.core.physic.PhysicEngine;
 import fr.snapgames.demo.core.scene.SceneManager;
 
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -92,6 +103,16 @@ public class App implements Game {
 
     private int targetUPS = 60;
 
+    /**
+     * The seed for all the random generators of the session.
+     */
+    private long randomSeed = 0;
+
+    /**
+     * The root random generator for the session.
+     */
+    private Rng rng;
+
     /**
      * Window to display our game app.
      */
@@ -119,6 +140,19 @@ public class App implements Game {
 
     private SceneManager sceneMgr;
 
+    /**
+     * The asset pack providing the pre-decoded images (null if not available).
+     */
+    private AssetPack assetPack;
+
+    /**
+     * The last saved checkpoint (see {@link App#saveCheckpoint()}), and the images of its entities.
+     */
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();
+    private final Map<String, BufferedImage> checkpointImages = new HashMap<>();
+    private final SnapshotReader snapshotReader = new SnapshotReader(checkpointImages::get);
+    private ByteBuffer checkpoint;
+
     /**
      * Displayed application title on the screen/window.
      */
@@ -160,13 +194,19 @@ public class App implements Game {
                 (int) config.get(ConfigAttribute.WINDOW_HEIGHT))
                 .setIcon("/images/sg-logo-image.png");
 
+        openAssetPack();
+
         inputHandler = new InputHandler();
         inputHandler.addListener(new CommonGameKeyListener(this));
         window.addListener(inputHandler);
+        prepareInputSession();
+        rng = new Rng(randomSeed);
 
         entityMgr = new EntityManager();
         renderer = new Renderer(this);
         physicEngine = new PhysicEngine(this);
+        // the sub-steps must not depend on the CPU load while the input is recorded or replayed.
+        physicEngine.getScheduler().setDeterministic(inputHandler.isRecording() || inputHandler.isReplaying());
         sceneMgr = new SceneManager(this);
 
 
@@ -174,6 +214,49 @@ public class App implements Game {
         return initStatus;
     }
 
+    /**
+     * Open the asset pack if one is configured and exists: the scenes then load their images from it
+     * instead of decoding them.
+     */
+    private void openAssetPack() {
+        String packFile = (String) config.get(ConfigAttribute.ASSETS_PACK);
+        if (!packFile.equals("") && Files.exists(Path.of(packFile))) {
+            try {
+                assetPack = AssetPack.open(Path.of(packFile));
+                logger.log(Level.INFO, "- asset pack {0} opened: {1} images",
+                        new Object[]{packFile, assetPack.getNames().size()});
+                List<String> stale = assetPack.getStaleNames();
+                if (!stale.isEmpty()) {
+                    logger.log(Level.WARNING, "The asset pack {0} is older than {1} of its images (like {2}):"
+                                    + " rebuild it with the assetPack task",
+                            new Object[]{packFile, stale.size(), stale.get(0)});
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Unable to open the asset pack " + packFile, e);
+            }
+        }
+    }
+
+    /**
+     * Start the input recording or replay if requested by configuration, and define the session random seed
+     * accordingly: a replayed session reuses the seed of the recorded one.
+     */
+    private void prepareInputSession() {
+        String replayFile = (String) config.get(ConfigAttribute.INPUT_REPLAY_FILE);
+        String recordFile = (String) config.get(ConfigAttribute.INPUT_RECORD_FILE);
+        if (!replayFile.equals("") && inputHandler.startReplay(Path.of(replayFile))) {
+            randomSeed = inputHandler.getReplaySeed();
+        } else {
+            if (randomSeed == 0) {
+                randomSeed = System.nanoTime();
+            }
+            if (!recordFile.equals("")) {
+                inputHandler.startRecording(Path.of(recordFile), randomSeed);
+            }
+        }
+        logger.log(Level.INFO, "- random seed is {0}", Long.toString(randomSeed));
+    }
+
     /**
      * Request configuration file all the config values to initialize internals.
      * It also parses the provided CLI args to override configuration value if
@@ -206,6 +289,7 @@ public class App implements Game {
         exitValueTestCounter = (int) config.get(ConfigAttribute.EXIT_TEST_COUNT_FRAME);
         targetFPS = (int) config.get(ConfigAttribute.RENDER_FPS);
         targetUPS = (int) config.get(ConfigAttribute.PHYSIC_UPS);
+        randomSeed = (long) config.get(ConfigAttribute.RANDOM_SEED);
         updateTestCounter = 0;
     }
 
@@ -223,6 +307,16 @@ public class App implements Game {
     }
 
 
+    @Override
+    public double syncFrame(double elapsed) {
+        double frameElapsed = inputHandler.update(elapsed);
+        if (inputHandler.isReplayOver()) {
+            logger.log(Level.INFO, "Input replay is over, exiting.");
+            requestExit(true);
+        }
+        return frameElapsed;
+    }
+
     @Override
     public void input(Game g) {
         logger.log(Level.FINEST, "- Loop {0}:", updateTestCounter);
@@ -277,6 +371,15 @@ public class App implements Game {
                     exitValueTestCounter });
         }
         sceneMgr.dispose();
+        renderer.dispose();
+        inputHandler.dispose();
+        if (Optional.ofNullable(assetPack).isPresent()) {
+            try {
+                assetPack.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Unable to close the asset pack", e);
+            }
+        }
         window.close();
         long duration = System.currentTimeMillis() - appStartTime;
         logger.log(Level.INFO, "executed in {0} ms ({1})", new Object[] { duration, Utils.formatDuration(duration) });
@@ -296,6 +399,37 @@ public class App implements Game {
         }
     }
 
+    @Override
+    public void saveCheckpoint() {
+        ByteBuffer snapshot = snapshotWriter.write(physicEngine.getWorld(), entityMgr);
+        if (!Optional.ofNullable(checkpoint).isPresent() || checkpoint.capacity() < snapshot.remaining()) {
+            checkpoint = ByteBuffer.allocate(snapshot.remaining());
+        }
+        checkpoint.clear();
+        checkpoint.put(snapshot).flip();
+        checkpointImages.clear();
+        entityMgr.getEntities().stream()
+                .filter(e -> e instanceof GameObject && Optional.ofNullable(((GameObject) e).imageKey).isPresent())
+                .map(e -> (GameObject) e)
+                .forEach(go -> checkpointImages.put(go.imageKey, go.image));
+        logger.log(Level.INFO, "Checkpoint saved: {0} entities in {1} bytes",
+                new Object[]{entityMgr.getEntities().size(), checkpoint.remaining()});
+    }
+
+    @Override
+    public boolean restoreCheckpoint() {
+        if (Optional.ofNullable(checkpoint).isPresent() && !renderer.isRendering()) {
+            try {
+                int count = snapshotReader.read(checkpoint, physicEngine.getWorld(), entityMgr);
+                logger.log(Level.INFO, "Checkpoint restored: {0} entities", count);
+                return true;
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to restore the checkpoint", e);
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isExitRequested() {
         return (debugMode > 0 && updateTestCounter != -1 && updateTestCounter == exitValueTestCounter) || exitFlag;
@@ -350,11 +484,21 @@ public class App implements Game {
         return this.renderer;
     }
 
+    @Override
+    public Rng getRng() {
+        return rng;
+    }
+
     @Override
     public InputHandler getInputHandler() {
         return inputHandler;
     }
 
+    @Override
+    public AssetPack getAssetPack() {
+        return assetPack;
+    }
+
     @Override
     public SceneManager getSceneManager() {
         return sceneMgr;
@@ -370,6 +514,15 @@ public class App implements Game {
         return window;
     }
 
+    /**
+     * Retrieve the seed used by all the random generators of this session.
+     *
+     * @return the session random seed.
+     */
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
     /**
      * return the trigger value to exit from loop ni test mode.
      *
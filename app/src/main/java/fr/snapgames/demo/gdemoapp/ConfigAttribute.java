@@ -2,6 +2,7 @@ package fr.snapgames.demo.gdemoapp;
 
 import fr.snapgames.demo.core.configuration.IConfigAttribute;
 import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.Integrator;
 import fr.snapgames.demo.core.physic.Material;
 
 import java.util.Arrays;
@@ -54,6 +55,78 @@ public enum ConfigAttribute implements IConfigAttribute {
             "set the frame per second for the render engine",
             60,
             Integer::valueOf),
+    /**
+     * the rendering backend for the simple shapes: "java2d" (default) or "raster".
+     */
+    RENDER_BACKEND(
+            "renderBackend",
+            "app.render.backend",
+            "Set the rendering backend for simple shapes: java2d or raster (parallel tile rasterizer)",
+            "java2d",
+            v -> v),
+    /**
+     * flag to activate the dirty regions rendering (only the changed parts of the screen are drawn again).
+     */
+    RENDER_DIRTY_REGIONS(
+            "renderDirtyRegions",
+            "app.render.dirty.regions",
+            "Activate the rendering of only the changed regions of the screen",
+            false,
+            Boolean::valueOf),
+    /**
+     * ratio of the screen area above which the dirty regions rendering falls back to a full redraw.
+     */
+    RENDER_DIRTY_THRESHOLD(
+            "renderDirtyThreshold",
+            "app.render.dirty.threshold",
+            "Set the ratio of the screen area above which the full screen is drawn again",
+            0.5,
+            Double::valueOf),
+    /**
+     * number of frames between two logs of the rendering statistics (0 = no log).
+     */
+    RENDER_STATS_LOG_PERIOD(
+            "renderStatsLog",
+            "app.render.stats.log.period",
+            "Log the rendering statistics every N frames, 0 means no log",
+            0,
+            Integer::valueOf),
+    /**
+     * CSV file receiving the rendering statistics of each frame ("" = no CSV output).
+     */
+    RENDER_STATS_CSV_FILE(
+            "renderStatsCsv",
+            "app.render.stats.csv.file",
+            "Write the rendering statistics of each frame to this CSV file, empty means no CSV output",
+            "",
+            v -> v),
+    /**
+     * output of the rendered frames capture: a directory for png format, a file for raw format ("" = no capture).
+     */
+    RENDER_CAPTURE_PATH(
+            "renderCapture",
+            "app.render.capture.path",
+            "Capture the rendered frames to this directory (png) or file (raw), empty means no capture",
+            "",
+            v -> v),
+    /**
+     * format of the captured frames: "png" (image sequence) or "raw" (RGBA stream).
+     */
+    RENDER_CAPTURE_FORMAT(
+            "renderCaptureFormat",
+            "app.render.capture.format",
+            "Set the format of the captured frames: png (image sequence) or raw (RGBA stream)",
+            "png",
+            v -> v),
+    /**
+     * number of preallocated frames waiting for the capture encoder.
+     */
+    RENDER_CAPTURE_POOL(
+            "renderCapturePool",
+            "app.render.capture.pool",
+            "Set the number of preallocated frames for the capture (frames are dropped when all are in use)",
+            8,
+            Integer::valueOf),
     /**
      * the width of our game's window
      */
@@ -172,6 +245,78 @@ public enum ConfigAttribute implements IConfigAttribute {
             "Set the maximum acceleration on Y axis",
             0.2,
             Double::valueOf),
+    PHYSIC_STATIC_COLLISION(
+            "physicStaticCollision",
+            "app.physic.world.static.collision",
+            "Activate the continuous collision of dynamic entities against the static ones",
+            false,
+            Boolean::valueOf),
+    PHYSIC_STATIC_CELL_SIZE(
+            "physicStaticCellSize",
+            "app.physic.world.static.cell.size",
+            "Set the cell size of the grid of baked static colliders",
+            64.0,
+            Double::valueOf),
+    PHYSIC_INTEGRATOR(
+            "physicIntegrator",
+            "app.physic.integrator",
+            "Select the default integrator (legacy, semi_implicit_euler, velocity_verlet or position_verlet)",
+            Integrator.LEGACY,
+            v -> Integrator.valueOf(v.toUpperCase())),
+    PHYSIC_SUBSTEP_MAX(
+            "physicSubStepMax",
+            "app.physic.substep.max",
+            "Set the maximum number of physic sub-steps per frame (1 for no sub-step)",
+            1,
+            Integer::valueOf),
+    PHYSIC_SUBSTEP_MAX_MOVE(
+            "physicSubStepMaxMove",
+            "app.physic.substep.max.move",
+            "Set the maximum move of the fastest body during one sub-step, relative to its size",
+            0.5,
+            Double::valueOf),
+    PHYSIC_SUBSTEP_BUDGET(
+            "physicSubStepBudget",
+            "app.physic.substep.budget",
+            "Set the CPU time budget in ms for the physic sub-steps of one frame (0 for no limit)",
+            0.0,
+            Double::valueOf),
+    PHYSIC_SUBSTEP_MERGE(
+            "physicSubStepMerge",
+            "app.physic.substep.merge",
+            "Set the maximum elapsed time in ms merged when all the bodies are slow (0 for no merge)",
+            0.0,
+            Double::valueOf),
+    PHYSIC_KERNEL(
+            "physicKernel",
+            "app.physic.kernel",
+            "Select the bulk body kernel (none, scalar, vector or auto)",
+            "none",
+            v -> v),
+    PHYSIC_KERNEL_LEGACY(
+            "physicKernelLegacy",
+            "app.physic.kernel.legacy",
+            "Set the bulk body kernel to reproduce exactly the legacy integrator limits",
+            false,
+            Boolean::valueOf),
+    PHYSIC_REWIND_STEPS(
+            "physicRewindSteps",
+            "app.physic.rewind.steps",
+            "Set the number of physic steps kept in the rewind buffer (0 to disable the rewind buffer)",
+            0,
+            Integer::valueOf),
+    PHYSIC_REWIND_SIZE(
+            "physicRewindSize",
+            "app.physic.rewind.size",
+            "Set the maximum memory used by the rewind buffer states, in MB",
+            16.0,
+            Double::valueOf),
+    PHYSIC_REWIND_KEYFRAME(
+            "physicRewindKeyframe",
+            "app.physic.rewind.keyframe",
+            "Set the number of physic steps between two full keyframes of the rewind buffer",
+            30,
+            Integer::valueOf),
     DEBUG_WHILE_LIST("debugWhiteList",
             "app.debug.filter.white.list",
             "List of entity to display debug information for",
@@ -194,6 +339,26 @@ public enum ConfigAttribute implements IConfigAttribute {
             "define the default scene to be activated at start",
             "",
             v -> v),
+    RANDOM_SEED("randomSeed",
+            "app.random.seed",
+            "Set the seed for all random generators (0 means a new seed at each run)",
+            0L,
+            Long::valueOf),
+    ASSETS_PACK("assetsPack",
+            "app.assets.pack",
+            "Load the images from this asset pack file when it exists (see the assetPack build task)",
+            "",
+            v -> v),
+    INPUT_RECORD_FILE("inputRecord",
+            "app.input.record.file",
+            "Record all input frames to this binary log file",
+            "",
+            v -> v),
+    INPUT_REPLAY_FILE("inputReplay",
+            "app.input.replay.file",
+            "Replay all input frames from this binary log file in place of live input",
+            "",
+            v -> v),
     GAME_RESHUFFLE_FORCE("reshuffleForce",
             "app.physic.ingame.balls.reshuffle.force",
             "Force used to reshuffle balls' acceleration and move",
@@ -7,6 +7,7 @@ import fr.snapgames.demo.core.gfx.Renderer;
 import fr.snapgames.demo.core.math.Vector2D;
 import fr.snapgames.demo.core.physic.Material;
 import fr.snapgames.demo.core.scene.AbstractScene;
+import fr.snapgames.demo.core.tile.TileMap;
 import fr.snapgames.demo.gdemoapp.ConfigAttribute;
 
 import javax.imageio.ImageIO;
@@ -28,6 +29,7 @@ public class DemoScene extends AbstractScene {
 
     BufferedImage imageBackground = null;
     BufferedImage imagePlayer = null;
+    BufferedImage imageTiles = null;
 
     /**
      * Create the default Scene parameters
@@ -42,12 +44,16 @@ public class DemoScene extends AbstractScene {
 
 
     /**
-     * Load a {@link BufferedImage} from a file path.
+     * Load a {@link BufferedImage} from a file path, from the {@link fr.snapgames.demo.core.io.AssetPack}
+     * of the game if it contains the image, else by decoding the image resource.
      *
      * @param pathToImage path to the image file.
      * @return the corresponding {@link BufferedImage} instance.
      */
     private BufferedImage loadImage(String pathToImage) {
+        if (Optional.ofNullable(game.getAssetPack()).isPresent() && game.getAssetPack().contains(pathToImage)) {
+            return game.getAssetPack().getImage(pathToImage);
+        }
         try {
             return ImageIO.read(this.getClass().getResourceAsStream(pathToImage));
         } catch (NullPointerException | IOException e) {
@@ -60,6 +66,7 @@ public class DemoScene extends AbstractScene {
     public void prepare(Game g) {
         imageBackground = loadImage("/images/backgrounds/forest.jpg");
         imagePlayer = loadImage("/images/sprites01.png");
+        imageTiles = loadImage("/images/tiles01.png");
     }
 
     @Override
@@ -70,15 +77,28 @@ public class DemoScene extends AbstractScene {
 
         // Add a Background image
         var background = (GameObject) new GameObject("background")
-                .setImage(imageBackground)
+                .setImage("background", imageBackground)
                 .setLayer(1)
                 .setPriority(2);
         entityMgr.add(background);
 
+        // Add a tile map with a grass ground and a brick platform, solid for the static collisions.
+        double playAreaWidth = physicEngine.getWorld().getPlayArea().getWidth();
+        double playAreaHeight = physicEngine.getWorld().getPlayArea().getHeight();
+        int columns = (int) Math.ceil(playAreaWidth / 16.0);
+        int rows = (int) Math.ceil(playAreaHeight / 16.0);
+        entityMgr.add(new TileMap("tilemap", columns, rows, 16, 16, 16)
+                .setTileSet(imageTiles)
+                .setSolidTiles(26, 40)
+                .fill(0, rows - 1, columns, 1, 26)
+                .fill(columns / 2 - 4, rows - 5, 8, 1, 40)
+                .setLayer(1)
+                .setPriority(3));
+
         // Create the main player entity.
         BufferedImage playerFrame1 = imagePlayer.getSubimage(0, 0, 32, 32);
         var player = (GameObject) new GameObject("player")
-                .setImage(playerFrame1)
+                .setImage("player", playerFrame1)
                 .setPosition((screenWidth - 32) * 0.5, (screenHeight - 32) * 0.5)
                 .setSpeed(0.0, 0.0)
                 .setAcceleration(0.0, 0.0)
@@ -134,11 +154,11 @@ public class DemoScene extends AbstractScene {
                              int width, int height,
                              Color fillColor, Color borderColor) {
         for (int i = 0; i < nbBall; i++) {
-            double radius = Math.random() * ballRadius;
+            double radius = rng.nextDouble() * ballRadius;
             createBall(ballNamePrefix,
                     width, height,
                     (fillColor == null
-                            ? RandomColor.get(
+                            ? RandomColor.get(rng,
                             0.0f, 0.0f, 0.0f, 0.5f,
                             1.0f, 1.0f, 1.0f, 1.0f)
                             : fillColor),
@@ -153,15 +173,15 @@ public class DemoScene extends AbstractScene {
                 .setFillColor(fillColor)
                 .setBorderColor(borderColor)
                 .setSize(radius, radius)
-                .setPosition((width - 32) * Math.random(), (height - 32) * Math.random())
-                .setSpeed(10.0 * Math.random(), 10.0 * Math.random())
-                .setMass(20000.0 * Math.random())
+                .setPosition((width - 32) * rng.nextDouble(), (height - 32) * rng.nextDouble())
+                .setSpeed(10.0 * rng.nextDouble(), 10.0 * rng.nextDouble())
+                .setMass(20000.0 * rng.nextDouble())
                 .setAcceleration(0.0, 0.0)
                 .setDebug(4)
                 .setMaterial(Material.SUPER_BALL)
                 .setLayer(3)
                 .setPriority(2);
-        String ballName = name.replace("#", "" + go.id);
+        String ballName = name.replace("#", "" + entityMgr.register(go).id);
         go.setName(ballName);
         entityMgr.add(go);
     }
@@ -184,7 +204,7 @@ public class DemoScene extends AbstractScene {
                 }
             }
         }
-        toBeRemoved.forEach(e -> game.getEntityManager().getEntityMap().remove(e.getName()));
+        toBeRemoved.forEach(e -> game.getEntityManager().remove(e));
     }
 
     /**
@@ -216,7 +236,7 @@ public class DemoScene extends AbstractScene {
                 toBeRemoved.add(e);
             }
         }
-        toBeRemoved.forEach(e -> game.getEntityManager().getEntityMap().remove(e.getName()));
+        toBeRemoved.forEach(e -> game.getEntityManager().remove(e));
     }
 
 
@@ -281,8 +301,8 @@ public class DemoScene extends AbstractScene {
                 .filter(o -> o.name.contains(filterEntities))
                 .forEach(go -> go.forces.add(
                         new Vector2D(
-                                (maxForce * 2.0 * Math.random()) - maxForce,
-                                (maxForce * 10.0 * Math.random()) - (maxForce * 5.0))));
+                                (maxForce * 2.0 * rng.nextDouble()) - maxForce,
+                                (maxForce * 10.0 * rng.nextDouble()) - (maxForce * 5.0))));
     }
 
     @Override
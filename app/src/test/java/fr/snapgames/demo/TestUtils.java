@@ -1,9 +1,21 @@
 package fr.snapgames.demo;
 
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.entity.ObjectType;
+import fr.snapgames.demo.core.math.Rng;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.particle.ParticleEmitter;
+import fr.snapgames.demo.core.physic.Material;
+import fr.snapgames.demo.core.physic.PhysicType;
+import fr.snapgames.demo.core.tile.TileMap;
+
 import javax.xml.stream.Location;
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Provide some Test utilities for comparison purpose.
@@ -102,4 +114,164 @@ public class TestUtils {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Create a list of {@link GameObject} laid out on a grid, row after row: the object <code>i</code> is named
+     * <code>go_i</code> and placed at column <code>i % columns</code> and row <code>i / columns</code>.
+     *
+     * @param count   the number of objects to be created.
+     * @param columns the number of objects on a row.
+     * @param x       the horizontal position of the first object.
+     * @param y       the vertical position of the first object.
+     * @param stepX   the horizontal distance between two columns.
+     * @param stepY   the vertical distance between two rows.
+     * @param width   the width of each object.
+     * @param height  the height of each object.
+     * @return the list of the created objects.
+     */
+    public static List<GameObject> createObjects(int count, int columns,
+                                                 double x, double y, double stepX, double stepY,
+                                                 double width, double height) {
+        List<GameObject> objects = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            GameObject go = new GameObject("go_" + i);
+            go.setPosition(x + stepX * (i % columns), y + stepY * (i / columns))
+                    .setSize(width, height);
+            objects.add(go);
+        }
+        return objects;
+    }
+
+    /**
+     * Create an ARGB image filled with one color (alpha included).
+     *
+     * @param width  the width of the image.
+     * @param height the height of the image.
+     * @param color  the color of all the pixels.
+     * @return the created image.
+     */
+    public static BufferedImage createImage(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Create a {@link ParticleEmitter} throwing its particles in all the directions, at 10 to 20 pixels per second,
+     * for one second. Its random generator is always seeded with the same value, so two emitters created with the
+     * same parameters emit the same particles.
+     *
+     * @param capacity the maximum number of living particles.
+     * @param x        the horizontal position of the emitter.
+     * @param y        the vertical position of the emitter.
+     * @param color    the color of the particles.
+     * @return the created emitter.
+     */
+    public static ParticleEmitter createEmitter(int capacity, double x, double y, Color color) {
+        return new ParticleEmitter("sparks", capacity, new Rng(1234L))
+                .setOrigin(x, y)
+                .setSpeed(10, 20)
+                .setDirection(0, Math.PI * 2)
+                .setLife(1.0, 1.0)
+                .setColors(color, color);
+    }
+
+    /**
+     * Create a list of 16x16 rubber bodies, randomly placed into an area, with a random mass (from 0.5 to 10) and
+     * a random pending force. The same seed always gives the same bodies.
+     *
+     * @param count the number of bodies to be created.
+     * @param seed  the seed of the random generator.
+     * @param area  the area where the bodies are placed.
+     * @return the list of the created bodies.
+     */
+    public static List<Entity<?>> createBodies(int count, long seed, Rectangle2D area) {
+        Rng rng = new Rng(seed);
+        List<Entity<?>> bodies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bodies.add(new GameObject("body_" + i)
+                    .setSize(16.0, 16.0)
+                    .setPosition(rng.nextDouble(area.getMinX(), area.getMaxX()),
+                            rng.nextDouble(area.getMinY(), area.getMaxY()))
+                    .setMass(rng.nextDouble(0.5, 10.0))
+                    .setMaterial(Material.RUBBER)
+                    .addForce(new Vector2D(rng.nextDouble(-2000.0, 2000.0), rng.nextDouble(-2000.0, 2000.0))));
+        }
+        return bodies;
+    }
+
+    /**
+     * Create a dynamic ball.
+     *
+     * @param x        the horizontal position of the ball.
+     * @param y        the vertical position of the ball.
+     * @param size     the diameter of the ball.
+     * @param mass     the mass of the ball.
+     * @param material the {@link Material} of the ball.
+     * @return the created ball.
+     */
+    public static GameObject createBall(double x, double y, double size, double mass, Material material) {
+        GameObject ball = new GameObject("ball");
+        ball.setType(ObjectType.ELLIPSE);
+        ball.setPosition(x, y)
+                .setSize(size, size)
+                .setMass(mass)
+                .setMaterial(material);
+        return ball;
+    }
+
+    /**
+     * Create a tile set of plain tiles, laid out on one row: the tile <code>i</code> is filled with the color
+     * <code>i</code>.
+     *
+     * @param tileWidth  the width of a tile.
+     * @param tileHeight the height of a tile.
+     * @param colors     the colors of the tiles.
+     * @return the tile set image.
+     */
+    public static BufferedImage createTileSet(int tileWidth, int tileHeight, Color... colors) {
+        BufferedImage tileSet = new BufferedImage(tileWidth * colors.length, tileHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = tileSet.createGraphics();
+        for (int i = 0; i < colors.length; i++) {
+            g.setColor(colors[i]);
+            g.fillRect(i * tileWidth, 0, tileWidth, tileHeight);
+        }
+        g.dispose();
+        return tileSet;
+    }
+
+    /**
+     * Create a {@link TileMap} of 16x16 tiles (8x8 tiles chunks), whose only solid row is the bottom one.
+     *
+     * @param columns the number of tile columns.
+     * @param rows    the number of tile rows.
+     * @return the created map, named <code>map</code>.
+     */
+    public static TileMap createGround(int columns, int rows) {
+        return new TileMap("map", columns, rows, 16, 16, 8)
+                .setSolidTiles(0)
+                .fill(0, rows - 1, columns, 1, 0);
+    }
+
+    /**
+     * Create a static wall.
+     *
+     * @param name   the name of the wall.
+     * @param x      the horizontal position of the wall.
+     * @param y      the vertical position of the wall.
+     * @param width  the width of the wall.
+     * @param height the height of the wall.
+     * @return the created wall.
+     */
+    public static GameObject createWall(String name, double x, double y, double width, double height) {
+        GameObject wall = new GameObject(name);
+        wall.setPosition(x, y)
+                .setSize(width, height)
+                .setPhysicType(PhysicType.STATIC);
+        return wall;
+    }
 }
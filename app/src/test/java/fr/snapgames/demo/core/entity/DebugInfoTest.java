@@ -0,0 +1,51 @@
+package fr.snapgames.demo.core.entity;
+
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.Material;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * The DebugInfo is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class DebugInfoTest {
+
+    @Test
+    public void testDebugInfoEntriesReadCurrentValues() {
+        GameObject go = new GameObject("test");
+        DebugInfo info = go.getDebugEntries();
+        Assertions.assertSame(info, go.getDebugEntries(), "Debug entries must only be created once");
+
+        go.setPosition(12.345, -3.0);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < info.size(); i++) {
+            if (info.getKey(i).equals("pos")) {
+                Assertions.assertEquals(2, info.getLevel(i));
+                Assertions.assertTrue(info.appendEntry(i, sb));
+            }
+        }
+        Assertions.assertEquals("pos:" + go.position.toString(), sb.toString());
+    }
+
+    @Test
+    public void testDebugInfoConditionHidesEntry() {
+        GameObject go = new GameObject("test");
+        go.setMaterial(null);
+        List<String> infos = go.getDebugInfo();
+        Assertions.assertTrue(infos.stream().noneMatch(s -> s.startsWith("(4)mat:")));
+    }
+
+    @Test
+    public void testDebugInfoValuesMatchFormattedValues() {
+        Vector2D[] vectors = {new Vector2D(0.0, 0.0), new Vector2D(1.006, -2.5), new Vector2D(123456.789, 0.004)};
+        for (Vector2D v : vectors) {
+            Assertions.assertEquals(v.toString(), v.appendTo(new StringBuilder()).toString());
+        }
+        Assertions.assertEquals(Material.RUBBER.toString(), Material.RUBBER.appendTo(new StringBuilder()).toString());
+    }
+}
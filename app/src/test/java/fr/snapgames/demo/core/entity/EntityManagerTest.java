@@ -3,6 +3,8 @@ package fr.snapgames.demo.core.entity;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.awt.geom.Rectangle2D;
+
 /**
  * The EntityManager is the class under test.
  *
@@ -41,4 +43,40 @@ public class EntityManagerTest {
         Assertions.assertTrue(em.getEntityMap().containsKey("test_10"));
         Assertions.assertTrue(em.getEntityMap().containsKey("test_19"));
     }
+
+    @Test
+    public void testEntityManagerGivesItsOwnIds() {
+        EntityManager em1 = new EntityManager();
+        EntityManager em2 = new EntityManager();
+        Entity<String> unnamed = new Entity<>();
+        Entity<String> named = new Entity<>("named");
+        Assertions.assertEquals("entity_000", unnamed.getName());
+        em1.add(unnamed);
+        em1.add(named);
+        Assertions.assertEquals(1, unnamed.id);
+        Assertions.assertEquals(2, named.id);
+        Assertions.assertEquals("entity_001", unnamed.getName());
+        Assertions.assertEquals("named", named.getName());
+        Entity<String> other = em2.register(new Entity<>());
+        Assertions.assertEquals(1, other.id);
+    }
+
+    @Test
+    public void testEntityManagerReindexesEntitiesMovedBySetters() {
+        EntityManager em = new EntityManager();
+        em.setIndexBounds(new Rectangle2D.Double(0.0, 0.0, 1000.0, 1000.0));
+        Entity<String> test = new Entity<>("test");
+        test.setPosition(10.0, 10.0).setSize(10.0, 10.0);
+        em.add(test);
+        int[] found = new int[1];
+        test.setPosition(800.0, 800.0);
+        em.getSpatialIndex().queryPoint(805.0, 805.0, e -> ++found[0] > 0);
+        Assertions.assertEquals(1, found[0], "The moved entity must be found at its new position");
+        test.setSize(300.0, 300.0);
+        em.getSpatialIndex().queryPoint(1050.0, 1050.0, e -> ++found[0] > 0);
+        Assertions.assertEquals(2, found[0], "The resized entity must be found in its new bounds");
+        em.remove(test);
+        test.setPosition(10.0, 10.0);
+        Assertions.assertEquals(0, em.getSpatialIndex().size());
+    }
 }
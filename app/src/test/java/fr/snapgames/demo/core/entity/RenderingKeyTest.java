@@ -0,0 +1,43 @@
+package fr.snapgames.demo.core.entity;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+/**
+ * The RenderingKey is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderingKeyTest {
+
+    @Test
+    public void testRenderingKeyComparesTheStoredValues() {
+        RenderingKey key = new RenderingKey().add(0L).add(31L);
+        RenderingKey other = new RenderingKey().add(1L).add(0L);
+        // both keys have the same hash, but not the same values.
+        Assertions.assertFalse(key.matches(other));
+        Assertions.assertTrue(other.matches(new RenderingKey().copyFrom(other)));
+    }
+
+    @Test
+    public void testRenderingKeyFollowsTheLookOfTheEntity() {
+        GameObject go = new GameObject("test");
+        go.setSize(16.0, 16.0);
+        go.setFillColor(Color.BLUE);
+        RenderingKey key = new RenderingKey();
+        go.createRenderingKey(key);
+        RenderingKey previous = new RenderingKey().copyFrom(key);
+
+        go.createRenderingKey(key.clear());
+        Assertions.assertTrue(previous.matches(key));
+        go.setPosition(100.0, 100.0).setFillColor(new Color(0, 0, 255));
+        go.createRenderingKey(key.clear());
+        Assertions.assertTrue(previous.matches(key), "The position and an equal color must not change the key");
+        go.setFillColor(Color.RED);
+        go.createRenderingKey(key.clear());
+        Assertions.assertFalse(previous.matches(key));
+    }
+}
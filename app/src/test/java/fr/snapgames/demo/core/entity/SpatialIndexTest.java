@@ -0,0 +1,133 @@
+package fr.snapgames.demo.core.entity;
+
+import fr.snapgames.demo.TestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SpatialIndex is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ **/
+public class SpatialIndexTest {
+
+    List<GameObject> entities;
+    SpatialIndex index;
+
+    @BeforeEach
+    public void setup() {
+        // 10 rows of 10 entities, one every 100 pixels.
+        entities = TestUtils.createObjects(100, 10, 10.0, 10.0, 100.0, 100.0, 20.0, 20.0);
+        index = new SpatialIndex(new Rectangle2D.Double(0, 0, 1000, 1000), 6);
+        for (Entity<?> e : entities) {
+            index.insert(e);
+        }
+    }
+
+    @Test
+    public void testSpatialIndexQueryRectReturnsOnlyIntersectingEntities() {
+        Assertions.assertEquals(100, index.size());
+
+        List<Entity<?>> found = new ArrayList<>();
+        index.queryRect(0, 0, 250, 150, found::add);
+        // columns 0,1,2 of rows 0 and 1.
+        Assertions.assertEquals(6, found.size());
+        Assertions.assertTrue(found.contains(entities.get(12)));
+        Assertions.assertFalse(found.contains(entities.get(3)));
+    }
+
+    @Test
+    public void testSpatialIndexQueryPointAndRadius() {
+
+        List<Entity<?>> found = new ArrayList<>();
+        index.queryPoint(515, 515, found::add);
+        Assertions.assertEquals(1, found.size());
+        Assertions.assertEquals(entities.get(55), found.get(0));
+
+        found.clear();
+        index.queryRadius(520, 520, 90, found::add);
+        // the center entity and its 4 direct neighbours.
+        Assertions.assertEquals(5, found.size());
+    }
+
+    @Test
+    public void testSpatialIndexFollowsMovedEntities() {
+        Entity<?> e = entities.get(0);
+
+        e.setPosition(900, 900);
+        index.update(e);
+
+        List<Entity<?>> found = new ArrayList<>();
+        index.queryPoint(15, 15, found::add);
+        Assertions.assertTrue(found.isEmpty());
+        index.queryPoint(905, 905, found::add);
+        Assertions.assertEquals(1, found.size());
+        Assertions.assertTrue(found.contains(e));
+
+        // an entity moved outside the indexed area is still found.
+        e.setPosition(-500, -500);
+        index.update(e);
+        found.clear();
+        index.queryPoint(-495, -495, found::add);
+        Assertions.assertEquals(1, found.size());
+    }
+
+    @Test
+    public void testSpatialIndexRemoveAndClear() {
+
+        index.remove(entities.get(55));
+        Assertions.assertEquals(99, index.size());
+        List<Entity<?>> found = new ArrayList<>();
+        index.queryPoint(515, 515, found::add);
+        Assertions.assertTrue(found.isEmpty());
+
+        index.clear();
+        Assertions.assertEquals(0, index.size());
+        index.queryRect(0, 0, 1000, 1000, found::add);
+        Assertions.assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void testSpatialIndexQuerySegmentWalksAlongTheSegment() {
+
+        // the whole first row is crossed by the ray.
+        List<Entity<?>> found = new ArrayList<>();
+        index.querySegment(0, 20, 0, 0, 1000, 0, e -> {
+            found.add(e);
+            return 1.0;
+        });
+        Assertions.assertEquals(10, found.size());
+        Assertions.assertFalse(found.contains(entities.get(10)));
+
+        // stopping at the first hit skips the nodes beyond it.
+        found.clear();
+        double walked = index.querySegment(0, 20, 0, 0, 1000, 0, e -> {
+            found.add(e);
+            return e.position.x / 1000.0;
+        });
+        Assertions.assertEquals(entities.get(0), found.get(0));
+        Assertions.assertTrue(found.size() < 10);
+        Assertions.assertEquals(0.01, walked, 0.000001);
+
+        // a box moving along the segment also finds the entities it touches.
+        found.clear();
+        index.querySegment(0, -30, 20, 20, 0, 1000, e -> {
+            found.add(e);
+            return 1.0;
+        });
+        Assertions.assertEquals(10, found.size());
+    }
+
+    @Test
+    public void testSpatialIndexStopsWhenVisitorReturnsFalse() {
+        int[] count = new int[]{0};
+        index.queryRect(0, 0, 1000, 1000, e -> ++count[0] < 3);
+        Assertions.assertEquals(3, count[0]);
+    }
+}
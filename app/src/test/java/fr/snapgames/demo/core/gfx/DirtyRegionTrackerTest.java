@@ -0,0 +1,86 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.GameObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * The DirtyRegionTracker is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class DirtyRegionTrackerTest {
+
+    private void track(DirtyRegionTracker tracker, List<GameObject> entities) {
+        tracker.begin();
+        for (Entity<?> e : entities) {
+            tracker.track(e, 0, 0);
+        }
+        tracker.end();
+    }
+
+    @Test
+    public void testDirtyRegionTrackerOnlyReportsChanges() {
+        DirtyRegionTracker tracker = new DirtyRegionTracker(400, 240, 0.5);
+        List<GameObject> entities = TestUtils.createObjects(5, 5, 0.0, 20.0, 40.0, 0.0, 10.0, 10.0);
+        track(tracker, entities);
+        Assertions.assertEquals(5, tracker.getRegionCount(), "All new entities must be dirty");
+
+        track(tracker, entities);
+        Assertions.assertEquals(0, tracker.getRegionCount(), "Nothing has changed");
+
+        entities.get(2).setPosition(82.0, 21.0);
+        track(tracker, entities);
+        Assertions.assertEquals(1, tracker.getRegionCount(), "Previous and current bounds must be merged");
+        Assertions.assertEquals(78, tracker.getRegionX(0));
+        Assertions.assertEquals(18, tracker.getRegionY(0));
+        Assertions.assertEquals(16, tracker.getRegionWidth(0));
+        Assertions.assertEquals(15, tracker.getRegionHeight(0));
+        Assertions.assertTrue(tracker.intersects(entities.get(2), 0));
+        Assertions.assertFalse(tracker.intersects(entities.get(0), 0));
+        Assertions.assertFalse(tracker.isFullRedrawRequired());
+    }
+
+    @Test
+    public void testDirtyRegionTrackerDetectsRemovedAndChangedEntities() {
+        DirtyRegionTracker tracker = new DirtyRegionTracker(400, 240, 0.5);
+        List<GameObject> entities = TestUtils.createObjects(5, 5, 0.0, 20.0, 40.0, 0.0, 10.0, 10.0);
+        track(tracker, entities);
+
+        entities.remove(4);
+        entities.get(0).setFillColor(java.awt.Color.BLUE);
+        track(tracker, entities);
+        Assertions.assertEquals(2, tracker.getRegionCount());
+    }
+
+    @Test
+    public void testDirtyRegionTrackerRequiresFullRedrawOverThreshold() {
+        DirtyRegionTracker tracker = new DirtyRegionTracker(400, 240, 0.5);
+        List<GameObject> entities = TestUtils.createObjects(1, 1, 0.0, 20.0, 40.0, 0.0, 10.0, 10.0);
+        entities.get(0).setPosition(0, 0).setSize(300, 200);
+        track(tracker, entities);
+        Assertions.assertTrue(tracker.isFullRedrawRequired());
+    }
+
+    @Test
+    public void testDirtyRegionTrackerMergesTooManyRegions() {
+        DirtyRegionTracker tracker = new DirtyRegionTracker(4000, 240, 0.9);
+        int count = DirtyRegionTracker.MAX_REGIONS + 4;
+        List<GameObject> entities = TestUtils.createObjects(count, count, 0.0, 20.0, 40.0, 0.0, 10.0, 10.0);
+        track(tracker, entities);
+        Assertions.assertTrue(tracker.isOverflow());
+        Assertions.assertTrue(tracker.getRegionCount() <= DirtyRegionTracker.MAX_REGIONS);
+        for (Entity<?> e : entities) {
+            boolean covered = false;
+            for (int i = 0; i < tracker.getRegionCount(); i++) {
+                covered |= tracker.intersects(e, i);
+            }
+            Assertions.assertTrue(covered, "Entity " + e.getName() + " is not covered by any region");
+        }
+    }
+}
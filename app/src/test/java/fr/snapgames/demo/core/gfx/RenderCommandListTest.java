@@ -0,0 +1,172 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.entity.ObjectType;
+import fr.snapgames.demo.core.gfx.plugins.GameObjectDrawHelperPlugin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The RenderCommandList is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderCommandListTest {
+
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, Color.BLUE};
+
+    GameObjectDrawHelperPlugin plugin;
+    RenderCommandList commands;
+    List<GameObject> objects;
+
+    @BeforeEach
+    public void setup() {
+        plugin = new GameObjectDrawHelperPlugin();
+        commands = new RenderCommandList();
+        // 5 rows of 6 entities side by side, without any overlap.
+        objects = TestUtils.createObjects(30, 6, 1.5, 2.25, 20.0, 16.0, 12.0, 10.0);
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject go = objects.get(i);
+            go.setType(i % 2 == 0 ? ObjectType.RECTANGLE : ObjectType.ELLIPSE);
+            go.setFillColor(COLORS[i % 3])
+                    .setBorderColor(Color.WHITE)
+                    .setLayer(1)
+                    .setPriority(1);
+        }
+    }
+
+    @Test
+    public void testRenderCommandListMinimizesStateChanges() {
+        for (GameObject go : objects) {
+            commands.begin(go, 0, 0);
+            plugin.record(null, commands, go);
+        }
+        Assertions.assertEquals(60, commands.size());
+        commands.sort();
+        BufferedImage buffer = TestUtils.createImage(64, 64, Color.BLACK);
+        Graphics2D g = buffer.createGraphics();
+        commands.execute(null, g, null);
+        g.dispose();
+        // 3 fill colors, then the white border color (the default stroke being already set).
+        Assertions.assertEquals(4, commands.getStateChanges());
+        Assertions.assertEquals(60, commands.getDrawCalls());
+        Assertions.assertEquals(30 * 12 * 10, commands.getPixels());
+    }
+
+    @Test
+    public void testRenderCommandListKeepsEntityDrawingOrder() {
+        GameObject back = new GameObject("back");
+        back.setType(ObjectType.RECTANGLE);
+        back.setPosition(0.0, 0.0).setSize(32.0, 32.0).setFillColor(Color.RED).setLayer(1).setPriority(1);
+        GameObject front = new GameObject("front");
+        front.setType(ObjectType.RECTANGLE);
+        front.setPosition(8.0, 8.0).setSize(8.0, 8.0).setFillColor(Color.BLUE).setLayer(1).setPriority(2);
+
+        // recorded in the wrong order, the sort must restore the layer and priority order.
+        for (GameObject go : new GameObject[]{front, back}) {
+            commands.begin(go, 0, 0);
+            plugin.record(null, commands, go);
+        }
+        commands.sort();
+        BufferedImage buffer = TestUtils.createImage(64, 64, Color.BLACK);
+        Graphics2D g = buffer.createGraphics();
+        commands.execute(null, g, null);
+        g.dispose();
+        Assertions.assertEquals(Color.BLUE.getRGB(), buffer.getRGB(12, 12));
+        Assertions.assertEquals(Color.RED.getRGB(), buffer.getRGB(2, 2));
+    }
+
+    @Test
+    public void testRenderCommandListKeepsOverlappingEntitiesCommandsTogether() {
+        // the entities overlap their neighbours.
+        for (int i = 0; i < objects.size(); i++) {
+            objects.get(i).setPosition(7.0 * (i % 6) + 1.5, 9.0 * (i / 6) + 2.25);
+        }
+        objects.forEach(GameObject::updateBox);
+
+        BufferedImage expected = TestUtils.createImage(64, 64, Color.BLACK);
+        Graphics2D ge = expected.createGraphics();
+        objects.forEach(go -> plugin.draw(null, ge, go));
+        ge.dispose();
+
+        for (GameObject go : objects) {
+            commands.begin(go, 0, 0);
+            plugin.record(null, commands, go);
+        }
+        commands.sort();
+        BufferedImage actual = TestUtils.createImage(64, 64, Color.BLACK);
+        Graphics2D ga = actual.createGraphics();
+        commands.execute(null, ga, null);
+        ga.dispose();
+        // the fill of an entity covers the border of the entities drawn before it, in the same layer and priority.
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                Assertions.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    @Test
+    public void testRenderCommandListDrawsLikeThePlugin() {
+        GameObject go = new GameObject("single");
+        go.setType(ObjectType.ELLIPSE);
+        go.setPosition(10.3, 12.6).setSize(20.0, 14.0).setFillColor(Color.ORANGE).setBorderColor(Color.WHITE);
+        go.updateBox();
+
+        BufferedImage expected = TestUtils.createImage(64, 64, Color.BLACK);
+        Graphics2D ge = expected.createGraphics();
+        ge.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        ge.translate(-4.5, -2.0);
+        plugin.draw(null, ge, go);
+        ge.dispose();
+
+        commands.begin(go, -4.5, -2.0);
+        plugin.record(null, commands, go);
+        commands.sort();
+        BufferedImage actual = TestUtils.createImage(64, 64, Color.BLACK);
+        Graphics2D ga = actual.createGraphics();
+        ga.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        commands.execute(null, ga, null);
+        ga.dispose();
+
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                Assertions.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    @Test
+    public void testRenderCommandListFallsBackToPluginDraw() {
+        List<Entity<?>> drawn = new ArrayList<>();
+        GameObjectDrawHelperPlugin plugin = new GameObjectDrawHelperPlugin() {
+            @Override
+            public void draw(Renderer r, Graphics2D g, Entity<?> e) {
+                drawn.add(e);
+            }
+
+            @Override
+            public void record(Renderer r, RenderCommandList commands, Entity<?> e) {
+                commands.custom(this, e);
+            }
+        };
+        GameObject go = new GameObject("custom");
+        commands.begin(go, 0, 0);
+        plugin.record(null, commands, go);
+        commands.sort();
+        Graphics2D g = TestUtils.createImage(64, 64, Color.BLACK).createGraphics();
+        commands.execute(null, g, null);
+        g.dispose();
+        Assertions.assertEquals(1, drawn.size());
+        Assertions.assertSame(go, drawn.get(0));
+    }
+}
@@ -0,0 +1,80 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.core.gfx.plugins.GameObjectDrawHelperPlugin;
+import fr.snapgames.demo.core.gfx.plugins.GridObjectDrawHelperPlugin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The RenderStats and the RenderStatsSink are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RenderStatsTest {
+
+    RenderStats stats;
+
+    @BeforeEach
+    public void setup() {
+        // the statistics of one rendered frame.
+        stats = new RenderStats();
+        stats.reset();
+        stats.entitiesConsidered = 120;
+        stats.entitiesCulled = 20;
+        stats.entitiesDrawn = 100;
+        stats.drawCalls = 150;
+        stats.stateChanges = 12;
+        stats.drawTime = 2500000;
+        stats.presentTime = 500000;
+        stats.countPluginDraw(GameObjectDrawHelperPlugin.class);
+        stats.countPluginDraw(GameObjectDrawHelperPlugin.class);
+    }
+
+    @Test
+    public void testRenderStatsAreResetForEachFrame() {
+        Assertions.assertEquals(1, stats.getFrame());
+        Assertions.assertEquals(2, stats.getDrawCalls(GameObjectDrawHelperPlugin.class));
+        Assertions.assertEquals(0, stats.getDrawCalls(GridObjectDrawHelperPlugin.class));
+        String summary = stats.appendTo(new StringBuilder()).toString();
+        Assertions.assertTrue(summary.contains("e:100/120"), summary);
+        Assertions.assertTrue(summary.contains("drw:2.50ms"), summary);
+        Assertions.assertTrue(summary.contains("GameObjectDrawHelperPlugin:2"), summary);
+
+        stats.reset();
+        Assertions.assertEquals(2, stats.getFrame());
+        Assertions.assertEquals(0, stats.getEntitiesDrawn());
+        Assertions.assertEquals(0, stats.getDrawCalls(GameObjectDrawHelperPlugin.class));
+        // the presentation time is kept until the next presentation.
+        Assertions.assertEquals(500000, stats.getPresentTime());
+    }
+
+    @Test
+    public void testRenderStatsSinkWritesCsv() throws IOException {
+        Path csv = Files.createTempFile("game101-stats-", ".csv");
+        try {
+                try (RenderStatsSink sink = new RenderStatsSink(0, csv)) {
+                sink.publish(stats);
+                stats.reset();
+                sink.publish(stats);
+            }
+            List<String> lines = Files.readAllLines(csv);
+            Assertions.assertEquals(3, lines.size());
+            Assertions.assertEquals(RenderStats.CSV_HEADER, lines.get(0));
+            String[] values = lines.get(1).split(";");
+            Assertions.assertEquals(RenderStats.CSV_HEADER.split(";").length, values.length);
+            Assertions.assertEquals("1", values[0]);
+            Assertions.assertEquals("120", values[1]);
+            Assertions.assertEquals("2.500", values[13]);
+            Assertions.assertTrue(lines.get(2).startsWith("2;0;0;0;"));
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package fr.snapgames.demo.core.gfx;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.GridObject;
+import fr.snapgames.demo.core.gfx.plugins.GridObjectDrawHelperPlugin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The StaticLayerCache is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class StaticLayerCacheTest {
+
+    /**
+     * A {@link GridObjectDrawHelperPlugin} counting its draw calls.
+     */
+    private static class CountingGridPlugin extends GridObjectDrawHelperPlugin {
+        int count;
+
+        @Override
+        public void draw(Renderer r, Graphics2D g, Entity<?> e) {
+            count++;
+            super.draw(r, g, e);
+        }
+    }
+
+    StaticLayerCache cache;
+    CountingGridPlugin plugin;
+    GridObject grid;
+
+    @BeforeEach
+    public void setup() {
+        cache = new StaticLayerCache();
+        plugin = new CountingGridPlugin();
+        grid = new GridObject("grid");
+        grid.setStepSize(16.0, 16.0)
+                .setSize(100.0, 60.0)
+                .setBorderColor(Color.WHITE);
+    }
+
+    @Test
+    public void testStaticLayerCacheRendersOnlyOnce() {
+        BufferedImage buffer = new BufferedImage(120, 80, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = buffer.createGraphics();
+        for (int i = 0; i < 10; i++) {
+            cache.draw(null, g, grid, plugin);
+        }
+        g.dispose();
+        Assertions.assertEquals(1, plugin.count, "The static layer has been rendered more than once");
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testStaticLayerCacheIsInvalidatedOnChange() {
+        BufferedImage buffer = new BufferedImage(120, 80, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = buffer.createGraphics();
+        cache.draw(null, g, grid, plugin);
+        grid.setStepSize(8.0, 8.0);
+        cache.draw(null, g, grid, plugin);
+        grid.setBorderColor(Color.RED);
+        cache.draw(null, g, grid, plugin);
+        grid.setLineStroke(new float[]{2.0f, 2.0f});
+        cache.draw(null, g, grid, plugin);
+        g.dispose();
+        Assertions.assertEquals(4, plugin.count, "The static layer has not been invalidated");
+    }
+
+    @Test
+    public void testStaticLayerCacheDrawsSameAsPlugin() {
+
+        BufferedImage direct = new BufferedImage(120, 80, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g1 = direct.createGraphics();
+        plugin.draw(null, g1, grid);
+        g1.dispose();
+
+        BufferedImage cached = new BufferedImage(120, 80, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = cached.createGraphics();
+        cache.draw(null, g2, grid, plugin);
+        g2.dispose();
+
+        for (int y = 0; y < 80; y++) {
+            for (int x = 0; x < 120; x++) {
+                Assertions.assertEquals(direct.getRGB(x, y), cached.getRGB(x, y),
+                        "Pixel (" + x + "," + y + ") differs from direct rendering");
+            }
+        }
+    }
+
+    @Test
+    public void testStaticLayerCacheSplitsLargeLayersIntoTiles() {
+        grid.setSize(600.0, 300.0);
+
+        BufferedImage direct = new BufferedImage(620, 320, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g1 = direct.createGraphics();
+        plugin.draw(null, g1, grid);
+        g1.dispose();
+
+        BufferedImage cached = new BufferedImage(620, 320, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = cached.createGraphics();
+        cache.draw(null, g2, grid, plugin);
+        g2.dispose();
+
+        // 602x302 pixels (with the margins) are split into 3x2 tiles.
+        Assertions.assertEquals(6, cache.getTileCount());
+        for (int y = 0; y < 320; y++) {
+            for (int x = 0; x < 620; x++) {
+                Assertions.assertEquals(direct.getRGB(x, y), cached.getRGB(x, y),
+                        "Pixel (" + x + "," + y + ") differs from direct rendering");
+            }
+        }
+    }
+}
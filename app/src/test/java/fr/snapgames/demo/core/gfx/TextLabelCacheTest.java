@@ -0,0 +1,53 @@
+package fr.snapgames.demo.core.gfx;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The TextLabelCache is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class TextLabelCacheTest {
+
+    @Test
+    public void testTextLabelCacheRendersOnlyChangedText() {
+        TextLabelCache cache = new TextLabelCache();
+        BufferedImage buffer = new BufferedImage(200, 50, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = buffer.createGraphics();
+        Font font = g.getFont().deriveFont(10.0f);
+        TextLabelCache.Label label = cache.getLabels(this, 1)[0];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            sb.setLength(0);
+            sb.append("fps:").append(60);
+            cache.update(g, label, sb, font, Color.WHITE);
+            cache.draw(g, label, 0, 20);
+        }
+        Assertions.assertEquals(1, cache.getRenderedCount(), "Unchanged label has been rendered again");
+
+        sb.setLength(0);
+        sb.append("fps:").append(59);
+        cache.update(g, label, sb, font, Color.WHITE);
+        Assertions.assertEquals(2, cache.getRenderedCount(), "Changed label has not been rendered again");
+        cache.update(g, label, sb, font, Color.ORANGE);
+        Assertions.assertEquals(3, cache.getRenderedCount(), "Label has not been rendered with its new color");
+        g.dispose();
+    }
+
+    @Test
+    public void testTextLabelCacheKeepsLabelsPerOwner() {
+        TextLabelCache cache = new TextLabelCache();
+        Object owner = new Object();
+        TextLabelCache.Label[] labels = cache.getLabels(owner, 3);
+        Assertions.assertEquals(3, labels.length);
+        Assertions.assertSame(labels, cache.getLabels(owner, 2));
+        TextLabelCache.Label[] more = cache.getLabels(owner, 5);
+        Assertions.assertEquals(5, more.length);
+        Assertions.assertSame(labels[0], more[0]);
+    }
+}
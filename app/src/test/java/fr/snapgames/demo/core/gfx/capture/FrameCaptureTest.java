@@ -0,0 +1,82 @@
+package fr.snapgames.demo.core.gfx.capture;
+
+import fr.snapgames.demo.TestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * {@link FrameCapture} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ **/
+public class FrameCaptureTest {
+
+    private static void delete(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testFrameCaptureWritesRawRGBAStream() throws IOException {
+        Path file = Files.createTempFile("game101-capture-", ".rgba");
+        try {
+            try (FrameCapture capture = new FrameCapture(4, 2, file, FrameCapture.Format.RAW, 4)) {
+                Assertions.assertTrue(capture.capture(TestUtils.createImage(4, 2, new Color(0xff102030, true))));
+                Assertions.assertTrue(capture.capture(TestUtils.createImage(4, 2, new Color(0x80405060, true))));
+            }
+            byte[] data = Files.readAllBytes(file);
+            Assertions.assertEquals(2 * 4 * 2 * 4, data.length);
+            ByteBuffer rgba = ByteBuffer.wrap(data);
+            Assertions.assertEquals(0x102030ff, rgba.getInt(0));
+            Assertions.assertEquals(0x40506080, rgba.getInt(32));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFrameCaptureWritesPngSequence() throws IOException {
+        Path dir = Files.createTempDirectory("game101-capture-");
+        try {
+            FrameCapture capture = new FrameCapture(4, 2, dir, FrameCapture.Format.PNG, 2);
+            capture.capture(TestUtils.createImage(4, 2, new Color(0xff00ff00, true)));
+            capture.close();
+            Assertions.assertEquals(1, capture.getWrittenCount());
+            BufferedImage png = ImageIO.read(dir.resolve("frame-000000.png").toFile());
+            Assertions.assertEquals(4, png.getWidth());
+            Assertions.assertEquals(0xff00ff00, png.getRGB(3, 1));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void testFrameCaptureDropsFramesWithoutBlocking() throws IOException {
+        Path dir = Files.createTempDirectory("game101-capture-");
+        try {
+            FrameCapture capture = new FrameCapture(4, 2, dir, FrameCapture.Format.PNG, 1);
+            BufferedImage frame = TestUtils.createImage(4, 2, new Color(0xffffffff, true));
+            for (int i = 0; i < 50; i++) {
+                capture.capture(frame);
+            }
+            capture.close();
+            Assertions.assertEquals(50, capture.getCapturedCount() + capture.getDroppedCount());
+            Assertions.assertEquals(capture.getCapturedCount(), capture.getWrittenCount());
+            Assertions.assertFalse(capture.capture(frame), "a closed capture must not accept any frame");
+        } finally {
+            delete(dir);
+        }
+    }
+}
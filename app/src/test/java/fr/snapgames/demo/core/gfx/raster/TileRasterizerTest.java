@@ -0,0 +1,139 @@
+package fr.snapgames.demo.core.gfx.raster;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.entity.ObjectType;
+import fr.snapgames.demo.core.gfx.RenderCommandList;
+import fr.snapgames.demo.core.gfx.plugins.GameObjectDrawHelperPlugin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * The TileRasterizer is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class TileRasterizerTest {
+
+    List<GameObject> objects;
+
+    @BeforeEach
+    public void setup() {
+        // 10 rows of 10 objects, not aligned on the pixels.
+        objects = TestUtils.createObjects(100, 10, 2.25, 1.5, 19.0, 14.0, 12.5, 12.5);
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject go = objects.get(i);
+            go.setType(i % 2 == 0 ? ObjectType.ELLIPSE : ObjectType.RECTANGLE);
+            go.setFillColor(new Color((i * 50) % 255, 128, 255 - (i * 20) % 255))
+                    .setBorderColor(Color.WHITE);
+            go.updateBox();
+        }
+    }
+
+    /**
+     * Draw the objects through the rendering path: their commands are recorded, then executed with the rasterizer.
+     */
+    private RenderCommandList draw(BufferedImage buffer, TileRasterizer rasterizer, List<GameObject> objects,
+                                   double offsetX, double offsetY) {
+        RenderCommandList commands = new RenderCommandList();
+        GameObjectDrawHelperPlugin plugin = new GameObjectDrawHelperPlugin();
+        for (GameObject go : objects) {
+            commands.begin(go, offsetX, offsetY);
+            plugin.record(null, commands, go);
+        }
+        commands.sort();
+        Graphics2D g = buffer.createGraphics();
+        commands.execute(null, g, rasterizer);
+        g.dispose();
+        return commands;
+    }
+
+    @Test
+    public void testTileRasterizerLeavesTranslucentImagesToJava2D() {
+        GameObject image = new GameObject("image");
+        image.setImage(new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB));
+        BufferedImage buffer = TestUtils.createImage(200, 150, Color.BLACK);
+        Assertions.assertEquals(0, draw(buffer, new TileRasterizer(buffer), List.of(image), 0, 0).getRasterized(),
+                "Translucent images must use the Graphics2D path");
+        image.setImage(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+        Assertions.assertEquals(1, draw(buffer, new TileRasterizer(buffer), List.of(image), 0, 0).getRasterized());
+    }
+
+    @Test
+    public void testTileRasterizerIsCloseToJava2D() {
+
+        BufferedImage expected = TestUtils.createImage(200, 150, Color.BLACK);
+        Graphics2D g = expected.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        GameObjectDrawHelperPlugin plugin = new GameObjectDrawHelperPlugin();
+        objects.forEach(go -> plugin.draw(null, g, go));
+        g.dispose();
+
+        BufferedImage raster = TestUtils.createImage(200, 150, Color.BLACK);
+        TileRasterizer rasterizer = new TileRasterizer(raster);
+        RenderCommandList commands = draw(raster, rasterizer, objects, 0, 0);
+        Assertions.assertEquals(200, commands.getRasterized());
+        Assertions.assertEquals(0, rasterizer.getBatchSize());
+
+        double diff = TestUtils.compareImage(expected, raster);
+        Assertions.assertTrue(diff < 2.0, "Raster rendering differs too much from Java2D: " + diff + "%");
+    }
+
+    @Test
+    public void testTileRasterizerParallelIsSameAsSequential() {
+        BufferedImage parallel = TestUtils.createImage(200, 150, Color.BLACK);
+        TileRasterizer rasterizer = new TileRasterizer(parallel);
+        for (GameObject go : objects) {
+            add(rasterizer, go);
+        }
+        Assertions.assertEquals(100, rasterizer.getBatchSize());
+        rasterizer.flush();
+        Assertions.assertEquals(0, rasterizer.getBatchSize());
+
+        BufferedImage sequential = TestUtils.createImage(200, 150, Color.BLACK);
+        TileRasterizer rasterizer2 = new TileRasterizer(sequential);
+        for (GameObject go : objects) {
+            // less than PARALLEL_THRESHOLD primitives per flush.
+            add(rasterizer2, go);
+            rasterizer2.flush();
+        }
+        Assertions.assertEquals(0.0, TestUtils.compareImage(parallel, sequential));
+    }
+
+    private static void add(TileRasterizer rasterizer, GameObject go) {
+        double x1 = go.position.x + go.size.x;
+        double y1 = go.position.y + go.size.y;
+        if (go.type == ObjectType.ELLIPSE) {
+            rasterizer.addEllipse(go.position.x, go.position.y, x1, y1, go.fillColor, go.borderColor);
+        } else {
+            rasterizer.addRect(go.position.x, go.position.y, x1, y1, go.fillColor, go.borderColor);
+        }
+    }
+
+    @Test
+    public void testTileRasterizerDrawsOpaqueImages() {
+        BufferedImage img = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        img.setRGB(0, 0, 0xff0000);
+        img.setRGB(3, 1, 0x00ff00);
+        GameObject go = new GameObject("image");
+        go.setImage(img);
+        go.setPosition(10, 20);
+
+        BufferedImage buffer = TestUtils.createImage(200, 150, Color.BLACK);
+        TileRasterizer rasterizer = new TileRasterizer(buffer);
+        Assertions.assertEquals(1, draw(buffer, rasterizer, List.of(go), -5, 0).getRasterized());
+        Assertions.assertEquals(0xffff0000, buffer.getRGB(5, 20));
+        Assertions.assertEquals(0xff00ff00, buffer.getRGB(8, 21));
+
+        go.setDirection(-1);
+        Assertions.assertEquals(1, draw(buffer, rasterizer, List.of(go), 0, 0).getRasterized());
+        Assertions.assertEquals(0xffff0000, buffer.getRGB(13, 20));
+        Assertions.assertEquals(0xff00ff00, buffer.getRGB(10, 21));
+    }
+}
@@ -0,0 +1,125 @@
+package fr.snapgames.demo.core.io;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * The {@link AssetPackBuilder} and {@link AssetPack} are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class AssetPackTest {
+
+    private void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        Assertions.assertEquals(expected.getWidth(), actual.getWidth());
+        Assertions.assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assertions.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testAssetPackRestoresThePixels() throws IOException {
+        BufferedImage sprite = new BufferedImage(5, 3, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage opaque = new BufferedImage(7, 2, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 15; i++) {
+            sprite.setRGB(i % 5, i / 5, (i * 17) << 24 | i * 0x010203);
+        }
+        opaque.setRGB(6, 1, 0x123456);
+        Path file = Files.createTempFile("assets", ".pack");
+        try {
+            long size = new AssetPackBuilder().add("/sprite", sprite).add("/opaque", opaque).write(file);
+            Assertions.assertEquals(3 * AssetPack.PAGE_SIZE, size);
+            Assertions.assertEquals(size, Files.size(file));
+            try (AssetPack pack = AssetPack.open(file)) {
+                Assertions.assertTrue(pack.contains("/sprite"));
+                Assertions.assertFalse(pack.contains("/unknown"));
+                Assertions.assertNull(pack.getImage("/unknown"));
+                assertSamePixels(sprite, pack.getImage("/sprite"));
+                BufferedImage restored = pack.getImage("/opaque");
+                Assertions.assertEquals(BufferedImage.TYPE_INT_RGB, restored.getType());
+                assertSamePixels(opaque, restored);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testAssetPackContainsTheResourceImages() throws IOException {
+        Path file = Files.createTempFile("assets", ".pack");
+        try {
+            new AssetPackBuilder().addDirectory(Path.of("src/main/resources")).write(file);
+            try (AssetPack pack = AssetPack.open(file)) {
+                Assertions.assertTrue(pack.contains("/images/sprites01.png"));
+                Assertions.assertTrue(pack.contains("/images/backgrounds/forest.jpg"));
+                BufferedImage expected = ImageIO.read(getClass().getResourceAsStream("/images/sprites01.png"));
+                assertSamePixels(expected, pack.getImage("/images/sprites01.png"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testAssetPackRejectsUnknownFile() throws IOException {
+        Path file = Files.createTempFile("assets", ".pack");
+        try {
+            Files.write(file, new byte[64]);
+            Assertions.assertThrows(IOException.class, () -> AssetPack.open(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testAssetPackBuilderRejectsOversizeImages() throws IOException {
+        BufferedImage huge = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB) {
+            @Override
+            public int getWidth() {
+                return 30000;
+            }
+
+            @Override
+            public int getHeight() {
+                return 30000;
+            }
+        };
+        Path file = Files.createTempFile("assets", ".pack");
+        try {
+            IOException e = Assertions.assertThrows(IOException.class,
+                    () -> new AssetPackBuilder().add("/huge", huge).write(file));
+            Assertions.assertTrue(e.getMessage().contains("/huge"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testAssetPackReportsStaleImages() throws IOException {
+        Path file = Files.createTempFile("assets", ".pack");
+        try {
+            new AssetPackBuilder().addDirectory(Path.of("src/main/resources")).write(file);
+            try (AssetPack pack = AssetPack.open(file)) {
+                Assertions.assertTrue(pack.getStaleNames().isEmpty());
+            }
+            // a pack written before the resources.
+            Files.setLastModifiedTime(file, FileTime.fromMillis(0L));
+            try (AssetPack pack = AssetPack.open(file)) {
+                Assertions.assertTrue(pack.getStaleNames().contains("/images/sprites01.png"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fr.snapgames.demo.core.io;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link InputEventQueue} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ **/
+public class InputEventQueueTest {
+
+    @Test
+    public void testQueueCapacityIsRoundedToPowerOfTwo() {
+        InputEventQueue queue = new InputEventQueue(100);
+        Assertions.assertEquals(128, queue.getCapacity());
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testQueueDrainsEventsInArrivalOrder() {
+        InputEventQueue queue = new InputEventQueue(8);
+        queue.offer(InputEventQueue.KEY_PRESSED, 65, 0, 0, 0, 10L, null);
+        queue.offer(InputEventQueue.MOUSE_MOVED, 0, 12, 24, 0, 11L, null);
+        queue.offer(InputEventQueue.KEY_RELEASED, 65, 0, 0, 0, 12L, null);
+        Assertions.assertEquals(3, queue.size());
+
+        List<String> drained = new ArrayList<>();
+        int count = queue.drain((type, code, x, y, mods, time, source) ->
+                drained.add(type + ":" + code + ":" + x + ":" + y + ":" + time));
+
+        Assertions.assertEquals(3, count);
+        Assertions.assertEquals(List.of("1:65:0:0:10", "6:0:12:24:11", "2:65:0:0:12"), drained);
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testQueueDropsEventsWhenFull() {
+        InputEventQueue queue = new InputEventQueue(4);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(InputEventQueue.KEY_PRESSED, i, 0, 0, 0, i, null);
+        }
+        Assertions.assertEquals(4, queue.size());
+        Assertions.assertEquals(2, queue.getDroppedCount());
+        List<Integer> codes = new ArrayList<>();
+        queue.drain((type, code, x, y, mods, time, source) -> codes.add(code));
+        Assertions.assertEquals(List.of(0, 1, 2, 3), codes);
+    }
+
+    @Test
+    public void testQueueTransfersEventsBetweenTwoThreads() throws InterruptedException {
+        InputEventQueue queue = new InputEventQueue(64);
+        int nbEvents = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < nbEvents; i++) {
+                while (!queue.offer(InputEventQueue.MOUSE_MOVED, 0, i, -i, 0, i, null)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        producer.start();
+        long[] received = new long[]{0, 0};
+        while (received[0] < nbEvents) {
+            queue.drain((type, code, x, y, mods, time, source) -> {
+                if (x != received[0] || y != -x || time != x) {
+                    received[1]++;
+                }
+                received[0]++;
+            });
+        }
+        producer.join();
+        Assertions.assertEquals(nbEvents, received[0]);
+        Assertions.assertEquals(0, received[1], "some events have been received out of order or corrupted");
+    }
+}
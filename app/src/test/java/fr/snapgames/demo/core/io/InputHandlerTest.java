@@ -0,0 +1,42 @@
+package fr.snapgames.demo.core.io;
+
+import fr.snapgames.demo.core.entity.Camera;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The {@link InputHandler} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class InputHandlerTest {
+
+    @Test
+    public void testInputHandlerPicksTheTopEntityUnderTheMouse() {
+        EntityManager entities = new EntityManager();
+        entities.setIndexBounds(new Rectangle2D.Double(0.0, 0.0, 640.0, 400.0));
+        entities.add(new GameObject("back").setPosition(0.0, 0.0).setSize(200.0, 200.0).setLayer(1));
+        entities.add(new GameObject("front").setPosition(100.0, 100.0).setSize(50.0, 50.0).setLayer(2));
+        entities.add(new GameObject("hud").setPosition(0.0, 0.0).setSize(640.0, 400.0).setLayer(5)
+                .setStickToCamera(true));
+        InputHandler input = new InputHandler();
+
+        // the window is twice the size of the rendering buffer.
+        input.getQueue().offer(InputEventQueue.MOUSE_MOVED, 0, 240, 240, 0, 0L, null);
+        input.update(16.0);
+        Assertions.assertEquals("front", input.pick(entities.getSpatialIndex(), null, 0.5, 0.5).getName());
+        input.getQueue().offer(InputEventQueue.MOUSE_MOVED, 0, 100, 100, 0, 0L, null);
+        input.update(16.0);
+        Assertions.assertEquals("back", input.pick(entities.getSpatialIndex(), null, 0.5, 0.5).getName());
+
+        // the camera moves the picked position.
+        Camera camera = new Camera("cam");
+        camera.setPosition(300.0, 300.0);
+        Assertions.assertNull(input.pick(entities.getSpatialIndex(), camera, 0.5, 0.5));
+    }
+}
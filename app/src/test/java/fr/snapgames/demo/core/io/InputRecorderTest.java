@@ -0,0 +1,118 @@
+package fr.snapgames.demo.core.io;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link InputRecorder} and {@link InputReplayer} are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ **/
+public class InputRecorderTest {
+
+    @Test
+    public void testRecordedFramesAreReplayedIdentically() throws IOException {
+        Path log = Files.createTempFile("game101-input-", ".log");
+        try {
+            try (InputRecorder recorder = new InputRecorder(log, 1234L)) {
+                recorder.beginFrame(16.5);
+                recorder.event(InputEventQueue.KEY_PRESSED, KeyEvent.VK_LEFT, 0, 0, 0, KeyEvent.CHAR_UNDEFINED);
+                recorder.event(InputEventQueue.MOUSE_MOVED, 0, 100, 50, 0, KeyEvent.CHAR_UNDEFINED);
+                recorder.endFrame();
+                recorder.beginFrame(17.25);
+                recorder.endFrame();
+                Assertions.assertEquals(2, recorder.getFrameCount());
+            }
+
+            try (InputReplayer replayer = new InputReplayer(log)) {
+                Assertions.assertEquals(1234L, replayer.getSeed());
+                List<String> events = new ArrayList<>();
+                InputEventQueue.Consumer consumer = (type, code, x, y, mods, time, source) ->
+                        events.add(type + ":" + code + ":" + x + ":" + y + ":" + (source instanceof KeyEvent));
+
+                Assertions.assertEquals(16.5, replayer.nextFrame(consumer));
+                Assertions.assertEquals(List.of("1:" + KeyEvent.VK_LEFT + ":0:0:true", "6:0:100:50:false"), events);
+
+                events.clear();
+                Assertions.assertEquals(17.25, replayer.nextFrame(consumer));
+                Assertions.assertTrue(events.isEmpty());
+                Assertions.assertFalse(replayer.isOver());
+
+                Assertions.assertTrue(Double.isNaN(replayer.nextFrame(consumer)));
+                Assertions.assertTrue(replayer.isOver());
+                Assertions.assertEquals(2, replayer.getFrameCount());
+            }
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    @Test
+    public void testReplayerRejectsUnknownFile() throws IOException {
+        Path log = Files.createTempFile("game101-input-", ".log");
+        try {
+            Files.write(log, new byte[]{1, 2, 3, 4, 5, 6});
+            Assertions.assertThrows(IOException.class, () -> new InputReplayer(log));
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    @Test
+    public void testReplayerReportsCorruptedFrames() throws IOException {
+        Path log = Files.createTempFile("game101-input-", ".log");
+        try {
+            try (InputRecorder recorder = new InputRecorder(log, 1234L)) {
+                recorder.beginFrame(16.5);
+                recorder.endFrame();
+                recorder.beginFrame(16.5);
+                recorder.event(42, 0, 0, 0, 0, KeyEvent.CHAR_UNDEFINED);
+                recorder.endFrame();
+            }
+            try (InputReplayer replayer = new InputReplayer(log)) {
+                InputEventQueue.Consumer consumer = (type, code, x, y, mods, time, source) -> {
+                };
+                Assertions.assertEquals(16.5, replayer.nextFrame(consumer));
+                Assertions.assertThrows(IOException.class, () -> replayer.nextFrame(consumer));
+                Assertions.assertTrue(replayer.isOver());
+            }
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    @Test
+    public void testInputHandlerGoesBackToLiveInputOnATruncatedLog() throws IOException {
+        Path log = Files.createTempFile("game101-input-", ".log");
+        try {
+            try (InputRecorder recorder = new InputRecorder(log, 1234L)) {
+                recorder.beginFrame(10.0);
+                recorder.endFrame();
+                recorder.beginFrame(10.0);
+                recorder.event(InputEventQueue.KEY_PRESSED, KeyEvent.VK_LEFT, 0, 0, 0, KeyEvent.CHAR_UNDEFINED);
+                recorder.endFrame();
+            }
+            // cut the last event in the middle.
+            byte[] data = Files.readAllBytes(log);
+            Files.write(log, Arrays.copyOf(data, data.length - 4));
+
+            InputHandler input = new InputHandler();
+            Assertions.assertTrue(input.startReplay(log));
+            Assertions.assertEquals(10.0, input.update(16.0));
+            Assertions.assertEquals(16.0, input.update(16.0));
+            Assertions.assertFalse(input.isReplaying());
+            Assertions.assertEquals(16.0, input.update(16.0));
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+}
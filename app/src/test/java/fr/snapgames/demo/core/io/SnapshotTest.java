@@ -0,0 +1,206 @@
+package fr.snapgames.demo.core.io;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.Integrator;
+import fr.snapgames.demo.core.physic.Material;
+import fr.snapgames.demo.core.physic.PhysicType;
+import fr.snapgames.demo.core.physic.World;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@link SnapshotWriter} and {@link SnapshotReader} are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SnapshotTest {
+
+    private final BufferedImage image = new BufferedImage(16, 8, BufferedImage.TYPE_INT_ARGB);
+
+    World world;
+    // the saved entities, and the same entities kept untouched for comparison.
+    EntityManager em;
+    EntityManager expected;
+
+    @BeforeEach
+    public void setup() {
+        world = new World()
+                .setGravity(new Vector2D(0.0, 4.5))
+                .setMaterial(new Material("water", 0.2, 1.5, 0.8))
+                .setIntegrator(Integrator.VELOCITY_VERLET);
+        em = new EntityManager();
+        expected = new EntityManager();
+        for (EntityManager entities : new EntityManager[]{em, expected}) {
+            entities.add(new GameObject("player")
+                    .setImage("player", image)
+                    .setPosition(10.0, 20.0)
+                    .setSpeed(1.5, -2.5)
+                    .setMass(80.0)
+                    .setMaterial(Material.STEEL)
+                    .setLayer(10)
+                    .setPriority(3)
+                    .addForce(new Vector2D(5.0, 0.0)));
+            Entity<?> ball = TestUtils.createBall(30.0, 40.0, 8.0, 1.0, new Material("jelly", 0.5, 0.7, 0.9))
+                    .setIntegrator(Integrator.POSITION_VERLET)
+                    .setFillColor(new Color(10, 20, 30, 40));
+            ball.oldPosition = new Vector2D(29.0, 39.0);
+            ball.contact = 2;
+            entities.add(ball);
+            entities.add(new Entity<>("wall")
+                    .setPhysicType(PhysicType.STATIC)
+                    .setSize(100.0, 4.0)
+                    .setStickToCamera(true));
+        }
+    }
+
+    private void assertSameEntity(Entity<?> expected, Entity<?> actual) {
+        Assertions.assertEquals(expected.getClass(), actual.getClass());
+        Assertions.assertEquals(expected.id, actual.id);
+        Assertions.assertEquals(expected.position, actual.position);
+        Assertions.assertEquals(expected.size, actual.size);
+        Assertions.assertEquals(expected.velocity, actual.velocity);
+        Assertions.assertEquals(expected.mass, actual.mass);
+        Assertions.assertEquals(expected.oldPosition, actual.oldPosition);
+        Assertions.assertEquals(expected.material, actual.material);
+        Assertions.assertEquals(expected.integrator, actual.integrator);
+        Assertions.assertEquals(expected.physicType, actual.physicType);
+        Assertions.assertEquals(expected.contact, actual.contact);
+        Assertions.assertEquals(expected.getLayer(), actual.getLayer());
+        Assertions.assertEquals(expected.getPriority(), actual.getPriority());
+        Assertions.assertEquals(expected.isNotStickToCamera(), actual.isNotStickToCamera());
+        Assertions.assertEquals(expected.fillColor, actual.fillColor);
+        Assertions.assertEquals(expected.forces, actual.forces);
+        if (expected instanceof GameObject) {
+            Assertions.assertEquals(((GameObject) expected).type, ((GameObject) actual).type);
+            Assertions.assertEquals(((GameObject) expected).imageKey, ((GameObject) actual).imageKey);
+        }
+    }
+
+    @Test
+    public void testSnapshotRewindsEntitiesInPlace() throws IOException {
+        ByteBuffer snapshot = new SnapshotWriter(256).write(world, em);
+
+        Entity<?> player = em.get("player");
+        player.position.x = 200.0;
+        player.forces.clear();
+        em.remove(em.get("ball"));
+        em.add(new GameObject("extra"));
+        world.setGravity(new Vector2D(0.0, -1.0));
+        world.setIntegrator(Integrator.LEGACY);
+
+        Assertions.assertEquals(3, new SnapshotReader().read(snapshot, world, em));
+        Assertions.assertSame(player, em.get("player"));
+        Assertions.assertNull(em.get("extra"));
+        Assertions.assertEquals(3, em.getEntities().size());
+        for (Entity<?> e : expected.getEntities()) {
+            assertSameEntity(e, em.get(e.name));
+        }
+        Assertions.assertEquals(new Vector2D(0.0, 4.5), world.gravity);
+        Assertions.assertEquals(Integrator.VELOCITY_VERLET, world.integrator);
+        Assertions.assertEquals(new Material("water", 0.2, 1.5, 0.8), world.material);
+        // the snapshot can be restored again.
+        Assertions.assertEquals(3, new SnapshotReader().read(snapshot, world, em));
+    }
+
+    @Test
+    public void testSnapshotFileRestoresANewWorld() throws IOException {
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            new SnapshotWriter().save(file, world, em);
+            World restoredWorld = new World();
+            EntityManager restored = new EntityManager();
+            new SnapshotReader(key -> "player".equals(key) ? image : null).load(file, restoredWorld, restored);
+            for (Entity<?> e : expected.getEntities()) {
+                assertSameEntity(e, restored.get(e.name));
+            }
+            Assertions.assertSame(image, ((GameObject) restored.get("player")).image);
+            Assertions.assertSame(Material.STEEL, restored.get("player").material);
+            // the ids given by the manager follow the restored ones.
+            Assertions.assertEquals(4, restored.register(new Entity<>()).id);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshotReaderRejectsUnknownData() {
+        ByteBuffer unknown = ByteBuffer.allocate(32);
+        Assertions.assertThrows(IOException.class,
+                () -> new SnapshotReader().read(unknown, new World(), new EntityManager()));
+    }
+
+    @Test
+    public void testSnapshotReaderRejectsTruncatedSnapshotWithoutRestoringIt() throws IOException {
+        ByteBuffer snapshot = new SnapshotWriter(256).write(world, em);
+        ByteBuffer truncated = snapshot.duplicate();
+        truncated.limit(truncated.limit() - 12);
+        World restoredWorld = new World();
+        EntityManager restored = new EntityManager();
+        Entity<?> extra = new GameObject("extra").setPosition(50.0, 60.0);
+        restored.add(extra);
+
+        Assertions.assertThrows(IOException.class,
+                () -> new SnapshotReader().read(truncated, restoredWorld, restored));
+        // nothing has been restored.
+        Assertions.assertEquals(1, restored.getEntities().size());
+        Assertions.assertSame(extra, restored.get("extra"));
+        Assertions.assertEquals(new Vector2D(50.0, 60.0), extra.position);
+        Assertions.assertEquals(new World().gravity, restoredWorld.gravity);
+        Assertions.assertEquals(Integrator.LEGACY, restoredWorld.integrator);
+        // the complete snapshot can still be restored.
+        Assertions.assertEquals(3, new SnapshotReader().read(snapshot, restoredWorld, restored));
+        Assertions.assertNull(restored.get("extra"));
+    }
+
+    @Test
+    public void testSnapshotKeepsLongNamesAndManyForces() throws IOException {
+        String name = "n".repeat(40000);
+        Entity<?> big = new GameObject(name);
+        for (int i = 0; i < 40000; i++) {
+            big.addForce(new Vector2D(i, -i));
+        }
+        em.add(big);
+        ByteBuffer snapshot = new SnapshotWriter(256).write(world, em);
+        em.remove(big);
+
+        Assertions.assertEquals(4, new SnapshotReader().read(snapshot, world, em));
+        Assertions.assertEquals(40000, em.get(name).forces.size());
+        Assertions.assertEquals(new Vector2D(39999, -39999), em.get(name).forces.get(39999));
+    }
+
+    @Test
+    public void testSnapshotReportsAStaticEntityBecomingDynamic() throws IOException {
+        em.get("wall").setPhysicType(PhysicType.DYNAMIC);
+        Entity<?> player = em.get("player");
+        player.setPhysicType(PhysicType.STATIC);
+        em.invalidateStatic();
+        ByteBuffer snapshot = new SnapshotWriter(256).write(world, em);
+
+        // a dynamic entity restored as static, then a static one restored as dynamic: both change the static entities.
+        player.setPhysicType(PhysicType.DYNAMIC);
+        int version = em.getStaticVersion();
+        new SnapshotReader().read(snapshot, world, em);
+        Assertions.assertNotEquals(version, em.getStaticVersion());
+        Assertions.assertEquals(PhysicType.STATIC, player.physicType);
+
+        expected.get("wall").setPhysicType(PhysicType.DYNAMIC);
+        snapshot = new SnapshotWriter(256).write(world, expected);
+        version = em.getStaticVersion();
+        new SnapshotReader().read(snapshot, world, em);
+        Assertions.assertEquals(PhysicType.DYNAMIC, player.physicType);
+        Assertions.assertNotEquals(version, em.getStaticVersion());
+    }
+}
@@ -0,0 +1,92 @@
+package fr.snapgames.demo.core.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link Rng} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ **/
+public class RngTest {
+
+    @Test
+    public void testSameSeedGivesSameSequence() {
+        Rng rng1 = new Rng(42L);
+        Rng rng2 = new Rng(42L);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(rng1.nextDouble(), rng2.nextDouble());
+        }
+    }
+
+    @Test
+    public void testSubsystemsAreReproducibleAndIndependent() {
+        Rng root1 = new Rng(42L);
+        Rng root2 = new Rng(42L);
+        // consuming the root stream must not change the subsystems streams.
+        root2.nextLong();
+        Assertions.assertSame(root1.forSubsystem("physic"), root1.forSubsystem("physic"));
+        Assertions.assertEquals(root1.forSubsystem("physic").nextLong(), root2.forSubsystem("physic").nextLong());
+        Assertions.assertNotEquals(root1.forSubsystem("scene").getSeed(), root1.forSubsystem("physic").getSeed());
+        Assertions.assertEquals(root1.stream(3).nextLong(), root2.stream(3).nextLong());
+    }
+
+    @Test
+    public void testForThreadReturnsOneInstancePerThread() throws InterruptedException {
+        Rng root = new Rng(42L);
+        Rng[] other = new Rng[1];
+        Thread t = new Thread(() -> other[0] = root.forThread());
+        t.start();
+        t.join();
+        Assertions.assertSame(root.forThread(), root.forThread());
+        Assertions.assertNotSame(root.forThread(), other[0]);
+    }
+
+    @Test
+    public void testThreadStreamsAreReproducibleFromTheSeed() throws InterruptedException {
+        Rng root1 = new Rng(42L);
+        Rng root2 = new Rng(42L);
+        // the thread streams do not depend on their request order.
+        long third = root1.forThread(2).nextLong();
+        Assertions.assertEquals(root2.forThread(0).nextLong(), root1.forThread(0).nextLong());
+        Assertions.assertEquals(third, root2.forThread(2).nextLong());
+        // nor on the thread running the game.
+        long[] values = new long[2];
+        Thread t1 = new Thread(() -> values[0] = new Rng(42L).forThread().nextLong());
+        t1.start();
+        t1.join();
+        Thread t2 = new Thread(() -> values[1] = new Rng(42L).forThread().nextLong());
+        t2.start();
+        t2.join();
+        Assertions.assertEquals(values[0], values[1]);
+    }
+
+    @Test
+    public void testNextDoubleRejectsInvalidBounds() {
+        Rng rng = new Rng(7L);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rng.nextDouble(0.0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rng.nextDouble(-1.0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rng.nextDouble(2.0, 1.0));
+        double value = rng.nextDouble(3.0);
+        Assertions.assertTrue(value >= 0.0 && value < 3.0);
+    }
+
+    @Test
+    public void testBulkPositionsAndColorsStayInRange() {
+        Rng rng = new Rng(7L);
+        double[] xs = new double[1000];
+        double[] ys = new double[1000];
+        rng.positions(xs, ys, 1000, 10.0, 20.0, 100.0, 50.0);
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(xs[i] >= 10.0 && xs[i] < 110.0, "x out of range: " + xs[i]);
+            Assertions.assertTrue(ys[i] >= 20.0 && ys[i] < 70.0, "y out of range: " + ys[i]);
+        }
+        int[] colors = new int[1000];
+        rng.colors(colors, 1000, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f, 1.0f);
+        for (int c : colors) {
+            Assertions.assertEquals(0xFF, (c >>> 24) & 0xFF, "alpha must be opaque");
+            Assertions.assertEquals(0, (c >> 8) & 0xFF, "green must be 0");
+        }
+    }
+}
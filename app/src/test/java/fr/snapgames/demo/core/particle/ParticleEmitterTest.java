@@ -0,0 +1,100 @@
+package fr.snapgames.demo.core.particle;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.gfx.plugins.ParticleEmitterDrawHelperPlugin;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.physic.PhysicEngine;
+import fr.snapgames.demo.core.physic.World;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The ParticleEmitter and its ParticleEmitterDrawHelperPlugin are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class ParticleEmitterTest {
+
+    @Test
+    public void testParticleEmitterEmitsAtRateUpToCapacity() {
+        ParticleEmitter pe = TestUtils.createEmitter(100, 100.0, 100.0, Color.YELLOW).setRate(50);
+        pe.update(0.1, new Vector2D(0, 0));
+        Assertions.assertEquals(5, pe.getCount());
+        pe.update(0.1, new Vector2D(0, 0));
+        Assertions.assertEquals(10, pe.getCount());
+        pe.emit(500);
+        Assertions.assertEquals(100, pe.getCapacity());
+        Assertions.assertEquals(100, pe.getCount());
+    }
+
+    @Test
+    public void testParticleEmitterAppliesGravityAndRemovesDeadParticles() {
+        ParticleEmitter pe = TestUtils.createEmitter(10, 100.0, 100.0, Color.YELLOW)
+                .setSpeed(0, 0).setGravityScale(2.0).emit(10);
+        pe.update(0.5, new Vector2D(0, 10));
+        Assertions.assertEquals(10, pe.getCount());
+        // v = 2 * 10 * 0.5 = 10, y = 100 + 10 * 0.5 = 105
+        Assertions.assertEquals(10.0, pe.getVelocitiesY()[0], 1e-4);
+        Assertions.assertEquals(105.0, pe.getYs()[0], 1e-4);
+        // the emitter bounds follow its particles.
+        Assertions.assertEquals(105.0, pe.position.y, 1e-4);
+        pe.update(0.6, new Vector2D(0, 10));
+        Assertions.assertEquals(0, pe.getCount());
+        Assertions.assertEquals(100.0, pe.position.y, 1e-4);
+    }
+
+    @Test
+    public void testParticleEmitterParallelUpdateMatchesSequentialUpdate() {
+        int n = ParticleEmitter.PARALLEL_THRESHOLD * 2;
+        ParticleEmitter sequential = TestUtils.createEmitter(n, 100.0, 100.0, Color.YELLOW)
+                .setParallel(false).emit(n);
+        ParticleEmitter parallel = TestUtils.createEmitter(n, 100.0, 100.0, Color.YELLOW)
+                .setParallel(true).emit(n);
+        for (int i = 0; i < 5; i++) {
+            sequential.update(0.016, new Vector2D(0, 9.81));
+            parallel.update(0.016, new Vector2D(0, 9.81));
+        }
+        Assertions.assertEquals(sequential.getCount(), parallel.getCount());
+        for (int i = 0; i < n; i++) {
+            Assertions.assertEquals(sequential.getXs()[i], parallel.getXs()[i]);
+            Assertions.assertEquals(sequential.getYs()[i], parallel.getYs()[i]);
+        }
+    }
+
+    @Test
+    public void testParticleEmitterIsUpdatedWithThePhysicTime() {
+        World world = new World().setGravity(new Vector2D(0, 0));
+        EntityManager entities = new EntityManager();
+        PhysicEngine engine = new PhysicEngine(world, entities);
+        ParticleEmitter pe = TestUtils.createEmitter(1000, 100.0, 100.0, Color.YELLOW).setRate(1000);
+        entities.add(pe);
+        Assertions.assertEquals(1, entities.getEmitters().size());
+        engine.update(100.0);
+        // 1000 particles per physic time unit, for 100 ms scaled by the time factor.
+        Assertions.assertEquals((int) (1000 * 100.0 * PhysicEngine.TIME_FACTOR), pe.getCount());
+        int count = pe.getCount();
+        entities.remove(pe);
+        Assertions.assertTrue(entities.getEmitters().isEmpty());
+        engine.update(100.0);
+        Assertions.assertEquals(count, pe.getCount(), "A removed emitter must not be updated anymore");
+    }
+
+    @Test
+    public void testParticleEmitterDrawHelperPluginDrawsParticles() {
+        ParticleEmitter pe = TestUtils.createEmitter(1, 100.0, 100.0, Color.YELLOW)
+                .setSpeed(0, 0).setParticleSize(2).emit(1);
+        BufferedImage buffer = TestUtils.createImage(200, 200, Color.BLACK);
+        Graphics2D g = buffer.createGraphics();
+        g.translate(-10, -20);
+        new ParticleEmitterDrawHelperPlugin().draw(null, g, pe);
+        g.dispose();
+        Assertions.assertEquals(Color.YELLOW.getRGB(), buffer.getRGB(90, 80));
+        Assertions.assertEquals(Color.YELLOW.getRGB(), buffer.getRGB(91, 81));
+        Assertions.assertEquals(Color.BLACK.getRGB(), buffer.getRGB(92, 82));
+    }
+}
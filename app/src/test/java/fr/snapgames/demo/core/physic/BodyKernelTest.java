@@ -0,0 +1,154 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.tile.TileMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link BodyKernel} implementations are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class BodyKernelTest {
+
+    /**
+     * The area of the bodies, going beyond the default play area.
+     */
+    private static final Rectangle2D AREA = new Rectangle2D.Double(-20.0, -20.0, 340.0, 220.0);
+
+    @Test
+    public void testBodyKernelLimitsEachAxis() {
+        World world = new World();
+        world.maxAccY = 50.0;
+        world.maxSpeedY = 10.0;
+        List<Entity<?>> bodies = TestUtils.createBodies(100, 1234L, AREA);
+        BodyBuffer buffer = new BodyBuffer().load(bodies, world);
+        BodyKernel.create("scalar").integrate(buffer, world, 0.5);
+        buffer.store();
+        boolean fasterThanY = false;
+        for (Entity<?> e : bodies) {
+            Assertions.assertTrue(Math.abs(e.acceleration.x) <= world.maxAccX, "x acceleration " + e.acceleration.x);
+            Assertions.assertTrue(Math.abs(e.acceleration.y) <= world.maxAccY, "y acceleration " + e.acceleration.y);
+            Assertions.assertTrue(Math.abs(e.velocity.x) <= world.maxSpeedX, "x speed " + e.velocity.x);
+            Assertions.assertTrue(Math.abs(e.velocity.y) <= world.maxSpeedY, "y speed " + e.velocity.y);
+            fasterThanY |= Math.abs(e.velocity.x) > world.maxSpeedY;
+        }
+        Assertions.assertTrue(fasterThanY, "The horizontal speed has been limited by the vertical maximum");
+    }
+
+    @Test
+    public void testLegacyBodyKernelLimitsBothAxisWithTheHorizontalLimits() {
+        World world = new World();
+        world.maxSpeedX = 10.0;
+        List<Entity<?>> bodies = TestUtils.createBodies(100, 1234L, AREA);
+        BodyBuffer buffer = new BodyBuffer().load(bodies, world);
+        BodyKernel kernel = BodyKernel.create("scalar", true);
+        Assertions.assertTrue(kernel.isLegacy());
+        kernel.integrate(buffer, world, 0.5);
+        buffer.store();
+        for (Entity<?> e : bodies) {
+            Assertions.assertTrue(Math.abs(e.velocity.x) <= world.maxSpeedX, "x speed " + e.velocity.x);
+            Assertions.assertTrue(Math.abs(e.velocity.y) <= world.maxSpeedX, "y speed " + e.velocity.y);
+        }
+    }
+
+    @Test
+    public void testVectorBodyKernelMatchesScalarBodyKernel() {
+        for (boolean legacy : new boolean[]{false, true}) {
+            World world = new World();
+            // an odd count to process the remaining bodies with the scalar loop.
+            List<Entity<?>> scalarBodies = TestUtils.createBodies(1001, 1234L, AREA);
+            List<Entity<?>> vectorBodies = TestUtils.createBodies(1001, 1234L, AREA);
+            BodyBuffer scalarBuffer = new BodyBuffer().load(scalarBodies, world);
+            BodyBuffer vectorBuffer = new BodyBuffer().load(vectorBodies, world);
+            BodyKernel vector = BodyKernel.create("vector", legacy);
+            Assertions.assertTrue(vector instanceof VectorBodyKernel, "Vector body kernel has not been created");
+            new ScalarBodyKernel(legacy).integrate(scalarBuffer, world, 0.2);
+            vector.integrate(vectorBuffer, world, 0.2);
+            scalarBuffer.store();
+            vectorBuffer.store();
+            for (int i = 0; i < scalarBodies.size(); i++) {
+                Entity<?> s = scalarBodies.get(i);
+                Entity<?> v = vectorBodies.get(i);
+                Assertions.assertEquals(scalarBuffer.getMoveX(i), vectorBuffer.getMoveX(i), 0.0, "body " + i);
+                Assertions.assertEquals(scalarBuffer.getMoveY(i), vectorBuffer.getMoveY(i), 0.0, "body " + i);
+                Assertions.assertEquals(s.velocity.x, v.velocity.x, 0.0, "body " + i);
+                Assertions.assertEquals(s.velocity.y, v.velocity.y, 0.0, "body " + i);
+                Assertions.assertEquals(s.acceleration.x, v.acceleration.x, 0.0, "body " + i);
+                Assertions.assertEquals(s.acceleration.y, v.acceleration.y, 0.0, "body " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testLegacyBulkIntegrationMatchesPerEntityIntegration() {
+        PhysicEngine[] engines = new PhysicEngine[2];
+        List<List<Entity<?>>> bodies = new ArrayList<>();
+        for (int i = 0; i < engines.length; i++) {
+            World world = new World();
+            EntityManager entities = new EntityManager();
+            engines[i] = new PhysicEngine(world, entities);
+            List<Entity<?>> created = TestUtils.createBodies(101, 1234L, AREA);
+            // a body using another integrator is updated one by one.
+            created.get(7).setIntegrator(Integrator.SEMI_IMPLICIT_EULER);
+            created.forEach(entities::add);
+            bodies.add(created);
+        }
+        engines[1].setKernel(BodyKernel.create("vector", true));
+        for (int step = 0; step < 20; step++) {
+            for (int i = 0; i < engines.length; i++) {
+                for (Entity<?> e : bodies.get(i)) {
+                    if (step % 5 == 0) {
+                        e.addForce(new Vector2D(300.0, -200.0));
+                    }
+                }
+                engines[i].update(16.0);
+            }
+        }
+        for (int i = 0; i < bodies.get(0).size(); i++) {
+            Entity<?> s = bodies.get(0).get(i);
+            Entity<?> b = bodies.get(1).get(i);
+            Assertions.assertEquals(s.position.x, b.position.x, 0.0, "body " + i);
+            Assertions.assertEquals(s.position.y, b.position.y, 0.0, "body " + i);
+            Assertions.assertEquals(s.velocity.x, b.velocity.x, 0.0, "body " + i);
+            Assertions.assertEquals(s.velocity.y, b.velocity.y, 0.0, "body " + i);
+            Assertions.assertEquals(s.contact, b.contact, "body " + i);
+        }
+    }
+
+    @Test
+    public void testBulkIntegratedBodiesDoNotTunnelThroughStaticColliders() {
+        World world = new World();
+        world.staticCollision = true;
+        world.setGravity(new Vector2D(0.0, 0.0));
+        world.maxAccX = 1000000.0;
+        world.maxSpeedX = 1000000.0;
+        EntityManager entities = new EntityManager();
+        PhysicEngine engine = new PhysicEngine(world, entities).setKernel(BodyKernel.create("scalar"));
+        // a solid column from x=160 to x=176.
+        entities.add(new TileMap("map", 20, 12, 16, 16, 8)
+                .setSolidTiles(0)
+                .fill(10, 0, 1, 12, 0));
+        Entity<?> e = new GameObject("fastBody")
+                .setSize(16.0, 16.0)
+                .setPosition(20.0, 50.0)
+                .setMass(1.0)
+                .setMaterial(Material.DEFAULT)
+                .addForce(new Vector2D(100000.0, 0.0));
+        entities.add(e);
+        // the move computed by the kernel goes far beyond the column in one update.
+        engine.update(16.0);
+        Assertions.assertTrue(e.position.x + e.size.x <= 160.0, "The body went through the wall: " + e.position.x);
+        Assertions.assertEquals(1, e.contact & 1, "Right contact has not been detected");
+    }
+}
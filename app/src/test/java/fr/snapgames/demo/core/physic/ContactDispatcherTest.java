@@ -0,0 +1,118 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Vector2D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link ContactDispatcher} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class ContactDispatcherTest {
+
+    private final List<String> received = new ArrayList<>();
+
+    private void record(ContactDispatcher.ContactEvent event) {
+        received.add(event.getPhase() + ":" + event.getEntity().name + ">" + event.getOther().name);
+    }
+
+    @Test
+    public void testContactDispatcherCoalescesPairs() {
+        ContactDispatcher contacts = new ContactDispatcher();
+        Entity<?> ball = new GameObject("ball").setTag("ball");
+        ball.id = 1;
+        Entity<?> wall = new GameObject("wall");
+        wall.id = 2;
+        contacts.subscribe(2, this::record);
+
+        // the same pair reported many times during a step gives one event.
+        contacts.report(ball, wall);
+        contacts.report(ball, wall);
+        Assertions.assertEquals(1, contacts.dispatch());
+        contacts.report(ball, wall);
+        Assertions.assertEquals(1, contacts.dispatch());
+        Assertions.assertEquals(1, contacts.dispatch());
+        Assertions.assertEquals(0, contacts.dispatch());
+        Assertions.assertEquals(List.of("ENTER:ball>wall", "STAY:ball>wall", "EXIT:ball>wall"), received);
+    }
+
+    @Test
+    public void testContactDispatcherDropsStalePairs() {
+        ContactDispatcher contacts = new ContactDispatcher();
+        Entity<?> ball = new GameObject("ball");
+        ball.id = 1;
+        Entity<?> wall = new GameObject("wall");
+        wall.id = 2;
+        contacts.subscribe(2, this::record);
+
+        // the pairs of an old step are neither reported nor exited again.
+        contacts.report(ball, wall);
+        Assertions.assertEquals(1, contacts.dispatch());
+        Assertions.assertEquals(1, contacts.dispatch());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(0, contacts.dispatch());
+        }
+        contacts.report(ball, wall);
+        contacts.clear();
+        Assertions.assertEquals(0, contacts.getPairCount());
+        Assertions.assertEquals(0, contacts.dispatch());
+        Assertions.assertEquals(List.of("ENTER:ball>wall", "EXIT:ball>wall"), received);
+    }
+
+    @Test
+    public void testContactDispatcherNotifiesSubscribersByIdAndTag() {
+        ContactDispatcher contacts = new ContactDispatcher();
+        List<String> byTag = new ArrayList<>();
+        ContactDispatcher.ContactListener tagListener = e -> byTag.add(e.getEntity().name);
+        contacts.subscribe(10, this::record).subscribe("coin", tagListener);
+        Entity<?> player = new GameObject("player");
+        player.id = 10;
+        Entity<?> other = new GameObject("other");
+        other.id = 11;
+        for (int i = 0; i < 100; i++) {
+            Entity<?> coin = new GameObject("coin_" + i).setTag("coin");
+            coin.id = 100 + i;
+            contacts.report(coin, i % 2 == 0 ? player : other);
+        }
+        Assertions.assertEquals(100, contacts.dispatch());
+        Assertions.assertEquals(50, received.size());
+        Assertions.assertEquals(100, byTag.size());
+
+        contacts.unsubscribe(tagListener);
+        byTag.clear();
+        Assertions.assertEquals(100, contacts.dispatch());
+        Assertions.assertTrue(byTag.isEmpty());
+    }
+
+    @Test
+    public void testPhysicEngineDispatchesTriggerAndCollisionEvents() {
+        World world = new World().setGravity(new Vector2D(0.0, 500.0)).setIntegrator(Integrator.SEMI_IMPLICIT_EULER);
+        world.staticCollision = true;
+        world.maxSpeedY = 10000.0;
+        EntityManager entities = new EntityManager();
+        PhysicEngine engine = new PhysicEngine(world, entities);
+        entities.add(new GameObject("zone").setPosition(0.0, 60.0).setSize(100.0, 20.0).setTrigger(true)
+                .setPhysicType(PhysicType.STATIC));
+        entities.add(new GameObject("floor").setPosition(0.0, 150.0).setSize(100.0, 10.0)
+                .setPhysicType(PhysicType.STATIC));
+        entities.add(new GameObject("ball").setPosition(10.0, 10.0).setSize(8.0, 8.0).setMaterial(Material.FLOOR));
+        engine.getContacts().subscribe(entities.get("ball").id, this::record);
+        for (int i = 0; i < 400; i++) {
+            engine.update(16.0);
+        }
+        // the ball falls through the trigger volume, and lands on the floor.
+        Assertions.assertEquals("ENTER:ball>zone", received.get(0));
+        Assertions.assertTrue(received.indexOf("EXIT:ball>zone") > 0);
+        Assertions.assertTrue(received.indexOf("ENTER:ball>floor") > received.indexOf("EXIT:ball>zone"));
+        Assertions.assertEquals(1, received.stream().filter(s -> s.startsWith("ENTER")).filter(s -> s.endsWith("zone")).count());
+        Assertions.assertEquals("STAY:ball>floor", received.get(received.size() - 1));
+    }
+}
@@ -0,0 +1,153 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.gdemoapp.App;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@link Integrator} implementations, through {@link PhysicEngine}, are the classes under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class IntegratorTest {
+
+    private static final Integrator[] STABLE_INTEGRATORS = {
+            Integrator.SEMI_IMPLICIT_EULER,
+            Integrator.VELOCITY_VERLET,
+            Integrator.POSITION_VERLET};
+
+    private static final Material ELASTIC = new Material("elastic", 1.0, 1.0, 1.0);
+
+    App game;
+    PhysicEngine pe;
+
+    @BeforeAll
+    public static void beforeAll() {
+        System.setProperty("file.encoding", "UTF-8");
+        Locale.setDefault(Locale.US);
+    }
+
+    @BeforeEach
+    public void setup() {
+        game = new App("/config-physicengine.properties");
+        game.applyConfiguration(new String[]{});
+        pe = new PhysicEngine(game);
+        World world = pe.getWorld();
+        world.setGravity(new Vector2D(0.0, 10.0));
+        world.setMaterial(new Material("vacuum", 1.0, 1.0, 1.0));
+        world.minSpeed = 0.0;
+        world.minAcc = 0.0;
+        world.maxSpeedX = 1000.0;
+        world.maxSpeedY = 1000.0;
+        world.maxAccX = 1000.0;
+        world.maxAccY = 1000.0;
+        world.playArea.setRect(0.0, 0.0, 1000.0, 200.0);
+    }
+
+    private Entity<?> simulate(Integrator integrator, double duration, int steps) {
+        Entity<?> e = TestUtils.createBall(100.0, 20.0, 10.0, 2.0, ELASTIC).setIntegrator(integrator);
+        for (int i = 0; i < steps; i++) {
+            pe.step(e, duration / steps);
+        }
+        return e;
+    }
+
+    @Test
+    public void testVelocityVerletIsExactForConstantAcceleration() {
+        for (int steps : new int[]{5, 50}) {
+            Entity<?> e = simulate(Integrator.VELOCITY_VERLET, 2.0, steps);
+            Assertions.assertEquals(20.0 + 0.5 * 10.0 * 4.0, e.position.y, 1e-9, steps + " steps");
+            Assertions.assertEquals(20.0, e.velocity.y, 1e-9, steps + " steps");
+        }
+    }
+
+    @Test
+    public void testPositionVerletKeepsTheVelocityOnAnEmptyStep() {
+        Entity<?> e = TestUtils.createBall(100.0, 20.0, 10.0, 2.0, ELASTIC)
+                .setIntegrator(Integrator.POSITION_VERLET);
+        pe.step(e, 0.1);
+        double vy = e.velocity.y;
+        double y = e.position.y;
+        pe.step(e, 0.0);
+        Assertions.assertEquals(vy, e.velocity.y, 1e-9);
+        Assertions.assertEquals(y, e.position.y, 1e-9);
+        pe.step(e, 0.1);
+        Assertions.assertTrue(Double.isFinite(e.velocity.y) && e.velocity.y > vy, "velocity " + e.velocity.y);
+    }
+
+    @Test
+    public void testIntegratorsConvergeWhenStepDecreases() {
+        double expected = 20.0 + 0.5 * 10.0 * 4.0;
+        for (Integrator integrator : STABLE_INTEGRATORS) {
+            double coarse = Math.abs(simulate(integrator, 2.0, 10).position.y - expected);
+            double fine = Math.abs(simulate(integrator, 2.0, 100).position.y - expected);
+            Assertions.assertTrue(coarse <= 2.0 + 1e-9, integrator + " coarse error " + coarse);
+            Assertions.assertTrue(fine <= coarse / 5.0 + 1e-9, integrator + " fine error " + fine);
+        }
+    }
+
+    @Test
+    public void testIntegratorsDoNotGainEnergyWhileBouncing() {
+        for (Integrator integrator : STABLE_INTEGRATORS) {
+            Entity<?> e = TestUtils.createBall(100.0, 20.0, 10.0, 2.0, ELASTIC).setIntegrator(integrator);
+            List<Double> tops = new ArrayList<>();
+            double highest = Double.MAX_VALUE;
+            // large steps: about 60 steps per bounce only.
+            for (int i = 0; i < 3000; i++) {
+                pe.step(e, 0.1);
+                if ((e.contact & 2) != 0) {
+                    if (highest < Double.MAX_VALUE) {
+                        tops.add(highest);
+                    }
+                    highest = Double.MAX_VALUE;
+                } else {
+                    highest = Math.min(highest, e.position.y);
+                }
+            }
+            Assertions.assertTrue(tops.size() > 20, integrator + " bounces " + tops.size());
+            // the error is bounded by the step size, and does not grow with the bounces.
+            double firstHighest = tops.subList(0, 5).stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
+            double lastHighest = tops.subList(tops.size() - 5, tops.size()).stream()
+                    .mapToDouble(Double::doubleValue).min().orElse(0.0);
+            Assertions.assertTrue(firstHighest >= 20.0 - 2.5, integrator + " gained energy: top at " + firstHighest);
+            Assertions.assertTrue(lastHighest >= firstHighest - 1e-6,
+                    integrator + " drifts: top from " + firstHighest + " to " + lastHighest);
+        }
+    }
+
+    @Test
+    public void testFrictionDoesNotDependOnStepCount() {
+        pe.getWorld().setGravity(new Vector2D(0.0, 0.0));
+        pe.getWorld().setMaterial(new Material("air", 1.0, 1.0, 0.5));
+        for (Integrator integrator : STABLE_INTEGRATORS) {
+            for (int steps : new int[]{4, 40}) {
+                Entity<?> e = TestUtils.createBall(100.0, 20.0, 10.0, 2.0, ELASTIC)
+                        .setIntegrator(integrator)
+                        .setSpeed(10.0, 0.0);
+                for (int i = 0; i < steps; i++) {
+                    pe.step(e, 1.0 / steps);
+                }
+                Assertions.assertEquals(5.0, e.velocity.x, 1e-9, integrator + " with " + steps + " steps");
+            }
+        }
+    }
+
+    @Test
+    public void testEntityIntegratorOverridesWorldIntegrator() {
+        pe.getWorld().setIntegrator(Integrator.LEGACY);
+        Entity<?> legacy = simulate(null, 1.0, 10);
+        Entity<?> verlet = simulate(Integrator.VELOCITY_VERLET, 1.0, 10);
+        Assertions.assertEquals(20.0 + 5.0, verlet.position.y, 1e-9);
+        Assertions.assertNotEquals(verlet.position.y, legacy.position.y);
+    }
+}
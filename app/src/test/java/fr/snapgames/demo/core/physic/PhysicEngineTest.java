@@ -1,8 +1,10 @@
 package fr.snapgames.demo.core.physic;
 
 import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
 import fr.snapgames.demo.core.entity.GameObject;
 import fr.snapgames.demo.core.math.Vector2D;
+import fr.snapgames.demo.core.tile.TileMap;
 import fr.snapgames.demo.gdemoapp.App;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -110,4 +112,70 @@ public class PhysicEngineTest {
         }*/
 
     }
+
+    @Test
+    public void testPhysicEngineSweepBouncesOnBoundsWithoutTunnelling() {
+        pe.getWorld().maxSpeedX = 1000.0;
+        Entity<?> e = new GameObject("fastEntity")
+                .setSize(16.0, 16.0)
+                .setPosition(300.0, 100.0)
+                .setSpeed(100.0, 0.0)
+                .setMaterial(Material.RUBBER);
+        // the entity reaches the right border after 4 pixels, and bounces back for the remaining 96 pixels.
+        pe.sweep(e, 100.0, 0.0);
+        Assertions.assertEquals(304.0 - 96.0 * Material.RUBBER.elasticity, e.position.x, 0.000001);
+        Assertions.assertEquals(1, e.contact & 1, "Right contact has not been detected");
+        Assertions.assertTrue(e.velocity.x < 0.0, "Velocity has not been reflected");
+    }
+
+    @Test
+    public void testPhysicEngineSweepKeepsEntityInsidePlayArea() {
+        Rectangle2D playArea = pe.getWorld().playArea;
+        Entity<?> e = new GameObject("veryFastEntity")
+                .setSize(16.0, 16.0)
+                .setPosition(10.0, 10.0)
+                .setMaterial(Material.DEFAULT);
+        pe.sweep(e, 100000.0, -100000.0);
+        Assertions.assertTrue(e.position.x >= 0.0 && e.position.x + e.size.x <= playArea.getWidth(),
+                "Entity has tunnelled through horizontal bounds: x=" + e.position.x);
+        Assertions.assertTrue(e.position.y >= 0.0 && e.position.y + e.size.y <= playArea.getHeight(),
+                "Entity has tunnelled through vertical bounds: y=" + e.position.y);
+    }
+
+    @Test
+    public void testPhysicEngineSweepDetectsRestingContact() {
+        Rectangle2D playArea = pe.getWorld().playArea;
+        Entity<?> e = new GameObject("restingEntity")
+                .setSize(16.0, 16.0)
+                .setPosition(100.0, playArea.getHeight() - 16.0)
+                .setMaterial(Material.FLOOR);
+        pe.sweep(e, 0.0, 0.5);
+        Assertions.assertEquals(playArea.getHeight() - 16.0, e.position.y, 0.000001);
+        Assertions.assertEquals(2, e.contact, "Bottom contact has not been detected");
+    }
+
+    @Test
+    public void testPhysicEngineSweepStopsOnSolidTiles() {
+        World world = new World();
+        world.staticCollision = true;
+        EntityManager entities = new EntityManager();
+        PhysicEngine engine = new PhysicEngine(world, entities);
+        entities.add(new TileMap("map", 20, 12, 16, 16, 8)
+                .setSolidTiles(0)
+                .fill(0, 8, 20, 1, 0)
+                .fill(10, 0, 1, 8, 1));
+        Entity<?> e = new GameObject("fallingEntity")
+                .setSize(16.0, 16.0)
+                .setPosition(20.0, 10.0)
+                .setMaterial(Material.FLOOR);
+        entities.add(e);
+        // the entity falls through many cells in one move, and lands on the solid row.
+        engine.sweep(e, 0.0, 150.0);
+        Assertions.assertEquals(8 * 16.0 - 16.0, e.position.y, 0.000001);
+        Assertions.assertEquals(2, e.contact, "Bottom contact has not been detected");
+        // the non-solid cells do not stop the entity.
+        engine.sweep(e, 200.0, 0.0);
+        Assertions.assertEquals(220.0, e.position.x, 0.000001);
+        Assertions.assertEquals(0, e.contact & 1);
+    }
 }
@@ -0,0 +1,161 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Vector2D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link RewindBuffer} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class RewindBufferTest {
+
+    List<GameObject> entities;
+    RewindBuffer buffer;
+    EntityManager em;
+    PhysicEngine pe;
+
+    @BeforeEach
+    public void setup() {
+        // a row of 100 recorded entities.
+        entities = TestUtils.createObjects(100, 100, 0.0, 0.0, 1.0, 0.0, 1.0, 1.0);
+        buffer = new RewindBuffer(100, 1.0, 10);
+        // an engine recording its processed entities, splitting the fast moves into up to 4 sub-steps.
+        World world = new World().setGravity(new Vector2D(0.0, 50.0)).setIntegrator(Integrator.SEMI_IMPLICIT_EULER);
+        em = new EntityManager();
+        pe = new PhysicEngine(world, em)
+                .setScheduler(new SubStepScheduler(0.1, 4, 0.0, 0.0))
+                .setRewindBuffer(buffer);
+    }
+
+    /**
+     * Move only the even entities, like a scene with sleeping bodies.
+     */
+    private void move(List<? extends Entity<?>> entities, int step) {
+        for (int i = 0; i < entities.size(); i += 2) {
+            Entity<?> e = entities.get(i);
+            e.position.y += 0.5 * step;
+            e.velocity.y = step;
+            e.contact = step % 3;
+        }
+    }
+
+    private double[] state(List<? extends Entity<?>> entities) {
+        double[] s = new double[entities.size() * 4];
+        for (int i = 0; i < entities.size(); i++) {
+            Entity<?> e = entities.get(i);
+            s[i * 4] = e.position.x;
+            s[i * 4 + 1] = e.position.y;
+            s[i * 4 + 2] = e.velocity.y;
+            s[i * 4 + 3] = e.contact;
+        }
+        return s;
+    }
+
+    @Test
+    public void testRewindBufferRestoresAnyRecordedStep() {
+        List<double[]> states = new ArrayList<>();
+        for (int step = 0; step < 45; step++) {
+            move(entities, step);
+            Assertions.assertEquals(step, buffer.record(entities));
+            states.add(state(entities));
+        }
+        // each restored step drops the following ones.
+        for (int step : new int[]{44, 40, 39, 31, 30, 20}) {
+            Assertions.assertTrue(buffer.seek(step, null));
+            Assertions.assertArrayEquals(states.get(step), state(entities), "step " + step);
+            Assertions.assertEquals(step, buffer.getLastStep());
+        }
+        Assertions.assertFalse(buffer.seek(21, null));
+        move(entities, 100);
+        Assertions.assertEquals(21, buffer.record(entities));
+        Assertions.assertTrue(buffer.seek(19, null));
+        Assertions.assertArrayEquals(states.get(19), state(entities));
+    }
+
+    @Test
+    public void testRewindBufferDeltasOnlyHoldChangedFields() {
+        buffer.record(entities);
+        long keyframe = buffer.getUsedBytes();
+        Assertions.assertEquals(100 * RewindBuffer.FIELDS * 8, keyframe);
+        move(entities, 1);
+        buffer.record(entities);
+        // 50 moving entities: one header and 3 changed fields each.
+        Assertions.assertEquals(50 * 4 * 8, buffer.getUsedBytes() - keyframe);
+    }
+
+    @Test
+    public void testRewindBufferMemoryIsBounded() {
+        // about 33 keyframes of 100 entities.
+        RewindBuffer buffer = new RewindBuffer(600, 0.4, 5);
+        List<double[]> states = new ArrayList<>();
+        for (int step = 0; step < 600; step++) {
+            move(entities, step);
+            buffer.record(entities);
+            states.add(state(entities));
+            Assertions.assertTrue(buffer.getUsedBytes() <= buffer.getCapacityBytes());
+        }
+        Assertions.assertTrue(buffer.getFirstStep() > 0);
+        Assertions.assertTrue(buffer.getStepCount() < 600);
+        Assertions.assertFalse(buffer.seek(buffer.getFirstStep() - 1, null));
+        long first = buffer.getFirstStep();
+        Assertions.assertTrue(buffer.seek(first, null));
+        Assertions.assertArrayEquals(states.get((int) first), state(entities));
+    }
+
+    @Test
+    public void testRewindBufferFollowsEntitySetChanges() {
+        buffer.record(entities);
+        double[] before = state(entities);
+        GameObject added = new GameObject("added");
+        added.setPosition(5.0, 5.0);
+        entities.add(added);
+        move(entities, 1);
+        buffer.record(entities);
+        added.position.x = 50.0;
+        Assertions.assertTrue(buffer.seek(1, null));
+        Assertions.assertEquals(5.0, added.position.x);
+        Assertions.assertTrue(buffer.seek(0, null));
+        Assertions.assertArrayEquals(before, state(entities.subList(0, 100)));
+    }
+
+    @Test
+    public void testPhysicEngineRewindsRecordedSubSteps() {
+        Entity<?> ball = TestUtils.createBall(20.0, 10.0, 8.0, 1.0, Material.DEFAULT).setSpeed(0.0, 40.0);
+        em.add(ball);
+        List<Vector2D> positions = new ArrayList<>();
+        // the number of recorded sub-steps at the end of each update.
+        List<Long> steps = new ArrayList<>();
+        long subSteps = 0;
+        for (int i = 0; i < 20; i++) {
+            pe.update(16.0);
+            subSteps += pe.getScheduler().getLastSubSteps();
+            positions.add(new Vector2D(ball.position.x, ball.position.y));
+            steps.add(subSteps);
+        }
+        // each sub-step is recorded, not only the last one of each update.
+        Assertions.assertTrue(subSteps > 20, "The fast ball has not been sub-stepped");
+        Assertions.assertEquals(subSteps, buffer.getStepCount());
+        Assertions.assertEquals(subSteps - 1, buffer.getLastStep());
+
+        // go back to the end of the 10th update.
+        Assertions.assertTrue(pe.rewind((int) (subSteps - steps.get(9))));
+        Assertions.assertEquals(positions.get(9), ball.position);
+        Assertions.assertEquals(steps.get(9) - 1, buffer.getLastStep());
+        // then to the sub-step just before it, within the 10th update.
+        Assertions.assertTrue(pe.rewind(1));
+        Assertions.assertNotEquals(positions.get(9), ball.position);
+        Assertions.assertNotEquals(positions.get(8), ball.position);
+        Assertions.assertFalse(pe.rewind(1000));
+    }
+}
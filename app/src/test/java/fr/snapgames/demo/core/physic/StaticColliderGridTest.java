@@ -0,0 +1,115 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.tile.TileMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link StaticColliderGrid} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class StaticColliderGridTest {
+
+    EntityManager entities;
+    StaticColliderGrid grid;
+
+    @BeforeEach
+    public void setup() {
+        entities = new EntityManager();
+        // a ground row and a 3x3 block.
+        entities.add(TestUtils.createGround(40, 20).fill(10, 10, 3, 3, 0));
+        // two static walls side by side, and a dynamic ball.
+        entities.add(TestUtils.createWall("wall_1", 400.0, 0.0, 16.0, 100.0));
+        entities.add(TestUtils.createWall("wall_2", 416.0, 0.0, 16.0, 100.0));
+        entities.add(TestUtils.createBall(100.0, 100.0, 8.0, 1.0, Material.DEFAULT));
+        grid = new StaticColliderGrid(64.0);
+    }
+
+    @Test
+    public void testStaticColliderGridMergesBoxes() {
+        grid.build(entities);
+        // the ground row, the block and the two walls (kept apart to report the hit entity), without the dynamic ball.
+        Assertions.assertEquals(4, grid.getBoxCount());
+        List<double[]> boxes = new ArrayList<>();
+        grid.query(0.0, 0.0, 1000.0, 1000.0, (o, x, y, w, h) -> boxes.add(new double[]{x, y, w, h}));
+        Assertions.assertEquals(4, boxes.size(), "Each box must be visited once");
+        Assertions.assertTrue(boxes.stream().anyMatch(b -> b[0] == 0.0 && b[1] == 304.0 && b[2] == 640.0 && b[3] == 16.0));
+        Assertions.assertTrue(boxes.stream().anyMatch(b -> b[0] == 160.0 && b[1] == 160.0 && b[2] == 48.0 && b[3] == 48.0));
+        Assertions.assertTrue(boxes.stream().anyMatch(b -> b[0] == 400.0 && b[1] == 0.0 && b[2] == 16.0 && b[3] == 100.0));
+        Assertions.assertTrue(boxes.stream().anyMatch(b -> b[0] == 416.0 && b[1] == 0.0 && b[2] == 16.0 && b[3] == 100.0));
+    }
+
+    @Test
+    public void testStaticColliderGridKeepsTheEntityOrder() {
+        // the boxes are ordered by their owner rank, whatever the identity of the entities is.
+        for (int i = 0; i < 20; i++) {
+            // new walls, with new identities.
+            entities.remove(entities.get("wall_1"));
+            entities.remove(entities.get("wall_2"));
+            entities.add(TestUtils.createWall("wall_1", 400.0, 0.0, 16.0, 100.0));
+            entities.add(TestUtils.createWall("wall_2", 416.0, 0.0, 16.0, 100.0));
+            grid.build(entities);
+            List<String> owners = new ArrayList<>();
+            grid.query(400.0, 0.0, 32.0, 100.0, (o, x, y, w, h) -> owners.add(o.name));
+            Assertions.assertEquals(List.of("wall_1", "wall_2"), owners);
+        }
+    }
+
+    @Test
+    public void testStaticColliderGridIgnoresTriggerVolumes() {
+        entities.add(TestUtils.createWall("zone", 600.0, 0.0, 50.0, 50.0).setTrigger(true));
+        grid.build(entities);
+        Assertions.assertEquals(4, grid.getBoxCount());
+        List<Entity<?>> owners = new ArrayList<>();
+        grid.query(150.0, 150.0, 20.0, 20.0, (o, x, y, w, h) -> owners.add(o));
+        Assertions.assertSame(entities.get("map"), owners.get(0));
+    }
+
+    @Test
+    public void testStaticColliderGridOnlyVisitsTheQueriedArea() {
+        grid.build(entities);
+        List<double[]> boxes = new ArrayList<>();
+        Assertions.assertEquals(1, grid.query(150.0, 150.0, 20.0, 20.0, (o, x, y, w, h) -> boxes.add(new double[]{x, y})));
+        Assertions.assertEquals(160.0, boxes.get(0)[0]);
+        Assertions.assertEquals(0, grid.query(100.0, 0.0, 20.0, 20.0, (o, x, y, w, h) -> boxes.add(null)));
+        Assertions.assertEquals(0, grid.query(2000.0, 2000.0, 20.0, 20.0, (o, x, y, w, h) -> boxes.add(null)));
+    }
+
+    @Test
+    public void testStaticColliderGridIsOnlyBuiltWhenStaticEntitiesChange() {
+        Assertions.assertTrue(grid.refresh(entities));
+        Assertions.assertFalse(grid.refresh(entities));
+
+        // the dynamic entities do not change the static layer.
+        Entity<?> ball = entities.get("ball");
+        ball.setPosition(200.0, 10.0);
+        entities.update(ball);
+        entities.add(new GameObject("ball_2"));
+        Assertions.assertFalse(grid.refresh(entities));
+        Assertions.assertEquals(1, grid.getBuilds());
+
+        // a moved static entity, a changed tile or a removed static entity.
+        Entity<?> wall = entities.get("wall_2");
+        wall.setPosition(500.0, 0.0);
+        entities.update(wall);
+        Assertions.assertTrue(grid.refresh(entities));
+        Assertions.assertEquals(4, grid.getBoxCount());
+        ((TileMap) entities.get("map")).setTile(5, 19, TileMap.EMPTY);
+        Assertions.assertTrue(grid.refresh(entities));
+        Assertions.assertEquals(5, grid.getBoxCount());
+        entities.remove(wall);
+        Assertions.assertTrue(grid.refresh(entities));
+        Assertions.assertEquals(4, grid.getBoxCount());
+        Assertions.assertEquals(4, grid.getBuilds());
+    }
+}
@@ -0,0 +1,93 @@
+package fr.snapgames.demo.core.physic;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link SubStepScheduler} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SubStepSchedulerTest {
+
+    private final List<Double> steps = new ArrayList<>();
+    private final List<Boolean> lasts = new ArrayList<>();
+
+    private void record(double elapsed, boolean last) {
+        steps.add(elapsed);
+        lasts.add(last);
+    }
+
+    @Test
+    public void testDefaultSchedulerProcessesOneStepPerFrame() {
+        SubStepScheduler scheduler = new SubStepScheduler();
+        Assertions.assertFalse(scheduler.isAdaptive());
+        Assertions.assertEquals(1, scheduler.update(100.0, 10.0, false, this::record));
+        Assertions.assertEquals(100.0, steps.get(0), 1e-9);
+        Assertions.assertTrue(lasts.get(0));
+        Assertions.assertEquals(0.0, scheduler.getPending(), 1e-9);
+    }
+
+    @Test
+    public void testSchedulerSplitsFastFrames() {
+        SubStepScheduler scheduler = new SubStepScheduler(0.5, 8, 0.0, 0.0);
+        // the fastest body moves 0.05 of its size per ms: 2 sizes during the frame, 4 sub-steps.
+        Assertions.assertEquals(4, scheduler.update(40.0, 0.05, false, this::record));
+        for (double step : steps) {
+            Assertions.assertEquals(10.0, step, 1e-9);
+        }
+        Assertions.assertEquals(List.of(false, false, false, true), lasts);
+        steps.clear();
+        // the sub-steps are limited.
+        Assertions.assertEquals(8, scheduler.update(400.0, 0.05, false, (e, l) -> steps.add(e)));
+        Assertions.assertEquals(50.0, steps.get(0), 1e-9);
+    }
+
+    @Test
+    public void testSchedulerMergesSlowFrames() {
+        SubStepScheduler scheduler = new SubStepScheduler(0.5, 8, 0.0, 50.0);
+        Assertions.assertEquals(0, scheduler.update(16.0, 0.0001, true, this::record));
+        Assertions.assertEquals(0, scheduler.update(16.0, 0.0001, true, this::record));
+        Assertions.assertEquals(32.0, scheduler.getPending(), 1e-9);
+        // a pending force stops the merge: all the merged time is processed.
+        Assertions.assertEquals(1, scheduler.update(16.0, 0.0001, false, this::record));
+        Assertions.assertEquals(48.0, steps.get(0), 1e-9);
+        Assertions.assertEquals(0.0, scheduler.getPending(), 1e-9);
+    }
+
+    @Test
+    public void testSchedulerCarriesTimeForwardWhenBudgetIsExceeded() {
+        long[] now = {0L};
+        SubStepScheduler scheduler = new SubStepScheduler(0.5, 8, 4.0, 0.0).setClock(() -> now[0]);
+        // each sub-step costs 1.5 ms: only 2 sub-steps fit into the 4 ms budget.
+        int done = scheduler.update(80.0, 0.05, false, (e, l) -> {
+            record(e, l);
+            now[0] += 1500000L;
+        });
+        Assertions.assertEquals(2, done);
+        Assertions.assertTrue(scheduler.isBudgetExceeded());
+        Assertions.assertEquals(List.of(false, true), lasts);
+        Assertions.assertEquals(80.0 - 2 * 10.0, scheduler.getPending(), 1e-9);
+    }
+
+    @Test
+    public void testDeterministicSchedulerIgnoresTheBudget() {
+        long[] now = {0L};
+        SubStepScheduler scheduler = new SubStepScheduler(0.5, 8, 4.0, 0.0)
+                .setClock(() -> now[0])
+                .setDeterministic(true);
+        // the sub-steps do not depend on their CPU time.
+        int done = scheduler.update(80.0, 0.05, false, (e, l) -> {
+            record(e, l);
+            now[0] += 1500000L;
+        });
+        Assertions.assertEquals(8, done);
+        Assertions.assertFalse(scheduler.isBudgetExceeded());
+        Assertions.assertTrue(lasts.get(7));
+        Assertions.assertEquals(0.0, scheduler.getPending(), 1e-9);
+    }
+}
@@ -0,0 +1,89 @@
+package fr.snapgames.demo.core.physic;
+
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.GameObject;
+import fr.snapgames.demo.core.math.Vector2D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * The {@link WorldHost} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class WorldHostTest {
+
+    private WorldHost.Simulation populate(WorldHost host, String name, double gravity, int balls) {
+        World world = new World().setGravity(new Vector2D(0.0, gravity)).setIntegrator(Integrator.SEMI_IMPLICIT_EULER);
+        WorldHost.Simulation simulation = host.add(name, world);
+        for (int i = 0; i < balls; i++) {
+            simulation.getEntityManager().add(new GameObject("ball_" + i)
+                    .setSize(8.0, 8.0)
+                    .setPosition(10.0 + i * 2.0, 10.0)
+                    .setSpeed(1.0 + i, 0.0));
+        }
+        return simulation;
+    }
+
+    @Test
+    public void testHostedWorldsAreIndependent() {
+        try (WorldHost host = new WorldHost(4)) {
+            WorldHost.Simulation[] simulations = new WorldHost.Simulation[16];
+            for (int i = 0; i < simulations.length; i++) {
+                // half of the worlds without gravity.
+                simulations[i] = populate(host, "world_" + i, i % 2 == 0 ? 0.0 : 500.0, 10);
+            }
+            for (int i = 0; i < 100; i++) {
+                host.step(16.0);
+            }
+            for (int i = 0; i < simulations.length; i++) {
+                Entity<?> ball = simulations[i].getEntityManager().get("ball_5");
+                Assertions.assertEquals(100, simulations[i].getSteps());
+                if (i % 2 == 0) {
+                    Assertions.assertEquals(10.0, ball.position.y, 1e-9, "world_" + i);
+                } else {
+                    Assertions.assertTrue(ball.position.y > 10.0, "world_" + i);
+                }
+                // all the worlds with the same settings end in the same state, whatever the worker used.
+                Entity<?> reference = simulations[i % 2].getEntityManager().get("ball_5");
+                Assertions.assertEquals(reference.position.x, ball.position.x, "world_" + i);
+                Assertions.assertEquals(reference.position.y, ball.position.y, "world_" + i);
+            }
+        }
+    }
+
+    @Test
+    public void testHostedWorldsGiveTheirOwnEntityIds() {
+        try (WorldHost host = new WorldHost(2)) {
+            WorldHost.Simulation first = host.add("first", new World());
+            WorldHost.Simulation second = host.add("second", new World());
+            GameObject a = new GameObject();
+            GameObject b = new GameObject();
+            first.getEntityManager().add(a);
+            second.getEntityManager().add(b);
+            Assertions.assertEquals(1, a.id);
+            Assertions.assertEquals(1, b.id);
+        }
+    }
+
+    @Test
+    public void testHostReportsStepTimePerWorld() {
+        try (WorldHost host = new WorldHost(2)) {
+            populate(host, "small", 10.0, 1);
+            populate(host, "large", 10.0, 200);
+            host.step(16.0);
+            Map<String, Double> times = host.getStepTimes();
+            Assertions.assertEquals(2, times.size());
+            Assertions.assertTrue(times.get("small") > 0.0);
+            Assertions.assertTrue(times.get("large") > 0.0);
+            Assertions.assertTrue(host.getLastStepTime() > 0.0);
+            WorldHost.Simulation large = host.getSimulations().get(1);
+            Assertions.assertEquals(large.getLastStepTime(), large.getMeanStepTime(), 1e-9);
+            host.remove(large);
+            Assertions.assertEquals(1, host.getStepTimes().size());
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package fr.snapgames.demo.core.physic;
 
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.entity.Entity;
+import fr.snapgames.demo.core.entity.EntityManager;
+import fr.snapgames.demo.core.entity.GameObject;
 import fr.snapgames.demo.core.math.Vector2D;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.awt.geom.Point2D;
@@ -16,6 +21,21 @@ import java.awt.geom.Rectangle2D;
  **/
 public class WorldTest {
 
+    // the World of a level simulated by a PhysicEngine.
+    World level;
+
+    @BeforeEach
+    public void setup() {
+        level = new World();
+        EntityManager entities = new EntityManager();
+        new PhysicEngine(level, entities);
+        // a ground row of tiles, a static wall, a dynamic box and a trigger volume.
+        entities.add(TestUtils.createGround(20, 12));
+        entities.add(TestUtils.createWall("wall", 200.0, 100.0, 16.0, 76.0));
+        entities.add(new GameObject("box").setPosition(100.0, 100.0).setSize(20.0, 20.0));
+        entities.add(TestUtils.createWall("zone", 40.0, 100.0, 20.0, 20.0).setTrigger(true));
+    }
+
     @Test
     public void testWorldHasDefaultValues() {
         World world = new World();
@@ -30,4 +50,60 @@ public class WorldTest {
         Assertions.assertEquals(600.0, world.maxAccY);
         Assertions.assertEquals(Material.AIR, world.material);
     }
+
+    @Test
+    public void testWorldRaycastReturnsTheNearestHit() {
+        RaycastHit hit = new RaycastHit();
+
+        // to the right, the dynamic box hides the wall.
+        Assertions.assertTrue(level.raycast(0.0, 110.0, 1.0, 0.0, 300.0, World.QUERY_ALL, hit));
+        Assertions.assertEquals("zone", hit.entity.name);
+        Assertions.assertEquals(40.0, hit.distance, 0.0001);
+        Assertions.assertTrue(level.raycast(0.0, 110.0, 1.0, 0.0, 300.0, World.QUERY_STATIC | World.QUERY_DYNAMIC, hit));
+        Assertions.assertEquals("box", hit.entity.name);
+        Assertions.assertEquals(100.0, hit.x, 0.0001);
+        Assertions.assertEquals(-1.0, hit.normalX);
+        Assertions.assertTrue(level.raycast(0.0, 110.0, 1.0, 0.0, 300.0, World.QUERY_STATIC, hit));
+        Assertions.assertEquals("wall", hit.entity.name);
+        Assertions.assertEquals(200.0, hit.distance, 0.0001);
+
+        // downward, the ground row.
+        Assertions.assertTrue(level.raycast(10.0, 0.0, 0.0, 2.0, 500.0, World.QUERY_ALL, hit));
+        Assertions.assertEquals("map", hit.entity.name);
+        Assertions.assertEquals(176.0, hit.y, 0.0001);
+        Assertions.assertEquals(-1.0, hit.normalY);
+
+        // too short to reach anything.
+        Assertions.assertFalse(level.raycast(10.0, 0.0, 0.0, 1.0, 100.0, World.QUERY_ALL, hit));
+        Assertions.assertNull(hit.entity);
+    }
+
+    @Test
+    public void testWorldOverlapBoxFillsTheResults() {
+        Entity<?>[] results = new Entity<?>[8];
+        Assertions.assertEquals(4, level.overlapBox(0.0, 90.0, 300.0, 200.0, World.QUERY_ALL, results));
+        Assertions.assertEquals(2, level.overlapBox(0.0, 90.0, 300.0, 200.0, World.QUERY_STATIC, results));
+        Assertions.assertEquals(1, level.overlapBox(95.0, 95.0, 10.0, 10.0, World.QUERY_ALL, results));
+        Assertions.assertEquals("box", results[0].name);
+        // only touching the box is not overlapping it.
+        Assertions.assertEquals(0, level.overlapBox(120.0, 100.0, 10.0, 10.0, World.QUERY_ALL, results));
+        // the search stops when the results are full.
+        Assertions.assertEquals(1, level.overlapBox(0.0, 90.0, 300.0, 200.0, World.QUERY_ALL, new Entity<?>[1]));
+    }
+
+    @Test
+    public void testWorldSweepStopsTheBoxBeforeTheHit() {
+        RaycastHit hit = new RaycastHit();
+        Entity<?> ball = new GameObject("ball").setPosition(130.0, 150.0).setSize(10.0, 10.0);
+
+        Assertions.assertTrue(level.sweep(ball, 200.0, 0.0, World.QUERY_ALL, hit));
+        Assertions.assertEquals("wall", hit.entity.name);
+        Assertions.assertEquals(190.0, hit.x, 0.0001);
+        Assertions.assertEquals(60.0, hit.distance, 0.0001);
+        Assertions.assertTrue(level.sweep(ball, 0.0, 100.0, World.QUERY_ALL, hit));
+        Assertions.assertEquals("map", hit.entity.name);
+        Assertions.assertEquals(166.0, hit.y, 0.0001);
+        // nothing static on the left.
+        Assertions.assertFalse(level.sweep(ball, -100.0, 0.0, World.QUERY_STATIC, hit));
+    }
 }
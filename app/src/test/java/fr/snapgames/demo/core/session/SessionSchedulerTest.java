@@ -0,0 +1,133 @@
+package fr.snapgames.demo.core.session;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link SessionScheduler} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class SessionSchedulerTest {
+
+    /**
+     * Call {@link Thread}<code>.isVirtual()</code> through reflection, as it is a preview API in Java 19
+     * (see {@link SessionScheduler}).
+     */
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private void runManySessions(SessionScheduler scheduler, int count, boolean virtual) throws InterruptedException {
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger stopped = new AtomicInteger();
+        AtomicInteger onVirtualThread = new AtomicInteger();
+        CountDownLatch ticked = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            scheduler.start("session_" + i, 50, new Session() {
+                private boolean first = true;
+
+                @Override
+                public void start() {
+                    started.incrementAndGet();
+                    if (isVirtual(Thread.currentThread())) {
+                        onVirtualThread.incrementAndGet();
+                    }
+                }
+
+                @Override
+                public boolean tick(double elapsed) {
+                    if (first) {
+                        first = false;
+                        ticked.countDown();
+                    }
+                    return true;
+                }
+
+                @Override
+                public void stop() {
+                    stopped.incrementAndGet();
+                }
+            });
+        }
+        Assertions.assertTrue(ticked.await(30, TimeUnit.SECONDS), "Sessions have not all been ticked");
+        Assertions.assertEquals(count, started.get());
+        Assertions.assertEquals(virtual ? count : 0, onVirtualThread.get());
+        List<SessionScheduler.Handle> sessions = new ArrayList<>(scheduler.getSessions());
+        scheduler.close();
+        Assertions.assertEquals(count, stopped.get());
+        Assertions.assertTrue(scheduler.getSessions().isEmpty());
+        for (SessionScheduler.Handle h : sessions) {
+            Assertions.assertTrue(h.getTicks() >= 1, h.getName() + " ticks " + h.getTicks());
+            Assertions.assertTrue(h.getMaxLag() >= h.getMeanLag());
+        }
+    }
+
+    @Test
+    public void testSchedulerRunsManySessions() throws InterruptedException {
+        // without virtual threads (Java 19 without --enable-preview), the platform threads are used.
+        SessionScheduler scheduler = new SessionScheduler();
+        runManySessions(scheduler, 1000, scheduler.isVirtual());
+    }
+
+    @Test
+    public void testSchedulerRunsSessionsOnPlatformThreads() throws InterruptedException {
+        SessionScheduler scheduler = new SessionScheduler(false);
+        Assertions.assertFalse(scheduler.isVirtual());
+        runManySessions(scheduler, 20, false);
+    }
+
+    @Test
+    public void testSessionEndsWhenTickReturnsFalse() throws InterruptedException {
+        try (SessionScheduler scheduler = new SessionScheduler()) {
+            double[] elapsed = new double[3];
+            SessionScheduler.Handle handle = scheduler.start("short", 100, new Session() {
+                private int tick;
+
+                @Override
+                public boolean tick(double e) {
+                    elapsed[tick++] = e;
+                    return tick < 3;
+                }
+            });
+            Assertions.assertTrue(handle.join(2000));
+            Assertions.assertFalse(handle.isRunning());
+            Assertions.assertEquals(2, handle.getTicks());
+            Assertions.assertEquals(0.0, elapsed[0]);
+            Assertions.assertEquals(1, scheduler.purge());
+        }
+    }
+
+    @Test
+    public void testSessionEndsWhenItsThreadIsInterrupted() throws InterruptedException {
+        try (SessionScheduler scheduler = new SessionScheduler()) {
+            CountDownLatch ticked = new CountDownLatch(1);
+            Thread[] thread = new Thread[1];
+            SessionScheduler.Handle handle = scheduler.start("interrupted", 1, new Session() {
+                @Override
+                public boolean tick(double elapsed) {
+                    thread[0] = Thread.currentThread();
+                    ticked.countDown();
+                    return true;
+                }
+            });
+            Assertions.assertTrue(ticked.await(30, TimeUnit.SECONDS), "Session has not been ticked");
+            // the session waits about one second for its next tick: the interruption ends it.
+            thread[0].interrupt();
+            Assertions.assertTrue(handle.join(30000));
+            Assertions.assertFalse(handle.isRunning());
+            Assertions.assertEquals(1, handle.getTicks());
+        }
+    }
+}
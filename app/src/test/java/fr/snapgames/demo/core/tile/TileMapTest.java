@@ -0,0 +1,99 @@
+package fr.snapgames.demo.core.tile;
+
+import fr.snapgames.demo.TestUtils;
+import fr.snapgames.demo.core.gfx.plugins.TileMapDrawHelperPlugin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * The {@link TileMap} is the class under test.
+ *
+ * @author Frédéric Delorme
+ * @since 0.1.4
+ */
+public class TileMapTest {
+
+    /**
+     * A 2 tiles tile set: a red one (0) and a blue one (1).
+     */
+    private final BufferedImage tileSet = TestUtils.createTileSet(16, 16, Color.RED, Color.BLUE);
+
+    @Test
+    public void testTileMapGivesSolidCells() {
+        TileMap map = (TileMap) new TileMap("map", 10, 10, 16, 16, 4)
+                .setSolidTiles(1)
+                .fill(0, 9, 10, 1, 1)
+                .setTile(3, 3, 0)
+                .setPosition(100.0, 50.0);
+        Assertions.assertTrue(map.isSolid(5, 9));
+        Assertions.assertFalse(map.isSolid(3, 3));
+        Assertions.assertFalse(map.isSolid(-1, 9));
+        Assertions.assertFalse(map.isSolid(10, 9));
+        Assertions.assertEquals(0, map.getTile(3, 3));
+        Assertions.assertEquals(TileMap.EMPTY, map.getTile(4, 4));
+        // world positions are relative to the map position.
+        Assertions.assertTrue(map.isSolidAt(100.0 + 5 * 16 + 8, 50.0 + 9 * 16 + 1));
+        Assertions.assertFalse(map.isSolidAt(100.0 + 5 * 16 + 8, 50.0 + 9 * 16 - 1));
+        // the solid tiles can be changed afterward.
+        map.setSolidTiles(0);
+        Assertions.assertTrue(map.isSolid(3, 3));
+        Assertions.assertFalse(map.isSolid(5, 9));
+    }
+
+    @Test
+    public void testTileMapStreamsOnlyTheChunksAroundTheView() {
+        TileMap map = new TileMap("map", 1000, 10, 16, 16, 8)
+                .setTileSet(tileSet)
+                .setMargin(1)
+                .fill(0, 0, 1000, 1, 0);
+        map.stream(new Rectangle2D.Double(0.0, 0.0, 64.0, 64.0));
+        // 2 chunk columns (view + margin) x 2 chunk rows.
+        Assertions.assertEquals(4, map.getLoadedChunkCount());
+        Assertions.assertNotNull(map.getChunk(0, 0));
+        Assertions.assertNull(map.getChunk(0, 1), "An empty chunk must not have any image");
+        Assertions.assertNull(map.getChunk(5, 0), "A chunk out of the view must not be loaded");
+        Assertions.assertEquals(2, map.getChunkRenders());
+        BufferedImage first = map.getChunk(0, 0);
+
+        // far away: the previous chunks are unloaded, and their images reused.
+        map.stream(new Rectangle2D.Double(8000.0, 0.0, 50.0, 64.0));
+        Assertions.assertEquals(6, map.getLoadedChunkCount());
+        Assertions.assertNull(map.getChunk(0, 0));
+        int cx = map.getChunkColumn(8000.0);
+        Assertions.assertNotNull(map.getChunk(cx, 0));
+        boolean reused = false;
+        for (int i = cx - 1; i <= cx + 1; i++) {
+            reused |= map.getChunk(i, 0) == first;
+        }
+        Assertions.assertTrue(reused, "The unloaded chunk images must be reused");
+
+        // nothing to render again while the view stays in the same chunks.
+        int renders = map.getChunkRenders();
+        map.stream(new Rectangle2D.Double(8010.0, 0.0, 40.0, 64.0));
+        Assertions.assertEquals(renders, map.getChunkRenders());
+    }
+
+    @Test
+    public void testTileMapRendersChangedChunksAgain() {
+        TileMap map = new TileMap("map", 16, 16, 16, 16, 8)
+                .setTileSet(tileSet)
+                .fill(0, 0, 16, 16, 0);
+        BufferedImage target = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        TileMapDrawHelperPlugin plugin = new TileMapDrawHelperPlugin();
+        plugin.draw(null, g, map);
+        Assertions.assertEquals(4, map.getChunkRenders());
+        Assertions.assertEquals(Color.RED.getRGB(), target.getRGB(200, 200));
+
+        map.setTile(12, 12, 1);
+        plugin.draw(null, g, map);
+        g.dispose();
+        Assertions.assertEquals(5, map.getChunkRenders(), "Only the changed chunk must be rendered again");
+        Assertions.assertEquals(Color.BLUE.getRGB(), target.getRGB(12 * 16 + 8, 12 * 16 + 8));
+        Assertions.assertEquals(Color.RED.getRGB(), target.getRGB(200, 100));
+    }
+}